@@ -97,7 +97,7 @@ public class AppConfiguration implements WebMvcConfigurer {
     public void addInterceptors(InterceptorRegistry registry) {
         // i18n
         registry.addInterceptor(localeChangeInterceptor());
-        if (trafficConfiguration.isGlobalSwitch() || trafficConfiguration.isTenantSwitch()) {
+        if (trafficConfiguration.isRateLimitEnabled()) {
             registry.addInterceptor(createRateLimitInterceptor());
         }
         registry.addInterceptor(loginInterceptor())
@@ -17,6 +17,7 @@
 
 package org.apache.dolphinscheduler.api.configuration;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -35,4 +36,25 @@ public class TrafficConfiguration {
     private boolean tenantSwitch;
     private Integer defaultTenantQpsRate = 10;
     private Map<String, Integer> customizeTenantQpsRate = new HashMap<>();
+    /**
+     * The max number of the tenant rate limiters, the least recently used ones are evicted when it is exceeded.
+     */
+    private Integer maxTenantRateLimiterSize = 100;
+    /**
+     * The max request number per second of the endpoints, keyed by the ant style path pattern.
+     */
+    private Map<String, Integer> endpointQpsRate = new HashMap<>();
+    /**
+     * The permits one request of the endpoints costs, keyed by the ant style path pattern, other requests cost 1.
+     */
+    private Map<String, Integer> endpointCost = new HashMap<>();
+    /**
+     * Whether the api servers share the quotas through the DB, otherwise each api server enforces the whole quotas.
+     */
+    private boolean clusterShareSwitch = true;
+    private Duration clusterShareSyncInterval = Duration.ofSeconds(5);
+
+    public boolean isRateLimitEnabled() {
+        return globalSwitch || tenantSwitch || !endpointQpsRate.isEmpty();
+    }
 }
@@ -683,7 +683,8 @@ public class ProcessDefinitionController extends BaseController {
      */
     @Operation(summary = "batchExportByCodes", description = "BATCH_EXPORT_PROCESS_DEFINITION_BY_CODES_NOTES")
     @Parameters({
-            @Parameter(name = "codes", description = "PROCESS_DEFINITION_CODE", required = true, schema = @Schema(implementation = String.class))
+            @Parameter(name = "codes", description = "PROCESS_DEFINITION_CODE", required = true, schema = @Schema(implementation = String.class)),
+            @Parameter(name = "compress", description = "COMPRESS_EXPORT_FILE", required = false, schema = @Schema(implementation = boolean.class, example = "false"))
     })
     @PostMapping(value = "/batch-export")
     @ResponseBody
@@ -691,9 +692,11 @@ public class ProcessDefinitionController extends BaseController {
     public void batchExportProcessDefinitionByCodes(@Parameter(hidden = true) @RequestAttribute(value = Constants.SESSION_USER) User loginUser,
                                                     @Parameter(name = "projectCode", description = "PROJECT_CODE", required = true) @PathVariable long projectCode,
                                                     @RequestParam("codes") String codes,
+                                                    @RequestParam(value = "compress", required = false, defaultValue = "false") boolean compress,
                                                     HttpServletResponse response) {
         try {
-            processDefinitionService.batchExportProcessDefinitionByCodes(loginUser, projectCode, codes, response);
+            processDefinitionService.batchExportProcessDefinitionByCodes(loginUser, projectCode, codes, compress,
+                    response);
         } catch (Exception e) {
             log.error(Status.BATCH_EXPORT_PROCESS_DEFINE_BY_IDS_ERROR.getMsg(), e);
         }
@@ -18,78 +18,108 @@
 package org.apache.dolphinscheduler.api.interceptor;
 
 import org.apache.dolphinscheduler.api.configuration.TrafficConfiguration;
+import org.apache.dolphinscheduler.api.metrics.ApiServerMetrics;
+import org.apache.dolphinscheduler.common.constants.Constants;
 
 import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.lang3.StringUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
 import org.springframework.web.servlet.HandlerInterceptor;
 
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.hash.Hashing;
 import com.google.common.util.concurrent.RateLimiter;
 
 /**
- * This interceptor is used to control the traffic, consists with global traffic control and tenant-leve traffic control.
+ * This interceptor is used to control the traffic, consists with global traffic control, tenant-level and
+ * endpoint-level traffic control.
  * If the current coming tenant reaches his tenant-level request quota, his request will be reject fast.
+ * If the current coming endpoint reaches its endpoint-level request quota, the request will be reject fast.
  * If the current system request number reaches the global request quota, all coming request will be reject fast.
+ * <p>
+ * The heavy endpoints can cost more than one permit per request. When there are several api servers, the rate of each
+ * quota is shared by them, see {@link TrafficQuotaShareSynchronizer}. The tenant rate limiters are keyed by the token
+ * before it is authenticated, so only the ones of the authenticated tenants are shared.
  */
 @Slf4j
 public class RateLimitInterceptor implements HandlerInterceptor {
 
-    private TrafficConfiguration trafficConfiguration;
+    static final String GLOBAL_LIMITER_KEY = "global";
 
-    private RateLimiter globalRateLimiter;
+    static final String TENANT_LIMITER_KEY_PREFIX = "tenant:";
 
-    private LoadingCache<String, RateLimiter> tenantRateLimiterCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .expireAfterAccess(10, TimeUnit.MINUTES)
-            .build(new CacheLoader<String, RateLimiter>() {
+    static final String ENDPOINT_LIMITER_KEY_PREFIX = "endpoint:";
 
-                @Override
-                public RateLimiter load(String token) {
-                    // use tenant customize rate limit
-                    Map<String, Integer> customizeTenantQpsRate = trafficConfiguration.getCustomizeTenantQpsRate();
-                    int tenantQuota = trafficConfiguration.getDefaultTenantQpsRate();
-                    if (MapUtils.isNotEmpty(customizeTenantQpsRate)) {
-                        tenantQuota = customizeTenantQpsRate.getOrDefault(token,
-                                trafficConfiguration.getDefaultTenantQpsRate());
-                    }
-                    // use tenant default rate limit
-                    return RateLimiter.create(tenantQuota, 1, TimeUnit.SECONDS);
-                }
-            });
+    private final TrafficConfiguration trafficConfiguration;
+
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    private QuotaLimiter globalRateLimiter;
+
+    private final Map<String, QuotaLimiter> endpointRateLimiters = new LinkedHashMap<>();
+
+    /**
+     * The share of the quota the new rate limiters start with, before the share is synced.
+     */
+    private volatile double defaultShareRatio = 1;
+
+    private final LoadingCache<String, QuotaLimiter> tenantRateLimiterCache;
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
                              Object handler) throws ExecutionException {
+        String path = request.getServletPath();
+        int cost = getCost(path);
         // tenant-level rate limit
         if (trafficConfiguration.isTenantSwitch()) {
             String token = request.getHeader("token");
             if (!StringUtils.isEmpty(token)) {
-                RateLimiter tenantRateLimiter = tenantRateLimiterCache.get(token);
-                if (!tenantRateLimiter.tryAcquire()) {
+                QuotaLimiter tenantRateLimiter = tenantRateLimiterCache.get(token);
+                if (!tenantRateLimiter.tryAcquire(cost)) {
                     response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                    ApiServerMetrics.incTenantRateLimitRejected();
                     log.warn("Too many request, reach tenant rate limit, current tenant:{} qps is {}", token,
                             tenantRateLimiter.getRate());
                     return false;
                 }
             }
         }
+        // endpoint-level rate limit
+        QuotaLimiter endpointRateLimiter = getEndpointRateLimiter(path);
+        if (endpointRateLimiter != null && !endpointRateLimiter.tryAcquire(cost)) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            ApiServerMetrics.incEndpointRateLimitRejected();
+            log.warn("Too many request, reach endpoint rate limit, current endpoint:{} qps is {}", path,
+                    endpointRateLimiter.getRate());
+            return false;
+        }
         // global rate limit
         if (trafficConfiguration.isGlobalSwitch()) {
-            if (!globalRateLimiter.tryAcquire()) {
+            if (!globalRateLimiter.tryAcquire(cost)) {
                 response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                ApiServerMetrics.incGlobalRateLimitRejected();
                 log.warn("Too many request, reach global rate limit, current qps is {}",
                         globalRateLimiter.getRate());
                 return false;
@@ -98,12 +128,154 @@ public class RateLimitInterceptor implements HandlerInterceptor {
         return true;
     }
 
+    private int getCost(String path) {
+        if (path == null) {
+            return 1;
+        }
+        for (Map.Entry<String, Integer> endpointCost : trafficConfiguration.getEndpointCost().entrySet()) {
+            if (pathMatcher.match(endpointCost.getKey(), path)) {
+                return Math.max(endpointCost.getValue(), 1);
+            }
+        }
+        return 1;
+    }
+
+    private QuotaLimiter getEndpointRateLimiter(String path) {
+        if (path == null || endpointRateLimiters.isEmpty()) {
+            return null;
+        }
+        for (Map.Entry<String, QuotaLimiter> endpointRateLimiter : endpointRateLimiters.entrySet()) {
+            if (pathMatcher.match(endpointRateLimiter.getKey(), path)) {
+                return endpointRateLimiter.getValue();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (!trafficConfiguration.isTenantSwitch() || request.getAttribute(Constants.SESSION_USER) == null) {
+            return;
+        }
+        // the token is authenticated by the login interceptor
+        String token = request.getHeader("token");
+        if (!StringUtils.isEmpty(token)) {
+            QuotaLimiter tenantRateLimiter = tenantRateLimiterCache.getIfPresent(token);
+            if (tenantRateLimiter != null) {
+                tenantRateLimiter.setAuthenticated(true);
+            }
+        }
+    }
+
+    /**
+     * Get all the rate limiters whose quota is shared by the api servers.
+     */
+    List<QuotaLimiter> getQuotaLimiters() {
+        List<QuotaLimiter> quotaLimiters = tenantRateLimiterCache.asMap().values()
+                .stream()
+                .filter(QuotaLimiter::isAuthenticated)
+                .collect(Collectors.toCollection(ArrayList::new));
+        quotaLimiters.addAll(endpointRateLimiters.values());
+        if (globalRateLimiter != null) {
+            quotaLimiters.add(globalRateLimiter);
+        }
+        return quotaLimiters;
+    }
+
+    void setDefaultShareRatio(double defaultShareRatio) {
+        this.defaultShareRatio = defaultShareRatio;
+    }
+
     public RateLimitInterceptor(TrafficConfiguration trafficConfiguration) {
         this.trafficConfiguration = trafficConfiguration;
+        this.tenantRateLimiterCache = CacheBuilder.newBuilder()
+                .maximumSize(trafficConfiguration.getMaxTenantRateLimiterSize())
+                .expireAfterAccess(10, TimeUnit.MINUTES)
+                .build(new CacheLoader<String, QuotaLimiter>() {
+
+                    @Override
+                    public QuotaLimiter load(String token) {
+                        // use tenant customize rate limit
+                        Map<String, Integer> customizeTenantQpsRate =
+                                trafficConfiguration.getCustomizeTenantQpsRate();
+                        int tenantQuota = trafficConfiguration.getDefaultTenantQpsRate();
+                        if (MapUtils.isNotEmpty(customizeTenantQpsRate)) {
+                            tenantQuota = customizeTenantQpsRate.getOrDefault(token,
+                                    trafficConfiguration.getDefaultTenantQpsRate());
+                        }
+                        // the token is not shared with the other api servers in plain text
+                        String key = TENANT_LIMITER_KEY_PREFIX
+                                + Hashing.sha256().hashString(token, StandardCharsets.UTF_8);
+                        // use tenant default rate limit
+                        return new QuotaLimiter(key, tenantQuota, defaultShareRatio, false);
+                    }
+                });
         if (trafficConfiguration.isGlobalSwitch()) {
             this.globalRateLimiter =
-                    RateLimiter.create(trafficConfiguration.getMaxGlobalQpsRate(), 1, TimeUnit.SECONDS);
+                    new QuotaLimiter(GLOBAL_LIMITER_KEY, trafficConfiguration.getMaxGlobalQpsRate(), 1, true);
         }
+        trafficConfiguration.getEndpointQpsRate().forEach((pattern, quota) -> endpointRateLimiters.put(pattern,
+                new QuotaLimiter(ENDPOINT_LIMITER_KEY_PREFIX + pattern, quota, 1, true)));
     }
 
+    /**
+     * The token bucket of one quota, which records the permits requested from it.
+     */
+    static class QuotaLimiter {
+
+        /**
+         * The rate of a limiter should be positive, even if the quota is 0.
+         */
+        private static final double MIN_RATE = 0.01;
+
+        @Getter
+        private final String key;
+
+        private final int quota;
+
+        private final RateLimiter rateLimiter;
+
+        private final LongAdder demand = new LongAdder();
+
+        /**
+         * Whether the key is authenticated, only the authenticated keys are shared with the other api servers.
+         */
+        @Getter
+        @Setter
+        private volatile boolean authenticated;
+
+        QuotaLimiter(String key, int quota, double shareRatio, boolean authenticated) {
+            this.key = key;
+            this.authenticated = authenticated;
+            this.quota = quota;
+            this.rateLimiter = RateLimiter.create(Math.max(quota * shareRatio, MIN_RATE), 1, TimeUnit.SECONDS);
+        }
+
+        boolean tryAcquire(int permits) {
+            demand.add(permits);
+            return rateLimiter.tryAcquire(permits);
+        }
+
+        double getRate() {
+            return rateLimiter.getRate();
+        }
+
+        /**
+         * Get the permits requested since the last call, and reset it.
+         */
+        long drainDemand() {
+            return demand.sumThenReset();
+        }
+
+        /**
+         * Limit the rate to the given share of the quota.
+         */
+        void share(double shareRatio) {
+            double rate = Math.max(quota * shareRatio, MIN_RATE);
+            if (rate != rateLimiter.getRate()) {
+                rateLimiter.setRate(rate);
+            }
+        }
+    }
 }
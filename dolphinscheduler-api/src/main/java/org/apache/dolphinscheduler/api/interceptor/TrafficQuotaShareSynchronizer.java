@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.api.interceptor;
+
+import org.apache.dolphinscheduler.api.configuration.TrafficConfiguration;
+import org.apache.dolphinscheduler.api.interceptor.RateLimitInterceptor.QuotaLimiter;
+import org.apache.dolphinscheduler.common.thread.ThreadUtils;
+import org.apache.dolphinscheduler.common.utils.JSONUtils;
+import org.apache.dolphinscheduler.common.utils.NetUtils;
+import org.apache.dolphinscheduler.dao.entity.TrafficQuotaShare;
+import org.apache.dolphinscheduler.dao.mapper.TrafficQuotaShareMapper;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+/**
+ * Share the traffic quotas across the api servers through the DB.
+ * <p>
+ * Each api server publishes the permits requested from each of its rate limiters in the last sync interval. Half of
+ * each quota is shared evenly by the api servers, so a quiet api server can still serve a burst, and the other half in
+ * proportion to their demand, so the rates of all the api servers add up to the configured quota. The api servers
+ * which stop syncing are not counted after a few sync intervals.
+ */
+@Slf4j
+@Component
+public class TrafficQuotaShareSynchronizer {
+
+    /**
+     * The share of an api server is valid for this many sync intervals.
+     */
+    private static final int SHARE_EXPIRE_INTERVALS = 3;
+
+    /**
+     * The share of an api server is deleted after this many sync intervals.
+     */
+    private static final int SHARE_DELETE_INTERVALS = 10;
+
+    private static final int SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+    private final TrafficConfiguration trafficConfiguration;
+
+    private final RateLimitInterceptor rateLimitInterceptor;
+
+    private final TrafficQuotaShareMapper trafficQuotaShareMapper;
+
+    private final String host;
+
+    private ScheduledExecutorService syncExecutor;
+
+    public TrafficQuotaShareSynchronizer(TrafficConfiguration trafficConfiguration,
+                                         RateLimitInterceptor rateLimitInterceptor,
+                                         TrafficQuotaShareMapper trafficQuotaShareMapper,
+                                         @Value("${server.port:12345}") int port) {
+        this.trafficConfiguration = trafficConfiguration;
+        this.rateLimitInterceptor = rateLimitInterceptor;
+        this.trafficQuotaShareMapper = trafficQuotaShareMapper;
+        this.host = NetUtils.getAddr(port);
+    }
+
+    @PostConstruct
+    void init() {
+        if (!isEnabled()) {
+            return;
+        }
+        // the share left by the last run of this api server
+        trafficQuotaShareMapper.deleteByHost(host);
+        long syncInterval = trafficConfiguration.getClusterShareSyncInterval().toMillis();
+        syncExecutor = ThreadUtils.newSingleDaemonScheduledExecutorService("Traffic-Quota-Share-Thread");
+        syncExecutor.scheduleWithFixedDelay(this::sync, syncInterval, syncInterval, TimeUnit.MILLISECONDS);
+        log.info("Traffic quota share synchronizer started, host:{}, syncInterval:{}ms.", host, syncInterval);
+    }
+
+    @PreDestroy
+    void close() {
+        if (syncExecutor == null) {
+            return;
+        }
+        // stop syncing first, or a running sync may publish the share again after it is deleted
+        syncExecutor.shutdownNow();
+        try {
+            if (!syncExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Traffic quota share synchronizer is not stopped in {}s.", SHUTDOWN_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // give up the share at once, so the other api servers can use the whole quota
+        try {
+            trafficQuotaShareMapper.deleteByHost(host);
+        } catch (Exception e) {
+            log.warn("Delete traffic quota share error, host:{}.", host, e);
+        }
+    }
+
+    private boolean isEnabled() {
+        return trafficConfiguration.isClusterShareSwitch() && trafficConfiguration.isRateLimitEnabled();
+    }
+
+    void sync() {
+        try {
+            long syncInterval = trafficConfiguration.getClusterShareSyncInterval().toMillis();
+            Date now = new Date();
+            List<QuotaLimiter> quotaLimiters = rateLimitInterceptor.getQuotaLimiters();
+            Map<String, Long> demand = new HashMap<>();
+            for (QuotaLimiter quotaLimiter : quotaLimiters) {
+                long permits = quotaLimiter.drainDemand();
+                if (permits > 0) {
+                    demand.put(quotaLimiter.getKey(), permits);
+                }
+            }
+            String demandJson = JSONUtils.toJsonString(demand);
+            if (trafficQuotaShareMapper.updateDemandByHost(host, demandJson, now) == 0) {
+                trafficQuotaShareMapper.insert(TrafficQuotaShare.builder()
+                        .host(host)
+                        .demand(demandJson)
+                        .updateTime(now)
+                        .build());
+            }
+
+            List<TrafficQuotaShare> shares = trafficQuotaShareMapper
+                    .queryUpdatedAfter(new Date(now.getTime() - syncInterval * SHARE_EXPIRE_INTERVALS));
+            Map<String, Long> totalDemand = new HashMap<>();
+            for (TrafficQuotaShare share : shares) {
+                Map<String, Long> serverDemand =
+                        JSONUtils.parseObject(share.getDemand(), new TypeReference<Map<String, Long>>() {
+                        });
+                if (serverDemand != null) {
+                    serverDemand.forEach((key, permits) -> totalDemand.merge(key, permits, Long::sum));
+                }
+            }
+            // this api server is one of the shares
+            int serverCount = Math.max(shares.size(), 1);
+            for (QuotaLimiter quotaLimiter : quotaLimiters) {
+                long ownDemand = demand.getOrDefault(quotaLimiter.getKey(), 0L);
+                // the own share may not be read back yet, if it is just inserted
+                long demandSum = Math.max(totalDemand.getOrDefault(quotaLimiter.getKey(), 0L), ownDemand);
+                double evenShare = 1.0 / serverCount;
+                double demandShare = demandSum == 0 ? evenShare : (double) ownDemand / demandSum;
+                quotaLimiter.share(Math.min((evenShare + demandShare) / 2, 1.0));
+            }
+            rateLimitInterceptor.setDefaultShareRatio(1.0 / serverCount);
+
+            trafficQuotaShareMapper
+                    .deleteUpdatedBefore(new Date(now.getTime() - syncInterval * SHARE_DELETE_INTERVALS));
+        } catch (Exception e) {
+            log.error("Sync traffic quota share error, host:{}.", host, e);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.api.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import lombok.experimental.UtilityClass;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+@UtilityClass
+public class ApiServerMetrics {
+
+    private final Counter sessionCacheHitCounter =
+            Counter.builder("ds.api.auth.session.cache.count")
+                    .tag("result", "hit")
+                    .description("Session user cache hit count")
+                    .register(Metrics.globalRegistry);
+
+    private final Counter sessionCacheMissCounter =
+            Counter.builder("ds.api.auth.session.cache.count")
+                    .tag("result", "miss")
+                    .description("Session user cache miss count")
+                    .register(Metrics.globalRegistry);
+
+    private final Counter authorizedResourceCacheHitCounter =
+            Counter.builder("ds.api.permission.resource.cache.count")
+                    .tag("result", "hit")
+                    .description("Authorized resource cache hit count")
+                    .register(Metrics.globalRegistry);
+
+    private final Counter authorizedResourceCacheMissCounter =
+            Counter.builder("ds.api.permission.resource.cache.count")
+                    .tag("result", "miss")
+                    .description("Authorized resource cache miss count")
+                    .register(Metrics.globalRegistry);
+
+    private final Counter resourceIndexHitCounter =
+            Counter.builder("ds.api.resource.index.count")
+                    .tag("result", "hit")
+                    .description("Resource directory listing served by the resource index count")
+                    .register(Metrics.globalRegistry);
+
+    private final Counter resourceIndexMissCounter =
+            Counter.builder("ds.api.resource.index.count")
+                    .tag("result", "miss")
+                    .description("Resource directory listing from the storage count")
+                    .register(Metrics.globalRegistry);
+
+    private final Counter globalRateLimitRejectedCounter =
+            Counter.builder("ds.api.traffic.rejected.count")
+                    .tag("limiter", "global")
+                    .description("Request rejected by the global rate limit count")
+                    .register(Metrics.globalRegistry);
+
+    private final Counter tenantRateLimitRejectedCounter =
+            Counter.builder("ds.api.traffic.rejected.count")
+                    .tag("limiter", "tenant")
+                    .description("Request rejected by the tenant rate limit count")
+                    .register(Metrics.globalRegistry);
+
+    private final Counter endpointRateLimitRejectedCounter =
+            Counter.builder("ds.api.traffic.rejected.count")
+                    .tag("limiter", "endpoint")
+                    .description("Request rejected by the endpoint rate limit count")
+                    .register(Metrics.globalRegistry);
+
+    private final Timer authenticationTimer =
+            Timer.builder("ds.api.auth.duration")
+                    .description("Time cost of authenticating the login user of one request")
+                    .publishPercentiles(0.5, 0.75, 0.95, 0.99)
+                    .register(Metrics.globalRegistry);
+
+    public void incSessionCacheHit() {
+        sessionCacheHitCounter.increment();
+    }
+
+    public void incSessionCacheMiss() {
+        sessionCacheMissCounter.increment();
+    }
+
+    public void incAuthorizedResourceCacheHit() {
+        authorizedResourceCacheHitCounter.increment();
+    }
+
+    public void incAuthorizedResourceCacheMiss() {
+        authorizedResourceCacheMissCounter.increment();
+    }
+
+    public void incResourceIndexHit() {
+        resourceIndexHitCounter.increment();
+    }
+
+    public void incResourceIndexMiss() {
+        resourceIndexMissCounter.increment();
+    }
+
+    public void incGlobalRateLimitRejected() {
+        globalRateLimitRejectedCounter.increment();
+    }
+
+    public void incTenantRateLimitRejected() {
+        tenantRateLimitRejectedCounter.increment();
+    }
+
+    public void incEndpointRateLimitRejected() {
+        endpointRateLimitRejectedCounter.increment();
+    }
+
+    public void recordAuthenticationTime(long milliseconds) {
+        authenticationTimer.record(milliseconds, TimeUnit.MILLISECONDS);
+    }
+
+}
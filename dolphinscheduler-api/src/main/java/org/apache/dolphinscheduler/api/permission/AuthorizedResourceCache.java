@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.api.permission;
+
+import org.apache.dolphinscheduler.api.configuration.AuthorizationCacheConfiguration;
+import org.apache.dolphinscheduler.common.enums.AuthorizationType;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Cache the authorized resource ids of the user as bitsets, so the resource permission check is a bitset test
+ * rather than DB queries.
+ * <p>Only the granted ids are trusted: a missing id is reloaded from DB by the caller, so the resources created or
+ * granted later are visible immediately. The revoked permissions are invalidated on this api server by
+ * {@link #invalidateUserAfterCommit(Integer)}, and the changes made on other api servers will be visible after the ttl.
+ */
+@Slf4j
+@Component
+public class AuthorizedResourceCache {
+
+    private final boolean enabled;
+
+    private final Cache<Integer, Map<AuthorizationType, BitSet>> authorizedResourceCache;
+
+    public AuthorizedResourceCache(AuthorizationCacheConfiguration authorizationCacheConfiguration) {
+        this.enabled = authorizationCacheConfiguration.isEnabled();
+        this.authorizedResourceCache = CacheBuilder.newBuilder()
+                .maximumSize(authorizationCacheConfiguration.getMaxSize())
+                .expireAfterWrite(authorizationCacheConfiguration.getTtl())
+                .build();
+    }
+
+    /**
+     * Check the user is authorized to all the resource ids.
+     *
+     * @return empty if the authorized resource ids of the user are not cached or the resource ids are not int ids
+     */
+    public Optional<Boolean> containsAll(Integer userId, AuthorizationType authorizationType, Object[] resourceIds) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Map<AuthorizationType, BitSet> authorizedResources = authorizedResourceCache.getIfPresent(userId);
+        BitSet authorizedIds = authorizedResources == null ? null : authorizedResources.get(authorizationType);
+        if (authorizedIds == null) {
+            return Optional.empty();
+        }
+        for (Object resourceId : resourceIds) {
+            if (!isBitIndex(resourceId)) {
+                return Optional.empty();
+            }
+            if (!authorizedIds.get((Integer) resourceId)) {
+                return Optional.of(false);
+            }
+        }
+        return Optional.of(true);
+    }
+
+    /**
+     * Cache the authorized resource ids of the user, the ids are not cached if there exist an id can't be used as
+     * a bit index.
+     */
+    public void put(Integer userId, AuthorizationType authorizationType, Collection<?> authorizedResourceIds) {
+        if (!enabled || authorizedResourceIds == null) {
+            return;
+        }
+        BitSet authorizedIds = new BitSet();
+        for (Object authorizedResourceId : authorizedResourceIds) {
+            if (!isBitIndex(authorizedResourceId)) {
+                return;
+            }
+            authorizedIds.set((Integer) authorizedResourceId);
+        }
+        try {
+            authorizedResourceCache.get(userId, ConcurrentHashMap::new).put(authorizationType, authorizedIds);
+        } catch (ExecutionException e) {
+            log.warn("Cache authorized resources failed, userId: {}, authorizationType: {}", userId,
+                    authorizationType, e);
+        }
+    }
+
+    public void invalidateUser(Integer userId) {
+        authorizedResourceCache.invalidate(userId);
+        log.debug("Authorized resource cache is invalidated, userId: {}", userId);
+    }
+
+    /**
+     * Invalidate the user after the current transaction commits, or at once if there is no transaction, so the
+     * cache is not reloaded by the data before the commit.
+     */
+    public void invalidateUserAfterCommit(Integer userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidateUser(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            @Override
+            public void afterCommit() {
+                invalidateUser(userId);
+            }
+        });
+    }
+
+    private boolean isBitIndex(Object resourceId) {
+        return resourceId instanceof Integer && (Integer) resourceId >= 0;
+    }
+}
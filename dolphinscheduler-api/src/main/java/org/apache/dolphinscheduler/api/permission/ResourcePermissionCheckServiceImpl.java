@@ -35,6 +35,7 @@ package org.apache.dolphinscheduler.api.permission;
 
 import static java.util.stream.Collectors.toSet;
 
+import org.apache.dolphinscheduler.api.metrics.ApiServerMetrics;
 import org.apache.dolphinscheduler.common.enums.AuthorizationType;
 import org.apache.dolphinscheduler.common.enums.UserType;
 import org.apache.dolphinscheduler.dao.entity.AccessToken;
@@ -75,6 +76,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
@@ -95,6 +97,9 @@ public class ResourcePermissionCheckServiceImpl
     @Autowired
     private ProcessService processService;
 
+    @Autowired
+    private AuthorizedResourceCache authorizedResourceCache;
+
     public static final Map<AuthorizationType, ResourceAcquisitionAndPermissionCheck<?>> RESOURCE_LIST_MAP =
             new ConcurrentHashMap<>();
 
@@ -111,8 +116,17 @@ public class ResourcePermissionCheckServiceImpl
     public boolean resourcePermissionCheck(Object authorizationType, Object[] needChecks, Integer userId,
                                            Logger logger) {
         if (Objects.nonNull(needChecks) && needChecks.length > 0) {
+            Optional<Boolean> cachedCheckResult = authorizedResourceCache.containsAll(userId,
+                    (AuthorizationType) authorizationType, needChecks);
+            if (cachedCheckResult.isPresent() && cachedCheckResult.get()) {
+                ApiServerMetrics.incAuthorizedResourceCacheHit();
+                return true;
+            }
+            // the resources may be created or granted after cached, so reload them before deny
+            ApiServerMetrics.incAuthorizedResourceCacheMiss();
             Set<?> originResSet = new HashSet<>(Arrays.asList(needChecks));
             Set<?> ownResSets = RESOURCE_LIST_MAP.get(authorizationType).listAuthorizedResourceIds(userId, logger);
+            authorizedResourceCache.put(userId, (AuthorizationType) authorizationType, ownResSets);
             boolean checkResult = ownResSets != null && ownResSets.containsAll(originResSet);
             if (!checkResult) {
                 logger.warn("User does not have resource permission on associated resources, userId:{}", userId);
@@ -17,10 +17,14 @@
 
 package org.apache.dolphinscheduler.api.python;
 
+import static org.apache.dolphinscheduler.api.constants.ApiFuncIdentificationConstant.WORKFLOW_CREATE;
+
 import org.apache.dolphinscheduler.api.configuration.PythonGatewayConfiguration;
 import org.apache.dolphinscheduler.api.dto.EnvironmentDto;
+import org.apache.dolphinscheduler.api.dto.ScheduleParam;
 import org.apache.dolphinscheduler.api.dto.resources.ResourceComponent;
 import org.apache.dolphinscheduler.api.enums.Status;
+import org.apache.dolphinscheduler.api.exceptions.ServiceException;
 import org.apache.dolphinscheduler.api.service.EnvironmentService;
 import org.apache.dolphinscheduler.api.service.ExecutorService;
 import org.apache.dolphinscheduler.api.service.ProcessDefinitionService;
@@ -43,21 +47,27 @@ import org.apache.dolphinscheduler.common.enums.TaskDependType;
 import org.apache.dolphinscheduler.common.enums.UserType;
 import org.apache.dolphinscheduler.common.enums.WarningType;
 import org.apache.dolphinscheduler.common.utils.CodeGenerateUtils;
+import org.apache.dolphinscheduler.common.utils.JSONUtils;
 import org.apache.dolphinscheduler.dao.entity.DataSource;
 import org.apache.dolphinscheduler.dao.entity.ProcessDefinition;
+import org.apache.dolphinscheduler.dao.entity.ProcessTaskRelation;
+import org.apache.dolphinscheduler.dao.entity.ProcessTaskRelationLog;
 import org.apache.dolphinscheduler.dao.entity.Project;
 import org.apache.dolphinscheduler.dao.entity.ProjectUser;
 import org.apache.dolphinscheduler.dao.entity.Queue;
 import org.apache.dolphinscheduler.dao.entity.Schedule;
 import org.apache.dolphinscheduler.dao.entity.TaskDefinition;
+import org.apache.dolphinscheduler.dao.entity.TaskDefinitionLog;
 import org.apache.dolphinscheduler.dao.entity.Tenant;
 import org.apache.dolphinscheduler.dao.entity.User;
 import org.apache.dolphinscheduler.dao.mapper.DataSourceMapper;
 import org.apache.dolphinscheduler.dao.mapper.ProcessDefinitionMapper;
+import org.apache.dolphinscheduler.dao.mapper.ProcessTaskRelationMapper;
 import org.apache.dolphinscheduler.dao.mapper.ProjectMapper;
 import org.apache.dolphinscheduler.dao.mapper.ProjectUserMapper;
 import org.apache.dolphinscheduler.dao.mapper.ScheduleMapper;
 import org.apache.dolphinscheduler.dao.mapper.TaskDefinitionMapper;
+import org.apache.dolphinscheduler.dao.mapper.TenantMapper;
 import org.apache.dolphinscheduler.plugin.storage.api.StorageEntity;
 import org.apache.dolphinscheduler.spi.enums.ResourceType;
 
@@ -70,10 +80,17 @@ import org.apache.commons.lang3.StringUtils;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
@@ -82,6 +99,9 @@ import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.google.common.collect.Lists;
 
 @Component
 @Slf4j
@@ -98,6 +118,7 @@ public class PythonGateway {
     private static final ComplementDependentMode COMPLEMENT_DEPENDENT_MODE = ComplementDependentMode.OFF_MODE;
     // We use admin user's user_id to skip some permission issue from python gateway service
     private static final int ADMIN_USER_ID = 1;
+    private static final int WORKFLOW_BATCH_SIZE = 50;
 
     @Autowired
     private ProcessDefinitionMapper processDefinitionMapper;
@@ -147,6 +168,15 @@ public class PythonGateway {
     @Autowired
     private ProjectUserMapper projectUserMapper;
 
+    @Autowired
+    private ProcessTaskRelationMapper processTaskRelationMapper;
+
+    @Autowired
+    private TenantMapper tenantMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     // TODO replace this user to build in admin user if we make sure build in one could not be change
     private final User dummyAdminUser = new User() {
 
@@ -255,8 +285,102 @@ public class PythonGateway {
         Project project = projectMapper.queryByName(projectName);
         long projectCode = project.getCode();
 
-        ProcessDefinition processDefinition = getWorkflow(user, projectCode, name);
-        ProcessExecutionTypeEnum executionTypeEnum = ProcessExecutionTypeEnum.valueOf(executionType);
+        WorkflowSpec workflowSpec = new WorkflowSpec();
+        workflowSpec.setName(name);
+        workflowSpec.setDescription(description);
+        workflowSpec.setGlobalParams(globalParams);
+        workflowSpec.setSchedule(schedule);
+        workflowSpec.setOnlineSchedule(onlineSchedule);
+        workflowSpec.setWarningType(warningType);
+        workflowSpec.setWarningGroupId(warningGroupId);
+        workflowSpec.setTimeout(timeout);
+        workflowSpec.setWorkerGroup(workerGroup);
+        workflowSpec.setReleaseState(releaseState);
+        workflowSpec.setTaskRelationJson(taskRelationJson);
+        workflowSpec.setTaskDefinitionJson(taskDefinitionJson);
+        workflowSpec.setOtherParamsJson(otherParamsJson);
+        workflowSpec.setExecutionType(executionType);
+        return createOrUpdateWorkflow(user, projectCode, getWorkflow(user, projectCode, name), workflowSpec);
+    }
+
+    /**
+     * create or update workflows in batch.
+     * The shared user, project, tenant and the stored workflows are queried once, the workflows which are the same
+     * as the stored ones would be skipped, and the changed workflows are written in batched transactions, a failed
+     * batch would be rolled back without affecting the batches written before it.
+     *
+     * @param userName user name who create or update workflows
+     * @param projectName project name which workflows belong to
+     * @param workflowSpecsJson json array of {@link WorkflowSpec}
+     * @return the workflow code of each workflow name
+     */
+    public Map<String, Long> createOrUpdateWorkflows(String userName, String projectName, String workflowSpecsJson) {
+        User user = usersService.queryUser(userName);
+        if (user.getTenantCode() == null) {
+            throw new RuntimeException("Can not create or update workflow for user who not related to any tenant.");
+        }
+
+        Project project = projectMapper.queryByName(projectName);
+        if (project == null) {
+            throw new ServiceException(Status.PROJECT_NOT_FOUND, projectName);
+        }
+        long projectCode = project.getCode();
+        projectService.checkProjectAndAuthThrowException(user, project, WORKFLOW_CREATE);
+        int tenantId = getTenantId(user.getTenantCode());
+
+        List<WorkflowSpec> workflowSpecs = JSONUtils.toList(workflowSpecsJson, WorkflowSpec.class);
+        Map<String, ProcessDefinition> workflows = processDefinitionMapper.queryAllDefinitionList(projectCode)
+                .stream()
+                .collect(Collectors.toMap(ProcessDefinition::getName, Function.identity(), (a, b) -> a));
+        List<Long> workflowCodes = workflowSpecs.stream()
+                .map(workflowSpec -> workflows.get(workflowSpec.getName()))
+                .filter(Objects::nonNull)
+                .map(ProcessDefinition::getCode)
+                .collect(Collectors.toList());
+        Map<Long, TaskDefinition> taskDefinitions = new HashMap<>();
+        Map<Long, List<ProcessTaskRelation>> taskRelations = new HashMap<>();
+        Map<Long, Schedule> schedules = new HashMap<>();
+        if (!workflowCodes.isEmpty()) {
+            taskDefinitionMapper.queryAllDefinitionList(projectCode)
+                    .forEach(taskDefinition -> taskDefinitions.put(taskDefinition.getCode(), taskDefinition));
+            taskRelations.putAll(processTaskRelationMapper.queryByProcessCodes(projectCode, workflowCodes)
+                    .stream()
+                    .collect(Collectors.groupingBy(ProcessTaskRelation::getProcessDefinitionCode)));
+            scheduleMapper.querySchedulesByProcessDefinitionCodes(workflowCodes)
+                    .forEach(schedule -> schedules.put(schedule.getProcessDefinitionCode(), schedule));
+        }
+
+        Map<String, Long> result = new LinkedHashMap<>();
+        List<WorkflowSpec> changedWorkflowSpecs = new ArrayList<>();
+        for (WorkflowSpec workflowSpec : workflowSpecs) {
+            ProcessDefinition workflow = workflows.get(workflowSpec.getName());
+            if (workflow != null && !isWorkflowChanged(workflowSpec, workflow, tenantId, taskDefinitions,
+                    taskRelations.getOrDefault(workflow.getCode(), Collections.emptyList()),
+                    schedules.get(workflow.getCode()))) {
+                result.put(workflowSpec.getName(), workflow.getCode());
+                continue;
+            }
+            changedWorkflowSpecs.add(workflowSpec);
+        }
+        log.info("Create or update workflows in project {}, total:{}, changed:{}.", projectName,
+                workflowSpecs.size(), changedWorkflowSpecs.size());
+
+        for (List<WorkflowSpec> batch : Lists.partition(changedWorkflowSpecs, WORKFLOW_BATCH_SIZE)) {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (WorkflowSpec workflowSpec : batch) {
+                    long workflowCode = createOrUpdateWorkflow(user, projectCode,
+                            workflows.get(workflowSpec.getName()), workflowSpec);
+                    result.put(workflowSpec.getName(), workflowCode);
+                }
+            });
+        }
+        return result;
+    }
+
+    private long createOrUpdateWorkflow(User user, long projectCode, ProcessDefinition processDefinition,
+                                        WorkflowSpec workflowSpec) {
+        String name = workflowSpec.getName();
+        ProcessExecutionTypeEnum executionTypeEnum = ProcessExecutionTypeEnum.valueOf(workflowSpec.getExecutionType());
         long processDefinitionCode;
         // create or update workflow
         if (processDefinition != null) {
@@ -264,30 +388,119 @@ public class PythonGateway {
             // make sure workflow offline which could edit
             processDefinitionService.releaseProcessDefinition(user, projectCode, processDefinitionCode,
                     ReleaseState.OFFLINE);
-            processDefinitionService.updateProcessDefinition(user, projectCode, name,
-                    processDefinitionCode, description, globalParams,
-                    null, timeout, user.getTenantCode(), taskRelationJson, taskDefinitionJson, otherParamsJson,
-                    executionTypeEnum);
+            Map<String, Object> result = processDefinitionService.updateProcessDefinition(user, projectCode, name,
+                    processDefinitionCode, workflowSpec.getDescription(), workflowSpec.getGlobalParams(),
+                    null, workflowSpec.getTimeout(), user.getTenantCode(), workflowSpec.getTaskRelationJson(),
+                    workflowSpec.getTaskDefinitionJson(), workflowSpec.getOtherParamsJson(), executionTypeEnum);
+            checkResult(result, name);
         } else {
             Map<String, Object> result = processDefinitionService.createProcessDefinition(user, projectCode, name,
-                    description, globalParams,
-                    null, timeout, user.getTenantCode(), taskRelationJson, taskDefinitionJson, otherParamsJson,
-                    executionTypeEnum);
+                    workflowSpec.getDescription(), workflowSpec.getGlobalParams(),
+                    null, workflowSpec.getTimeout(), user.getTenantCode(), workflowSpec.getTaskRelationJson(),
+                    workflowSpec.getTaskDefinitionJson(), workflowSpec.getOtherParamsJson(), executionTypeEnum);
+            checkResult(result, name);
             processDefinition = (ProcessDefinition) result.get(Constants.DATA_LIST);
             processDefinitionCode = processDefinition.getCode();
         }
 
         // Fresh workflow schedule
-        if (schedule != null) {
-            createOrUpdateSchedule(user, projectCode, processDefinitionCode, schedule, onlineSchedule, workerGroup,
-                    warningType,
-                    warningGroupId);
+        if (workflowSpec.getSchedule() != null) {
+            createOrUpdateSchedule(user, projectCode, processDefinitionCode, workflowSpec.getSchedule(),
+                    workflowSpec.isOnlineSchedule(), workflowSpec.getWorkerGroup(), workflowSpec.getWarningType(),
+                    workflowSpec.getWarningGroupId());
         }
         processDefinitionService.releaseProcessDefinition(user, projectCode, processDefinitionCode,
-                ReleaseState.getEnum(releaseState));
+                ReleaseState.getEnum(workflowSpec.getReleaseState()));
         return processDefinitionCode;
     }
 
+    private void checkResult(Map<String, Object> result, String workflowName) {
+        Status status = (Status) result.get(Constants.STATUS);
+        if (status != Status.SUCCESS) {
+            log.error("Create or update workflow {} error, status:{}, msg:{}.", workflowName, status,
+                    result.get(Constants.MSG));
+            throw new ServiceException(String.valueOf(result.get(Constants.MSG)));
+        }
+    }
+
+    private int getTenantId(String tenantCode) {
+        if (Constants.DEFAULT.equals(tenantCode)) {
+            return -1;
+        }
+        Tenant tenant = tenantMapper.queryByTenantCode(tenantCode);
+        if (tenant == null) {
+            throw new ServiceException(Status.TENANT_NOT_EXIST);
+        }
+        return tenant.getId();
+    }
+
+    /**
+     * whether the workflow spec is different from the stored workflow, including its tasks, task relations,
+     * schedule and release state
+     */
+    private boolean isWorkflowChanged(WorkflowSpec workflowSpec,
+                                      ProcessDefinition workflow,
+                                      int tenantId,
+                                      Map<Long, TaskDefinition> taskDefinitions,
+                                      List<ProcessTaskRelation> taskRelations,
+                                      Schedule schedule) {
+        if (workflow.getReleaseState() != ReleaseState.getEnum(workflowSpec.getReleaseState())
+                || !Objects.equals(workflow.getDescription(), workflowSpec.getDescription())
+                || !Objects.equals(workflow.getGlobalParams(), workflowSpec.getGlobalParams())
+                || workflow.getTimeout() != workflowSpec.getTimeout()
+                || workflow.getTenantId() != tenantId
+                || workflow.getExecutionType() != ProcessExecutionTypeEnum.valueOf(workflowSpec.getExecutionType())) {
+            return true;
+        }
+
+        List<TaskDefinitionLog> taskDefinitionLogs =
+                JSONUtils.toList(workflowSpec.getTaskDefinitionJson(), TaskDefinitionLog.class);
+        for (TaskDefinitionLog taskDefinitionLog : taskDefinitionLogs) {
+            TaskDefinition taskDefinition = taskDefinitions.get(taskDefinitionLog.getCode());
+            if (taskDefinition == null || !taskDefinition.equals(taskDefinitionLog)) {
+                return true;
+            }
+        }
+        List<ProcessTaskRelationLog> taskRelationLogs =
+                JSONUtils.toList(workflowSpec.getTaskRelationJson(), ProcessTaskRelationLog.class);
+        Set<List<Object>> taskRelationKeys = taskRelationLogs.stream()
+                .map(this::taskRelationKey)
+                .collect(Collectors.toSet());
+        if (taskRelationLogs.size() != taskRelations.size() || !taskRelationKeys
+                .equals(taskRelations.stream().map(this::taskRelationKey).collect(Collectors.toSet()))) {
+            return true;
+        }
+
+        if (workflowSpec.getSchedule() == null) {
+            return false;
+        }
+        ScheduleParam scheduleParam = JSONUtils.parseObject(workflowSpec.getSchedule(), ScheduleParam.class);
+        ReleaseState scheduleReleaseState =
+                workflowSpec.isOnlineSchedule() ? ReleaseState.ONLINE : ReleaseState.OFFLINE;
+        return schedule == null
+                || scheduleParam == null
+                || !Objects.equals(schedule.getCrontab(), scheduleParam.getCrontab())
+                || !Objects.equals(schedule.getTimezoneId(), scheduleParam.getTimezoneId())
+                || !isSameTime(schedule.getStartTime(), scheduleParam.getStartTime())
+                || !isSameTime(schedule.getEndTime(), scheduleParam.getEndTime())
+                || schedule.getWarningType() != WarningType.valueOf(workflowSpec.getWarningType())
+                || schedule.getWarningGroupId() != workflowSpec.getWarningGroupId()
+                || !Objects.equals(schedule.getWorkerGroup(), workflowSpec.getWorkerGroup())
+                || schedule.getReleaseState() != scheduleReleaseState;
+    }
+
+    private List<Object> taskRelationKey(ProcessTaskRelation taskRelation) {
+        return Arrays.asList(taskRelation.getPreTaskCode(), taskRelation.getPostTaskCode(),
+                taskRelation.getConditionType(), taskRelation.getConditionParams());
+    }
+
+    private boolean isSameTime(Date time, Date otherTime) {
+        if (time == null || otherTime == null) {
+            return time == otherTime;
+        }
+        return time.getTime() == otherTime.getTime();
+    }
+
     /**
      * get workflow
      *
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.api.python;
+
+import org.apache.dolphinscheduler.common.enums.ProcessExecutionTypeEnum;
+import org.apache.dolphinscheduler.common.enums.ReleaseState;
+import org.apache.dolphinscheduler.common.enums.WarningType;
+
+import lombok.Data;
+
+/**
+ * The workflow spec of {@link PythonGateway#createOrUpdateWorkflows}, each field is the same as the parameter of
+ * {@link PythonGateway#createOrUpdateWorkflow}.
+ */
+@Data
+public class WorkflowSpec {
+
+    private String name;
+
+    private String description;
+
+    private String globalParams;
+
+    /**
+     * schedule for workflow, will not set schedule if null
+     */
+    private String schedule;
+
+    private boolean onlineSchedule;
+
+    private String warningType = WarningType.NONE.name();
+
+    private int warningGroupId;
+
+    private int timeout;
+
+    private String workerGroup;
+
+    private int releaseState = ReleaseState.ONLINE.getCode();
+
+    private String taskRelationJson;
+
+    private String taskDefinitionJson;
+
+    private String otherParamsJson;
+
+    private String executionType = ProcessExecutionTypeEnum.PARALLEL.name();
+}
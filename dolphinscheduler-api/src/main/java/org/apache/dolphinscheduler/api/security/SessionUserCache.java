@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.api.security;
+
+import org.apache.dolphinscheduler.api.configuration.SessionCacheConfiguration;
+import org.apache.dolphinscheduler.dao.entity.User;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Cache the login user of the session, so the authentication of a request doesn't need to query the session and the
+ * user from DB.
+ * <p>The cached user is invalidated when the session is signed out or the user is updated on this api server, the
+ * changes made on other api servers will be visible after the ttl.
+ */
+@Slf4j
+@Component
+public class SessionUserCache {
+
+    private final boolean enabled;
+
+    private final Cache<String, User> sessionUserCache;
+
+    public SessionUserCache(SessionCacheConfiguration sessionCacheConfiguration) {
+        this.enabled = sessionCacheConfiguration.isEnabled();
+        this.sessionUserCache = CacheBuilder.newBuilder()
+                .maximumSize(sessionCacheConfiguration.getMaxSize())
+                .expireAfterWrite(sessionCacheConfiguration.getTtl())
+                .build();
+    }
+
+    public Optional<User> get(String sessionId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(sessionUserCache.getIfPresent(sessionId));
+    }
+
+    public void put(String sessionId, User user) {
+        if (!enabled) {
+            return;
+        }
+        sessionUserCache.put(sessionId, user);
+    }
+
+    public void invalidateSession(String sessionId) {
+        sessionUserCache.invalidate(sessionId);
+        log.debug("Session user cache is invalidated, sessionId: {}", sessionId);
+    }
+
+    public void invalidateUser(Integer userId) {
+        sessionUserCache.asMap().values().removeIf(user -> Objects.equals(user.getId(), userId));
+        log.debug("Session user cache is invalidated, userId: {}", userId);
+    }
+}
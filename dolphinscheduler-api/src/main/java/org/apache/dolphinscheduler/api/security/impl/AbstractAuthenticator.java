@@ -18,8 +18,10 @@
 package org.apache.dolphinscheduler.api.security.impl;
 
 import org.apache.dolphinscheduler.api.enums.Status;
+import org.apache.dolphinscheduler.api.metrics.ApiServerMetrics;
 import org.apache.dolphinscheduler.api.security.Authenticator;
 import org.apache.dolphinscheduler.api.security.SecurityConfig;
+import org.apache.dolphinscheduler.api.security.SessionUserCache;
 import org.apache.dolphinscheduler.api.service.SessionService;
 import org.apache.dolphinscheduler.api.service.UsersService;
 import org.apache.dolphinscheduler.api.utils.Result;
@@ -28,8 +30,12 @@ import org.apache.dolphinscheduler.common.enums.Flag;
 import org.apache.dolphinscheduler.dao.entity.Session;
 import org.apache.dolphinscheduler.dao.entity.User;
 
+import org.apache.commons.lang3.time.StopWatch;
+
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import javax.servlet.http.HttpServletRequest;
 
@@ -49,6 +55,9 @@ public abstract class AbstractAuthenticator implements Authenticator {
     @Autowired
     private SecurityConfig securityConfig;
 
+    @Autowired
+    private SessionUserCache sessionUserCache;
+
     /**
      * user login and return user in db
      *
@@ -101,13 +110,34 @@ public abstract class AbstractAuthenticator implements Authenticator {
 
     @Override
     public User getAuthUser(HttpServletRequest request) {
-        Session session = sessionService.getSession(request);
-        if (session == null) {
-            log.info("session info is null ");
-            return null;
+        StopWatch authenticationCost = StopWatch.createStarted();
+        try {
+            String sessionId = sessionService.getSessionId(request);
+            if (sessionId == null) {
+                log.info("session info is null ");
+                return null;
+            }
+            Optional<User> cachedUser = sessionUserCache.get(sessionId);
+            if (cachedUser.isPresent()) {
+                ApiServerMetrics.incSessionCacheHit();
+                return cachedUser.get();
+            }
+            ApiServerMetrics.incSessionCacheMiss();
+
+            Session session = sessionService.getSession(request);
+            if (session == null) {
+                log.info("session info is null ");
+                return null;
+            }
+            // get user object from session
+            User user = userService.queryUser(session.getUserId());
+            if (user != null) {
+                sessionUserCache.put(sessionId, user);
+            }
+            return user;
+        } finally {
+            ApiServerMetrics.recordAuthenticationTime(authenticationCost.getTime(TimeUnit.MILLISECONDS));
         }
-        // get user object from session
-        return userService.queryUser(session.getUserId());
     }
 
 }
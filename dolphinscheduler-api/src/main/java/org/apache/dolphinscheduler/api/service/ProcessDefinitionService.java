@@ -275,11 +275,13 @@ public interface ProcessDefinitionService {
      * @param loginUser login user
      * @param projectCode project code
      * @param codes process definition codes
+     * @param compress whether to compress the exported file with gzip
      * @param response http servlet response
      */
     void batchExportProcessDefinitionByCodes(User loginUser,
                                              long projectCode,
                                              String codes,
+                                             boolean compress,
                                              HttpServletResponse response);
 
     /**
@@ -287,7 +289,7 @@ public interface ProcessDefinitionService {
      *
      * @param loginUser login user
      * @param projectCode project code
-     * @param file process metadata json file
+     * @param file process metadata json file, or the gzip compressed one
      * @return import process
      */
     Map<String, Object> importProcessDefinition(User loginUser,
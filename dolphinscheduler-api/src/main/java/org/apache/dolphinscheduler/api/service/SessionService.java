@@ -27,6 +27,14 @@ import javax.servlet.http.HttpServletRequest;
  */
 public interface SessionService {
 
+    /**
+     * get session id from request header or cookie
+     *
+     * @param request request
+     * @return session id, null if the request doesn't carry a session
+     */
+    String getSessionId(HttpServletRequest request);
+
     /**
      * get user session from request
      *
@@ -46,6 +46,7 @@ import org.apache.dolphinscheduler.dao.mapper.ProcessTaskRelationMapper;
 import org.apache.dolphinscheduler.dao.mapper.ProjectMapper;
 import org.apache.dolphinscheduler.dao.mapper.TaskDefinitionMapper;
 import org.apache.dolphinscheduler.dao.mapper.TaskInstanceMapper;
+import org.apache.dolphinscheduler.dao.repository.InstanceStateRollupDao;
 import org.apache.dolphinscheduler.plugin.task.api.enums.TaskExecutionStatus;
 
 import org.apache.commons.lang3.StringUtils;
@@ -101,6 +102,10 @@ public class DataAnalysisServiceImpl extends BaseServiceImpl implements DataAnal
 
     @Autowired
     private ProcessTaskRelationMapper relationMapper;
+
+    @Autowired
+    private InstanceStateRollupDao instanceStateRollupDao;
+
     /**
      * statistical task instance status data
      *
@@ -139,8 +144,10 @@ public class DataAnalysisServiceImpl extends BaseServiceImpl implements DataAnal
                 projectCode,
                 startDate,
                 endDate,
-                (start, end, projectCodes) -> this.processInstanceMapper.countInstanceStateByProjectCodes(start, end,
-                        projectCodes));
+                (start, end, projectCodes) -> instanceStateRollupDao
+                        .countWorkflowInstanceState(start, end, projectCodes)
+                        .orElseGet(() -> processInstanceMapper.countInstanceStateByProjectCodes(start, end,
+                                projectCodes)));
 
         // process state count needs to remove state of forced success
         if (result.containsKey(Constants.STATUS) && result.get(Constants.STATUS).equals(Status.SUCCESS)) {
@@ -331,8 +338,11 @@ public class DataAnalysisServiceImpl extends BaseServiceImpl implements DataAnal
     @Override
     public List<ExecuteStatusCount> countTaskInstanceAllStatesByProjectCodes(Date startTime, Date endTime,
                                                                              Long[] projectCodes) {
-        Optional<List<ExecuteStatusCount>> startTimeStates = Optional.ofNullable(
-                this.taskInstanceMapper.countTaskInstanceStateByProjectCodes(startTime, endTime, projectCodes));
+        // the hours rolled up by master are not counted from the task instance table
+        Optional<List<ExecuteStatusCount>> startTimeStates = Optional.ofNullable(instanceStateRollupDao
+                .countTaskInstanceState(startTime, endTime, projectCodes)
+                .orElseGet(() -> taskInstanceMapper.countTaskInstanceStateByProjectCodes(startTime, endTime,
+                        projectCodes)));
 
         List<TaskExecutionStatus> allState = Arrays.stream(TaskExecutionStatus.values()).collect(Collectors.toList());
         List<TaskExecutionStatus> needRecountState;
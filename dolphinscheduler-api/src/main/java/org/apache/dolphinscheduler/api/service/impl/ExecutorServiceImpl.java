@@ -101,10 +101,12 @@ import org.apache.commons.lang3.StringUtils;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -125,6 +127,11 @@ import com.google.common.collect.Lists;
 @Slf4j
 public class ExecutorServiceImpl extends BaseServiceImpl implements ExecutorService {
 
+    /**
+     * the max commands written in one JDBC batch when creating complement commands
+     */
+    private static final int COMMAND_BATCH_SIZE = 1000;
+
     @Autowired
     private ProjectMapper projectMapper;
 
@@ -827,6 +834,8 @@ public class ExecutorServiceImpl extends BaseServiceImpl implements ExecutorServ
     /**
      * create complement command
      * close left and close right
+     * <p>
+     * All the complement commands and the complement dependent commands are planned first, then written in batches
      *
      * @param scheduleTimeParam
      * @param runMode
@@ -836,11 +845,9 @@ public class ExecutorServiceImpl extends BaseServiceImpl implements ExecutorServ
                                               Command command,
                                               Integer expectedParallelismNumber,
                                               ComplementDependentMode complementDependentMode) throws CronParseException {
-        int createCount = 0;
         String startDate = null;
         String endDate = null;
         String dateList = null;
-        int dependentProcessDefinitionCreateCount = 0;
         runMode = (runMode == null) ? RunMode.RUN_MODE_SERIAL : runMode;
         Map<String, String> cmdParam = JSONUtils.toMap(command.getCommandParam());
         Map<String, String> scheduleParam = JSONUtils.toMap(scheduleTimeParam);
@@ -853,53 +860,28 @@ public class ExecutorServiceImpl extends BaseServiceImpl implements ExecutorServ
             startDate = scheduleParam.get(CMD_PARAM_COMPLEMENT_DATA_START_DATE);
             endDate = scheduleParam.get(CMD_PARAM_COMPLEMENT_DATA_END_DATE);
         }
+        List<Command> complementCommands = new ArrayList<>();
+        List<Command> dependentCommands = new ArrayList<>();
         switch (runMode) {
             case RUN_MODE_SERIAL: {
                 log.info("RunMode of {} command is serial run, processDefinitionCode:{}.",
                         command.getCommandType().getDescp(), command.getProcessDefinitionCode());
                 if (StringUtils.isNotEmpty(dateList)) {
                     cmdParam.put(CMD_PARAM_COMPLEMENT_DATA_SCHEDULE_DATE_LIST, dateList);
-                    command.setCommandParam(JSONUtils.toJsonString(cmdParam));
-                    log.info("Creating command, commandInfo:{}.", command);
-                    createCount = commandService.createCommand(command);
-                    if (createCount > 0) {
-                        log.info("Create {} command complete, processDefinitionCode:{}",
-                                command.getCommandType().getDescp(), command.getProcessDefinitionCode());
-                    } else {
-                        log.error("Create {} command error, processDefinitionCode:{}",
-                                command.getCommandType().getDescp(), command.getProcessDefinitionCode());
-                    }
+                    complementCommands.add(copyCommand(command, cmdParam));
                 }
                 if (startDate != null && endDate != null) {
                     cmdParam.put(CMD_PARAM_COMPLEMENT_DATA_START_DATE, startDate);
                     cmdParam.put(CMD_PARAM_COMPLEMENT_DATA_END_DATE, endDate);
-                    command.setCommandParam(JSONUtils.toJsonString(cmdParam));
-                    log.info("Creating command, commandInfo:{}.", command);
-                    createCount = commandService.createCommand(command);
-                    if (createCount > 0) {
-                        log.info("Create {} command complete, processDefinitionCode:{}",
-                                command.getCommandType().getDescp(), command.getProcessDefinitionCode());
-                    } else {
-                        log.error("Create {} command error, processDefinitionCode:{}",
-                                command.getCommandType().getDescp(), command.getProcessDefinitionCode());
-                    }
+                    Command complementCommand = copyCommand(command, cmdParam);
+                    complementCommands.add(complementCommand);
                     // dependent process definition
                     List<Schedule> schedules = processService.queryReleaseSchedulerListByProcessDefinitionCode(
                             command.getProcessDefinitionCode());
-
-                    if (schedules.isEmpty() || complementDependentMode == ComplementDependentMode.OFF_MODE) {
-                        log.info(
-                                "Complement dependent mode is off mode or Scheduler is empty, so skip create complement dependent command, processDefinitionCode:{}.",
-                                command.getProcessDefinitionCode());
-                    } else {
-                        log.info(
-                                "Complement dependent mode is all dependent and Scheduler is not empty, need create complement dependent command, processDefinitionCode:{}.",
-                                command.getProcessDefinitionCode());
-                        dependentProcessDefinitionCreateCount += createComplementDependentCommand(schedules, command);
-                    }
-                }
-                if (createCount > 0) {
-                    triggerRelationService.saveTriggerToDb(ApiTriggerType.COMMAND, triggerCode, command.getId());
+                    List<DependentProcessDefinition> dependentProcessDefinitionList =
+                            getComplementDependentDefinitionList(schedules, command, complementDependentMode);
+                    dependentCommands.addAll(
+                            planComplementDependentCommandList(dependentProcessDefinitionList, complementCommand));
                 }
                 break;
             }
@@ -914,13 +896,16 @@ public class ExecutorServiceImpl extends BaseServiceImpl implements ExecutorServ
                             DateUtils.stringToZoneDateTime(endDate),
                             schedules);
                     int listDateSize = listDate.size();
-                    createCount = listDate.size();
+                    int createCount = listDate.size();
                     if (!CollectionUtils.isEmpty(listDate)) {
                         if (expectedParallelismNumber != null && expectedParallelismNumber != 0) {
                             createCount = Math.min(createCount, expectedParallelismNumber);
                         }
                         log.info("Complement command run in parallel mode, current expectedParallelismNumber:{}.",
                                 createCount);
+                        // the dependent process definitions are the same for all the complement commands
+                        List<DependentProcessDefinition> dependentProcessDefinitionList =
+                                getComplementDependentDefinitionList(schedules, command, complementDependentMode);
 
                         // Distribute the number of tasks equally to each command.
                         // The last command with insufficient quantity will be assigned to the remaining tasks.
@@ -944,34 +929,17 @@ public class ExecutorServiceImpl extends BaseServiceImpl implements ExecutorServ
                                     DateUtils.dateToString(listDate.get(startDateIndex)));
                             cmdParam.put(CMD_PARAM_COMPLEMENT_DATA_END_DATE,
                                     DateUtils.dateToString(listDate.get(endDateIndex)));
-                            command.setCommandParam(JSONUtils.toJsonString(cmdParam));
-                            log.info("Creating command, commandInfo:{}.", command);
-                            if (commandService.createCommand(command) > 0) {
-                                log.info("Create {} command complete, processDefinitionCode:{}",
-                                        command.getCommandType().getDescp(), command.getProcessDefinitionCode());
-                                triggerRelationService.saveTriggerToDb(ApiTriggerType.COMMAND, triggerCode,
-                                        command.getId());
-                            } else {
-                                log.error("Create {} command error, processDefinitionCode:{}",
-                                        command.getCommandType().getDescp(), command.getProcessDefinitionCode());
-                            }
-                            if (schedules.isEmpty() || complementDependentMode == ComplementDependentMode.OFF_MODE) {
-                                log.info(
-                                        "Complement dependent mode is off mode or Scheduler is empty, so skip create complement dependent command, processDefinitionCode:{}.",
-                                        command.getProcessDefinitionCode());
-                            } else {
-                                log.info(
-                                        "Complement dependent mode is all dependent and Scheduler is not empty, need create complement dependent command, processDefinitionCode:{}.",
-                                        command.getProcessDefinitionCode());
-                                dependentProcessDefinitionCreateCount +=
-                                        createComplementDependentCommand(schedules, command);
-                            }
+                            Command complementCommand = copyCommand(command, cmdParam);
+                            complementCommands.add(complementCommand);
+                            dependentCommands.addAll(
+                                    planComplementDependentCommandList(dependentProcessDefinitionList,
+                                            complementCommand));
                         }
                     }
                 }
                 if (StringUtils.isNotEmpty(dateList)) {
                     List<String> listDate = Arrays.asList(dateList.split(COMMA));
-                    createCount = listDate.size();
+                    int createCount = listDate.size();
                     if (!CollectionUtils.isEmpty(listDate)) {
                         if (expectedParallelismNumber != null && expectedParallelismNumber != 0) {
                             createCount = Math.min(createCount, expectedParallelismNumber);
@@ -980,15 +948,7 @@ public class ExecutorServiceImpl extends BaseServiceImpl implements ExecutorServ
                                 createCount);
                         for (List<String> stringDate : Lists.partition(listDate, createCount)) {
                             cmdParam.put(CMD_PARAM_COMPLEMENT_DATA_SCHEDULE_DATE_LIST, String.join(COMMA, stringDate));
-                            command.setCommandParam(JSONUtils.toJsonString(cmdParam));
-                            log.info("Creating command, commandInfo:{}.", command);
-                            if (commandService.createCommand(command) > 0) {
-                                log.info("Create {} command complete, processDefinitionCode:{}",
-                                        command.getCommandType().getDescp(), command.getProcessDefinitionCode());
-                            } else {
-                                log.error("Create {} command error, processDefinitionCode:{}",
-                                        command.getCommandType().getDescp(), command.getProcessDefinitionCode());
-                            }
+                            complementCommands.add(copyCommand(command, cmdParam));
                         }
                     }
                 }
@@ -997,6 +957,18 @@ public class ExecutorServiceImpl extends BaseServiceImpl implements ExecutorServ
             default:
                 break;
         }
+        int createCount = batchCreateCommandList(complementCommands);
+        if (createCount > 0) {
+            log.info("Create {} command complete, processDefinitionCode:{}", command.getCommandType().getDescp(),
+                    command.getProcessDefinitionCode());
+            List<Integer> commandIds = complementCommands.stream().map(Command::getId).filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+            triggerRelationService.batchSaveTriggerToDb(ApiTriggerType.COMMAND, triggerCode, commandIds);
+        } else if (!complementCommands.isEmpty()) {
+            log.error("Create {} command error, processDefinitionCode:{}", command.getCommandType().getDescp(),
+                    command.getProcessDefinitionCode());
+        }
+        int dependentProcessDefinitionCreateCount = batchCreateCommandList(dependentCommands);
         log.info("Create complement command count:{}, Create dependent complement command count:{}", createCount,
                 dependentProcessDefinitionCreateCount);
         return createCount;
@@ -1006,35 +978,77 @@ public class ExecutorServiceImpl extends BaseServiceImpl implements ExecutorServ
      * create complement dependent command
      */
     public int createComplementDependentCommand(List<Schedule> schedules, Command command) {
-        int dependentProcessDefinitionCreateCount = 0;
-        Command dependentCommand;
+        List<DependentProcessDefinition> dependentProcessDefinitionList =
+                getComplementDependentDefinitionList(command.getProcessDefinitionCode(),
+                        CronUtils.getMaxCycle(schedules.get(0).getCrontab()), command.getWorkerGroup());
+        return batchCreateCommandList(planComplementDependentCommandList(dependentProcessDefinitionList, command));
+    }
 
-        try {
-            dependentCommand = (Command) BeanUtils.cloneBean(command);
-        } catch (Exception e) {
-            log.error("Copy dependent command error.", e);
-            return dependentProcessDefinitionCreateCount;
+    /**
+     * get the dependent process definitions which need complement with the given command
+     */
+    private List<DependentProcessDefinition> getComplementDependentDefinitionList(List<Schedule> schedules,
+                                                                                  Command command,
+                                                                                  ComplementDependentMode complementDependentMode) {
+        if (schedules.isEmpty() || complementDependentMode == ComplementDependentMode.OFF_MODE) {
+            log.info(
+                    "Complement dependent mode is off mode or Scheduler is empty, so skip create complement dependent command, processDefinitionCode:{}.",
+                    command.getProcessDefinitionCode());
+            return Collections.emptyList();
         }
+        log.info(
+                "Complement dependent mode is all dependent and Scheduler is not empty, need create complement dependent command, processDefinitionCode:{}.",
+                command.getProcessDefinitionCode());
+        return getComplementDependentDefinitionList(command.getProcessDefinitionCode(),
+                CronUtils.getMaxCycle(schedules.get(0).getCrontab()), command.getWorkerGroup());
+    }
 
-        List<DependentProcessDefinition> dependentProcessDefinitionList =
-                getComplementDependentDefinitionList(dependentCommand.getProcessDefinitionCode(),
-                        CronUtils.getMaxCycle(schedules.get(0).getCrontab()), dependentCommand.getWorkerGroup());
-        dependentCommand.setTaskDependType(TaskDependType.TASK_POST);
+    /**
+     * plan the complement dependent commands of the given complement command
+     */
+    private List<Command> planComplementDependentCommandList(List<DependentProcessDefinition> dependentProcessDefinitionList,
+                                                             Command command) {
+        List<Command> dependentCommands = new ArrayList<>(dependentProcessDefinitionList.size());
         for (DependentProcessDefinition dependentProcessDefinition : dependentProcessDefinitionList) {
-            // If the id is Integer, the auto-increment id will be obtained by mybatis-plus
-            // and causing duplicate when clone it.
-            dependentCommand.setId(null);
+            Map<String, String> cmdParam = JSONUtils.toMap(command.getCommandParam());
+            cmdParam.put(CMD_PARAM_START_NODES, String.valueOf(dependentProcessDefinition.getTaskDefinitionCode()));
+            Command dependentCommand = copyCommand(command, cmdParam);
+            dependentCommand.setTaskDependType(TaskDependType.TASK_POST);
             dependentCommand.setProcessDefinitionCode(dependentProcessDefinition.getProcessDefinitionCode());
             dependentCommand.setProcessDefinitionVersion(dependentProcessDefinition.getProcessDefinitionVersion());
             dependentCommand.setWorkerGroup(dependentProcessDefinition.getWorkerGroup());
-            Map<String, String> cmdParam = JSONUtils.toMap(dependentCommand.getCommandParam());
-            cmdParam.put(CMD_PARAM_START_NODES, String.valueOf(dependentProcessDefinition.getTaskDefinitionCode()));
-            dependentCommand.setCommandParam(JSONUtils.toJsonString(cmdParam));
-            log.info("Creating complement dependent command, commandInfo:{}.", command);
-            dependentProcessDefinitionCreateCount += commandService.createCommand(dependentCommand);
+            dependentCommands.add(dependentCommand);
         }
+        return dependentCommands;
+    }
 
-        return dependentProcessDefinitionCreateCount;
+    /**
+     * copy the command with the given command param
+     */
+    private Command copyCommand(Command command, Map<String, String> cmdParam) {
+        Command copy;
+        try {
+            copy = (Command) BeanUtils.cloneBean(command);
+        } catch (Exception e) {
+            log.error("Copy command error, processDefinitionCode:{}.", command.getProcessDefinitionCode(), e);
+            throw new ServiceException(Status.START_PROCESS_INSTANCE_ERROR);
+        }
+        // If the id is Integer, the auto-increment id will be obtained by mybatis-plus
+        // and causing duplicate when clone it.
+        copy.setId(null);
+        copy.setCommandParam(JSONUtils.toJsonString(cmdParam));
+        return copy;
+    }
+
+    /**
+     * create the commands in batches, each batch is written in one JDBC batch
+     */
+    private int batchCreateCommandList(List<Command> commands) {
+        int createCount = 0;
+        for (List<Command> batch : Lists.partition(commands, COMMAND_BATCH_SIZE)) {
+            createCount += commandService.batchCreateCommand(batch);
+        }
+        return createCount;
     }
 
     /**
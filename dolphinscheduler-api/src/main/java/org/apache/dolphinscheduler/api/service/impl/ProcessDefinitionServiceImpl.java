@@ -63,7 +63,6 @@ import org.apache.dolphinscheduler.api.service.TaskDefinitionLogService;
 import org.apache.dolphinscheduler.api.service.TaskDefinitionService;
 import org.apache.dolphinscheduler.api.service.WorkFlowLineageService;
 import org.apache.dolphinscheduler.api.utils.CheckUtils;
-import org.apache.dolphinscheduler.api.utils.FileUtils;
 import org.apache.dolphinscheduler.api.utils.PageInfo;
 import org.apache.dolphinscheduler.api.utils.Result;
 import org.apache.dolphinscheduler.common.constants.Constants;
@@ -128,10 +127,13 @@ import org.apache.dolphinscheduler.service.process.ProcessService;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -150,10 +152,11 @@ import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
-import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletResponse;
 
 import lombok.NonNull;
@@ -168,7 +171,10 @@ import org.springframework.web.multipart.MultipartFile;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.collect.Lists;
@@ -182,6 +188,20 @@ public class ProcessDefinitionServiceImpl extends BaseServiceImpl implements Pro
 
     private static final String RELEASESTATE = "releaseState";
 
+    /**
+     * the max process instance ids in one task instance query of the tree view
+     */
+    private static final int TREE_VIEW_QUERY_CHUNK_SIZE = 1000;
+
+    private static final String GZIP_CONTENT_TYPE = "application/gzip";
+
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * log the import and export progress every this many process definitions
+     */
+    private static final int IMPORT_EXPORT_PROGRESS_INTERVAL = 100;
+
     @Autowired
     private ProjectMapper projectMapper;
 
@@ -1211,7 +1231,7 @@ public class ProcessDefinitionServiceImpl extends BaseServiceImpl implements Pro
      * batch export process definition by codes
      */
     @Override
-    public void batchExportProcessDefinitionByCodes(User loginUser, long projectCode, String codes,
+    public void batchExportProcessDefinitionByCodes(User loginUser, long projectCode, String codes, boolean compress,
                                                     HttpServletResponse response) {
         if (StringUtils.isEmpty(codes)) {
             log.warn("Process definition codes to be exported is empty.");
@@ -1234,46 +1254,39 @@ public class ProcessDefinitionServiceImpl extends BaseServiceImpl implements Pro
         // check processDefinition exist in project
         List<ProcessDefinition> processDefinitionListInProject = processDefinitionList.stream()
                 .filter(o -> projectCode == o.getProjectCode()).collect(Collectors.toList());
-        List<DagDataSchedule> dagDataSchedules =
-                processDefinitionListInProject.stream().map(this::exportProcessDagData).collect(Collectors.toList());
-        if (CollectionUtils.isNotEmpty(dagDataSchedules)) {
+        if (CollectionUtils.isNotEmpty(processDefinitionListInProject)) {
             log.info("Start download process definition file, processDefinitionCodes:{}.", defineCodeSet);
-            downloadProcessDefinitionFile(response, dagDataSchedules);
+            downloadProcessDefinitionFile(response, processDefinitionListInProject, compress);
         } else {
             log.error("There is no exported process dag data.");
         }
     }
 
     /**
-     * download the process definition file
+     * download the process definition file, the dag data is generated and written one process definition at a time,
+     * so the memory used does not grow with the number of exported process definitions
      */
-    protected void downloadProcessDefinitionFile(HttpServletResponse response, List<DagDataSchedule> dagDataSchedules) {
-        response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
-        BufferedOutputStream buff = null;
-        ServletOutputStream out = null;
-        try {
-            out = response.getOutputStream();
-            buff = new BufferedOutputStream(out);
-            buff.write(JSONUtils.toJsonString(dagDataSchedules).getBytes(StandardCharsets.UTF_8));
-            buff.flush();
-            buff.close();
-        } catch (IOException e) {
-            log.warn("Export process definition fail", e);
-        } finally {
-            if (null != buff) {
-                try {
-                    buff.close();
-                } catch (Exception e) {
-                    log.warn("Buffer does not close", e);
-                }
-            }
-            if (null != out) {
-                try {
-                    out.close();
-                } catch (Exception e) {
-                    log.warn("Output stream does not close", e);
+    protected void downloadProcessDefinitionFile(HttpServletResponse response,
+                                                 List<ProcessDefinition> processDefinitions,
+                                                 boolean compress) {
+        response.setContentType(compress ? GZIP_CONTENT_TYPE : MediaType.APPLICATION_JSON_UTF8_VALUE);
+        try (
+                OutputStream out = compress
+                        ? new GZIPOutputStream(response.getOutputStream(), STREAM_BUFFER_SIZE)
+                        : new BufferedOutputStream(response.getOutputStream(), STREAM_BUFFER_SIZE);
+                JsonGenerator generator = JSONUtils.createGenerator(out)) {
+            generator.writeStartArray();
+            int exported = 0;
+            for (ProcessDefinition processDefinition : processDefinitions) {
+                generator.writeObject(exportProcessDagData(processDefinition));
+                if (++exported % IMPORT_EXPORT_PROGRESS_INTERVAL == 0) {
+                    log.info("Export process definition progress: {}/{}.", exported, processDefinitions.size());
                 }
             }
+            generator.writeEndArray();
+            log.info("Export process definition complete, size:{}.", exported);
+        } catch (IOException e) {
+            log.warn("Export process definition fail", e);
         }
     }
 
@@ -1305,27 +1318,58 @@ public class ProcessDefinitionServiceImpl extends BaseServiceImpl implements Pro
     @Transactional
     public Map<String, Object> importProcessDefinition(User loginUser, long projectCode, MultipartFile file) {
         Map<String, Object> result;
-        String dagDataScheduleJson = FileUtils.file2String(file);
-        List<DagDataSchedule> dagDataScheduleList = JSONUtils.toList(dagDataScheduleJson, DagDataSchedule.class);
         Project project = projectMapper.queryByCode(projectCode);
         result = projectService.checkProjectAndAuth(loginUser, project, projectCode, WORKFLOW_EXPORT);
         if (result.get(Constants.STATUS) != Status.SUCCESS) {
             return result;
         }
+        // the file is parsed and imported one process definition at a time, so large files are not loaded in memory
+        int imported = 0;
+        try (
+                InputStream inputStream = openImportFile(file);
+                MappingIterator<DagDataSchedule> dagDataSchedules =
+                        JSONUtils.readValues(inputStream, DagDataSchedule.class)) {
+            while (dagDataSchedules.hasNextValue()) {
+                DagDataSchedule dagDataSchedule = dagDataSchedules.nextValue();
+                if (!checkAndImport(loginUser, projectCode, result, dagDataSchedule, EMPTY_STRING)) {
+                    return result;
+                }
+                if (++imported % IMPORT_EXPORT_PROGRESS_INTERVAL == 0) {
+                    log.info("Import process definition progress, projectCode:{}, imported:{}.", projectCode,
+                            imported);
+                }
+            }
+        } catch (IOException | RuntimeJsonMappingException e) {
+            log.error("Parse process definition file error, projectCode:{}, imported:{}.", projectCode, imported, e);
+            if (imported > 0) {
+                // roll back the process definitions already imported from the broken file
+                throw new ServiceException(Status.IMPORT_PROCESS_DEFINE_ERROR);
+            }
+        }
         // check file content
-        if (CollectionUtils.isEmpty(dagDataScheduleList)) {
+        if (imported == 0) {
             log.warn("Process definition file content is empty.");
             putMsg(result, Status.DATA_IS_NULL, "fileContent");
             return result;
         }
-        for (DagDataSchedule dagDataSchedule : dagDataScheduleList) {
-            if (!checkAndImport(loginUser, projectCode, result, dagDataSchedule, EMPTY_STRING)) {
-                return result;
-            }
-        }
+        log.info("Import process definition file complete, projectCode:{}, size:{}.", projectCode, imported);
         return result;
     }
 
+    /**
+     * open the import file, the file exported with compression is decompressed transparently
+     */
+    private InputStream openImportFile(MultipartFile file) throws IOException {
+        BufferedInputStream inputStream = new BufferedInputStream(file.getInputStream(), STREAM_BUFFER_SIZE);
+        inputStream.mark(2);
+        int magic = inputStream.read() | (inputStream.read() << 8);
+        inputStream.reset();
+        if (magic == GZIPInputStream.GZIP_MAGIC) {
+            return new GZIPInputStream(inputStream, STREAM_BUFFER_SIZE);
+        }
+        return inputStream;
+    }
+
     @Override
     @Transactional
     public Map<String, Object> importSqlProcessDefinition(User loginUser, long projectCode, MultipartFile file) {
@@ -1992,6 +2036,11 @@ public class ProcessDefinitionServiceImpl extends BaseServiceImpl implements Pro
                             DateUtils.format2Readable(endTime.getTime() - processInstance.getStartTime().getTime())));
         }
 
+        // load the task instances of all the process instances at once, rather than query each node of each
+        // process instance
+        Map<Integer, Map<Long, TaskInstance>> taskInstanceMap =
+                queryTreeViewTaskInstances(processInstanceList.subList(0, limit));
+
         List<TreeViewDto> parentTreeViewDtoList = new ArrayList<>();
         parentTreeViewDtoList.add(parentTreeViewDto);
         // Here is the encapsulation task instance
@@ -2015,8 +2064,9 @@ public class ProcessDefinitionServiceImpl extends BaseServiceImpl implements Pro
                 // set treeViewDto instances
                 for (int i = limit - 1; i >= 0; i--) {
                     ProcessInstance processInstance = processInstanceList.get(i);
-                    TaskInstance taskInstance = taskInstanceMapper.queryByInstanceIdAndCode(processInstance.getId(),
-                            Long.parseLong(nodeCode));
+                    TaskInstance taskInstance = taskInstanceMap
+                            .getOrDefault(processInstance.getId(), Collections.emptyMap())
+                            .get(Long.parseLong(nodeCode));
                     if (taskInstance == null) {
                         treeViewDto.getInstances().add(new Instance(-1, "not running", 0, "null"));
                     } else {
@@ -2067,6 +2117,27 @@ public class ProcessDefinitionServiceImpl extends BaseServiceImpl implements Pro
         return result;
     }
 
+    /**
+     * query the valid task instances of the process instances in chunks, and index them by process instance id and
+     * task code
+     *
+     * @param processInstances process instances
+     * @return task instances grouped by process instance id and task code
+     */
+    private Map<Integer, Map<Long, TaskInstance>> queryTreeViewTaskInstances(List<ProcessInstance> processInstances) {
+        Map<Integer, Map<Long, TaskInstance>> taskInstanceMap = new HashMap<>();
+        List<Integer> processInstanceIds =
+                processInstances.stream().map(ProcessInstance::getId).collect(Collectors.toList());
+        for (List<Integer> processInstanceIdChunk : Lists.partition(processInstanceIds, TREE_VIEW_QUERY_CHUNK_SIZE)) {
+            for (TaskInstance taskInstance : taskInstanceMapper.findValidTaskListByProcessIds(processInstanceIdChunk,
+                    Flag.YES)) {
+                taskInstanceMap.computeIfAbsent(taskInstance.getProcessInstanceId(), k -> new HashMap<>())
+                        .putIfAbsent(taskInstance.getTaskCode(), taskInstance);
+            }
+        }
+        return taskInstanceMap;
+    }
+
     /**
      * whether the graph has a ring
      *
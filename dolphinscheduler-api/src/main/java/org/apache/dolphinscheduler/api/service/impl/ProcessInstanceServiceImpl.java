@@ -72,6 +72,7 @@ import org.apache.dolphinscheduler.dao.mapper.TaskDefinitionLogMapper;
 import org.apache.dolphinscheduler.dao.mapper.TaskDefinitionMapper;
 import org.apache.dolphinscheduler.dao.mapper.TaskInstanceMapper;
 import org.apache.dolphinscheduler.dao.mapper.TenantMapper;
+import org.apache.dolphinscheduler.dao.repository.InstanceStateRollupDao;
 import org.apache.dolphinscheduler.dao.repository.ProcessInstanceDao;
 import org.apache.dolphinscheduler.dao.repository.ProcessInstanceMapDao;
 import org.apache.dolphinscheduler.dao.repository.TaskInstanceDao;
@@ -191,6 +192,9 @@ public class ProcessInstanceServiceImpl extends BaseServiceImpl implements Proce
     @Autowired
     private CuringParamsService curingGlobalParamsService;
 
+    @Autowired
+    private InstanceStateRollupDao instanceStateRollupDao;
+
     /**
      * return top n SUCCESS process instance order by running time which started between startTime and endTime
      */
@@ -1081,6 +1085,7 @@ public class ProcessInstanceServiceImpl extends BaseServiceImpl implements Proce
 
     @Override
     public void deleteProcessInstanceById(int workflowInstanceId) {
+        ProcessInstance processInstance = processInstanceDao.queryByWorkflowInstanceId(workflowInstanceId);
         // delete task instance
         taskInstanceService.deleteByWorkflowInstanceId(workflowInstanceId);
         // delete sub process instances
@@ -1089,6 +1094,11 @@ public class ProcessInstanceServiceImpl extends BaseServiceImpl implements Proce
         alertDao.deleteByWorkflowInstanceId(workflowInstanceId);
         // delete process instance
         processInstanceDao.deleteById(workflowInstanceId);
+        // the workflow and task instances are removed from the hours they started
+        if (processInstance != null && processInstance.getStartTime() != null) {
+            Date endTime = processInstance.getEndTime() == null ? new Date() : processInstance.getEndTime();
+            instanceStateRollupDao.invalidateBuckets(processInstance.getStartTime(), endTime);
+        }
     }
 
     private void deleteSubWorkflowInstanceIfNeeded(int workflowInstanceId) {
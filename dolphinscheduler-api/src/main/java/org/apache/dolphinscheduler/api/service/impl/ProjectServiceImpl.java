@@ -23,6 +23,7 @@ import static org.apache.dolphinscheduler.api.constants.ApiFuncIdentificationCon
 
 import org.apache.dolphinscheduler.api.enums.Status;
 import org.apache.dolphinscheduler.api.exceptions.ServiceException;
+import org.apache.dolphinscheduler.api.permission.AuthorizedResourceCache;
 import org.apache.dolphinscheduler.api.service.ProjectService;
 import org.apache.dolphinscheduler.api.service.TaskGroupService;
 import org.apache.dolphinscheduler.api.utils.PageInfo;
@@ -90,6 +91,9 @@ public class ProjectServiceImpl extends BaseServiceImpl implements ProjectServic
     @Autowired
     private UserMapper userMapper;
 
+    @Autowired
+    private AuthorizedResourceCache authorizedResourceCache;
+
     /**
      * create project
      *
@@ -526,10 +530,16 @@ public class ProjectServiceImpl extends BaseServiceImpl implements ProjectServic
         project.setName(projectName);
         project.setDescription(desc);
         project.setUpdateTime(new Date());
+        Integer oldUserId = project.getUserId();
         project.setUserId(user.getId());
         int update = projectMapper.updateById(project);
         if (update > 0) {
             log.info("Project is updated and id is :{}", project.getId());
+            if (!Objects.equals(oldUserId, user.getId())) {
+                // the owned projects of both the users are changed
+                authorizedResourceCache.invalidateUserAfterCommit(oldUserId);
+                authorizedResourceCache.invalidateUserAfterCommit(user.getId());
+            }
             result.setData(project);
             putMsg(result, Status.SUCCESS);
         } else {
@@ -34,6 +34,7 @@ import org.apache.dolphinscheduler.api.enums.Status;
 import org.apache.dolphinscheduler.api.exceptions.ServiceException;
 import org.apache.dolphinscheduler.api.service.ProcessDefinitionService;
 import org.apache.dolphinscheduler.api.service.ResourcesService;
+import org.apache.dolphinscheduler.api.storage.ResourceMetadataIndex;
 import org.apache.dolphinscheduler.api.utils.PageInfo;
 import org.apache.dolphinscheduler.api.utils.RegexUtils;
 import org.apache.dolphinscheduler.api.utils.Result;
@@ -143,6 +144,9 @@ public class ResourcesServiceImpl extends BaseServiceImpl implements ResourcesSe
     @Autowired(required = false)
     private StorageOperate storageOperate;
 
+    @Autowired
+    private ResourceMetadataIndex resourceMetadataIndex;
+
     /**
      * create directory
      *
@@ -584,6 +588,7 @@ public class ResourcesServiceImpl extends BaseServiceImpl implements ResourcesSe
             if (!fullName.equals(originFullName)) {
                 try {
                     storageOperate.delete(originFullName, false);
+                    resourceMetadataIndex.onDeleted(originFullName);
                 } catch (IOException e) {
                     log.error("Resource delete error, resourceFullName:{}.", originFullName, e);
                     throw new ServiceException(String.format("delete resource: %s failed.", originFullName));
@@ -598,6 +603,8 @@ public class ResourcesServiceImpl extends BaseServiceImpl implements ResourcesSe
         try {
             log.info("start  copy {} -> {}", originFullName, destHdfsFileName);
             storageOperate.copy(originFullName, destHdfsFileName, true, true);
+            resourceMetadataIndex.onDeleted(originFullName);
+            resourceMetadataIndex.onCreated(destHdfsFileName, resource.isDirectory());
         } catch (Exception e) {
             log.error(MessageFormat.format(" copy {0} -> {1} fail", originFullName, destHdfsFileName), e);
             putMsg(result, Status.HDFS_COPY_FAIL);
@@ -711,6 +718,11 @@ public class ResourcesServiceImpl extends BaseServiceImpl implements ResourcesSe
             return result;
         }
 
+        if (resourceMetadataIndex.isEnabled()) {
+            return queryResourceListPagingFromIndex(loginUser, fullName, tenantCode, type, searchVal, pageNo,
+                    pageSize);
+        }
+
         String defaultPath = "";
         List<StorageEntity> resourcesList = new ArrayList<>();
         String resourceStorageType =
@@ -776,6 +788,51 @@ public class ResourcesServiceImpl extends BaseServiceImpl implements ResourcesSe
         return result;
     }
 
+    /**
+     * query resource list paging from the resource metadata index, the filter and pagination are done in DB
+     */
+    private Result<PageInfo<StorageEntity>> queryResourceListPagingFromIndex(User loginUser, String fullName,
+                                                                             String tenantCode, ResourceType type,
+                                                                             String searchVal, Integer pageNo,
+                                                                             Integer pageSize) {
+        Result<PageInfo<StorageEntity>> result = new Result<>();
+        List<String> paths = new ArrayList<>();
+        String path = "";
+        try {
+            if (isAdmin(loginUser) && StringUtils.isBlank(fullName)) {
+                // list all tenants' resources to admin users in the root directory
+                Set<String> visitedTenantEntityCode = new HashSet<>();
+                for (User userEntity : userMapper.selectList(null)) {
+                    String tenantEntityCode = tenantMapper.queryById(userEntity.getTenantId()).getTenantCode();
+                    if (visitedTenantEntityCode.add(tenantEntityCode)) {
+                        path = type.equals(ResourceType.UDF) ? storageOperate.getUdfDir(tenantEntityCode)
+                                : storageOperate.getResDir(tenantEntityCode);
+                        resourceMetadataIndex.sync(path, path, tenantEntityCode, type);
+                        paths.add(path);
+                    }
+                }
+            } else {
+                String defaultPath = type.equals(ResourceType.UDF) ? storageOperate.getUdfDir(tenantCode)
+                        : storageOperate.getResDir(tenantCode);
+                path = StringUtils.isBlank(fullName) ? defaultPath : fullName;
+                resourceMetadataIndex.sync(path, defaultPath, tenantCode, type);
+                paths.add(path);
+            }
+        } catch (Exception e) {
+            log.error(e.getMessage() + " Resource path: {}", path, e);
+            String resourceStorageType =
+                    PropertyUtils.getString(Constants.RESOURCE_STORAGE_TYPE, ResUploadType.NONE.name());
+            throw new ServiceException(String.format(e.getMessage() +
+                    " make sure resource path: %s exists in %s", path, resourceStorageType));
+        }
+
+        // remove leading and trailing spaces in searchVal
+        String trimmedSearchVal = searchVal != null ? searchVal.trim() : "";
+        result.setData(resourceMetadataIndex.queryPaging(paths, trimmedSearchVal, pageNo, pageSize));
+        putMsg(result, Status.SUCCESS);
+        return result;
+    }
+
     /**
      * create directory
      * xxx The steps to verify resources are cumbersome and can be optimized
@@ -798,6 +855,8 @@ public class ResourcesServiceImpl extends BaseServiceImpl implements ResourcesSe
                 log.error("create resource directory {} failed", fullName);
                 putMsg(result, Status.STORE_OPERATE_CREATE_ERROR);
                 // throw new ServiceException(String.format("create resource directory: %s failed.", fullName));
+            } else {
+                resourceMetadataIndex.onCreated(fullName, true);
             }
         } catch (Exception e) {
             log.error("create resource directory {} failed", fullName);
@@ -838,6 +897,7 @@ public class ResourcesServiceImpl extends BaseServiceImpl implements ResourcesSe
             }
             org.apache.dolphinscheduler.api.utils.FileUtils.copyInputStreamToFile(file, localFilename);
             storageOperate.upload(tenantCode, localFilename, fullName, true, true);
+            resourceMetadataIndex.onCreated(fullName, false);
         } catch (Exception e) {
             FileUtils.deleteFile(localFilename);
             log.error(e.getMessage(), e);
@@ -893,7 +953,7 @@ public class ResourcesServiceImpl extends BaseServiceImpl implements ResourcesSe
                         if (type.equals(ResourceType.UDF)) {
                             defaultPath = storageOperate.getUdfDir(tenantEntityCode);
                         }
-                        resourcesList.addAll(storageOperate.listFilesStatusRecursively(defaultPath, defaultPath,
+                        resourcesList.addAll(listFilesStatusRecursively(defaultPath, defaultPath,
                                 tenantEntityCode, type));
                         visitedTenantEntityCode.add(tenantEntityCode);
                     }
@@ -904,7 +964,7 @@ public class ResourcesServiceImpl extends BaseServiceImpl implements ResourcesSe
                     defaultPath = storageOperate.getUdfDir(tenantCode);
                 }
 
-                resourcesList = storageOperate.listFilesStatusRecursively(defaultPath, defaultPath, tenantCode, type);
+                resourcesList = listFilesStatusRecursively(defaultPath, defaultPath, tenantCode, type);
             }
         } else {
             defaultPath = storageOperate.getResDir(tenantCode);
@@ -912,7 +972,7 @@ public class ResourcesServiceImpl extends BaseServiceImpl implements ResourcesSe
                 defaultPath = storageOperate.getUdfDir(tenantCode);
             }
 
-            resourcesList = storageOperate.listFilesStatusRecursively(fullName, defaultPath, tenantCode, type);
+            resourcesList = listFilesStatusRecursively(fullName, defaultPath, tenantCode, type);
         }
 
         Visitor resourceTreeVisitor = new ResourceTreeVisitor(resourcesList);
@@ -922,6 +982,14 @@ public class ResourcesServiceImpl extends BaseServiceImpl implements ResourcesSe
         return result;
     }
 
+    private List<StorageEntity> listFilesStatusRecursively(String path, String defaultPath, String tenantCode,
+                                                           ResourceType type) {
+        if (resourceMetadataIndex.isEnabled()) {
+            return resourceMetadataIndex.listFilesStatusRecursively(path, defaultPath, tenantCode, type);
+        }
+        return storageOperate.listFilesStatusRecursively(path, defaultPath, tenantCode, type);
+    }
+
     /**
      * query resource list by program type
      *
@@ -1135,6 +1203,7 @@ public class ResourcesServiceImpl extends BaseServiceImpl implements ResourcesSe
 
         // delete file on hdfs,S3
         storageOperate.delete(fullName, allChildren, true);
+        resourceMetadataIndex.onDeleted(fullName);
 
         putMsg(result, Status.SUCCESS);
 
@@ -1688,6 +1757,7 @@ public class ResourcesServiceImpl extends BaseServiceImpl implements ResourcesSe
             }
 
             storageOperate.upload(tenantCode, localFilename, fullName, true, true);
+            resourceMetadataIndex.onCreated(fullName, false);
         } catch (Exception e) {
             log.error("Upload content to storage error, tenantCode:{}, destFileName:{}.", tenantCode, localFilename,
                     e);
@@ -1848,6 +1918,7 @@ public class ResourcesServiceImpl extends BaseServiceImpl implements ResourcesSe
             if (date.compareTo(deleteDate) <= 0) {
                 try {
                     storageOperate.delete(storageEntity.getFullName(), true);
+                    resourceMetadataIndex.onDeleted(storageEntity.getFullName());
                     successList.add(storageEntity.getFullName());
                 } catch (Exception ex) {
                     log.error("delete data transfer data {} error, please delete it manually", date, ex);
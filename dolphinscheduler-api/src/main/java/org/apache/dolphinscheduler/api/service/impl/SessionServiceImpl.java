@@ -18,6 +18,7 @@
 package org.apache.dolphinscheduler.api.service.impl;
 
 import org.apache.dolphinscheduler.api.controller.BaseController;
+import org.apache.dolphinscheduler.api.security.SessionUserCache;
 import org.apache.dolphinscheduler.api.service.SessionService;
 import org.apache.dolphinscheduler.common.constants.Constants;
 import org.apache.dolphinscheduler.dao.entity.Session;
@@ -51,14 +52,17 @@ public class SessionServiceImpl extends BaseServiceImpl implements SessionServic
     @Autowired
     private SessionMapper sessionMapper;
 
+    @Autowired
+    private SessionUserCache sessionUserCache;
+
     /**
-     * get user session from request
+     * get session id from request header or cookie
      *
      * @param request request
-     * @return session
+     * @return session id
      */
     @Override
-    public Session getSession(HttpServletRequest request) {
+    public String getSessionId(HttpServletRequest request) {
         String sessionId = request.getHeader(Constants.SESSION_ID);
 
         if (StringUtils.isBlank(sessionId)) {
@@ -72,6 +76,21 @@ public class SessionServiceImpl extends BaseServiceImpl implements SessionServic
         if (StringUtils.isBlank(sessionId)) {
             return null;
         }
+        return sessionId;
+    }
+
+    /**
+     * get user session from request
+     *
+     * @param request request
+     * @return session
+     */
+    @Override
+    public Session getSession(HttpServletRequest request) {
+        String sessionId = getSessionId(request);
+        if (sessionId == null) {
+            return null;
+        }
 
         String ip = BaseController.getClientIpAddress(request);
         log.debug("Get session: {}, ip: {}.", sessionId, ip);
@@ -104,6 +123,7 @@ public class SessionServiceImpl extends BaseServiceImpl implements SessionServic
             if (sessionList.size() > 1) {
                 for (int i = 1; i < sessionList.size(); i++) {
                     sessionMapper.deleteById(sessionList.get(i).getId());
+                    sessionUserCache.invalidateSession(sessionList.get(i).getId());
                 }
             }
             session = sessionList.get(0);
@@ -121,6 +141,7 @@ public class SessionServiceImpl extends BaseServiceImpl implements SessionServic
                  * session expired, then delete this session first
                  */
                 sessionMapper.deleteById(session.getId());
+                sessionUserCache.invalidateSession(session.getId());
             }
         }
 
@@ -154,6 +175,7 @@ public class SessionServiceImpl extends BaseServiceImpl implements SessionServic
 
             // delete session
             sessionMapper.deleteById(session.getId());
+            sessionUserCache.invalidateSession(session.getId());
         } catch (Exception e) {
             log.warn("userId : {} , ip : {} , find more one session", loginUser.getId(), ip, e);
         }
@@ -1222,8 +1222,8 @@ public class TaskDefinitionServiceImpl extends BaseServiceImpl implements TaskDe
         }
         List<Long> taskCodes = new ArrayList<>();
         try {
-            for (int i = 0; i < genNum; i++) {
-                taskCodes.add(CodeGenerateUtils.getInstance().genCode());
+            for (long taskCode : CodeGenerateUtils.getInstance().genCodes(genNum)) {
+                taskCodes.add(taskCode);
             }
         } catch (CodeGenerateException e) {
             log.error("Generate task definition code error.", e);
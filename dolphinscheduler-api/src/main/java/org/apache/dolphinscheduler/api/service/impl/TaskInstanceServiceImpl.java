@@ -33,6 +33,7 @@ import org.apache.dolphinscheduler.common.constants.Constants;
 import org.apache.dolphinscheduler.common.enums.TaskExecuteType;
 import org.apache.dolphinscheduler.common.utils.CollectionUtils;
 import org.apache.dolphinscheduler.common.utils.DateUtils;
+import org.apache.dolphinscheduler.dao.entity.ProcessInstance;
 import org.apache.dolphinscheduler.dao.entity.Project;
 import org.apache.dolphinscheduler.dao.entity.TaskDefinition;
 import org.apache.dolphinscheduler.dao.entity.TaskInstance;
@@ -41,9 +42,11 @@ import org.apache.dolphinscheduler.dao.mapper.ProjectMapper;
 import org.apache.dolphinscheduler.dao.mapper.TaskDefinitionMapper;
 import org.apache.dolphinscheduler.dao.mapper.TaskInstanceMapper;
 import org.apache.dolphinscheduler.dao.repository.DqExecuteResultDao;
+import org.apache.dolphinscheduler.dao.repository.InstanceStateRollupDao;
 import org.apache.dolphinscheduler.dao.repository.TaskInstanceDao;
 import org.apache.dolphinscheduler.dao.utils.TaskCacheUtils;
 import org.apache.dolphinscheduler.plugin.task.api.enums.TaskExecutionStatus;
+import org.apache.dolphinscheduler.remote.command.CommandType;
 import org.apache.dolphinscheduler.remote.command.TaskKillRequestCommand;
 import org.apache.dolphinscheduler.remote.command.TaskSavePointRequestCommand;
 import org.apache.dolphinscheduler.remote.processor.StateEventCallbackService;
@@ -110,6 +113,9 @@ public class TaskInstanceServiceImpl extends BaseServiceImpl implements TaskInst
     @Autowired
     private TaskGroupQueueService taskGroupQueueService;
 
+    @Autowired
+    private InstanceStateRollupDao instanceStateRollupDao;
+
     /**
      * query task list by project, process instance, task name, task start time, task end time, task status, keyword paging
      *
@@ -257,7 +263,12 @@ public class TaskInstanceServiceImpl extends BaseServiceImpl implements TaskInst
         task.setState(TaskExecutionStatus.FORCED_SUCCESS);
         int changedNum = taskInstanceMapper.updateById(task);
         if (changedNum > 0) {
+            if (task.getStartTime() != null) {
+                // the state is changed out of the master, the hour it started will be rolled up again
+                instanceStateRollupDao.markBucketsChanged(task.getStartTime(), task.getStartTime());
+            }
             processService.forceProcessInstanceSuccessByTaskInstanceId(taskInstanceId);
+            sendForceSuccess2Master(task);
             log.info("Task instance performs force success complete, projectCode:{}, taskInstanceId:{}", projectCode,
                     taskInstanceId);
             putMsg(result, Status.SUCCESS);
@@ -269,6 +280,20 @@ public class TaskInstanceServiceImpl extends BaseServiceImpl implements TaskInst
         return result;
     }
 
+    /**
+     * push the forced success state to the master which is running the workflow, so the master can stop retrying the
+     * task without polling the DB
+     */
+    private void sendForceSuccess2Master(TaskInstance taskInstance) {
+        ProcessInstance processInstance = processService.findProcessInstanceById(taskInstance.getProcessInstanceId());
+        if (processInstance == null || StringUtils.isEmpty(processInstance.getHost())
+                || processInstance.getState().isFinished()) {
+            return;
+        }
+        processService.sendStartTask2Master(processInstance, taskInstance.getId(),
+                CommandType.TASK_FORCE_SUCCESS_EVENT_REQUEST);
+    }
+
     @Override
     public Result taskSavePoint(User loginUser, long projectCode, Integer taskInstanceId) {
         Result result = new Result();
@@ -26,6 +26,7 @@ import org.apache.dolphinscheduler.api.enums.Status;
 import org.apache.dolphinscheduler.api.exceptions.ServiceException;
 import org.apache.dolphinscheduler.api.service.QueueService;
 import org.apache.dolphinscheduler.api.service.TenantService;
+import org.apache.dolphinscheduler.api.storage.ResourceMetadataIndex;
 import org.apache.dolphinscheduler.api.utils.PageInfo;
 import org.apache.dolphinscheduler.api.utils.RegexUtils;
 import org.apache.dolphinscheduler.api.utils.Result;
@@ -88,6 +89,9 @@ public class TenantServiceImpl extends BaseServiceImpl implements TenantService
     @Autowired(required = false)
     private StorageOperate storageOperate;
 
+    @Autowired
+    private ResourceMetadataIndex resourceMetadataIndex;
+
     /**
      * Check the tenant new object valid or not
      *
@@ -295,6 +299,7 @@ public class TenantServiceImpl extends BaseServiceImpl implements TenantService
         // if resource upload startup
         if (PropertyUtils.getResUploadStartupState()) {
             storageOperate.deleteTenant(tenant.getTenantCode());
+            resourceMetadataIndex.onTenantDeleted(tenant.getTenantCode());
         }
 
         int delete = tenantMapper.deleteById(id);
@@ -22,6 +22,8 @@ import static org.apache.dolphinscheduler.api.constants.ApiFuncIdentificationCon
 import org.apache.dolphinscheduler.api.dto.resources.ResourceComponent;
 import org.apache.dolphinscheduler.api.enums.Status;
 import org.apache.dolphinscheduler.api.exceptions.ServiceException;
+import org.apache.dolphinscheduler.api.permission.AuthorizedResourceCache;
+import org.apache.dolphinscheduler.api.security.SessionUserCache;
 import org.apache.dolphinscheduler.api.service.UsersService;
 import org.apache.dolphinscheduler.api.utils.CheckUtils;
 import org.apache.dolphinscheduler.api.utils.PageInfo;
@@ -96,6 +98,12 @@ public class UsersServiceImpl extends BaseServiceImpl implements UsersService {
     @Autowired
     private UserMapper userMapper;
 
+    @Autowired
+    private SessionUserCache sessionUserCache;
+
+    @Autowired
+    private AuthorizedResourceCache authorizedResourceCache;
+
     @Autowired
     private TenantMapper tenantMapper;
 
@@ -467,6 +475,8 @@ public class UsersServiceImpl extends BaseServiceImpl implements UsersService {
         // updateProcessInstance user
         int update = userMapper.updateById(user);
         if (update > 0) {
+            // the password, state and tenant of the login user may be changed
+            sessionUserCache.invalidateUser(userId);
             log.info("User is updated and id is :{}.", userId);
             putMsg(result, Status.SUCCESS);
         } else {
@@ -522,6 +532,8 @@ public class UsersServiceImpl extends BaseServiceImpl implements UsersService {
         accessTokenMapper.deleteAccessTokenByUserId(id);
 
         if (userMapper.deleteById(id) > 0) {
+            sessionUserCache.invalidateUser(id);
+            authorizedResourceCache.invalidateUserAfterCommit(id);
             log.info("User is deleted and id is :{}.", id);
             putMsg(result, Status.SUCCESS);
             return result;
@@ -571,6 +583,7 @@ public class UsersServiceImpl extends BaseServiceImpl implements UsersService {
                 this.projectUserMapper.deleteProjectRelation(project.getId(), user.getId());
             }
         });
+        authorizedResourceCache.invalidateUserAfterCommit(userId);
 
         this.putMsg(result, Status.SUCCESS);
         return result;
@@ -618,6 +631,7 @@ public class UsersServiceImpl extends BaseServiceImpl implements UsersService {
             projectUser.setUpdateTime(now);
             projectUserMapper.insert(projectUser);
         });
+        authorizedResourceCache.invalidateUserAfterCommit(userId);
         putMsg(result, Status.SUCCESS);
 
         return result;
@@ -667,6 +681,7 @@ public class UsersServiceImpl extends BaseServiceImpl implements UsersService {
             projectUser.setUpdateTime(now);
             projectUserMapper.insert(projectUser);
         });
+        authorizedResourceCache.invalidateUserAfterCommit(userId);
         putMsg(result, Status.SUCCESS);
 
         return result;
@@ -772,6 +787,7 @@ public class UsersServiceImpl extends BaseServiceImpl implements UsersService {
 
         // 4. delete th relationship between project and user
         this.projectUserMapper.deleteProjectRelation(project.getId(), user.getId());
+        authorizedResourceCache.invalidateUserAfterCommit(userId);
         log.info("User is revoked permission for projects, userId:{}, projectCode:{}.", userId, projectCode);
         this.putMsg(result, Status.SUCCESS);
         return result;
@@ -846,6 +862,7 @@ public class UsersServiceImpl extends BaseServiceImpl implements UsersService {
         }
 
         resourceUserMapper.deleteResourceUser(userId, 0);
+        authorizedResourceCache.invalidateUserAfterCommit(userId);
 
         if (check(result, StringUtils.isEmpty(resourceIds), Status.SUCCESS)) {
             log.warn("Parameter resourceIds is empty.");
@@ -909,6 +926,7 @@ public class UsersServiceImpl extends BaseServiceImpl implements UsersService {
         }
 
         udfUserMapper.deleteByUserId(userId);
+        authorizedResourceCache.invalidateUserAfterCommit(userId);
 
         if (check(result, StringUtils.isEmpty(udfIds), Status.SUCCESS)) {
             log.warn("Parameter udfIds is empty.");
@@ -967,6 +985,7 @@ public class UsersServiceImpl extends BaseServiceImpl implements UsersService {
         }
 
         k8sNamespaceUserMapper.deleteNamespaceRelation(0, userId);
+        authorizedResourceCache.invalidateUserAfterCommit(userId);
         if (StringUtils.isNotEmpty(namespaceIds)) {
             String[] namespaceIdArr = namespaceIds.split(",");
             for (String namespaceId : namespaceIdArr) {
@@ -1013,6 +1032,7 @@ public class UsersServiceImpl extends BaseServiceImpl implements UsersService {
         }
 
         datasourceUserMapper.deleteByUserId(userId);
+        authorizedResourceCache.invalidateUserAfterCommit(userId);
 
         if (check(result, StringUtils.isEmpty(datasourceIds), Status.SUCCESS)) {
             return result;
@@ -1373,6 +1393,7 @@ public class UsersServiceImpl extends BaseServiceImpl implements UsersService {
         Date now = new Date();
         user.setUpdateTime(now);
         userMapper.updateById(user);
+        sessionUserCache.invalidateUser(user.getId());
 
         User responseUser = userMapper.queryByUserNameAccurately(userName);
         putMsg(result, Status.SUCCESS);
@@ -0,0 +1,381 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.api.storage;
+
+import org.apache.dolphinscheduler.api.configuration.ResourceIndexConfiguration;
+import org.apache.dolphinscheduler.api.metrics.ApiServerMetrics;
+import org.apache.dolphinscheduler.api.utils.PageInfo;
+import org.apache.dolphinscheduler.common.thread.ThreadUtils;
+import org.apache.dolphinscheduler.dao.entity.ResourceMetadata;
+import org.apache.dolphinscheduler.dao.mapper.ResourceMetadataMapper;
+import org.apache.dolphinscheduler.plugin.storage.api.StorageEntity;
+import org.apache.dolphinscheduler.plugin.storage.api.StorageOperate;
+import org.apache.dolphinscheduler.spi.enums.ResourceType;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.FileNotFoundException;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+
+/**
+ * Index the metadata of the resource storage in DB, so the resource listings don't need to list the storage.
+ * <p>The children of a directory are listed from the storage when the directory is read for the first time. The
+ * changes made by the api servers are applied to the index directly, and the indexed directories are listed from the
+ * storage again after the sync interval to reconcile the changes made by others.
+ */
+@Slf4j
+@Component
+public class ResourceMetadataIndex {
+
+    /**
+     * The scheme and authority of the full name, e.g. hdfs://nameservice, the same path may be given with or without
+     * them.
+     */
+    private static final Pattern STORAGE_SCHEME_PATTERN = Pattern.compile("^[a-zA-Z][a-zA-Z0-9+.-]*:(//[^/]*)?(?=/)");
+
+    private static final long SYNC_CHECK_INTERVAL_SECONDS = 10;
+
+    @Autowired(required = false)
+    private StorageOperate storageOperate;
+
+    @Autowired
+    private ResourceMetadataMapper resourceMetadataMapper;
+
+    @Autowired
+    private ResourceIndexConfiguration resourceIndexConfiguration;
+
+    @PostConstruct
+    private void init() {
+        if (isEnabled()) {
+            ThreadUtils.newSingleDaemonScheduledExecutorService("Resource-Index-Sync-Thread")
+                    .scheduleWithFixedDelay(this::syncStaleDirectories, SYNC_CHECK_INTERVAL_SECONDS,
+                            SYNC_CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    public boolean isEnabled() {
+        return resourceIndexConfiguration.isEnabled() && storageOperate != null;
+    }
+
+    /**
+     * Make sure the children of the directory are indexed, they are listed from the storage if not.
+     *
+     * @param path        the directory
+     * @param defaultPath the resource directory of the tenant
+     * @param tenantCode  tenant code
+     * @param type        resource type
+     */
+    public void sync(String path, String defaultPath, String tenantCode, ResourceType type) throws Exception {
+        ResourceMetadata directory = resourceMetadataMapper.queryByPath(toDirectoryPath(normalize(path)));
+        if (directory != null && directory.getSyncTime() != null) {
+            ApiServerMetrics.incResourceIndexHit();
+            return;
+        }
+        ApiServerMetrics.incResourceIndexMiss();
+        refresh(path, defaultPath, tenantCode, type);
+    }
+
+    /**
+     * Query the children of the directories paging, the directories should be synced before.
+     */
+    public PageInfo<StorageEntity> queryPaging(List<String> paths, String searchVal, Integer pageNo,
+                                               Integer pageSize) {
+        List<String> parentPaths = paths.stream()
+                .map(path -> toDirectoryPath(normalize(path)))
+                .collect(Collectors.toList());
+        IPage<ResourceMetadata> metadataPage = resourceMetadataMapper
+                .queryPagingByParentPaths(new Page<>(pageNo, pageSize), parentPaths, searchVal);
+
+        PageInfo<StorageEntity> pageInfo = new PageInfo<>(pageNo, pageSize);
+        pageInfo.setTotal((int) metadataPage.getTotal());
+        pageInfo.setTotalList(metadataPage.getRecords().stream()
+                .map(ResourceMetadataIndex::toStorageEntity)
+                .collect(Collectors.toList()));
+        return pageInfo;
+    }
+
+    /**
+     * Return the files and directories under the directory, the directories not indexed are listed from the storage.
+     */
+    public List<StorageEntity> listFilesStatusRecursively(String path, String defaultPath, String tenantCode,
+                                                          ResourceType type) {
+        String directoryPath = toDirectoryPath(normalize(path));
+        String pathPrefix = escapeLike(directoryPath);
+        Set<String> failedPaths = new HashSet<>();
+        try {
+            sync(path, defaultPath, tenantCode, type);
+        } catch (Exception e) {
+            log.error("error while listing files status recursively, path: {}", path, e);
+            failedPaths.add(directoryPath);
+        }
+        while (true) {
+            List<ResourceMetadata> unsyncedDirectories = resourceMetadataMapper.queryUnsyncedDirectories(pathPrefix)
+                    .stream()
+                    .filter(directory -> !failedPaths.contains(directory.getPath()))
+                    .collect(Collectors.toList());
+            if (unsyncedDirectories.isEmpty()) {
+                break;
+            }
+            for (ResourceMetadata directory : unsyncedDirectories) {
+                try {
+                    ApiServerMetrics.incResourceIndexMiss();
+                    refresh(directory.getFullName(), defaultPath, tenantCode, type);
+                } catch (Exception e) {
+                    log.error("error while listing files status recursively, path: {}", directory.getFullName(), e);
+                    failedPaths.add(directory.getPath());
+                }
+            }
+        }
+        return resourceMetadataMapper.queryByPathPrefix(pathPrefix)
+                .stream()
+                .filter(metadata -> !metadata.getPath().equals(directoryPath))
+                .map(ResourceMetadataIndex::toStorageEntity)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Index the created or updated file or directory, nothing to do if its parent directory isn't indexed.
+     */
+    public void onCreated(String fullName, boolean isDirectory) {
+        if (!isEnabled()) {
+            return;
+        }
+        String storagePath = isDirectory ? toDirectoryPath(fullName) : fullName;
+        String path = isDirectory ? toDirectoryPath(normalize(fullName)) : normalize(fullName);
+        ResourceMetadata parent = resourceMetadataMapper.queryByPath(parentPathOf(path));
+        if (parent == null || parent.getSyncTime() == null) {
+            return;
+        }
+        String tenantCode = parent.getTenantCode();
+        ResourceType type = parent.getType();
+        try {
+            StorageEntity storageEntity =
+                    storageOperate.getFileStatus(storagePath, getDefaultPath(tenantCode, type), tenantCode, type);
+            ResourceMetadata metadata = toResourceMetadata(storageEntity, parent.getPath(), tenantCode, type);
+            metadata.setPath(path);
+            ResourceMetadata origin = resourceMetadataMapper.queryByPath(path);
+            if (origin == null) {
+                insert(metadata);
+            } else {
+                metadata.setId(origin.getId());
+                resourceMetadataMapper.updateById(metadata);
+            }
+        } catch (Exception e) {
+            log.warn("Index resource {} failed, its directory will be listed from the storage again", fullName, e);
+            resourceMetadataMapper.clearSyncTime(parent.getPath());
+        }
+    }
+
+    /**
+     * Remove the deleted file or directory with all the resources under it from the index.
+     */
+    public void onDeleted(String fullName) {
+        if (!isEnabled()) {
+            return;
+        }
+        String path = normalize(fullName);
+        resourceMetadataMapper.deleteByPath(path);
+        resourceMetadataMapper.deleteByPathPrefix(escapeLike(toDirectoryPath(path)));
+    }
+
+    /**
+     * Remove all the resources of the deleted tenant from the index.
+     */
+    public void onTenantDeleted(String tenantCode) {
+        if (!isEnabled()) {
+            return;
+        }
+        resourceMetadataMapper.deleteByTenantCode(tenantCode);
+    }
+
+    /**
+     * List the indexed directories which are not synced in the sync interval from the storage again.
+     */
+    void syncStaleDirectories() {
+        try {
+            Date now = new Date();
+            Date staleTime = new Date(now.getTime() - resourceIndexConfiguration.getSyncInterval().toMillis());
+            List<ResourceMetadata> staleDirectories = resourceMetadataMapper
+                    .queryDirectoriesSyncedBefore(staleTime, resourceIndexConfiguration.getSyncBatchSize());
+            for (ResourceMetadata directory : staleDirectories) {
+                // the directory may be synced by other api servers at the same time
+                if (resourceMetadataMapper.updateSyncTime(directory.getId(), directory.getSyncTime(), now) != 1) {
+                    continue;
+                }
+                String tenantCode = directory.getTenantCode();
+                ResourceType type = directory.getType();
+                try {
+                    refresh(directory.getFullName(), getDefaultPath(tenantCode, type), tenantCode, type);
+                } catch (FileNotFoundException e) {
+                    log.info("Resource directory {} doesn't exist, remove it from the index", directory.getFullName());
+                    onDeleted(directory.getFullName());
+                } catch (Exception e) {
+                    log.error("Sync resource directory {} from the storage failed", directory.getFullName(), e);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Sync resource index failed", e);
+        }
+    }
+
+    /**
+     * List the children of the directory from the storage and apply the differences to the index.
+     */
+    private void refresh(String path, String defaultPath, String tenantCode, ResourceType type) throws Exception {
+        List<StorageEntity> storageEntities = storageOperate.listFilesStatus(path, defaultPath, tenantCode, type);
+        String directoryPath = toDirectoryPath(normalize(path));
+        Map<String, ResourceMetadata> indexedChildren = resourceMetadataMapper.queryByParentPath(directoryPath)
+                .stream()
+                .collect(Collectors.toMap(ResourceMetadata::getPath, Function.identity()));
+
+        for (StorageEntity storageEntity : storageEntities) {
+            ResourceMetadata metadata = toResourceMetadata(storageEntity, directoryPath, tenantCode, type);
+            ResourceMetadata origin = indexedChildren.remove(metadata.getPath());
+            if (origin == null) {
+                insert(metadata);
+            } else if (isChanged(origin, metadata)) {
+                metadata.setId(origin.getId());
+                resourceMetadataMapper.updateById(metadata);
+            }
+        }
+        for (ResourceMetadata removed : indexedChildren.values()) {
+            onDeleted(removed.getFullName());
+        }
+
+        ResourceMetadata directory = resourceMetadataMapper.queryByPath(directoryPath);
+        Date now = new Date();
+        if (directory == null) {
+            directory = ResourceMetadata.builder()
+                    .tenantCode(tenantCode)
+                    .type(type)
+                    .path(directoryPath)
+                    .parentPath(parentPathOf(directoryPath))
+                    .fullName(toDirectoryPath(path))
+                    .fileName(StringUtils.difference(defaultPath, toDirectoryPath(path)))
+                    .alias(StringUtils.substringAfterLast(StringUtils.chop(directoryPath), "/"))
+                    .isDirectory(true)
+                    .syncTime(now)
+                    .createTime(now)
+                    .updateTime(now)
+                    .build();
+            insert(directory);
+        } else {
+            directory.setSyncTime(now);
+            resourceMetadataMapper.updateById(directory);
+        }
+    }
+
+    private void insert(ResourceMetadata metadata) {
+        try {
+            resourceMetadataMapper.insert(metadata);
+        } catch (DuplicateKeyException e) {
+            // indexed by other api servers at the same time
+            ResourceMetadata origin = resourceMetadataMapper.queryByPath(metadata.getPath());
+            if (origin != null) {
+                metadata.setId(origin.getId());
+                resourceMetadataMapper.updateById(metadata);
+            }
+        }
+    }
+
+    private String getDefaultPath(String tenantCode, ResourceType type) {
+        return type == ResourceType.UDF ? storageOperate.getUdfDir(tenantCode) : storageOperate.getResDir(tenantCode);
+    }
+
+    private static boolean isChanged(ResourceMetadata origin, ResourceMetadata metadata) {
+        return origin.getSize() != metadata.getSize()
+                || !Objects.equals(origin.getFullName(), metadata.getFullName())
+                || !Objects.equals(origin.getFileName(), metadata.getFileName())
+                || !Objects.equals(origin.getUpdateTime(), metadata.getUpdateTime());
+    }
+
+    private static ResourceMetadata toResourceMetadata(StorageEntity storageEntity, String parentPath,
+                                                       String tenantCode, ResourceType type) {
+        String path = normalize(storageEntity.getFullName());
+        return ResourceMetadata.builder()
+                .tenantCode(tenantCode)
+                .type(type)
+                .path(storageEntity.isDirectory() ? toDirectoryPath(path) : path)
+                .parentPath(parentPath)
+                .fullName(storageEntity.getFullName())
+                .pfullName(storageEntity.getPfullName())
+                .fileName(storageEntity.getFileName())
+                .alias(storageEntity.getAlias())
+                .isDirectory(storageEntity.isDirectory())
+                .size(storageEntity.getSize())
+                .createTime(storageEntity.getCreateTime())
+                .updateTime(storageEntity.getUpdateTime())
+                .build();
+    }
+
+    private static StorageEntity toStorageEntity(ResourceMetadata metadata) {
+        StorageEntity storageEntity = new StorageEntity();
+        storageEntity.setAlias(metadata.getAlias());
+        storageEntity.setFileName(metadata.getFileName());
+        storageEntity.setFullName(metadata.getFullName());
+        storageEntity.setPfullName(metadata.getPfullName());
+        storageEntity.setDirectory(metadata.isDirectory());
+        storageEntity.setDescription("");
+        storageEntity.setUserName(metadata.getTenantCode());
+        storageEntity.setType(metadata.getType());
+        storageEntity.setSize(metadata.getSize());
+        storageEntity.setCreateTime(metadata.getCreateTime());
+        storageEntity.setUpdateTime(metadata.getUpdateTime());
+        return storageEntity;
+    }
+
+    /**
+     * Remove the scheme and authority of the full name.
+     */
+    static String normalize(String fullName) {
+        return STORAGE_SCHEME_PATTERN.matcher(fullName).replaceFirst("");
+    }
+
+    static String toDirectoryPath(String path) {
+        return path.endsWith("/") ? path : path + "/";
+    }
+
+    static String parentPathOf(String path) {
+        String withoutSeparator = path.endsWith("/") ? StringUtils.chop(path) : path;
+        return withoutSeparator.substring(0, withoutSeparator.lastIndexOf('/') + 1);
+    }
+
+    static String escapeLike(String path) {
+        return path.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -386,9 +386,9 @@ public class ProcessDefinitionControllerTest {
         long projectCode = 1L;
         HttpServletResponse response = new MockHttpServletResponse();
         Mockito.doNothing().when(this.processDefinitionService).batchExportProcessDefinitionByCodes(user, projectCode,
-                processDefinitionIds, response);
+                processDefinitionIds, false, response);
         processDefinitionController.batchExportProcessDefinitionByCodes(user, projectCode, processDefinitionIds,
-                response);
+                false, response);
     }
 
     @Test
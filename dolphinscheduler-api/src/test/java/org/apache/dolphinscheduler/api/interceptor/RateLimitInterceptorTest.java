@@ -18,8 +18,11 @@
 package org.apache.dolphinscheduler.api.interceptor;
 
 import org.apache.dolphinscheduler.api.configuration.TrafficConfiguration;
+import org.apache.dolphinscheduler.common.constants.Constants;
+import org.apache.dolphinscheduler.dao.entity.User;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 
@@ -85,4 +88,74 @@ public class RateLimitInterceptorTest {
         Assertions.assertFalse(rateLimitInterceptor.preHandle(request, response, null));
     }
 
+    @Test
+    public void testPreHandleWithEndpointControl() throws ExecutionException {
+        TrafficConfiguration trafficConfiguration = new TrafficConfiguration();
+        Map<String, Integer> endpointQpsRate = new HashMap<>();
+        endpointQpsRate.put("/projects/*/process-definition/batch-export", 20);
+        trafficConfiguration.setEndpointQpsRate(endpointQpsRate);
+        Map<String, Integer> endpointCost = new HashMap<>();
+        endpointCost.put("/projects/*/process-definition/batch-export", 10);
+        trafficConfiguration.setEndpointCost(endpointCost);
+        RateLimitInterceptor rateLimitInterceptor = new RateLimitInterceptor(trafficConfiguration);
+
+        HttpServletRequest exportRequest = Mockito.mock(HttpServletRequest.class);
+        Mockito.when(exportRequest.getServletPath()).thenReturn("/projects/1/process-definition/batch-export");
+        HttpServletRequest otherRequest = Mockito.mock(HttpServletRequest.class);
+        Mockito.when(otherRequest.getServletPath()).thenReturn("/projects/1/process-definition");
+        HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+
+        // one export costs 10 permits of the 20 permits per second
+        for (int i = 0; i < 2; i++) {
+            rateLimitInterceptor.preHandle(exportRequest, response, null);
+        }
+        Assertions.assertFalse(rateLimitInterceptor.preHandle(exportRequest, response, null));
+        Assertions.assertTrue(rateLimitInterceptor.preHandle(otherRequest, response, null));
+    }
+
+    @Test
+    public void testShareAuthenticatedTenantOnly() throws ExecutionException {
+        TrafficConfiguration trafficConfiguration = new TrafficConfiguration();
+        trafficConfiguration.setTenantSwitch(true);
+        trafficConfiguration.setMaxTenantRateLimiterSize(2);
+        RateLimitInterceptor rateLimitInterceptor = new RateLimitInterceptor(trafficConfiguration);
+        HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+
+        HttpServletRequest anonymousRequest = Mockito.mock(HttpServletRequest.class);
+        Mockito.when(anonymousRequest.getHeader(Mockito.any())).thenReturn("invalid");
+        rateLimitInterceptor.preHandle(anonymousRequest, response, null);
+        rateLimitInterceptor.afterCompletion(anonymousRequest, response, null, null);
+        Assertions.assertTrue(rateLimitInterceptor.getQuotaLimiters().isEmpty());
+
+        // the tenant rate limiters are bounded, even if every request comes with a new token
+        for (int i = 0; i < 5; i++) {
+            HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+            Mockito.when(request.getHeader(Mockito.any())).thenReturn("tenant" + i);
+            Mockito.when(request.getAttribute(Constants.SESSION_USER)).thenReturn(new User());
+            rateLimitInterceptor.preHandle(request, response, null);
+            rateLimitInterceptor.afterCompletion(request, response, null, null);
+        }
+        List<RateLimitInterceptor.QuotaLimiter> quotaLimiters = rateLimitInterceptor.getQuotaLimiters();
+        Assertions.assertEquals(2, quotaLimiters.size());
+        Assertions.assertTrue(quotaLimiters.get(0).getKey().startsWith(RateLimitInterceptor.TENANT_LIMITER_KEY_PREFIX));
+    }
+
+    @Test
+    public void testShareQuota() throws ExecutionException {
+        TrafficConfiguration trafficConfiguration = new TrafficConfiguration();
+        trafficConfiguration.setGlobalSwitch(true);
+        trafficConfiguration.setMaxGlobalQpsRate(100);
+        RateLimitInterceptor rateLimitInterceptor = new RateLimitInterceptor(trafficConfiguration);
+        HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+        rateLimitInterceptor.preHandle(request, response, null);
+
+        RateLimitInterceptor.QuotaLimiter globalRateLimiter = rateLimitInterceptor.getQuotaLimiters().get(0);
+        Assertions.assertEquals(RateLimitInterceptor.GLOBAL_LIMITER_KEY, globalRateLimiter.getKey());
+        Assertions.assertEquals(1, globalRateLimiter.drainDemand());
+        Assertions.assertEquals(0, globalRateLimiter.drainDemand());
+
+        globalRateLimiter.share(0.25);
+        Assertions.assertEquals(25, globalRateLimiter.getRate(), 0.001);
+    }
 }
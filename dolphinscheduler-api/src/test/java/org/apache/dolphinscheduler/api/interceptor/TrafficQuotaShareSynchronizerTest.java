@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.api.interceptor;
+
+import org.apache.dolphinscheduler.api.configuration.TrafficConfiguration;
+import org.apache.dolphinscheduler.api.interceptor.RateLimitInterceptor.QuotaLimiter;
+import org.apache.dolphinscheduler.common.utils.NetUtils;
+import org.apache.dolphinscheduler.dao.entity.TrafficQuotaShare;
+import org.apache.dolphinscheduler.dao.mapper.TrafficQuotaShareMapper;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.ExecutionException;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class TrafficQuotaShareSynchronizerTest {
+
+    private static final int PORT = 12345;
+
+    @Mock
+    private TrafficQuotaShareMapper trafficQuotaShareMapper;
+
+    private TrafficConfiguration trafficConfiguration;
+
+    private RateLimitInterceptor rateLimitInterceptor;
+
+    private TrafficQuotaShareSynchronizer trafficQuotaShareSynchronizer;
+
+    @BeforeEach
+    public void before() throws ExecutionException {
+        trafficConfiguration = new TrafficConfiguration();
+        trafficConfiguration.setGlobalSwitch(true);
+        trafficConfiguration.setMaxGlobalQpsRate(100);
+        rateLimitInterceptor = new RateLimitInterceptor(trafficConfiguration);
+        trafficQuotaShareSynchronizer = new TrafficQuotaShareSynchronizer(trafficConfiguration,
+                rateLimitInterceptor, trafficQuotaShareMapper, PORT);
+
+        HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+        for (int i = 0; i < 2; i++) {
+            rateLimitInterceptor.preHandle(request, response, null);
+        }
+    }
+
+    @Test
+    public void testShareInProportionToDemand() {
+        String host = NetUtils.getAddr(PORT);
+        Mockito.when(trafficQuotaShareMapper.updateDemandByHost(Mockito.eq(host), Mockito.any(), Mockito.any()))
+                .thenReturn(1);
+        Mockito.when(trafficQuotaShareMapper.queryUpdatedAfter(Mockito.any())).thenReturn(Arrays.asList(
+                TrafficQuotaShare.builder().host(host).demand("{\"global\":2}").updateTime(new Date()).build(),
+                TrafficQuotaShare.builder().host("other").demand("{\"global\":6}").updateTime(new Date()).build()));
+
+        trafficQuotaShareSynchronizer.sync();
+
+        ArgumentCaptor<String> demandCaptor = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(trafficQuotaShareMapper).updateDemandByHost(Mockito.eq(host), demandCaptor.capture(),
+                Mockito.any());
+        Assertions.assertEquals("{\"global\":2}", demandCaptor.getValue());
+        Mockito.verify(trafficQuotaShareMapper, Mockito.never()).insert(Mockito.any(TrafficQuotaShare.class));
+        // (1 / 2 + 2 / 8) / 2 of the quota
+        QuotaLimiter globalRateLimiter = rateLimitInterceptor.getQuotaLimiters().get(0);
+        Assertions.assertEquals(37.5, globalRateLimiter.getRate(), 0.001);
+    }
+
+    @Test
+    public void testQuietServerKeepsHalfEvenShare() {
+        String host = NetUtils.getAddr(PORT);
+        Mockito.when(trafficQuotaShareMapper.updateDemandByHost(Mockito.eq(host), Mockito.any(), Mockito.any()))
+                .thenReturn(1);
+        Mockito.when(trafficQuotaShareMapper.queryUpdatedAfter(Mockito.any())).thenReturn(Arrays.asList(
+                TrafficQuotaShare.builder().host(host).demand("{\"global\":2}").updateTime(new Date()).build(),
+                TrafficQuotaShare.builder().host("other").demand("{\"global\":1998}").updateTime(new Date()).build()));
+
+        trafficQuotaShareSynchronizer.sync();
+
+        // (1 / 2 + 2 / 2000) / 2 of the quota
+        QuotaLimiter globalRateLimiter = rateLimitInterceptor.getQuotaLimiters().get(0);
+        Assertions.assertEquals(25.05, globalRateLimiter.getRate(), 0.001);
+    }
+
+    @Test
+    public void testStopSyncingBeforeDeleteShare() throws InterruptedException {
+        String host = NetUtils.getAddr(PORT);
+        trafficConfiguration.setClusterShareSyncInterval(Duration.ofMillis(10));
+        trafficQuotaShareSynchronizer.init();
+        Mockito.verify(trafficQuotaShareMapper, Mockito.timeout(5000).atLeastOnce())
+                .updateDemandByHost(Mockito.eq(host), Mockito.any(), Mockito.any());
+
+        trafficQuotaShareSynchronizer.close();
+        Mockito.verify(trafficQuotaShareMapper, Mockito.times(2)).deleteByHost(host);
+        Mockito.clearInvocations(trafficQuotaShareMapper);
+        Thread.sleep(100);
+        // the share is not published again after it is deleted
+        Mockito.verifyNoInteractions(trafficQuotaShareMapper);
+    }
+
+    @Test
+    public void testInsertShareOfNewServer() {
+        Mockito.when(trafficQuotaShareMapper.updateDemandByHost(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(0);
+
+        trafficQuotaShareSynchronizer.sync();
+
+        ArgumentCaptor<TrafficQuotaShare> shareCaptor = ArgumentCaptor.forClass(TrafficQuotaShare.class);
+        Mockito.verify(trafficQuotaShareMapper).insert(shareCaptor.capture());
+        Assertions.assertEquals(NetUtils.getAddr(PORT), shareCaptor.getValue().getHost());
+        // the only api server keeps the whole quota
+        QuotaLimiter globalRateLimiter = rateLimitInterceptor.getQuotaLimiters().get(0);
+        Assertions.assertEquals(100, globalRateLimiter.getRate(), 0.001);
+    }
+}
@@ -17,6 +17,7 @@
 
 package org.apache.dolphinscheduler.api.permission;
 
+import org.apache.dolphinscheduler.api.configuration.AuthorizationCacheConfiguration;
 import org.apache.dolphinscheduler.api.constants.ApiFuncIdentificationConstant;
 import org.apache.dolphinscheduler.common.enums.AuthorizationType;
 import org.apache.dolphinscheduler.common.enums.UserType;
@@ -26,6 +27,7 @@ import org.apache.dolphinscheduler.dao.mapper.ProjectMapper;
 import org.apache.dolphinscheduler.service.process.ProcessService;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.junit.jupiter.api.Assertions;
@@ -35,9 +37,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * permission service test
@@ -53,6 +58,10 @@ public class ResourcePermissionCheckServiceTest {
     @Mock
     private ProjectMapper projectMapper;
 
+    @Spy
+    private AuthorizedResourceCache authorizedResourceCache =
+            new AuthorizedResourceCache(new AuthorizationCacheConfiguration());
+
     @InjectMocks
     ResourcePermissionCheckServiceImpl resourcePermissionCheckService;
 
@@ -84,6 +93,59 @@ public class ResourcePermissionCheckServiceTest {
                 new Object[]{4, 5}, user.getId(), logger));
     }
 
+    @Test
+    public void testResourcePermissionCheckWithCache() {
+        User user = getGeneralUser();
+        Mockito.when(projectMapper.listAuthorizedProjects(user.getId(), null))
+                .thenReturn(Arrays.asList(getProject(1), getProject(2)));
+        Assertions.assertTrue(resourcePermissionCheckService.resourcePermissionCheck(AuthorizationType.PROJECTS,
+                new Object[]{1}, user.getId(), logger));
+        Assertions.assertTrue(resourcePermissionCheckService.resourcePermissionCheck(AuthorizationType.PROJECTS,
+                new Object[]{1, 2}, user.getId(), logger));
+        Mockito.verify(projectMapper, Mockito.times(1)).listAuthorizedProjects(user.getId(), null);
+
+        // the project granted after cached is reloaded from DB
+        Mockito.when(projectMapper.listAuthorizedProjects(user.getId(), null))
+                .thenReturn(Arrays.asList(getProject(1), getProject(2), getProject(3)));
+        Assertions.assertTrue(resourcePermissionCheckService.resourcePermissionCheck(AuthorizationType.PROJECTS,
+                new Object[]{3}, user.getId(), logger));
+        Mockito.verify(projectMapper, Mockito.times(2)).listAuthorizedProjects(user.getId(), null);
+
+        // the revoked project is reloaded after the cache invalidated
+        Mockito.when(projectMapper.listAuthorizedProjects(user.getId(), null))
+                .thenReturn(Arrays.asList(getProject(2), getProject(3)));
+        authorizedResourceCache.invalidateUser(user.getId());
+        Assertions.assertFalse(resourcePermissionCheckService.resourcePermissionCheck(AuthorizationType.PROJECTS,
+                new Object[]{1}, user.getId(), logger));
+    }
+
+    @Test
+    public void testCacheInvalidatedAfterCommit() {
+        User user = getGeneralUser();
+        Mockito.when(projectMapper.listAuthorizedProjects(user.getId(), null))
+                .thenReturn(Arrays.asList(getProject(1), getProject(2)));
+        Assertions.assertTrue(resourcePermissionCheckService.resourcePermissionCheck(AuthorizationType.PROJECTS,
+                new Object[]{1}, user.getId(), logger));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // the project is revoked in the transaction, the cache is kept until the commit
+            authorizedResourceCache.invalidateUserAfterCommit(user.getId());
+            Mockito.verify(authorizedResourceCache, Mockito.never()).invalidateUser(user.getId());
+            Mockito.when(projectMapper.listAuthorizedProjects(user.getId(), null))
+                    .thenReturn(Collections.singletonList(getProject(2)));
+            Assertions.assertTrue(resourcePermissionCheckService.resourcePermissionCheck(AuthorizationType.PROJECTS,
+                    new Object[]{1}, user.getId(), logger));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            Mockito.verify(authorizedResourceCache).invalidateUser(user.getId());
+            Assertions.assertFalse(resourcePermissionCheckService.resourcePermissionCheck(AuthorizationType.PROJECTS,
+                    new Object[]{1}, user.getId(), logger));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
     @Test
     public void testOperationPermissionCheck() {
         User user = getGeneralUser();
@@ -17,20 +17,38 @@
 
 package org.apache.dolphinscheduler.api.python;
 
+import org.apache.dolphinscheduler.api.enums.Status;
+import org.apache.dolphinscheduler.api.service.ProcessDefinitionService;
+import org.apache.dolphinscheduler.api.service.ProjectService;
 import org.apache.dolphinscheduler.api.service.ResourcesService;
+import org.apache.dolphinscheduler.api.service.UsersService;
+import org.apache.dolphinscheduler.common.constants.Constants;
+import org.apache.dolphinscheduler.common.enums.ConditionType;
+import org.apache.dolphinscheduler.common.enums.ProcessExecutionTypeEnum;
+import org.apache.dolphinscheduler.common.enums.ReleaseState;
 import org.apache.dolphinscheduler.common.utils.CodeGenerateUtils;
+import org.apache.dolphinscheduler.common.utils.JSONUtils;
 import org.apache.dolphinscheduler.dao.entity.ProcessDefinition;
+import org.apache.dolphinscheduler.dao.entity.ProcessTaskRelation;
 import org.apache.dolphinscheduler.dao.entity.Project;
 import org.apache.dolphinscheduler.dao.entity.TaskDefinition;
 import org.apache.dolphinscheduler.dao.entity.User;
 import org.apache.dolphinscheduler.dao.mapper.ProcessDefinitionMapper;
+import org.apache.dolphinscheduler.dao.mapper.ProcessTaskRelationMapper;
 import org.apache.dolphinscheduler.dao.mapper.ProjectMapper;
+import org.apache.dolphinscheduler.dao.mapper.ScheduleMapper;
 import org.apache.dolphinscheduler.dao.mapper.TaskDefinitionMapper;
 import org.apache.dolphinscheduler.plugin.storage.api.StorageEntity;
 import org.apache.dolphinscheduler.spi.enums.ResourceType;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -39,6 +57,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * python gate test
@@ -61,6 +81,24 @@ public class PythonGatewayTest {
     @Mock
     private ResourcesService resourcesService;
 
+    @Mock
+    private UsersService usersService;
+
+    @Mock
+    private ProjectService projectService;
+
+    @Mock
+    private ProcessDefinitionService processDefinitionService;
+
+    @Mock
+    private ProcessTaskRelationMapper processTaskRelationMapper;
+
+    @Mock
+    private ScheduleMapper scheduleMapper;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     @Test
     public void testGetCodeAndVersion() throws CodeGenerateUtils.CodeGenerateException {
         Project project = getTestProject();
@@ -97,6 +135,76 @@ public class PythonGatewayTest {
         Assertions.assertEquals((long) result.get("taskDefinitionCode"), taskDefinition.getCode());
     }
 
+    @Test
+    public void testCreateOrUpdateWorkflowsSkipUnchanged() {
+        User user = getTestUser();
+        user.setTenantCode(Constants.DEFAULT);
+        Mockito.when(usersService.queryUser(user.getUserName())).thenReturn(user);
+        Project project = getTestProject();
+        Mockito.when(projectMapper.queryByName(project.getName())).thenReturn(project);
+
+        ProcessDefinition processDefinition = getTestProcessDefinition();
+        processDefinition.setReleaseState(ReleaseState.ONLINE);
+        processDefinition.setGlobalParams("[]");
+        processDefinition.setTenantId(-1);
+        processDefinition.setExecutionType(ProcessExecutionTypeEnum.PARALLEL);
+        Mockito.when(processDefinitionMapper.queryAllDefinitionList(project.getCode()))
+                .thenReturn(Collections.singletonList(processDefinition));
+        TaskDefinition taskDefinition = getTestTaskDefinition();
+        taskDefinition.setTaskParams("{\"localParams\":[],\"rawScript\":\"echo 1\"}");
+        taskDefinition.setCpuQuota(-1);
+        taskDefinition.setMemoryMax(-1);
+        Mockito.when(taskDefinitionMapper.queryAllDefinitionList(project.getCode()))
+                .thenReturn(Collections.singletonList(taskDefinition));
+        ProcessTaskRelation taskRelation = new ProcessTaskRelation();
+        taskRelation.setProcessDefinitionCode(processDefinition.getCode());
+        taskRelation.setPostTaskCode(taskDefinition.getCode());
+        taskRelation.setConditionType(ConditionType.NONE);
+        taskRelation.setConditionParams("{}");
+        Mockito.when(processTaskRelationMapper.queryByProcessCodes(project.getCode(),
+                Collections.singletonList(processDefinition.getCode())))
+                .thenReturn(Collections.singletonList(taskRelation));
+
+        ProcessDefinition newProcessDefinition = getTestProcessDefinition();
+        newProcessDefinition.setCode(2L);
+        newProcessDefinition.setName("ut-new-process-definition");
+        Map<String, Object> createResult = new HashMap<>();
+        createResult.put(Constants.STATUS, Status.SUCCESS);
+        createResult.put(Constants.DATA_LIST, newProcessDefinition);
+        Mockito.when(processDefinitionService.createProcessDefinition(Mockito.any(), Mockito.anyLong(),
+                Mockito.eq(newProcessDefinition.getName()), Mockito.any(), Mockito.any(), Mockito.any(),
+                Mockito.anyInt(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(createResult);
+        Mockito.doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(Mockito.any());
+
+        String taskDefinitionJson = JSONUtils.toJsonString(Collections.singletonList(taskDefinition));
+        String taskRelationJson = JSONUtils.toJsonString(Collections.singletonList(taskRelation));
+        List<WorkflowSpec> workflowSpecs = new ArrayList<>();
+        for (String name : Arrays.asList(processDefinition.getName(), newProcessDefinition.getName())) {
+            WorkflowSpec workflowSpec = new WorkflowSpec();
+            workflowSpec.setName(name);
+            workflowSpec.setGlobalParams("[]");
+            workflowSpec.setTaskDefinitionJson(taskDefinitionJson);
+            workflowSpec.setTaskRelationJson(taskRelationJson);
+            workflowSpecs.add(workflowSpec);
+        }
+        Map<String, Long> result = pythonGateway.createOrUpdateWorkflows(user.getUserName(), project.getName(),
+                JSONUtils.toJsonString(workflowSpecs));
+
+        Assertions.assertEquals(processDefinition.getCode(), result.get(processDefinition.getName()));
+        Assertions.assertEquals(newProcessDefinition.getCode(), result.get(newProcessDefinition.getName()));
+        Mockito.verify(processDefinitionService, Mockito.never()).updateProcessDefinition(Mockito.any(),
+                Mockito.anyLong(), Mockito.any(), Mockito.anyLong(), Mockito.any(), Mockito.any(), Mockito.any(),
+                Mockito.anyInt(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+        Mockito.verify(processDefinitionService).releaseProcessDefinition(user, project.getCode(),
+                newProcessDefinition.getCode(), ReleaseState.ONLINE);
+        Mockito.verify(processDefinitionService, Mockito.never()).releaseProcessDefinition(user, project.getCode(),
+                processDefinition.getCode(), ReleaseState.OFFLINE);
+    }
+
     @Test
     public void testCreateResource() {
         User user = getTestUser();
@@ -21,6 +21,7 @@ import static org.mockito.Mockito.when;
 
 import org.apache.dolphinscheduler.api.controller.AbstractControllerTest;
 import org.apache.dolphinscheduler.api.enums.Status;
+import org.apache.dolphinscheduler.api.security.SessionUserCache;
 import org.apache.dolphinscheduler.api.service.SessionService;
 import org.apache.dolphinscheduler.api.service.UsersService;
 import org.apache.dolphinscheduler.api.utils.Result;
@@ -52,6 +53,8 @@ public class PasswordAuthenticatorTest extends AbstractControllerTest {
     private SessionService sessionService;
     @MockBean
     private UsersService usersService;
+    @Autowired
+    private SessionUserCache sessionUserCache;
 
     private PasswordAuthenticator authenticator;
 
@@ -105,9 +108,22 @@ public class PasswordAuthenticatorTest extends AbstractControllerTest {
     public void testGetAuthUser() {
         HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
         when(usersService.queryUser(mockUser.getId())).thenReturn(mockUser);
+        when(sessionService.getSessionId(request)).thenReturn(mockSession.getId());
         when(sessionService.getSession(request)).thenReturn(mockSession);
 
         User user = authenticator.getAuthUser(request);
         Assertions.assertNotNull(user);
+
+        // the login user of the session is served by the cache
+        user = authenticator.getAuthUser(request);
+        Assertions.assertNotNull(user);
+        Mockito.verify(sessionService, Mockito.times(1)).getSession(request);
+        Mockito.verify(usersService, Mockito.times(1)).queryUser(mockUser.getId());
+
+        // the cached login user is invalidated when the user is updated
+        sessionUserCache.invalidateUser(mockUser.getId());
+        user = authenticator.getAuthUser(request);
+        Assertions.assertNotNull(user);
+        Mockito.verify(sessionService, Mockito.times(2)).getSession(request);
     }
 }
@@ -83,6 +83,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -238,6 +239,8 @@ public class ExecuteFunctionServiceTest {
         Mockito.when(processService.getTenantForProcess(tenantId, userId)).thenReturn(new Tenant());
         doReturn(1).when(commandService).createCommand(argThat(c -> c.getId() == null));
         doReturn(0).when(commandService).createCommand(argThat(c -> c.getId() != null));
+        Mockito.when(commandService.batchCreateCommand(Mockito.anyList()))
+                .thenAnswer(invocation -> invocation.<List<Command>>getArgument(0).size());
         Mockito.when(monitorService.getServerListFromRegistry(true)).thenReturn(getMasterServersList());
         Mockito.when(processService.findProcessInstanceDetailById(processInstanceId))
                 .thenReturn(Optional.ofNullable(processInstance));
@@ -366,6 +369,15 @@ public class ExecuteFunctionServiceTest {
 
         int count = executorService.createComplementDependentCommand(schedules, command);
         Assertions.assertEquals(1, count);
+
+        ArgumentCaptor<List<Command>> captor = ArgumentCaptor.forClass(List.class);
+        verify(commandService).batchCreateCommand(captor.capture());
+        Command dependentCommand = captor.getValue().get(0);
+        Assertions.assertNull(dependentCommand.getId());
+        Assertions.assertEquals(2, dependentCommand.getProcessDefinitionCode());
+        Assertions.assertEquals(TaskDependType.TASK_POST, dependentCommand.getTaskDependType());
+        // the origin command is not changed
+        Assertions.assertEquals(processDefinitionCode, command.getProcessDefinitionCode());
     }
 
     /**
@@ -388,6 +400,7 @@ public class ExecuteFunctionServiceTest {
                 ComplementDependentMode.OFF_MODE, null);
         Assertions.assertEquals(Status.START_PROCESS_INSTANCE_ERROR, result.get(Constants.STATUS));
         verify(commandService, times(0)).createCommand(any(Command.class));
+        verify(commandService, times(0)).batchCreateCommand(Mockito.anyList());
     }
 
     /**
@@ -409,7 +422,7 @@ public class ExecuteFunctionServiceTest {
                 Constants.TEST_FLAG_NO,
                 ComplementDependentMode.OFF_MODE, null);
         Assertions.assertEquals(Status.SUCCESS, result.get(Constants.STATUS));
-        verify(commandService, times(1)).createCommand(any(Command.class));
+        Assertions.assertEquals(1, countBatchCreatedCommands());
     }
 
     /**
@@ -431,7 +444,10 @@ public class ExecuteFunctionServiceTest {
                 Constants.TEST_FLAG_NO,
                 ComplementDependentMode.OFF_MODE, null);
         Assertions.assertEquals(Status.SUCCESS, result.get(Constants.STATUS));
-        verify(commandService, times(31)).createCommand(any(Command.class));
+        // the complement commands are created in one batch
+        verify(commandService, times(1)).batchCreateCommand(Mockito.anyList());
+        Assertions.assertEquals(31, countBatchCreatedCommands());
+        verify(commandService, times(0)).createCommand(any(Command.class));
 
     }
 
@@ -454,7 +470,7 @@ public class ExecuteFunctionServiceTest {
                 Constants.TEST_FLAG_NO,
                 ComplementDependentMode.OFF_MODE, null);
         Assertions.assertEquals(Status.SUCCESS, result.get(Constants.STATUS));
-        verify(commandService, times(15)).createCommand(any(Command.class));
+        Assertions.assertEquals(15, countBatchCreatedCommands());
 
     }
 
@@ -651,4 +667,9 @@ public class ExecuteFunctionServiceTest {
 
     }
 
+    private int countBatchCreatedCommands() {
+        ArgumentCaptor<List<Command>> captor = ArgumentCaptor.forClass(List.class);
+        verify(commandService, Mockito.atLeastOnce()).batchCreateCommand(captor.capture());
+        return captor.getAllValues().stream().mapToInt(List::size).sum();
+    }
 }
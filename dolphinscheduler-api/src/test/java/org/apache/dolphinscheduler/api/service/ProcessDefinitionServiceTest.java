@@ -32,6 +32,8 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.Mockito.times;
 
+import org.apache.dolphinscheduler.api.dto.DagDataSchedule;
+import org.apache.dolphinscheduler.api.dto.treeview.TreeViewDto;
 import org.apache.dolphinscheduler.api.dto.workflow.WorkflowCreateRequest;
 import org.apache.dolphinscheduler.api.dto.workflow.WorkflowFilterRequest;
 import org.apache.dolphinscheduler.api.dto.workflow.WorkflowUpdateRequest;
@@ -42,21 +44,26 @@ import org.apache.dolphinscheduler.api.service.impl.ProjectServiceImpl;
 import org.apache.dolphinscheduler.api.utils.PageInfo;
 import org.apache.dolphinscheduler.common.constants.Constants;
 import org.apache.dolphinscheduler.common.enums.FailureStrategy;
+import org.apache.dolphinscheduler.common.enums.Flag;
 import org.apache.dolphinscheduler.common.enums.Priority;
 import org.apache.dolphinscheduler.common.enums.ProcessExecutionTypeEnum;
 import org.apache.dolphinscheduler.common.enums.ReleaseState;
 import org.apache.dolphinscheduler.common.enums.UserType;
 import org.apache.dolphinscheduler.common.enums.WarningType;
+import org.apache.dolphinscheduler.common.enums.WorkflowExecutionStatus;
 import org.apache.dolphinscheduler.common.graph.DAG;
+import org.apache.dolphinscheduler.common.model.TaskNodeRelation;
 import org.apache.dolphinscheduler.common.utils.DateUtils;
 import org.apache.dolphinscheduler.common.utils.JSONUtils;
 import org.apache.dolphinscheduler.dao.entity.DagData;
 import org.apache.dolphinscheduler.dao.entity.DataSource;
 import org.apache.dolphinscheduler.dao.entity.ProcessDefinition;
+import org.apache.dolphinscheduler.dao.entity.ProcessInstance;
 import org.apache.dolphinscheduler.dao.entity.ProcessTaskRelation;
 import org.apache.dolphinscheduler.dao.entity.Project;
 import org.apache.dolphinscheduler.dao.entity.Schedule;
 import org.apache.dolphinscheduler.dao.entity.TaskDefinitionLog;
+import org.apache.dolphinscheduler.dao.entity.TaskInstance;
 import org.apache.dolphinscheduler.dao.entity.TaskMainInfo;
 import org.apache.dolphinscheduler.dao.entity.Tenant;
 import org.apache.dolphinscheduler.dao.entity.User;
@@ -68,17 +75,22 @@ import org.apache.dolphinscheduler.dao.mapper.ProcessTaskRelationMapper;
 import org.apache.dolphinscheduler.dao.mapper.ProjectMapper;
 import org.apache.dolphinscheduler.dao.mapper.ScheduleMapper;
 import org.apache.dolphinscheduler.dao.mapper.TaskDefinitionMapper;
+import org.apache.dolphinscheduler.dao.mapper.TaskInstanceMapper;
 import org.apache.dolphinscheduler.dao.mapper.TenantMapper;
 import org.apache.dolphinscheduler.dao.mapper.UserMapper;
 import org.apache.dolphinscheduler.dao.model.PageListingResult;
 import org.apache.dolphinscheduler.dao.repository.ProcessDefinitionDao;
 import org.apache.dolphinscheduler.dao.repository.ProcessDefinitionLogDao;
 import org.apache.dolphinscheduler.dao.repository.TaskDefinitionLogDao;
+import org.apache.dolphinscheduler.plugin.task.api.enums.TaskExecutionStatus;
+import org.apache.dolphinscheduler.service.model.TaskNode;
 import org.apache.dolphinscheduler.service.process.ProcessService;
 import org.apache.dolphinscheduler.spi.enums.DbType;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
@@ -93,6 +105,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -106,6 +119,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.mock.web.MockMultipartFile;
 
 import com.google.common.collect.ImmutableSet;
@@ -191,6 +205,9 @@ public class ProcessDefinitionServiceTest extends BaseServiceTestTool {
     @Mock
     private UserMapper userMapper;
 
+    @Mock
+    private TaskInstanceMapper taskInstanceMapper;
+
     protected User user;
     protected Exception exception;
     protected final static long projectCode = 1L;
@@ -801,6 +818,53 @@ public class ProcessDefinitionServiceTest extends BaseServiceTestTool {
         Assertions.assertEquals(Status.SUCCESS, taskNotNuLLRes.get(Constants.STATUS));
     }
 
+    @Test
+    public void testViewTreeQueryCountIndependentOfDagSize() {
+        ProcessDefinition processDefinition = getProcessDefinition();
+        Project project1 = getProject(1);
+        Map<String, Object> result = new HashMap<>();
+        result.put(Constants.STATUS, Status.SUCCESS);
+        Mockito.when(projectMapper.queryByCode(1)).thenReturn(project1);
+        Mockito.when(projectService.checkProjectAndAuth(user, project1, 1, WORKFLOW_TREE_VIEW)).thenReturn(result);
+        Mockito.when(processDefinitionMapper.queryByCode(46L)).thenReturn(processDefinition);
+        Mockito.when(taskDefinitionLogDao.getTaskDefineLogList(any())).thenReturn(new ArrayList<>());
+        List<ProcessInstance> processInstances = Arrays.asList(getProcessInstance(1), getProcessInstance(2));
+        Mockito.when(processInstanceService.queryByProcessDefineCode(46L, 10)).thenReturn(processInstances);
+
+        for (int dagSize : new int[]{1, 10, 100}) {
+            Mockito.clearInvocations(taskInstanceMapper);
+            DAG<String, TaskNode, TaskNodeRelation> dag = new DAG<>();
+            List<TaskInstance> taskInstances = new ArrayList<>();
+            for (int i = 0; i < dagSize; i++) {
+                TaskNode taskNode = new TaskNode();
+                taskNode.setCode(i);
+                taskNode.setName("task" + i);
+                taskNode.setType("SHELL");
+                dag.addNode(String.valueOf(i), taskNode);
+                if (i > 0) {
+                    dag.addEdge(String.valueOf(i - 1), String.valueOf(i));
+                }
+                for (ProcessInstance processInstance : processInstances) {
+                    taskInstances.add(getTaskInstance(processInstance.getId(), i));
+                }
+            }
+            Mockito.when(processService.genDagGraph(processDefinition)).thenReturn(dag);
+            Mockito.when(taskInstanceMapper.findValidTaskListByProcessIds(Arrays.asList(1, 2), Flag.YES))
+                    .thenReturn(taskInstances);
+
+            Map<String, Object> viewTreeRes =
+                    processDefinitionService.viewTree(user, processDefinition.getProjectCode(), 46, 10);
+            Assertions.assertEquals(Status.SUCCESS, viewTreeRes.get(Constants.STATUS));
+            Mockito.verify(taskInstanceMapper, times(1)).findValidTaskListByProcessIds(any(), any());
+            Mockito.verify(taskInstanceMapper, Mockito.never()).queryByInstanceIdAndCode(Mockito.anyInt(),
+                    Mockito.anyLong());
+
+            TreeViewDto treeViewDto = ((TreeViewDto) viewTreeRes.get(Constants.DATA_LIST)).getChildren().get(0);
+            Assertions.assertEquals(processInstances.size(), treeViewDto.getInstances().size());
+            Assertions.assertNotEquals("not running", treeViewDto.getInstances().get(0).getName());
+        }
+    }
+
     @Test
     public void testSubProcessViewTree() {
         ProcessDefinition processDefinition = getProcessDefinition();
@@ -842,13 +906,13 @@ public class ProcessDefinitionServiceTest extends BaseServiceTestTool {
 
     @Test
     public void testBatchExportProcessDefinitionByCodes() {
-        processDefinitionService.batchExportProcessDefinitionByCodes(null, 1L, null, null);
+        processDefinitionService.batchExportProcessDefinitionByCodes(null, 1L, null, false, null);
         Project project = getProject(projectCode);
 
         Map<String, Object> result = new HashMap<>();
         putMsg(result, Status.PROJECT_NOT_FOUND);
         Mockito.when(projectMapper.queryByCode(projectCode)).thenReturn(getProject(projectCode));
-        processDefinitionService.batchExportProcessDefinitionByCodes(user, projectCode, "1", null);
+        processDefinitionService.batchExportProcessDefinitionByCodes(user, projectCode, "1", false, null);
 
         ProcessDefinition processDefinition = new ProcessDefinition();
         processDefinition.setId(1);
@@ -857,10 +921,47 @@ public class ProcessDefinitionServiceTest extends BaseServiceTestTool {
 
         DagData dagData = new DagData(getProcessDefinition(), null, null);
         Mockito.when(processService.genDagData(Mockito.any())).thenReturn(dagData);
-        processDefinitionService.batchExportProcessDefinitionByCodes(user, projectCode, "1", response);
+        processDefinitionService.batchExportProcessDefinitionByCodes(user, projectCode, "1", false, response);
         Assertions.assertNotNull(processDefinitionService.exportProcessDagData(processDefinition));
     }
 
+    @Test
+    public void testExportAndImportCompressedProcessDefinition() throws Exception {
+        Project project = getProject(projectCode);
+        Mockito.when(projectMapper.queryByCode(projectCode)).thenReturn(project);
+        Map<String, Object> result = new HashMap<>();
+        putMsg(result, Status.SUCCESS);
+        Mockito.when(projectService.checkProjectAndAuth(Mockito.eq(user), Mockito.eq(project),
+                Mockito.eq(projectCode), Mockito.any())).thenReturn(result);
+        Mockito.when(processDefinitionMapper.queryByCodes(Mockito.anyCollection()))
+                .thenReturn(Collections.singletonList(getProcessDefinition()));
+        Mockito.when(processService.genDagData(Mockito.any()))
+                .thenReturn(new DagData(getProcessDefinition(), null, null));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        processDefinitionService.batchExportProcessDefinitionByCodes(user, projectCode,
+                String.valueOf(processDefinitionCode), true, response);
+        List<DagDataSchedule> dagDataSchedules;
+        try (
+                GZIPInputStream inputStream = new GZIPInputStream(
+                        new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            dagDataSchedules = JSONUtils.toList(IOUtils.toString(inputStream, StandardCharsets.UTF_8),
+                    DagDataSchedule.class);
+        }
+        Assertions.assertEquals(1, dagDataSchedules.size());
+        Assertions.assertEquals("test_pdf", dagDataSchedules.get(0).getProcessDefinition().getName());
+
+        // the compressed file is decompressed when importing, the dag without task definitions is rejected
+        MockMultipartFile file = new MockMultipartFile("export.json.gz", response.getContentAsByteArray());
+        Map<String, Object> importResult = processDefinitionService.importProcessDefinition(user, projectCode, file);
+        Assertions.assertEquals(Status.DATA_IS_NULL, importResult.get(Constants.STATUS));
+        Assertions.assertTrue(((String) importResult.get(Constants.MSG)).contains("TaskDefinitionList"));
+
+        importResult = processDefinitionService.importProcessDefinition(user, projectCode,
+                new MockMultipartFile("export.json", "[]".getBytes(StandardCharsets.UTF_8)));
+        Assertions.assertEquals(Status.DATA_IS_NULL, importResult.get(Constants.STATUS));
+    }
+
     @Test
     public void testImportSqlProcessDefinition() throws Exception {
         ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
@@ -1162,6 +1263,28 @@ public class ProcessDefinitionServiceTest extends BaseServiceTestTool {
         return processDefinition;
     }
 
+    private ProcessInstance getProcessInstance(int id) {
+        ProcessInstance processInstance = new ProcessInstance();
+        processInstance.setId(id);
+        processInstance.setName("processInstance" + id);
+        processInstance.setProcessDefinitionCode(46L);
+        processInstance.setState(WorkflowExecutionStatus.SUCCESS);
+        processInstance.setStartTime(new Date());
+        processInstance.setEndTime(new Date());
+        return processInstance;
+    }
+
+    private TaskInstance getTaskInstance(int processInstanceId, long taskCode) {
+        TaskInstance taskInstance = new TaskInstance();
+        taskInstance.setId(processInstanceId * 1000 + (int) taskCode);
+        taskInstance.setName("taskInstance" + taskCode);
+        taskInstance.setProcessInstanceId(processInstanceId);
+        taskInstance.setTaskCode(taskCode);
+        taskInstance.setTaskType("SHELL");
+        taskInstance.setState(TaskExecutionStatus.SUCCESS);
+        return taskInstance;
+    }
+
     /**
      * get mock Project
      *
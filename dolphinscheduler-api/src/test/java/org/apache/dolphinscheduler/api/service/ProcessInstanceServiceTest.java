@@ -57,6 +57,7 @@ import org.apache.dolphinscheduler.dao.mapper.ScheduleMapper;
 import org.apache.dolphinscheduler.dao.mapper.TaskDefinitionMapper;
 import org.apache.dolphinscheduler.dao.mapper.TaskInstanceMapper;
 import org.apache.dolphinscheduler.dao.mapper.TenantMapper;
+import org.apache.dolphinscheduler.dao.repository.InstanceStateRollupDao;
 import org.apache.dolphinscheduler.dao.repository.ProcessInstanceDao;
 import org.apache.dolphinscheduler.dao.repository.ProcessInstanceMapDao;
 import org.apache.dolphinscheduler.dao.repository.TaskInstanceDao;
@@ -113,6 +114,9 @@ public class ProcessInstanceServiceTest {
     @Mock
     ProcessInstanceDao processInstanceDao;
 
+    @Mock
+    InstanceStateRollupDao instanceStateRollupDao;
+
     @Mock
     ProcessInstanceMapper processInstanceMapper;
 
@@ -26,6 +26,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 
 import org.apache.dolphinscheduler.api.enums.Status;
+import org.apache.dolphinscheduler.api.permission.AuthorizedResourceCache;
 import org.apache.dolphinscheduler.api.permission.ResourcePermissionCheckService;
 import org.apache.dolphinscheduler.api.service.impl.BaseServiceImpl;
 import org.apache.dolphinscheduler.api.service.impl.ProjectServiceImpl;
@@ -97,6 +98,9 @@ public class ProjectServiceTest {
     @Mock
     private TaskGroupService taskGroupService;
 
+    @Mock
+    private AuthorizedResourceCache authorizedResourceCache;
+
     private String projectName = "ProjectServiceTest";
 
     private String userName = "ProjectServiceTest";
@@ -314,12 +318,22 @@ public class ProjectServiceTest {
         Assertions.assertTrue(Status.USER_NOT_EXIST.getCode() == result.getCode());
 
         // success
-        Mockito.when(userMapper.queryByUserNameAccurately(Mockito.any())).thenReturn(new User());
+        Mockito.when(userMapper.queryByUserNameAccurately(Mockito.any())).thenReturn(loginUser);
         project.setUserId(1);
         Mockito.when(projectMapper.updateById(Mockito.any(Project.class))).thenReturn(1);
         result = projectService.update(loginUser, 2L, "test", "desc", "testUser");
         logger.info(result.toString());
         Assertions.assertTrue(Status.SUCCESS.getCode() == result.getCode());
+        Mockito.verify(authorizedResourceCache, Mockito.never()).invalidateUserAfterCommit(Mockito.any());
+
+        // success, and the owner is changed
+        User owner = new User();
+        owner.setId(2);
+        Mockito.when(userMapper.queryByUserNameAccurately(Mockito.any())).thenReturn(owner);
+        result = projectService.update(loginUser, 2L, "test", "desc", "owner");
+        Assertions.assertTrue(Status.SUCCESS.getCode() == result.getCode());
+        Mockito.verify(authorizedResourceCache).invalidateUserAfterCommit(1);
+        Mockito.verify(authorizedResourceCache).invalidateUserAfterCommit(2);
 
     }
 
@@ -24,6 +24,7 @@ import org.apache.dolphinscheduler.api.enums.Status;
 import org.apache.dolphinscheduler.api.permission.ResourcePermissionCheckService;
 import org.apache.dolphinscheduler.api.service.impl.BaseServiceImpl;
 import org.apache.dolphinscheduler.api.service.impl.ResourcesServiceImpl;
+import org.apache.dolphinscheduler.api.storage.ResourceMetadataIndex;
 import org.apache.dolphinscheduler.api.utils.PageInfo;
 import org.apache.dolphinscheduler.api.utils.Result;
 import org.apache.dolphinscheduler.common.constants.Constants;
@@ -99,6 +100,9 @@ public class ResourcesServiceTest {
     @Mock
     private StorageOperate storageOperate;
 
+    @Mock
+    private ResourceMetadataIndex resourceMetadataIndex;
+
     @Mock
     private UserMapper userMapper;
 
@@ -378,6 +382,33 @@ public class ResourcesServiceTest {
 
     }
 
+    @Test
+    public void testQueryResourceListPagingFromIndex() throws Exception {
+        User loginUser = new User();
+        loginUser.setId(1);
+        loginUser.setTenantId(1);
+        loginUser.setUserType(UserType.GENERAL_USER);
+
+        PageInfo<StorageEntity> indexedPage = new PageInfo<>(1, 10);
+        indexedPage.setTotal(1);
+        indexedPage.setTotalList(Collections.singletonList(getStorageEntityResource()));
+        Mockito.when(resourceMetadataIndex.isEnabled()).thenReturn(true);
+        Mockito.when(resourceMetadataIndex.queryPaging(Collections.singletonList("/dolphinscheduler/123/resources/"),
+                "Test", 1, 10)).thenReturn(indexedPage);
+        Mockito.when(userMapper.selectById(getUser().getId())).thenReturn(getUser());
+        Mockito.when(tenantMapper.queryById(getUser().getTenantId())).thenReturn(getTenant());
+        Mockito.when(storageOperate.getResDir("123")).thenReturn("/dolphinscheduler/123/resources/");
+
+        Result<PageInfo<StorageEntity>> result = resourcesService.queryResourceListPaging(loginUser, "", "",
+                ResourceType.FILE, " Test ", 1, 10);
+        Assertions.assertEquals(Status.SUCCESS.getCode(), (int) result.getCode());
+        Assertions.assertEquals(indexedPage, result.getData());
+        Mockito.verify(resourceMetadataIndex).sync("/dolphinscheduler/123/resources/",
+                "/dolphinscheduler/123/resources/", "123", ResourceType.FILE);
+        Mockito.verify(storageOperate, Mockito.never()).listFilesStatus(Mockito.any(), Mockito.any(), Mockito.any(),
+                Mockito.any());
+    }
+
     @Test
     public void testQueryResourceList() {
         User loginUser = new User();
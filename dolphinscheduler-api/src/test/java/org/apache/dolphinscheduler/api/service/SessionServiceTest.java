@@ -17,6 +17,7 @@
 
 package org.apache.dolphinscheduler.api.service;
 
+import org.apache.dolphinscheduler.api.security.SessionUserCache;
 import org.apache.dolphinscheduler.api.service.impl.SessionServiceImpl;
 import org.apache.dolphinscheduler.common.constants.Constants;
 import org.apache.dolphinscheduler.common.enums.UserType;
@@ -60,6 +61,9 @@ public class SessionServiceTest {
     @Mock
     private SessionMapper sessionMapper;
 
+    @Mock
+    private SessionUserCache sessionUserCache;
+
     private String sessionId = "aaaaaaaaaaaaaaaaaa";
 
     @BeforeEach
@@ -127,7 +131,7 @@ public class SessionServiceTest {
         Mockito.when(sessionMapper.queryByUserIdAndIp(userId, ip)).thenReturn(getSession());
 
         sessionService.signOut(ip, user);
-
+        Mockito.verify(sessionUserCache).invalidateSession(sessionId);
     }
 
     private Session getSession() {
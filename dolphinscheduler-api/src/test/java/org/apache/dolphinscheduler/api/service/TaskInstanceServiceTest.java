@@ -42,6 +42,7 @@ import org.apache.dolphinscheduler.dao.entity.User;
 import org.apache.dolphinscheduler.dao.mapper.ProjectMapper;
 import org.apache.dolphinscheduler.dao.mapper.TaskDefinitionMapper;
 import org.apache.dolphinscheduler.dao.mapper.TaskInstanceMapper;
+import org.apache.dolphinscheduler.dao.repository.InstanceStateRollupDao;
 import org.apache.dolphinscheduler.dao.repository.TaskInstanceDao;
 import org.apache.dolphinscheduler.plugin.task.api.enums.TaskExecutionStatus;
 import org.apache.dolphinscheduler.service.process.ProcessService;
@@ -99,6 +100,9 @@ public class TaskInstanceServiceTest {
     @Mock
     TaskInstanceDao taskInstanceDao;
 
+    @Mock
+    InstanceStateRollupDao instanceStateRollupDao;
+
     @Test
     public void queryTaskListPaging() {
         long projectCode = 1L;
@@ -380,6 +384,7 @@ public class TaskInstanceServiceTest {
         when(projectService.checkProjectAndAuth(user, project, projectCode, FORCED_SUCCESS)).thenReturn(result);
         Result successRes = taskInstanceService.forceTaskSuccess(user, projectCode, taskId);
         Assertions.assertEquals(Status.SUCCESS.getCode(), successRes.getCode().intValue());
+        Mockito.verify(instanceStateRollupDao).markBucketsChanged(task.getStartTime(), task.getStartTime());
 
     }
 
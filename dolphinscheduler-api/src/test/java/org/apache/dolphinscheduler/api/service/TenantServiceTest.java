@@ -26,6 +26,7 @@ import org.apache.dolphinscheduler.api.exceptions.ServiceException;
 import org.apache.dolphinscheduler.api.permission.ResourcePermissionCheckService;
 import org.apache.dolphinscheduler.api.service.impl.BaseServiceImpl;
 import org.apache.dolphinscheduler.api.service.impl.TenantServiceImpl;
+import org.apache.dolphinscheduler.api.storage.ResourceMetadataIndex;
 import org.apache.dolphinscheduler.api.utils.PageInfo;
 import org.apache.dolphinscheduler.api.utils.Result;
 import org.apache.dolphinscheduler.common.constants.Constants;
@@ -100,6 +101,9 @@ public class TenantServiceTest {
     @Mock
     private StorageOperate storageOperate;
 
+    @Mock
+    private ResourceMetadataIndex resourceMetadataIndex;
+
     private static final String tenantCode = "hayden";
     private static final String tenantDesc = "This is the tenant desc";
     private static final String queue = "queue";
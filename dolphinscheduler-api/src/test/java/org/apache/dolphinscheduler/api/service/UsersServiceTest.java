@@ -23,7 +23,9 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 import org.apache.dolphinscheduler.api.enums.Status;
+import org.apache.dolphinscheduler.api.permission.AuthorizedResourceCache;
 import org.apache.dolphinscheduler.api.permission.ResourcePermissionCheckService;
+import org.apache.dolphinscheduler.api.security.SessionUserCache;
 import org.apache.dolphinscheduler.api.service.impl.BaseServiceImpl;
 import org.apache.dolphinscheduler.api.service.impl.UsersServiceImpl;
 import org.apache.dolphinscheduler.api.utils.PageInfo;
@@ -127,6 +129,12 @@ public class UsersServiceTest {
     @Mock
     private ResourcePermissionCheckService resourcePermissionCheckService;
 
+    @Mock
+    private SessionUserCache sessionUserCache;
+
+    @Mock
+    private AuthorizedResourceCache authorizedResourceCache;
+
     private String queueName = "UsersServiceTestQueue";
 
     private static final Logger serviceLogger = LoggerFactory.getLogger(BaseServiceImpl.class);
@@ -311,6 +319,7 @@ public class UsersServiceTest {
         result = usersService.updateUser(getLoginUser(), 1, userName, userPassword, "32222s@qq.com", 1,
                 "13457864543", "queue", 1, "Asia/Shanghai");
         Assertions.assertEquals(Status.SUCCESS, result.get(Constants.STATUS));
+        Mockito.verify(sessionUserCache).invalidateUser(1);
     }
 
     @Test
@@ -459,6 +468,7 @@ public class UsersServiceTest {
         result = this.usersService.revokeProject(loginUser, 1, projectCode);
         logger.info(result.toString());
         Assertions.assertEquals(Status.SUCCESS, result.get(Constants.STATUS));
+        Mockito.verify(authorizedResourceCache).invalidateUserAfterCommit(1);
     }
 
     @Test
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.api.storage;
+
+import org.apache.dolphinscheduler.api.configuration.ResourceIndexConfiguration;
+import org.apache.dolphinscheduler.dao.entity.ResourceMetadata;
+import org.apache.dolphinscheduler.dao.mapper.ResourceMetadataMapper;
+import org.apache.dolphinscheduler.plugin.storage.api.StorageEntity;
+import org.apache.dolphinscheduler.plugin.storage.api.StorageOperate;
+import org.apache.dolphinscheduler.spi.enums.ResourceType;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ResourceMetadataIndexTest {
+
+    private static final String TENANT_CODE = "tenant";
+
+    private static final String ROOT = "/dolphinscheduler/tenant/resources/";
+
+    @InjectMocks
+    private ResourceMetadataIndex resourceMetadataIndex;
+
+    @Mock
+    private StorageOperate storageOperate;
+
+    @Mock
+    private ResourceMetadataMapper resourceMetadataMapper;
+
+    @Mock
+    private ResourceIndexConfiguration resourceIndexConfiguration;
+
+    @BeforeEach
+    void before() {
+        Mockito.lenient().when(resourceIndexConfiguration.isEnabled()).thenReturn(true);
+        Mockito.lenient().when(storageOperate.getResDir(TENANT_CODE)).thenReturn(ROOT);
+    }
+
+    @Test
+    void testSyncListStorageOnce() throws Exception {
+        Mockito.when(storageOperate.listFilesStatus(ROOT, ROOT, TENANT_CODE, ResourceType.FILE))
+                .thenReturn(Arrays.asList(storageEntity("hdfs://ns" + ROOT + "dir/", true),
+                        storageEntity("hdfs://ns" + ROOT + "1.sh", false)));
+
+        resourceMetadataIndex.sync(ROOT, ROOT, TENANT_CODE, ResourceType.FILE);
+
+        ArgumentCaptor<ResourceMetadata> captor = ArgumentCaptor.forClass(ResourceMetadata.class);
+        Mockito.verify(resourceMetadataMapper, Mockito.times(3)).insert(captor.capture());
+        List<ResourceMetadata> inserted = captor.getAllValues();
+        Assertions.assertEquals(Arrays.asList(ROOT + "dir/", ROOT + "1.sh", ROOT),
+                inserted.stream().map(ResourceMetadata::getPath).collect(Collectors.toList()));
+        Assertions.assertEquals(ROOT, inserted.get(0).getParentPath());
+        Assertions.assertNull(inserted.get(0).getSyncTime());
+        Assertions.assertNotNull(inserted.get(2).getSyncTime());
+
+        Mockito.when(resourceMetadataMapper.queryByPath(ROOT)).thenReturn(inserted.get(2));
+        resourceMetadataIndex.sync(ROOT, ROOT, TENANT_CODE, ResourceType.FILE);
+        Mockito.verify(storageOperate, Mockito.times(1)).listFilesStatus(ROOT, ROOT, TENANT_CODE, ResourceType.FILE);
+    }
+
+    @Test
+    void testSyncStaleDirectoryRemoveDeleted() throws Exception {
+        Mockito.when(resourceIndexConfiguration.getSyncInterval()).thenReturn(Duration.ofMinutes(5));
+        Mockito.when(resourceIndexConfiguration.getSyncBatchSize()).thenReturn(10);
+        ResourceMetadata directory = metadata(ROOT, true);
+        directory.setSyncTime(new Date(0));
+        Mockito.when(resourceMetadataMapper.queryDirectoriesSyncedBefore(Mockito.any(), Mockito.eq(10)))
+                .thenReturn(Collections.singletonList(directory));
+        Mockito.when(resourceMetadataMapper.updateSyncTime(Mockito.eq(1L), Mockito.eq(new Date(0)), Mockito.any()))
+                .thenReturn(1);
+        Mockito.when(resourceMetadataMapper.queryByParentPath(ROOT))
+                .thenReturn(Arrays.asList(metadata(ROOT + "1.sh", false), metadata(ROOT + "dir/", true)));
+        Mockito.when(resourceMetadataMapper.queryByPath(ROOT)).thenReturn(directory);
+        Mockito.when(storageOperate.listFilesStatus(ROOT, ROOT, TENANT_CODE, ResourceType.FILE))
+                .thenReturn(Collections.singletonList(storageEntity(ROOT + "1.sh", false)));
+
+        resourceMetadataIndex.syncStaleDirectories();
+
+        Mockito.verify(resourceMetadataMapper, Mockito.never()).insert(Mockito.any(ResourceMetadata.class));
+        Mockito.verify(resourceMetadataMapper).deleteByPath(ROOT + "dir/");
+        Mockito.verify(resourceMetadataMapper).deleteByPathPrefix(ROOT + "dir/");
+        Mockito.verify(resourceMetadataMapper).updateById(directory);
+    }
+
+    @Test
+    void testOnCreated() throws Exception {
+        ResourceMetadata directory = metadata(ROOT, true);
+        directory.setSyncTime(new Date());
+        Mockito.when(resourceMetadataMapper.queryByPath(ROOT)).thenReturn(directory);
+        Mockito.when(storageOperate.getFileStatus("hdfs://ns" + ROOT + "1.sh", ROOT, TENANT_CODE, ResourceType.FILE))
+                .thenReturn(storageEntity("hdfs://ns" + ROOT + "1.sh", false));
+
+        resourceMetadataIndex.onCreated("hdfs://ns" + ROOT + "1.sh", false);
+
+        ArgumentCaptor<ResourceMetadata> captor = ArgumentCaptor.forClass(ResourceMetadata.class);
+        Mockito.verify(resourceMetadataMapper).insert(captor.capture());
+        Assertions.assertEquals(ROOT + "1.sh", captor.getValue().getPath());
+        Assertions.assertEquals(ROOT, captor.getValue().getParentPath());
+    }
+
+    @Test
+    void testPath() {
+        Assertions.assertEquals("/dolphinscheduler/a/",
+                ResourceMetadataIndex.normalize("hdfs://ns:8020/dolphinscheduler/a/"));
+        Assertions.assertEquals("/tmp/a.sh", ResourceMetadataIndex.normalize("file:/tmp/a.sh"));
+        Assertions.assertEquals("dolphinscheduler/a:b/", ResourceMetadataIndex.normalize("dolphinscheduler/a:b/"));
+        Assertions.assertEquals("/dolphinscheduler/", ResourceMetadataIndex.parentPathOf("/dolphinscheduler/a/"));
+        Assertions.assertEquals("/dolphinscheduler/", ResourceMetadataIndex.parentPathOf("/dolphinscheduler/a.sh"));
+        Assertions.assertEquals("a\\_b\\%\\\\", ResourceMetadataIndex.escapeLike("a_b%\\"));
+    }
+
+    private StorageEntity storageEntity(String fullName, boolean isDirectory) {
+        StorageEntity storageEntity = new StorageEntity();
+        storageEntity.setFullName(fullName);
+        storageEntity.setFileName(fullName.substring(fullName.indexOf(ROOT) + ROOT.length()));
+        storageEntity.setDirectory(isDirectory);
+        storageEntity.setPfullName(ROOT);
+        return storageEntity;
+    }
+
+    private ResourceMetadata metadata(String path, boolean isDirectory) {
+        return ResourceMetadata.builder()
+                .id(1L)
+                .tenantCode(TENANT_CODE)
+                .type(ResourceType.FILE)
+                .path(path)
+                .fullName(path)
+                .isDirectory(isDirectory)
+                .build();
+    }
+}
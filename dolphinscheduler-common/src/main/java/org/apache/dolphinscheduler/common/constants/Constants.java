@@ -43,6 +43,7 @@ public final class Constants {
     public static final String REGISTRY_DOLPHINSCHEDULER_NODE = "/nodes";
     public static final String REGISTRY_DOLPHINSCHEDULER_LOCK_MASTERS = "/lock/masters";
     public static final String REGISTRY_DOLPHINSCHEDULER_LOCK_FAILOVER_MASTERS = "/lock/failover/masters";
+    public static final String REGISTRY_DOLPHINSCHEDULER_LOCK_STATE_ROLLUP = "/lock/state-rollup";
 
     public static final String FORMAT_SS = "%s%s";
     public static final String FORMAT_S_S = "%s/%s";
@@ -302,6 +303,11 @@ public final class Constants {
      */
     public static final int DEFAULT_WORKER_HOST_WEIGHT = 100;
 
+    /**
+     * master host weight
+     */
+    public static final int DEFAULT_MASTER_HOST_WEIGHT = 100;
+
     /**
      * time unit second to minutes
      */
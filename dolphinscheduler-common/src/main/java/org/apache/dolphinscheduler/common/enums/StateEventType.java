@@ -28,7 +28,8 @@ public enum StateEventType {
     WAKE_UP_TASK_GROUP(4, "wait task group"),
     TASK_RETRY(5, "task retry"),
     PROCESS_BLOCKED(6, "process blocked"),
-    PROCESS_SUBMIT_FAILED(7, "process submit failed");
+    PROCESS_SUBMIT_FAILED(7, "process submit failed"),
+    TASK_FORCE_SUCCESS(8, "task force success");
 
     StateEventType(int code, String descp) {
         this.code = code;
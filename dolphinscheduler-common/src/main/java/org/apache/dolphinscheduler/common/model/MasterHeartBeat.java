@@ -38,4 +38,6 @@ public class MasterHeartBeat implements HeartBeat {
     private double reservedMemory;
     private double diskAvailable;
     private int processId;
+
+    private int masterHostWeight; // master host weight
 }
@@ -5,6 +5,7 @@ package org.apache.dolphinscheduler.common.utils;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  *  Rewriting based on Twitter snowflake algorithm
@@ -21,8 +22,10 @@ public class CodeGenerateUtils {
     private static final long MIDDLE_LEFT = LOW_DIGIT_BIT;
     private static final long HIGH_DIGIT_LEFT = LOW_DIGIT_BIT + MIDDLE_BIT;
     private final long machineHash;
-    private long lowDigit = 0L;
-    private long recordMillisecond = -1L;
+    // The millisecond and the low digit of the last code, the low digit overflows into the millisecond, so a burst of
+    // codes borrows the following milliseconds instead of waiting for them
+    private final AtomicLong lastMillisecondAndLowDigit = new AtomicLong(-1L);
+    private volatile CodeAllocator codeAllocator;
 
     private static final long SYSTEM_TIMESTAMP = System.currentTimeMillis();
     private static final long SYSTEM_NANOTIME = System.nanoTime();
@@ -36,38 +39,84 @@ public class CodeGenerateUtils {
         }
     }
 
-    private static CodeGenerateUtils instance = null;
+    private static volatile CodeGenerateUtils instance = null;
 
-    public static synchronized CodeGenerateUtils getInstance() throws CodeGenerateException {
+    public static CodeGenerateUtils getInstance() throws CodeGenerateException {
         if (instance == null) {
-            instance = new CodeGenerateUtils();
+            synchronized (CodeGenerateUtils.class) {
+                if (instance == null) {
+                    instance = new CodeGenerateUtils();
+                }
+            }
         }
         return instance;
     }
 
-    public synchronized long genCode() throws CodeGenerateException {
-        long nowtMillisecond = systemMillisecond();
-        if (nowtMillisecond < recordMillisecond) {
-            throw new CodeGenerateException("New code exception because time is set back.");
+    /**
+     * Set the allocator of the codes unique across the servers, the codes are generated locally if it is null.
+     */
+    public void setCodeAllocator(CodeAllocator codeAllocator) {
+        this.codeAllocator = codeAllocator;
+    }
+
+    public long genCode() throws CodeGenerateException {
+        return genCodes(1)[0];
+    }
+
+    /**
+     * Generate the given count of codes at once.
+     */
+    public long[] genCodes(int count) throws CodeGenerateException {
+        CodeAllocator allocator = codeAllocator;
+        if (allocator != null) {
+            return allocator.allocate(count);
         }
-        if (nowtMillisecond == recordMillisecond) {
-            lowDigit = (lowDigit + 1) & MAX_LOW_DIGIT;
-            if (lowDigit == 0L) {
-                while (nowtMillisecond <= recordMillisecond) {
-                    nowtMillisecond = systemMillisecond();
-                }
-            }
-        } else {
-            lowDigit = 0L;
+        return genLocalCodes(count);
+    }
+
+    /**
+     * Generate the codes from the time and the machine hash, without any lock.
+     */
+    public long[] genLocalCodes(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("The count of codes must be positive: " + count);
+        }
+        long last;
+        long first;
+        do {
+            last = lastMillisecondAndLowDigit.get();
+            first = Math.max(last + 1, systemMillisecond() << LOW_DIGIT_BIT);
+        } while (!lastMillisecondAndLowDigit.compareAndSet(last, first + count - 1));
+
+        long[] codes = new long[count];
+        for (int i = 0; i < count; i++) {
+            long millisecondAndLowDigit = first + i;
+            long millisecond = millisecondAndLowDigit >>> LOW_DIGIT_BIT;
+            codes[i] = (millisecond - START_TIMESTAMP) << HIGH_DIGIT_LEFT | machineHash << MIDDLE_LEFT
+                    | millisecondAndLowDigit & MAX_LOW_DIGIT;
         }
-        recordMillisecond = nowtMillisecond;
-        return (nowtMillisecond - START_TIMESTAMP) << HIGH_DIGIT_LEFT | machineHash << MIDDLE_LEFT | lowDigit;
+        return codes;
+    }
+
+    /**
+     * Get the min code which is generated locally at the given millisecond.
+     */
+    public static long minCodeOf(long millisecond) {
+        return (millisecond - START_TIMESTAMP) << HIGH_DIGIT_LEFT;
     }
 
-    private long systemMillisecond() {
+    private static long systemMillisecond() {
         return SYSTEM_TIMESTAMP + (System.nanoTime() - SYSTEM_NANOTIME) / 1000000;
     }
 
+    /**
+     * The allocator of the codes unique across the servers.
+     */
+    public interface CodeAllocator {
+
+        long[] allocate(int count) throws CodeGenerateException;
+    }
+
     public static class CodeGenerateException extends RuntimeException {
 
         public CodeGenerateException(String message) {
@@ -27,6 +27,8 @@ import static org.apache.dolphinscheduler.common.constants.DateConstants.YYYY_MM
 import org.apache.commons.lang3.StringUtils;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.text.SimpleDateFormat;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -41,6 +43,7 @@ import javax.annotation.Nullable;
 
 import lombok.extern.slf4j.Slf4j;
 
+import com.fasterxml.jackson.core.JsonEncoding;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -49,6 +52,7 @@ import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
@@ -164,6 +168,23 @@ public class JSONUtils {
         return parseObject(json, clazz);
     }
 
+    /**
+     * deserialize from the given stream
+     *
+     * @param inputStream input stream
+     * @param clazz class
+     * @param <T> deserialize type
+     * @return deserialize type
+     */
+    public static @Nullable <T> T parseObject(InputStream inputStream, Class<T> clazz) {
+        try {
+            return objectMapper.readValue(inputStream, clazz);
+        } catch (Exception e) {
+            log.error("Parse object exception, class: {}", clazz, e);
+        }
+        return null;
+    }
+
     /**
      * json to list
      *
@@ -187,6 +208,39 @@ public class JSONUtils {
         return Collections.emptyList();
     }
 
+    /**
+     * create a json generator which writes to the given stream, objects are serialized in the same way as
+     * {@link #toJsonString(Object)}
+     *
+     * @param outputStream output stream
+     * @return json generator
+     */
+    public static JsonGenerator createGenerator(OutputStream outputStream) throws IOException {
+        return objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8);
+    }
+
+    /**
+     * serialize the object to the given stream in the same way as {@link #toJsonString(Object)}
+     *
+     * @param outputStream output stream
+     * @param object object
+     */
+    public static void writeValue(OutputStream outputStream, Object object) throws IOException {
+        objectMapper.writeValue(outputStream, object);
+    }
+
+    /**
+     * read the elements of a json array from the given stream one by one, only the current element is kept in memory
+     *
+     * @param inputStream input stream
+     * @param clazz class
+     * @param <T> T
+     * @return element iterator
+     */
+    public static <T> MappingIterator<T> readValues(InputStream inputStream, Class<T> clazz) throws IOException {
+        return objectMapper.readerFor(clazz).readValues(inputStream);
+    }
+
     /**
      * check json object valid
      *
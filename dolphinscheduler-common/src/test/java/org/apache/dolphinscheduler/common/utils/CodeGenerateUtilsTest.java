@@ -18,6 +18,11 @@
 package org.apache.dolphinscheduler.common.utils;
 
 import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -33,4 +38,22 @@ public class CodeGenerateUtilsTest {
             existsCode.add(currentCode);
         }
     }
+
+    @Test
+    public void testNoGenerateDuplicateCodeConcurrently() throws InterruptedException {
+        Set<Long> existsCode = ConcurrentHashMap.newKeySet();
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++) {
+            executorService.execute(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    for (long code : CodeGenerateUtils.getInstance().genCodes(10)) {
+                        existsCode.add(code);
+                    }
+                }
+            });
+        }
+        executorService.shutdown();
+        Assertions.assertTrue(executorService.awaitTermination(1, TimeUnit.MINUTES));
+        Assertions.assertEquals(40000, existsCode.size());
+    }
 }
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.dao.entity;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+
+/**
+ * The instance count of a state in one hour bucket, grouped by project and definition.
+ * <p>
+ * Each rolled up bucket has a marker row whose state is {@link #BUCKET_MARKER_STATE}, the bucket without marker is
+ * not rolled up, or is invalidated, and should be counted from the instance table. The count of the marker row is
+ * {@link #BUCKET_CHANGED} if the instances of the bucket are changed after it's rolled up, then the bucket is rolled
+ * up again by the master.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("t_ds_instance_state_rollup")
+public class InstanceStateRollup {
+
+    public static final int WORKFLOW_INSTANCE = 0;
+
+    public static final int TASK_INSTANCE = 1;
+
+    public static final int BUCKET_MARKER_STATE = -1;
+
+    public static final int BUCKET_CHANGED = 1;
+
+    public static final long BUCKET_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    /**
+     * id
+     */
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 0 workflow instance, 1 task instance
+     */
+    private int instanceType;
+
+    /**
+     * project code
+     */
+    private long projectCode;
+
+    /**
+     * workflow definition code or task definition code
+     */
+    private long definitionCode;
+
+    /**
+     * the hour of the instance start time
+     */
+    private Date bucketTime;
+
+    /**
+     * instance state code
+     */
+    private int state;
+
+    /**
+     * instance count
+     */
+    private int count;
+
+    /**
+     * update time
+     */
+    private Date updateTime;
+
+    /**
+     * Get the bucket which the given time belongs to.
+     */
+    public static Date bucketTimeOf(Date time) {
+        return new Date(Math.floorDiv(time.getTime(), BUCKET_MILLIS) * BUCKET_MILLIS);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.dao.entity;
+
+import org.apache.dolphinscheduler.spi.enums.ResourceType;
+
+import java.util.Date;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+
+/**
+ * The metadata of a file or directory in the resource storage, the resource listings are served from it instead of
+ * listing the storage.
+ * <p>
+ * The children of a directory are indexed only if its sync time is set.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("t_ds_resource_metadata")
+public class ResourceMetadata {
+
+    /**
+     * id
+     */
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * tenant code
+     */
+    private String tenantCode;
+
+    /**
+     * resource type
+     */
+    private ResourceType type;
+
+    /**
+     * full name without the storage scheme, directories end with "/"
+     */
+    private String path;
+
+    /**
+     * path of the parent directory
+     */
+    private String parentPath;
+
+    /**
+     * full name in the storage
+     */
+    private String fullName;
+
+    /**
+     * full name of the parent directory in the storage
+     */
+    private String pfullName;
+
+    /**
+     * file name relative to the tenant resource directory
+     */
+    private String fileName;
+
+    /**
+     * alias
+     */
+    private String alias;
+
+    /**
+     * is directory
+     */
+    private boolean isDirectory;
+
+    /**
+     * size
+     */
+    private long size;
+
+    /**
+     * the time the children of the directory are synced from the storage, null means they are not indexed
+     */
+    private Date syncTime;
+
+    /**
+     * create time
+     */
+    private Date createTime;
+
+    /**
+     * update time
+     */
+    private Date updateTime;
+}
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.dao.mapper;
+
+import org.apache.dolphinscheduler.dao.entity.CodeSegment;
+
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Date;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+
+/**
+ * code segment mapper interface
+ */
+public interface CodeSegmentMapper extends BaseMapper<CodeSegment> {
+
+    /**
+     * increase the max code of the segment by the given size, the max code is raised to the min code first if it is
+     * less than the min code
+     *
+     * @param name segment name
+     * @param size size
+     * @param minCode min code
+     * @param updateTime update time
+     * @return update count, 0 if the segment does not exist
+     */
+    int increaseMaxCode(@Param("name") String name,
+                        @Param("size") long size,
+                        @Param("minCode") long minCode,
+                        @Param("updateTime") Date updateTime);
+
+    /**
+     * query the max code of the segment
+     *
+     * @param name segment name
+     * @return max code, null if the segment does not exist
+     */
+    Long queryMaxCode(@Param("name") String name);
+}
@@ -22,6 +22,7 @@ import org.apache.dolphinscheduler.dao.entity.CommandCount;
 
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
@@ -51,10 +52,10 @@ public interface CommandMapper extends BaseMapper<Command> {
     List<Command> queryCommandPage(@Param("limit") int limit, @Param("offset") int offset);
 
     /**
-     * query command page by slot
+     * query command page by slot, the slot of the command is id % slotCount
      * @return command list
      */
     List<Command> queryCommandPageBySlot(@Param("limit") int limit,
-                                         @Param("masterCount") int masterCount,
-                                         @Param("thisMasterSlot") int thisMasterSlot);
+                                         @Param("slotCount") int slotCount,
+                                         @Param("slots") Collection<Integer> slots);
 }
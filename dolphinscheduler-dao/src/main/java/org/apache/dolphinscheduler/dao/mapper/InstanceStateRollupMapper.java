@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.dao.mapper;
+
+import org.apache.dolphinscheduler.dao.entity.ExecuteStatusCount;
+import org.apache.dolphinscheduler.dao.entity.InstanceStateRollup;
+
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Date;
+import java.util.List;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+
+/**
+ * instance state rollup mapper interface
+ */
+public interface InstanceStateRollupMapper extends BaseMapper<InstanceStateRollup> {
+
+    /**
+     * count the workflow instances whose start time is in [startTime, endTime), group by project, definition and state
+     *
+     * @param startTime start time, inclusive
+     * @param endTime end time, exclusive
+     * @return rollup rows, the bucket time is not set
+     */
+    List<InstanceStateRollup> aggregateWorkflowInstanceState(@Param("startTime") Date startTime,
+                                                             @Param("endTime") Date endTime);
+
+    /**
+     * count the task instances whose start time is in [startTime, endTime), group by project, task code and state
+     *
+     * @param startTime start time, inclusive
+     * @param endTime end time, exclusive
+     * @return rollup rows, the bucket time is not set
+     */
+    List<InstanceStateRollup> aggregateTaskInstanceState(@Param("startTime") Date startTime,
+                                                         @Param("endTime") Date endTime);
+
+    /**
+     * count the workflow instance states from the instance table
+     *
+     * @param startTime start time, null means unbounded
+     * @param includeStart whether the start time is inclusive
+     * @param endTime end time, null means unbounded
+     * @param includeEnd whether the end time is inclusive
+     * @param projectCodes project codes, empty means all projects
+     * @return state count list
+     */
+    List<ExecuteStatusCount> countWorkflowInstanceState(@Param("startTime") Date startTime,
+                                                        @Param("includeStart") boolean includeStart,
+                                                        @Param("endTime") Date endTime,
+                                                        @Param("includeEnd") boolean includeEnd,
+                                                        @Param("projectCodes") Long[] projectCodes);
+
+    /**
+     * count the task instance states from the instance table
+     *
+     * @param startTime start time, null means unbounded
+     * @param includeStart whether the start time is inclusive
+     * @param endTime end time, null means unbounded
+     * @param includeEnd whether the end time is inclusive
+     * @param projectCodes project codes, empty means all projects
+     * @return state count list
+     */
+    List<ExecuteStatusCount> countTaskInstanceState(@Param("startTime") Date startTime,
+                                                    @Param("includeStart") boolean includeStart,
+                                                    @Param("endTime") Date endTime,
+                                                    @Param("includeEnd") boolean includeEnd,
+                                                    @Param("projectCodes") Long[] projectCodes);
+
+    /**
+     * sum the rolled up instance states of the buckets in [startTime, endTime)
+     *
+     * @param instanceType instance type
+     * @param startTime start bucket time, inclusive
+     * @param endTime end bucket time, exclusive
+     * @param projectCodes project codes, empty means all projects
+     * @return state count list
+     */
+    List<ExecuteStatusCount> sumRolledUpState(@Param("instanceType") int instanceType,
+                                              @Param("startTime") Date startTime,
+                                              @Param("endTime") Date endTime,
+                                              @Param("projectCodes") Long[] projectCodes);
+
+    /**
+     * query the rolled up buckets in [startTime, endTime)
+     *
+     * @param instanceType instance type
+     * @param startTime start bucket time, inclusive, null means unbounded
+     * @param endTime end bucket time, exclusive, null means unbounded
+     * @return bucket time list, in ascending order
+     */
+    List<Date> queryRolledUpBuckets(@Param("instanceType") int instanceType,
+                                    @Param("startTime") Date startTime,
+                                    @Param("endTime") Date endTime);
+
+    /**
+     * query the rolled up buckets before the end time which are marked as changed
+     *
+     * @param instanceType instance type
+     * @param endTime end bucket time, exclusive
+     * @return bucket time list, in ascending order
+     */
+    List<Date> queryChangedBuckets(@Param("instanceType") int instanceType, @Param("endTime") Date endTime);
+
+    /**
+     * delete all the rows of the given bucket
+     *
+     * @param instanceType instance type
+     * @param bucketTime bucket time
+     * @return delete count
+     */
+    int deleteBucket(@Param("instanceType") int instanceType, @Param("bucketTime") Date bucketTime);
+
+    /**
+     * delete all the rows of the buckets in [startTime, endTime) of all instance types
+     *
+     * @param startTime start bucket time, inclusive
+     * @param endTime end bucket time, exclusive
+     * @return delete count
+     */
+    int deleteBuckets(@Param("startTime") Date startTime, @Param("endTime") Date endTime);
+
+    /**
+     * mark the rolled up buckets in [startTime, endTime) of all instance types as changed
+     *
+     * @param startTime start bucket time, inclusive
+     * @param endTime end bucket time, exclusive
+     * @return update count
+     */
+    int markBucketsChanged(@Param("startTime") Date startTime, @Param("endTime") Date endTime);
+
+    /**
+     * batch insert rollup rows
+     *
+     * @param rollups rollup rows
+     * @return insert count
+     */
+    int batchInsert(@Param("rollups") List<InstanceStateRollup> rollups);
+}
@@ -22,6 +22,7 @@ import org.apache.dolphinscheduler.dao.entity.ProcessTaskRelationLog;
 
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -49,6 +50,16 @@ public interface ProcessTaskRelationMapper extends BaseMapper<ProcessTaskRelatio
     List<ProcessTaskRelation> queryByProcessCode(@Param("projectCode") long projectCode,
                                                  @Param("processCode") long processCode);
 
+    /**
+     * process task relation by projectCode and processCodes
+     *
+     * @param projectCode projectCode
+     * @param processCodes processCodes
+     * @return ProcessTaskRelation list
+     */
+    List<ProcessTaskRelation> queryByProcessCodes(@Param("projectCode") long projectCode,
+                                                  @Param("processCodes") Collection<Long> processCodes);
+
     /**
      * update
      */
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.dao.mapper;
+
+import org.apache.dolphinscheduler.dao.entity.ResourceMetadata;
+
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Date;
+import java.util.List;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+
+/**
+ * resource metadata mapper interface
+ */
+public interface ResourceMetadataMapper extends BaseMapper<ResourceMetadata> {
+
+    /**
+     * query resource metadata by path
+     *
+     * @param path path
+     * @return resource metadata
+     */
+    ResourceMetadata queryByPath(@Param("path") String path);
+
+    /**
+     * query the children of the directory
+     *
+     * @param parentPath path of the directory
+     * @return resource metadata list
+     */
+    List<ResourceMetadata> queryByParentPath(@Param("parentPath") String parentPath);
+
+    /**
+     * query the children of the directories paging, order by file name
+     *
+     * @param page page
+     * @param parentPaths paths of the directories
+     * @param searchVal search value of the file name
+     * @return resource metadata page
+     */
+    IPage<ResourceMetadata> queryPagingByParentPaths(IPage<ResourceMetadata> page,
+                                                     @Param("parentPaths") List<String> parentPaths,
+                                                     @Param("searchVal") String searchVal);
+
+    /**
+     * query the directory and all the resources under it
+     *
+     * @param pathPrefix path of the directory, the like wildcards should be escaped
+     * @return resource metadata list
+     */
+    List<ResourceMetadata> queryByPathPrefix(@Param("pathPrefix") String pathPrefix);
+
+    /**
+     * query the directory and the directories under it whose children are not indexed
+     *
+     * @param pathPrefix path of the directory, the like wildcards should be escaped
+     * @return resource metadata list
+     */
+    List<ResourceMetadata> queryUnsyncedDirectories(@Param("pathPrefix") String pathPrefix);
+
+    /**
+     * query the indexed directories synced before the given time, the least recently synced first
+     *
+     * @param syncTime sync time
+     * @param limit limit
+     * @return resource metadata list
+     */
+    List<ResourceMetadata> queryDirectoriesSyncedBefore(@Param("syncTime") Date syncTime,
+                                                        @Param("limit") int limit);
+
+    /**
+     * update the sync time of the directory if it is not changed by others
+     *
+     * @param id id
+     * @param originSyncTime the sync time read before
+     * @param syncTime new sync time
+     * @return update count
+     */
+    int updateSyncTime(@Param("id") long id,
+                       @Param("originSyncTime") Date originSyncTime,
+                       @Param("syncTime") Date syncTime);
+
+    /**
+     * clear the sync time of the directory, so its children will be listed from the storage again
+     *
+     * @param path path of the directory
+     * @return update count
+     */
+    int clearSyncTime(@Param("path") String path);
+
+    /**
+     * delete the directory and all the resources under it
+     *
+     * @param pathPrefix path of the directory, the like wildcards should be escaped
+     * @return delete count
+     */
+    int deleteByPathPrefix(@Param("pathPrefix") String pathPrefix);
+
+    /**
+     * delete resource metadata by path
+     *
+     * @param path path
+     * @return delete count
+     */
+    int deleteByPath(@Param("path") String path);
+
+    /**
+     * delete all the resource metadata of the tenant
+     *
+     * @param tenantCode tenant code
+     * @return delete count
+     */
+    int deleteByTenantCode(@Param("tenantCode") String tenantCode);
+}
@@ -35,10 +35,18 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
  */
 public interface TaskGroupMapper extends BaseMapper<TaskGroup> {
 
-    int robTaskGroupResource(@Param("id") int id,
-                             @Param("currentUseSize") int currentUseSize,
-                             @Param("queueId") int queueId,
-                             @Param("queueStatus") int queueStatus);
+    /**
+     * acquire one slot of the task group for the given queue, the capacity check and the increment are done in one
+     * update, so there is no need to retry with the current use size.
+     *
+     * @param id          task group id
+     * @param queueId     task group queue id
+     * @param queueStatus expected status of the task group queue
+     * @return affected rows, 1 means the slot is acquired
+     */
+    int acquireTaskGroupResource(@Param("id") int id,
+                                 @Param("queueId") int queueId,
+                                 @Param("queueStatus") int queueStatus);
 
     /**
      * update table of task group
@@ -46,8 +54,9 @@ public interface TaskGroupMapper extends BaseMapper<TaskGroup> {
      * @param id primary key
      * @return affected rows
      */
-    int releaseTaskGroupResource(@Param("id") int id, @Param("useSize") int useSize,
-                                 @Param("queueId") int queueId, @Param("queueStatus") int queueStatus);
+    int releaseTaskGroupResource(@Param("id") int id,
+                                 @Param("queueId") int queueId,
+                                 @Param("queueStatus") int queueStatus);
 
     /**
      * select task groups paging
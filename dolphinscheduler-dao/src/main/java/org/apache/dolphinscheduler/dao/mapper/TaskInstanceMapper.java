@@ -25,6 +25,7 @@ import org.apache.dolphinscheduler.plugin.task.api.enums.TaskExecutionStatus;
 
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
@@ -44,6 +45,9 @@ public interface TaskInstanceMapper extends BaseMapper<TaskInstance> {
                                                     @Param("flag") Flag flag,
                                                     @Param("testFlag") int testFlag);
 
+    List<TaskInstance> findValidTaskListByProcessIds(@Param("processInstanceIds") Collection<Integer> processInstanceIds,
+                                                     @Param("flag") Flag flag);
+
     List<TaskInstance> queryByHostAndStatus(@Param("host") String host,
                                             @Param("states") int[] stateArray);
 
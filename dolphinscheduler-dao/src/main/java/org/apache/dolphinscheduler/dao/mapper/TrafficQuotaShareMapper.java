@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.dao.mapper;
+
+import org.apache.dolphinscheduler.dao.entity.TrafficQuotaShare;
+
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Date;
+import java.util.List;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+
+/**
+ * traffic quota share mapper interface
+ */
+public interface TrafficQuotaShareMapper extends BaseMapper<TrafficQuotaShare> {
+
+    /**
+     * update the demand of the api server
+     *
+     * @param host api server address
+     * @param demand demand json
+     * @param updateTime update time
+     * @return update count, 0 if the api server has no share
+     */
+    int updateDemandByHost(@Param("host") String host,
+                           @Param("demand") String demand,
+                           @Param("updateTime") Date updateTime);
+
+    /**
+     * query the shares updated after the given time
+     *
+     * @param updateTime update time
+     * @return traffic quota share list
+     */
+    List<TrafficQuotaShare> queryUpdatedAfter(@Param("updateTime") Date updateTime);
+
+    /**
+     * delete the share of the api server
+     *
+     * @param host api server address
+     * @return delete count
+     */
+    int deleteByHost(@Param("host") String host);
+
+    /**
+     * delete the shares not updated since the given time, they belong to the stopped api servers
+     *
+     * @param updateTime update time
+     * @return delete count
+     */
+    int deleteUpdatedBefore(@Param("updateTime") Date updateTime);
+}
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.dao.repository;
+
+import java.util.Optional;
+
+/**
+ * Code segment DAO, each server leases the segments of codes from the DB and hands out the codes locally, so the codes
+ * are unique across the servers.
+ */
+public interface CodeSegmentDao {
+
+    /**
+     * Lease a segment of codes in a new transaction, the segment starts from the max code leased before, or from the
+     * min code if it is larger.
+     *
+     * @param name segment name
+     * @param size segment size
+     * @param minCode min code of the segment
+     * @return the first code of the segment, or empty if the segment does not exist
+     */
+    Optional<Long> leaseSegment(String name, int size, long minCode);
+
+    /**
+     * Create the segment in a new transaction.
+     *
+     * @param name segment name
+     * @throws org.springframework.dao.DuplicateKeyException if the segment exists
+     */
+    void createSegment(String name);
+}
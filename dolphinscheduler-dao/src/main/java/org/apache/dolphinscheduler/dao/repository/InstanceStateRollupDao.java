@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.dao.repository;
+
+import org.apache.dolphinscheduler.dao.entity.ExecuteStatusCount;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Instance state rollup DAO, the rollups are hourly state counters of the workflow/task instances, maintained by the
+ * master, used to count the instance states of a large time range without scanning the instance tables.
+ */
+public interface InstanceStateRollupDao {
+
+    /**
+     * Count the workflow instance states whose start time is in [startTime, endTime], the rolled up buckets are read
+     * from the rollups and only the uncovered parts of the range are counted from the instance table.
+     *
+     * @param startTime start time, null means unbounded
+     * @param endTime end time, null means unbounded
+     * @param projectCodes project codes, empty means all projects
+     * @return state counts, or empty if no bucket in the range is rolled up
+     */
+    Optional<List<ExecuteStatusCount>> countWorkflowInstanceState(Date startTime, Date endTime, Long[] projectCodes);
+
+    /**
+     * Count the task instance states whose start time is in (startTime, endTime], the rolled up buckets are read
+     * from the rollups and only the uncovered parts of the range are counted from the instance table.
+     *
+     * @param startTime start time, null means unbounded
+     * @param endTime end time, null means unbounded
+     * @param projectCodes project codes, empty means all projects
+     * @return state counts, or empty if no bucket in the range is rolled up
+     */
+    Optional<List<ExecuteStatusCount>> countTaskInstanceState(Date startTime, Date endTime, Long[] projectCodes);
+
+    /**
+     * Query the rolled up buckets in [startTime, endTime).
+     *
+     * @param instanceType instance type
+     * @param startTime start bucket time
+     * @param endTime end bucket time
+     * @return bucket time list, in ascending order
+     */
+    List<Date> queryRolledUpBuckets(int instanceType, Date startTime, Date endTime);
+
+    /**
+     * Query the rolled up buckets before the given time which are marked as changed.
+     *
+     * @param instanceType instance type
+     * @param endTime end bucket time
+     * @return bucket time list, in ascending order
+     */
+    List<Date> queryChangedBuckets(int instanceType, Date endTime);
+
+    /**
+     * Recount the given bucket from the instance table and replace its rollups.
+     *
+     * @param instanceType instance type
+     * @param bucketTime bucket time
+     */
+    void rollupBucket(int instanceType, Date bucketTime);
+
+    /**
+     * Drop the rollups of the buckets overlapped with [startTime, endTime], should be called after the instances
+     * in the range are changed out of the master, e.g. deleted. The buckets will be counted from the instance table
+     * until they are rolled up again.
+     *
+     * @param startTime start time
+     * @param endTime end time
+     */
+    void invalidateBuckets(Date startTime, Date endTime);
+
+    /**
+     * Mark the rolled up buckets overlapped with [startTime, endTime] as changed, should be called after the instance
+     * states in the range are changed out of the master, e.g. forced success. The marks are kept in the database, the
+     * buckets are still summed from the rollups until the master rolls them up again.
+     *
+     * @param startTime start time
+     * @param endTime end time
+     */
+    void markBucketsChanged(Date startTime, Date endTime);
+}
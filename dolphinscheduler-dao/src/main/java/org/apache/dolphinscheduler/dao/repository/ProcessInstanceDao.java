@@ -27,6 +27,14 @@ public interface ProcessInstanceDao {
 
     public int updateProcessInstance(ProcessInstance processInstance);
 
+    /**
+     * update a batch of process instances to database in one JDBC batch
+     *
+     * @param processInstances processInstances, each one should have an id
+     * @return the update result of each process instance, in the same order as the given list
+     */
+    boolean[] batchUpdateProcessInstance(List<ProcessInstance> processInstances);
+
     /**
      * insert or update work process instance to database
      *
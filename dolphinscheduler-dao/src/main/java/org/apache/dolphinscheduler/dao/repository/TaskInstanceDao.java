@@ -50,6 +50,13 @@ public interface TaskInstanceDao {
      */
     boolean updateTaskInstance(TaskInstance taskInstance);
 
+    /**
+     * Update a batch of task instances to DB in one JDBC batch.
+     * @param taskInstances task instances, each one should have an id
+     * @return the update result of each task instance, in the same order as the given list
+     */
+    boolean[] batchUpdateTaskInstance(List<TaskInstance> taskInstances);
+
     /**
      * Submit a task instance to DB.
      * @param taskInstance task instance
@@ -66,6 +73,13 @@ public interface TaskInstanceDao {
      */
     List<TaskInstance> findValidTaskListByProcessId(Integer processInstanceId, int testFlag);
 
+    /**
+     * Query list of valid task instance by process instance ids in one query
+     * @param processInstanceIds processInstanceIds
+     * @return list of valid task instance, the test flag is not filtered
+     */
+    List<TaskInstance> findValidTaskListByProcessIds(List<Integer> processInstanceIds);
+
     /**
      * Query list of task instance by process instance id and task code
      * @param processInstanceId processInstanceId
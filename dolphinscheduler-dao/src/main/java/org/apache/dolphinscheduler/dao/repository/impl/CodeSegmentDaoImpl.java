@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.dao.repository.impl;
+
+import org.apache.dolphinscheduler.dao.entity.CodeSegment;
+import org.apache.dolphinscheduler.dao.mapper.CodeSegmentMapper;
+import org.apache.dolphinscheduler.dao.repository.CodeSegmentDao;
+
+import java.util.Date;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Code segment DAO implementation
+ */
+@Repository
+public class CodeSegmentDaoImpl implements CodeSegmentDao {
+
+    @Autowired
+    private CodeSegmentMapper codeSegmentMapper;
+
+    /**
+     * The lease must not join the transaction of the caller, or the segment would be leased again by the other servers
+     * after the caller rolls back.
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Optional<Long> leaseSegment(String name, int size, long minCode) {
+        // the row is locked by the update until commit, so the max code read back is leased by this transaction
+        if (codeSegmentMapper.increaseMaxCode(name, size, minCode, new Date()) == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(codeSegmentMapper.queryMaxCode(name) - size);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void createSegment(String name) {
+        codeSegmentMapper.insert(CodeSegment.builder()
+                .name(name)
+                .maxCode(0L)
+                .updateTime(new Date())
+                .build());
+    }
+}
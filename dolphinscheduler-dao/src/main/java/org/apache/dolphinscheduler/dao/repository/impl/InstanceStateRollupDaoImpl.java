@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.dao.repository.impl;
+
+import org.apache.dolphinscheduler.dao.entity.ExecuteStatusCount;
+import org.apache.dolphinscheduler.dao.entity.InstanceStateRollup;
+import org.apache.dolphinscheduler.dao.mapper.InstanceStateRollupMapper;
+import org.apache.dolphinscheduler.dao.repository.InstanceStateRollupDao;
+import org.apache.dolphinscheduler.plugin.task.api.enums.TaskExecutionStatus;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Instance state rollup DAO implementation
+ */
+@Repository
+@Slf4j
+public class InstanceStateRollupDaoImpl implements InstanceStateRollupDao {
+
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    @Autowired
+    private InstanceStateRollupMapper instanceStateRollupMapper;
+
+    @Override
+    public Optional<List<ExecuteStatusCount>> countWorkflowInstanceState(Date startTime, Date endTime,
+                                                                         Long[] projectCodes) {
+        // keep the range of ProcessInstanceMapper#countInstanceStateByProjectCodes
+        return countInstanceState(InstanceStateRollup.WORKFLOW_INSTANCE, startTime, true, endTime, true,
+                projectCodes, (start, includeStart, end, includeEnd) -> instanceStateRollupMapper
+                        .countWorkflowInstanceState(start, includeStart, end, includeEnd, projectCodes));
+    }
+
+    @Override
+    public Optional<List<ExecuteStatusCount>> countTaskInstanceState(Date startTime, Date endTime,
+                                                                     Long[] projectCodes) {
+        // keep the range of TaskInstanceMapper#countTaskInstanceStateByProjectCodes
+        return countInstanceState(InstanceStateRollup.TASK_INSTANCE, startTime, false, endTime, true,
+                projectCodes, (start, includeStart, end, includeEnd) -> instanceStateRollupMapper
+                        .countTaskInstanceState(start, includeStart, end, includeEnd, projectCodes));
+    }
+
+    @Override
+    public List<Date> queryRolledUpBuckets(int instanceType, Date startTime, Date endTime) {
+        return instanceStateRollupMapper.queryRolledUpBuckets(instanceType, startTime, endTime);
+    }
+
+    @Override
+    public List<Date> queryChangedBuckets(int instanceType, @NonNull Date endTime) {
+        return instanceStateRollupMapper.queryChangedBuckets(instanceType, endTime);
+    }
+
+    @Override
+    @Transactional
+    public void rollupBucket(int instanceType, @NonNull Date bucketTime) {
+        Date bucketEndTime = new Date(bucketTime.getTime() + InstanceStateRollup.BUCKET_MILLIS);
+        List<InstanceStateRollup> rollups = instanceType == InstanceStateRollup.WORKFLOW_INSTANCE
+                ? instanceStateRollupMapper.aggregateWorkflowInstanceState(bucketTime, bucketEndTime)
+                : instanceStateRollupMapper.aggregateTaskInstanceState(bucketTime, bucketEndTime);
+        Date now = new Date();
+        rollups = new ArrayList<>(rollups);
+        for (InstanceStateRollup rollup : rollups) {
+            rollup.setInstanceType(instanceType);
+            rollup.setBucketTime(bucketTime);
+            rollup.setUpdateTime(now);
+        }
+        rollups.add(InstanceStateRollup.builder()
+                .instanceType(instanceType)
+                .bucketTime(bucketTime)
+                .state(InstanceStateRollup.BUCKET_MARKER_STATE)
+                .updateTime(now)
+                .build());
+
+        instanceStateRollupMapper.deleteBucket(instanceType, bucketTime);
+        for (List<InstanceStateRollup> batch : Lists.partition(rollups, INSERT_BATCH_SIZE)) {
+            instanceStateRollupMapper.batchInsert(batch);
+        }
+    }
+
+    @Override
+    public void invalidateBuckets(@NonNull Date startTime, @NonNull Date endTime) {
+        Date endBucketTime = new Date(InstanceStateRollup.bucketTimeOf(endTime).getTime()
+                + InstanceStateRollup.BUCKET_MILLIS);
+        int count = instanceStateRollupMapper.deleteBuckets(InstanceStateRollup.bucketTimeOf(startTime),
+                endBucketTime);
+        log.debug("Invalidate instance state rollups from {} to {}, count: {}", startTime, endTime, count);
+    }
+
+    @Override
+    public void markBucketsChanged(@NonNull Date startTime, @NonNull Date endTime) {
+        Date endBucketTime = new Date(InstanceStateRollup.bucketTimeOf(endTime).getTime()
+                + InstanceStateRollup.BUCKET_MILLIS);
+        int count = instanceStateRollupMapper.markBucketsChanged(InstanceStateRollup.bucketTimeOf(startTime),
+                endBucketTime);
+        log.debug("Mark instance state rollups changed from {} to {}, count: {}", startTime, endTime, count);
+    }
+
+    /**
+     * Sum the rolled up buckets which are entirely in the range, and count the others from the instance table.
+     */
+    private Optional<List<ExecuteStatusCount>> countInstanceState(int instanceType,
+                                                                  Date startTime, boolean includeStart,
+                                                                  Date endTime, boolean includeEnd,
+                                                                  Long[] projectCodes,
+                                                                  InstanceStateCounter rawCounter) {
+        // the bucket [bucketTime, bucketTime + 1h) is in the range if its first and last millisecond are in the range
+        Date firstBucketTime = startTime == null ? null
+                : ceilBucketTime(new Date(startTime.getTime() + (includeStart ? 0 : 1)));
+        Date endBucketTime = endTime == null ? null
+                : InstanceStateRollup.bucketTimeOf(new Date(endTime.getTime() + (includeEnd ? 1 : 0)));
+        List<Date> buckets = instanceStateRollupMapper.queryRolledUpBuckets(instanceType, firstBucketTime,
+                endBucketTime);
+        if (buckets.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Map<TaskExecutionStatus, Integer> stateCounts = new LinkedHashMap<>();
+        Date coveredStartTime = buckets.get(0);
+        Date coveredEndTime = new Date(coveredStartTime.getTime() + InstanceStateRollup.BUCKET_MILLIS);
+        // the bucket between the rolled up buckets is not rolled up or invalidated
+        for (Date bucket : buckets.subList(1, buckets.size())) {
+            if (bucket.after(coveredEndTime)) {
+                mergeStateCounts(stateCounts, rawCounter.count(coveredEndTime, true, bucket, false));
+            }
+            coveredEndTime = new Date(bucket.getTime() + InstanceStateRollup.BUCKET_MILLIS);
+        }
+        mergeStateCounts(stateCounts, instanceStateRollupMapper.sumRolledUpState(instanceType, coveredStartTime,
+                coveredEndTime, projectCodes));
+        if (startTime == null || startTime.before(coveredStartTime)) {
+            mergeStateCounts(stateCounts, rawCounter.count(startTime, includeStart, coveredStartTime, false));
+        }
+        if (endTime == null || endTime.after(coveredEndTime) || includeEnd && endTime.equals(coveredEndTime)) {
+            mergeStateCounts(stateCounts, rawCounter.count(coveredEndTime, true, endTime, includeEnd));
+        }
+
+        List<ExecuteStatusCount> executeStatusCounts = new ArrayList<>(stateCounts.size());
+        stateCounts.forEach((state, count) -> executeStatusCounts.add(new ExecuteStatusCount(state, count)));
+        return Optional.of(executeStatusCounts);
+    }
+
+    private void mergeStateCounts(Map<TaskExecutionStatus, Integer> stateCounts,
+                                  List<ExecuteStatusCount> executeStatusCounts) {
+        if (executeStatusCounts == null) {
+            return;
+        }
+        for (ExecuteStatusCount executeStatusCount : executeStatusCounts) {
+            stateCounts.merge(executeStatusCount.getState(), executeStatusCount.getCount(), Integer::sum);
+        }
+    }
+
+    private Date ceilBucketTime(Date time) {
+        Date bucketTime = InstanceStateRollup.bucketTimeOf(time);
+        return bucketTime.equals(time) ? bucketTime
+                : new Date(bucketTime.getTime() + InstanceStateRollup.BUCKET_MILLIS);
+    }
+
+    /**
+     * Count the instance states from the instance table, null bound means unbounded.
+     */
+    @FunctionalInterface
+    private interface InstanceStateCounter {
+
+        List<ExecuteStatusCount> count(Date startTime, boolean includeStart, Date endTime, boolean includeEnd);
+    }
+}
@@ -20,8 +20,10 @@ package org.apache.dolphinscheduler.dao.repository.impl;
 import org.apache.dolphinscheduler.dao.entity.ProcessInstance;
 import org.apache.dolphinscheduler.dao.mapper.ProcessInstanceMapper;
 import org.apache.dolphinscheduler.dao.repository.ProcessInstanceDao;
+import org.apache.dolphinscheduler.dao.utils.BatchExecuteUtils;
 
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.ibatis.session.SqlSessionFactory;
 
 import java.util.List;
 
@@ -38,6 +40,9 @@ public class ProcessInstanceDaoImpl implements ProcessInstanceDao {
     @Autowired
     private ProcessInstanceMapper processInstanceMapper;
 
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
     @Override
     public int insertProcessInstance(ProcessInstance processInstance) {
         return processInstanceMapper.insert(processInstance);
@@ -48,6 +53,15 @@ public class ProcessInstanceDaoImpl implements ProcessInstanceDao {
         return processInstanceMapper.updateById(processInstance);
     }
 
+    @Override
+    public boolean[] batchUpdateProcessInstance(List<ProcessInstance> processInstances) {
+        if (CollectionUtils.isEmpty(processInstances)) {
+            return new boolean[0];
+        }
+        return BatchExecuteUtils.executeBatch(sqlSessionFactory, ProcessInstanceMapper.class, processInstances,
+                ProcessInstanceMapper::updateById);
+    }
+
     @Override
     public int upsertProcessInstance(@NonNull ProcessInstance processInstance) {
         if (processInstance.getId() != null) {
@@ -26,10 +26,12 @@ import org.apache.dolphinscheduler.dao.mapper.ProcessInstanceMapper;
 import org.apache.dolphinscheduler.dao.mapper.TaskInstanceMapper;
 import org.apache.dolphinscheduler.dao.repository.ProcessInstanceMapDao;
 import org.apache.dolphinscheduler.dao.repository.TaskInstanceDao;
+import org.apache.dolphinscheduler.dao.utils.BatchExecuteUtils;
 import org.apache.dolphinscheduler.plugin.task.api.enums.TaskExecutionStatus;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.ibatis.session.SqlSessionFactory;
 
 import java.util.ArrayList;
 import java.util.Date;
@@ -56,6 +58,9 @@ public class TaskInstanceDaoImpl implements TaskInstanceDao {
     @Autowired
     private ProcessInstanceMapDao processInstanceMapDao;
 
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
     @Override
     public boolean upsertTaskInstance(TaskInstance taskInstance) {
         if (taskInstance.getId() != null) {
@@ -77,6 +82,15 @@ public class TaskInstanceDaoImpl implements TaskInstanceDao {
         return count > 0;
     }
 
+    @Override
+    public boolean[] batchUpdateTaskInstance(List<TaskInstance> taskInstances) {
+        if (CollectionUtils.isEmpty(taskInstances)) {
+            return new boolean[0];
+        }
+        return BatchExecuteUtils.executeBatch(sqlSessionFactory, TaskInstanceMapper.class, taskInstances,
+                TaskInstanceMapper::updateById);
+    }
+
     @Override
     public TaskInstance submitTaskInstanceToDB(TaskInstance taskInstance, ProcessInstance processInstance) {
         WorkflowExecutionStatus processInstanceState = processInstance.getState();
@@ -148,6 +162,14 @@ public class TaskInstanceDaoImpl implements TaskInstanceDao {
         return taskInstanceMapper.findValidTaskListByProcessId(processInstanceId, Flag.YES, testFlag);
     }
 
+    @Override
+    public List<TaskInstance> findValidTaskListByProcessIds(List<Integer> processInstanceIds) {
+        if (CollectionUtils.isEmpty(processInstanceIds)) {
+            return new ArrayList<>();
+        }
+        return taskInstanceMapper.findValidTaskListByProcessIds(processInstanceIds, Flag.YES);
+    }
+
     @Override
     public TaskInstance findTaskByInstanceIdAndCode(Integer processInstanceId, Long taskCode) {
         return taskInstanceMapper.queryByInstanceIdAndCode(processInstanceId, taskCode);
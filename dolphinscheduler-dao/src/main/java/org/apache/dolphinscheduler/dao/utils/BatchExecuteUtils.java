@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.dao.utils;
+
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+import java.sql.Statement;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Run a list of mapper statements as one JDBC batch.
+ */
+public class BatchExecuteUtils {
+
+    private BatchExecuteUtils() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Execute the given statement for each entity through a {@link ExecutorType#BATCH} session, so all the rows are
+     * sent to the database in one round-trip.
+     *
+     * @param sqlSessionFactory session factory
+     * @param mapperClass       mapper class
+     * @param entities          entities to write
+     * @param statement         the mapper statement to invoke for each entity
+     * @return the execute result of each entity, in the same order as the given entities
+     */
+    public static <M, T> boolean[] executeBatch(SqlSessionFactory sqlSessionFactory,
+                                                Class<M> mapperClass,
+                                                List<T> entities,
+                                                BiConsumer<M, T> statement) {
+        boolean[] results = new boolean[entities.size()];
+        try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH, false)) {
+            M mapper = sqlSession.getMapper(mapperClass);
+            for (T entity : entities) {
+                statement.accept(mapper, entity);
+            }
+            List<BatchResult> batchResults = sqlSession.flushStatements();
+            sqlSession.commit();
+
+            // the batch executor keeps the invoke order, one update count for each entity
+            int index = 0;
+            for (BatchResult batchResult : batchResults) {
+                for (int updateCount : batchResult.getUpdateCounts()) {
+                    if (index < results.length) {
+                        results[index++] = updateCount > 0 || updateCount == Statement.SUCCESS_NO_INFO;
+                    }
+                }
+            }
+        }
+        return results;
+    }
+}
@@ -79,6 +79,8 @@ public class TaskInstanceUtils {
         target.setMemoryMax(source.getMemoryMax());
         target.setTaskExecuteType(source.getTaskExecuteType());
         target.setTestFlag(source.getTestFlag());
+        target.setIsCache(source.getIsCache());
+        target.setCacheKey(source.getCacheKey());
     }
 
 }
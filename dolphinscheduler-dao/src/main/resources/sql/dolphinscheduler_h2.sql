@@ -2058,3 +2058,76 @@ CREATE TABLE t_ds_trigger_relation
     PRIMARY KEY (id),
     UNIQUE KEY t_ds_trigger_relation_UN(trigger_type,job_id,trigger_code)
 );
+
+--
+-- Table structure for t_ds_instance_state_rollup
+--
+DROP TABLE IF EXISTS t_ds_instance_state_rollup CASCADE;
+CREATE TABLE t_ds_instance_state_rollup
+(
+    id              bigint(20) NOT NULL AUTO_INCREMENT,
+    instance_type   int         NOT NULL,
+    project_code    bigint(20)  NOT NULL,
+    definition_code bigint(20)  NOT NULL,
+    bucket_time     timestamp   NOT NULL,
+    state           int         NOT NULL,
+    count           int         NOT NULL DEFAULT '0',
+    update_time     timestamp NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id),
+    UNIQUE KEY t_ds_instance_state_rollup_UN (instance_type, bucket_time, project_code, definition_code, state)
+);
+
+--
+-- Table structure for t_ds_resource_metadata
+--
+DROP TABLE IF EXISTS t_ds_resource_metadata CASCADE;
+CREATE TABLE t_ds_resource_metadata
+(
+    id           bigint(20) NOT NULL AUTO_INCREMENT,
+    tenant_code  varchar(64)  NOT NULL,
+    type         int          NOT NULL,
+    path         varchar(512) NOT NULL,
+    parent_path  varchar(512) NOT NULL,
+    full_name    varchar(512) NOT NULL,
+    pfull_name   varchar(512) DEFAULT NULL,
+    file_name    varchar(512) DEFAULT NULL,
+    alias        varchar(255) DEFAULT NULL,
+    is_directory tinyint(4)   NOT NULL DEFAULT '0',
+    size         bigint(20)   NOT NULL DEFAULT '0',
+    sync_time    timestamp NULL DEFAULT NULL,
+    create_time  timestamp NULL DEFAULT NULL,
+    update_time  timestamp NULL DEFAULT NULL,
+    PRIMARY KEY (id),
+    UNIQUE KEY t_ds_resource_metadata_UN (path),
+    KEY idx_parent_path (parent_path),
+    KEY idx_sync_time (sync_time)
+);
+
+--
+-- Table structure for t_ds_traffic_quota_share
+--
+DROP TABLE IF EXISTS t_ds_traffic_quota_share CASCADE;
+CREATE TABLE t_ds_traffic_quota_share
+(
+    id          int(11)      NOT NULL AUTO_INCREMENT,
+    host        varchar(255) NOT NULL,
+    demand      text         DEFAULT NULL,
+    update_time timestamp NULL DEFAULT NULL,
+    PRIMARY KEY (id),
+    UNIQUE KEY t_ds_traffic_quota_share_UN (host),
+    KEY idx_update_time (update_time)
+);
+
+--
+-- Table structure for t_ds_code_segment
+--
+DROP TABLE IF EXISTS t_ds_code_segment CASCADE;
+CREATE TABLE t_ds_code_segment
+(
+    id          int(11)     NOT NULL AUTO_INCREMENT,
+    name        varchar(64) NOT NULL,
+    max_code    bigint(20)  NOT NULL DEFAULT '0',
+    update_time timestamp NULL DEFAULT NULL,
+    PRIMARY KEY (id),
+    UNIQUE KEY t_ds_code_segment_UN (name)
+);
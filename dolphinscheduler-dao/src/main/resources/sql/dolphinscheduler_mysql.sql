@@ -905,7 +905,8 @@ CREATE TABLE `t_ds_task_instance` (
   PRIMARY KEY (`id`),
   KEY `process_instance_id` (`process_instance_id`) USING BTREE,
   KEY `idx_code_version` (`task_code`, `task_definition_version`) USING BTREE,
-  KEY `idx_cache_key` (`cache_key`) USING BTREE
+  KEY `idx_cache_key` (`cache_key`) USING BTREE,
+  KEY `idx_start_time` (`start_time`) USING BTREE
 ) ENGINE=InnoDB AUTO_INCREMENT=1 DEFAULT CHARSET=utf8 COLLATE = utf8_bin;
 
 -- ----------------------------
@@ -2030,3 +2031,72 @@ CREATE TABLE `t_ds_trigger_relation` (
     KEY `t_ds_trigger_relation_trigger_code_IDX` (`trigger_code`),
     UNIQUE KEY `t_ds_trigger_relation_UN` (`trigger_type`,`job_id`,`trigger_code`)
 ) ENGINE=InnoDB AUTO_INCREMENT=1 DEFAULT CHARSET=utf8 COLLATE = utf8_bin;
+
+-- ----------------------------
+-- Table structure for t_ds_instance_state_rollup
+-- ----------------------------
+DROP TABLE IF EXISTS `t_ds_instance_state_rollup`;
+CREATE TABLE `t_ds_instance_state_rollup` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT COMMENT 'key',
+  `instance_type` int(11) NOT NULL COMMENT '0 workflow instance, 1 task instance',
+  `project_code` bigint(20) NOT NULL COMMENT 'project code',
+  `definition_code` bigint(20) NOT NULL COMMENT 'workflow definition code or task definition code',
+  `bucket_time` datetime NOT NULL COMMENT 'the hour of the instance start time',
+  `state` tinyint(4) NOT NULL COMMENT 'instance state, -1 marks the bucket is rolled up',
+  `count` int(11) NOT NULL DEFAULT '0' COMMENT 'instance count',
+  `update_time` datetime DEFAULT NULL COMMENT 'update time',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `t_ds_instance_state_rollup_UN` (`instance_type`,`bucket_time`,`project_code`,`definition_code`,`state`)
+) ENGINE=InnoDB AUTO_INCREMENT=1 DEFAULT CHARSET=utf8 COLLATE = utf8_bin;
+
+-- ----------------------------
+-- Table structure for t_ds_resource_metadata
+-- ----------------------------
+DROP TABLE IF EXISTS `t_ds_resource_metadata`;
+CREATE TABLE `t_ds_resource_metadata` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT COMMENT 'key',
+  `tenant_code` varchar(64) NOT NULL COMMENT 'tenant code',
+  `type` tinyint(4) NOT NULL COMMENT 'resource type, 0 FILE, 1 UDF',
+  `path` varchar(512) NOT NULL COMMENT 'full name without the storage scheme',
+  `parent_path` varchar(512) NOT NULL COMMENT 'path of the parent directory',
+  `full_name` varchar(512) NOT NULL COMMENT 'full name in the storage',
+  `pfull_name` varchar(512) DEFAULT NULL COMMENT 'full name of the parent directory in the storage',
+  `file_name` varchar(512) DEFAULT NULL COMMENT 'file name relative to the tenant resource directory',
+  `alias` varchar(255) DEFAULT NULL COMMENT 'alias',
+  `is_directory` tinyint(4) NOT NULL DEFAULT '0' COMMENT 'is directory',
+  `size` bigint(20) NOT NULL DEFAULT '0' COMMENT 'resource size',
+  `sync_time` datetime DEFAULT NULL COMMENT 'the time the children of the directory are synced from the storage',
+  `create_time` datetime DEFAULT NULL COMMENT 'create time',
+  `update_time` datetime DEFAULT NULL COMMENT 'update time',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `t_ds_resource_metadata_UN` (`path`),
+  KEY `idx_parent_path` (`parent_path`),
+  KEY `idx_sync_time` (`sync_time`)
+) ENGINE=InnoDB AUTO_INCREMENT=1 DEFAULT CHARSET=utf8 COLLATE = utf8_bin;
+
+-- ----------------------------
+-- Table structure for t_ds_traffic_quota_share
+-- ----------------------------
+DROP TABLE IF EXISTS `t_ds_traffic_quota_share`;
+CREATE TABLE `t_ds_traffic_quota_share` (
+  `id` int(11) NOT NULL AUTO_INCREMENT COMMENT 'key',
+  `host` varchar(255) NOT NULL COMMENT 'api server address',
+  `demand` text COMMENT 'the requested permits of each rate limiter in the last sync interval, format json',
+  `update_time` datetime DEFAULT NULL COMMENT 'update time',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `t_ds_traffic_quota_share_UN` (`host`),
+  KEY `idx_update_time` (`update_time`)
+) ENGINE=InnoDB AUTO_INCREMENT=1 DEFAULT CHARSET=utf8 COLLATE = utf8_bin;
+
+-- ----------------------------
+-- Table structure for t_ds_code_segment
+-- ----------------------------
+DROP TABLE IF EXISTS `t_ds_code_segment`;
+CREATE TABLE `t_ds_code_segment` (
+  `id` int(11) NOT NULL AUTO_INCREMENT COMMENT 'key',
+  `name` varchar(64) NOT NULL COMMENT 'segment name',
+  `max_code` bigint(20) NOT NULL DEFAULT '0' COMMENT 'the max code leased, exclusive',
+  `update_time` datetime DEFAULT NULL COMMENT 'update time',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `t_ds_code_segment_UN` (`name`)
+) ENGINE=InnoDB AUTO_INCREMENT=1 DEFAULT CHARSET=utf8 COLLATE = utf8_bin;
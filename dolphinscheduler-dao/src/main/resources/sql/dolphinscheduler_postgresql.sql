@@ -807,6 +807,7 @@ CREATE TABLE t_ds_task_instance (
 
 create index idx_task_instance_code_version on t_ds_task_instance (task_code, task_definition_version);
 create index idx_cache_key on t_ds_task_instance (cache_key);
+create index idx_task_instance_start_time on t_ds_task_instance (start_time);
 
 --
 -- Table structure for table t_ds_tenant
@@ -2009,3 +2010,72 @@ CREATE TABLE t_ds_trigger_relation (
     PRIMARY KEY (id),
     CONSTRAINT t_ds_trigger_relation_unique UNIQUE (trigger_type,job_id,trigger_code)
 );
+
+-- ----------------------------
+-- Table structure for t_ds_instance_state_rollup
+-- ----------------------------
+DROP TABLE IF EXISTS t_ds_instance_state_rollup;
+CREATE TABLE t_ds_instance_state_rollup (
+    id              serial      NOT NULL,
+    instance_type   int         NOT NULL,
+    project_code    bigint      NOT NULL,
+    definition_code bigint      NOT NULL,
+    bucket_time     timestamp   NOT NULL,
+    state           int         NOT NULL,
+    count           int         NOT NULL DEFAULT '0',
+    update_time     timestamp   DEFAULT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT t_ds_instance_state_rollup_unique UNIQUE (instance_type, bucket_time, project_code, definition_code, state)
+);
+
+-- ----------------------------
+-- Table structure for t_ds_resource_metadata
+-- ----------------------------
+DROP TABLE IF EXISTS t_ds_resource_metadata;
+CREATE TABLE t_ds_resource_metadata (
+    id           serial       NOT NULL,
+    tenant_code  varchar(64)  NOT NULL,
+    type         int          NOT NULL,
+    path         varchar(512) NOT NULL,
+    parent_path  varchar(512) NOT NULL,
+    full_name    varchar(512) NOT NULL,
+    pfull_name   varchar(512) DEFAULT NULL,
+    file_name    varchar(512) DEFAULT NULL,
+    alias        varchar(255) DEFAULT NULL,
+    is_directory int          NOT NULL DEFAULT '0',
+    size         bigint       NOT NULL DEFAULT '0',
+    sync_time    timestamp    DEFAULT NULL,
+    create_time  timestamp    DEFAULT NULL,
+    update_time  timestamp    DEFAULT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT t_ds_resource_metadata_unique UNIQUE (path)
+);
+create index idx_resource_metadata_parent_path on t_ds_resource_metadata (parent_path);
+create index idx_resource_metadata_sync_time on t_ds_resource_metadata (sync_time);
+
+-- ----------------------------
+-- Table structure for t_ds_traffic_quota_share
+-- ----------------------------
+DROP TABLE IF EXISTS t_ds_traffic_quota_share;
+CREATE TABLE t_ds_traffic_quota_share (
+    id          serial       NOT NULL,
+    host        varchar(255) NOT NULL,
+    demand      text         DEFAULT NULL,
+    update_time timestamp    DEFAULT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT t_ds_traffic_quota_share_unique UNIQUE (host)
+);
+create index idx_traffic_quota_share_update_time on t_ds_traffic_quota_share (update_time);
+
+-- ----------------------------
+-- Table structure for t_ds_code_segment
+-- ----------------------------
+DROP TABLE IF EXISTS t_ds_code_segment;
+CREATE TABLE t_ds_code_segment (
+    id          serial      NOT NULL,
+    name        varchar(64) NOT NULL,
+    max_code    bigint      NOT NULL DEFAULT '0',
+    update_time timestamp   DEFAULT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT t_ds_code_segment_unique UNIQUE (name)
+);
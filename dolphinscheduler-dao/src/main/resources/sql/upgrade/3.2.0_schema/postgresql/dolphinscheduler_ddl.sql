@@ -224,4 +224,59 @@ select add_t_ds_task_instance_add_project_code();
 DROP FUNCTION add_t_ds_task_instance_add_project_code();
 
 ALTER TABLE `t_ds_alert`
-    MODIFY `title` varchar(512) DEFAULT NULL ;
\ No newline at end of file
+    MODIFY `title` varchar(512) DEFAULT NULL ;
+
+CREATE INDEX IF NOT EXISTS idx_task_instance_start_time ON t_ds_task_instance USING Btree("start_time");
+
+CREATE TABLE IF NOT EXISTS t_ds_instance_state_rollup (
+    id              serial      NOT NULL,
+    instance_type   int         NOT NULL,
+    project_code    bigint      NOT NULL,
+    definition_code bigint      NOT NULL,
+    bucket_time     timestamp   NOT NULL,
+    state           int         NOT NULL,
+    count           int         NOT NULL DEFAULT '0',
+    update_time     timestamp   DEFAULT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT t_ds_instance_state_rollup_unique UNIQUE (instance_type, bucket_time, project_code, definition_code, state)
+);
+
+CREATE TABLE IF NOT EXISTS t_ds_resource_metadata (
+    id           serial       NOT NULL,
+    tenant_code  varchar(64)  NOT NULL,
+    type         int          NOT NULL,
+    path         varchar(512) NOT NULL,
+    parent_path  varchar(512) NOT NULL,
+    full_name    varchar(512) NOT NULL,
+    pfull_name   varchar(512) DEFAULT NULL,
+    file_name    varchar(512) DEFAULT NULL,
+    alias        varchar(255) DEFAULT NULL,
+    is_directory int          NOT NULL DEFAULT '0',
+    size         bigint       NOT NULL DEFAULT '0',
+    sync_time    timestamp    DEFAULT NULL,
+    create_time  timestamp    DEFAULT NULL,
+    update_time  timestamp    DEFAULT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT t_ds_resource_metadata_unique UNIQUE (path)
+);
+CREATE INDEX IF NOT EXISTS idx_resource_metadata_parent_path ON t_ds_resource_metadata (parent_path);
+CREATE INDEX IF NOT EXISTS idx_resource_metadata_sync_time ON t_ds_resource_metadata (sync_time);
+
+CREATE TABLE IF NOT EXISTS t_ds_traffic_quota_share (
+    id          serial       NOT NULL,
+    host        varchar(255) NOT NULL,
+    demand      text         DEFAULT NULL,
+    update_time timestamp    DEFAULT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT t_ds_traffic_quota_share_unique UNIQUE (host)
+);
+CREATE INDEX IF NOT EXISTS idx_traffic_quota_share_update_time ON t_ds_traffic_quota_share (update_time);
+
+CREATE TABLE IF NOT EXISTS t_ds_code_segment (
+    id          serial      NOT NULL,
+    name        varchar(64) NOT NULL,
+    max_code    bigint      NOT NULL DEFAULT '0',
+    update_time timestamp   DEFAULT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT t_ds_code_segment_unique UNIQUE (name)
+);
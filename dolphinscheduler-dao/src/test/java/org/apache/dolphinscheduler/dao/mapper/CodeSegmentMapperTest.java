@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.dao.mapper;
+
+import org.apache.dolphinscheduler.dao.BaseDaoTest;
+import org.apache.dolphinscheduler.dao.entity.CodeSegment;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+public class CodeSegmentMapperTest extends BaseDaoTest {
+
+    @Autowired
+    private CodeSegmentMapper codeSegmentMapper;
+
+    @Test
+    public void testIncreaseMaxCode() {
+        Date now = new Date();
+        Assertions.assertEquals(0, codeSegmentMapper.increaseMaxCode("code", 100, 1000, now));
+        Assertions.assertNull(codeSegmentMapper.queryMaxCode("code"));
+        codeSegmentMapper.insert(CodeSegment.builder().name("code").maxCode(0L).updateTime(now).build());
+
+        // the max code is raised to the min code first
+        Assertions.assertEquals(1, codeSegmentMapper.increaseMaxCode("code", 100, 1000, now));
+        Assertions.assertEquals(1100L, codeSegmentMapper.queryMaxCode("code"));
+        Assertions.assertEquals(1, codeSegmentMapper.increaseMaxCode("code", 100, 1000, now));
+        Assertions.assertEquals(1200L, codeSegmentMapper.queryMaxCode("code"));
+    }
+}
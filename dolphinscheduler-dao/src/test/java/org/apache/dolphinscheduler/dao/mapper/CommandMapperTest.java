@@ -31,6 +31,7 @@ import org.apache.dolphinscheduler.dao.entity.Command;
 import org.apache.dolphinscheduler.dao.entity.CommandCount;
 import org.apache.dolphinscheduler.dao.entity.ProcessDefinition;
 
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -163,28 +164,22 @@ public class CommandMapperTest extends BaseDaoTest {
      */
     @Test
     public void testQueryCommandPageBySlot() {
-        int masterCount = 4;
-        int thisMasterSlot = 2;
+        int slotCount = 4;
+        List<Integer> slots = Arrays.asList(1, 2);
         // for hit or miss
-        toTestQueryCommandPageBySlot(masterCount, thisMasterSlot);
-        toTestQueryCommandPageBySlot(masterCount, thisMasterSlot);
-        toTestQueryCommandPageBySlot(masterCount, thisMasterSlot);
-        toTestQueryCommandPageBySlot(masterCount, thisMasterSlot);
+        toTestQueryCommandPageBySlot(slotCount, slots);
+        toTestQueryCommandPageBySlot(slotCount, slots);
+        toTestQueryCommandPageBySlot(slotCount, slots);
+        toTestQueryCommandPageBySlot(slotCount, slots);
     }
 
-    private boolean toTestQueryCommandPageBySlot(int masterCount, int thisMasterSlot) {
+    private boolean toTestQueryCommandPageBySlot(int slotCount, List<Integer> slots) {
         Command command = createCommand();
         Integer id = command.getId();
-        boolean hit = id % masterCount == thisMasterSlot;
-        List<Command> commandList = commandMapper.queryCommandPageBySlot(1, masterCount, thisMasterSlot);
-        if (hit) {
-            Assertions.assertEquals(id, commandList.get(0).getId());
-        } else {
-            commandList.forEach(o -> {
-                Assertions.assertNotEquals(id, o.getId());
-                Assertions.assertEquals(thisMasterSlot, o.getId() % masterCount);
-            });
-        }
+        boolean hit = slots.contains(id % slotCount);
+        List<Command> commandList = commandMapper.queryCommandPageBySlot(10, slotCount, slots);
+        Assertions.assertEquals(hit, commandList.stream().anyMatch(o -> id.equals(o.getId())));
+        commandList.forEach(o -> Assertions.assertTrue(slots.contains(o.getId() % slotCount)));
         return hit;
     }
 
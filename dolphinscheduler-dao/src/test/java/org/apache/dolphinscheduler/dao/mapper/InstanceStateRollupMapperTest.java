@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.dao.mapper;
+
+import org.apache.dolphinscheduler.common.enums.ReleaseState;
+import org.apache.dolphinscheduler.common.enums.WorkflowExecutionStatus;
+import org.apache.dolphinscheduler.dao.BaseDaoTest;
+import org.apache.dolphinscheduler.dao.entity.ExecuteStatusCount;
+import org.apache.dolphinscheduler.dao.entity.InstanceStateRollup;
+import org.apache.dolphinscheduler.dao.entity.ProcessDefinition;
+import org.apache.dolphinscheduler.dao.entity.ProcessInstance;
+import org.apache.dolphinscheduler.dao.repository.InstanceStateRollupDao;
+import org.apache.dolphinscheduler.plugin.task.api.enums.TaskExecutionStatus;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+public class InstanceStateRollupMapperTest extends BaseDaoTest {
+
+    private static final long HOUR = InstanceStateRollup.BUCKET_MILLIS;
+
+    private static final Date BUCKET_TIME = new Date(1000 * HOUR);
+
+    private static final Long[] PROJECT_CODES = new Long[]{1L};
+
+    @Autowired
+    private InstanceStateRollupMapper instanceStateRollupMapper;
+
+    @Autowired
+    private InstanceStateRollupDao instanceStateRollupDao;
+
+    @Autowired
+    private ProcessInstanceMapper processInstanceMapper;
+
+    @Autowired
+    private ProcessDefinitionMapper processDefinitionMapper;
+
+    @BeforeEach
+    public void before() {
+        ProcessDefinition processDefinition = new ProcessDefinition();
+        processDefinition.setCode(1L);
+        processDefinition.setProjectCode(1L);
+        processDefinition.setReleaseState(ReleaseState.ONLINE);
+        processDefinition.setCreateTime(new Date());
+        processDefinition.setUpdateTime(new Date());
+        processDefinitionMapper.insert(processDefinition);
+    }
+
+    @Test
+    public void testRollupBucket() {
+        insertProcessInstance(0, WorkflowExecutionStatus.SUCCESS);
+        insertProcessInstance(HOUR / 2, WorkflowExecutionStatus.FAILURE);
+        insertProcessInstance(HOUR - 1, WorkflowExecutionStatus.SUCCESS);
+        insertProcessInstance(HOUR, WorkflowExecutionStatus.SUCCESS);
+
+        instanceStateRollupDao.rollupBucket(InstanceStateRollup.WORKFLOW_INSTANCE, BUCKET_TIME);
+        // rollup again will replace the rollups of the bucket
+        instanceStateRollupDao.rollupBucket(InstanceStateRollup.WORKFLOW_INSTANCE, BUCKET_TIME);
+
+        List<InstanceStateRollup> rollups = instanceStateRollupMapper.selectList(null);
+        Assertions.assertEquals(3, rollups.size());
+        Map<Integer, Integer> stateCounts = rollups.stream()
+                .collect(Collectors.toMap(InstanceStateRollup::getState, InstanceStateRollup::getCount));
+        Assertions.assertEquals(2, stateCounts.get(TaskExecutionStatus.SUCCESS.getCode()));
+        Assertions.assertEquals(1, stateCounts.get(TaskExecutionStatus.FAILURE.getCode()));
+        Assertions.assertEquals(0, stateCounts.get(InstanceStateRollup.BUCKET_MARKER_STATE));
+        Assertions.assertEquals(1, instanceStateRollupDao
+                .queryRolledUpBuckets(InstanceStateRollup.WORKFLOW_INSTANCE, null, null).size());
+    }
+
+    @Test
+    public void testCountWorkflowInstanceState() {
+        Date startTime = new Date(BUCKET_TIME.getTime() - HOUR / 2);
+        Date endTime = new Date(BUCKET_TIME.getTime() + 3 * HOUR);
+        Assertions.assertFalse(instanceStateRollupDao
+                .countWorkflowInstanceState(startTime, endTime, PROJECT_CODES).isPresent());
+
+        insertProcessInstance(-HOUR / 4, WorkflowExecutionStatus.FAILURE);
+        ProcessInstance rolledUpInstance = insertProcessInstance(HOUR / 2, WorkflowExecutionStatus.SUCCESS);
+        insertProcessInstance(2 * HOUR, WorkflowExecutionStatus.RUNNING_EXECUTION);
+        instanceStateRollupDao.rollupBucket(InstanceStateRollup.WORKFLOW_INSTANCE, BUCKET_TIME);
+
+        // the rolled up bucket is not counted from the instance table
+        processInstanceMapper.deleteById(rolledUpInstance.getId());
+        Map<TaskExecutionStatus, Integer> stateCounts =
+                toMap(instanceStateRollupDao.countWorkflowInstanceState(startTime, endTime, PROJECT_CODES));
+        Assertions.assertEquals(1, stateCounts.get(TaskExecutionStatus.SUCCESS));
+        Assertions.assertEquals(1, stateCounts.get(TaskExecutionStatus.FAILURE));
+        Assertions.assertEquals(1, stateCounts.get(TaskExecutionStatus.RUNNING_EXECUTION));
+
+        instanceStateRollupDao.invalidateBuckets(rolledUpInstance.getStartTime(), rolledUpInstance.getStartTime());
+        Assertions.assertFalse(instanceStateRollupDao
+                .countWorkflowInstanceState(startTime, endTime, PROJECT_CODES).isPresent());
+    }
+
+    @Test
+    public void testCountWorkflowInstanceStateRange() {
+        insertProcessInstance(0, WorkflowExecutionStatus.SUCCESS);
+        insertProcessInstance(HOUR / 2, WorkflowExecutionStatus.SUCCESS);
+        insertProcessInstance(HOUR, WorkflowExecutionStatus.FAILURE);
+        insertProcessInstance(HOUR + 1000, WorkflowExecutionStatus.FAILURE);
+        instanceStateRollupDao.rollupBucket(InstanceStateRollup.WORKFLOW_INSTANCE, BUCKET_TIME);
+
+        // both the start time and the end time are inclusive like the instance table query
+        Map<TaskExecutionStatus, Integer> stateCounts = toMap(instanceStateRollupDao
+                .countWorkflowInstanceState(BUCKET_TIME, new Date(BUCKET_TIME.getTime() + HOUR), PROJECT_CODES));
+        Assertions.assertEquals(2, stateCounts.get(TaskExecutionStatus.SUCCESS));
+        Assertions.assertEquals(1, stateCounts.get(TaskExecutionStatus.FAILURE));
+    }
+
+    @Test
+    public void testMarkBucketsChanged() {
+        insertProcessInstance(0, WorkflowExecutionStatus.SUCCESS);
+        instanceStateRollupDao.rollupBucket(InstanceStateRollup.WORKFLOW_INSTANCE, BUCKET_TIME);
+        Date endTime = new Date(BUCKET_TIME.getTime() + HOUR);
+        Assertions.assertTrue(instanceStateRollupDao
+                .queryChangedBuckets(InstanceStateRollup.WORKFLOW_INSTANCE, endTime).isEmpty());
+
+        instanceStateRollupDao.markBucketsChanged(new Date(BUCKET_TIME.getTime() + 1),
+                new Date(BUCKET_TIME.getTime() + 1));
+        Assertions.assertEquals(Collections.singletonList(BUCKET_TIME), instanceStateRollupDao
+                .queryChangedBuckets(InstanceStateRollup.WORKFLOW_INSTANCE, endTime));
+        // the marked bucket is still summed from the rollups until it's rolled up again
+        Assertions.assertEquals(1, toMap(instanceStateRollupDao.countWorkflowInstanceState(BUCKET_TIME, endTime,
+                PROJECT_CODES)).get(TaskExecutionStatus.SUCCESS));
+
+        instanceStateRollupDao.rollupBucket(InstanceStateRollup.WORKFLOW_INSTANCE, BUCKET_TIME);
+        Assertions.assertTrue(instanceStateRollupDao
+                .queryChangedBuckets(InstanceStateRollup.WORKFLOW_INSTANCE, endTime).isEmpty());
+    }
+
+    private ProcessInstance insertProcessInstance(long offset, WorkflowExecutionStatus state) {
+        ProcessInstance processInstance = new ProcessInstance();
+        processInstance.setProcessDefinitionCode(1L);
+        processInstance.setStartTime(new Date(BUCKET_TIME.getTime() + offset));
+        processInstance.setState(state);
+        processInstanceMapper.insert(processInstance);
+        return processInstance;
+    }
+
+    private Map<TaskExecutionStatus, Integer> toMap(Optional<List<ExecuteStatusCount>> executeStatusCounts) {
+        Assertions.assertTrue(executeStatusCounts.isPresent());
+        return executeStatusCounts.get().stream()
+                .collect(Collectors.toMap(ExecuteStatusCount::getState, ExecuteStatusCount::getCount));
+    }
+}
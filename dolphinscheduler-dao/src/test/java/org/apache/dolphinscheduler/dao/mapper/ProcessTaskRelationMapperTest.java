@@ -20,6 +20,7 @@ package org.apache.dolphinscheduler.dao.mapper;
 import org.apache.dolphinscheduler.dao.BaseDaoTest;
 import org.apache.dolphinscheduler.dao.entity.ProcessTaskRelation;
 
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
@@ -60,6 +61,14 @@ public class ProcessTaskRelationMapperTest extends BaseDaoTest {
         Assertions.assertNotEquals(processTaskRelations.size(), 0);
     }
 
+    @Test
+    public void testQueryByProcessCodes() {
+        insertOne();
+        List<ProcessTaskRelation> processTaskRelations =
+                processTaskRelationMapper.queryByProcessCodes(1L, Collections.singletonList(1L));
+        Assertions.assertEquals(1, processTaskRelations.size());
+    }
+
     @Test
     public void testQueryByTaskCode() {
         ProcessTaskRelation processTaskRelation = insertOne();
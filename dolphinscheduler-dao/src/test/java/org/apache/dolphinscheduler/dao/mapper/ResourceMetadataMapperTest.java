@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.dao.mapper;
+
+import org.apache.dolphinscheduler.dao.BaseDaoTest;
+import org.apache.dolphinscheduler.dao.entity.ResourceMetadata;
+import org.apache.dolphinscheduler.spi.enums.ResourceType;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+
+public class ResourceMetadataMapperTest extends BaseDaoTest {
+
+    private static final String ROOT = "/dolphinscheduler/tenant/resources/";
+
+    @Autowired
+    private ResourceMetadataMapper resourceMetadataMapper;
+
+    @BeforeEach
+    public void before() {
+        insert(ROOT, "/dolphinscheduler/tenant/", true, new Date());
+        insert(ROOT + "a_b/", ROOT, true, null);
+        insert(ROOT + "a_b/1.sh", ROOT + "a_b/", false, null);
+        insert(ROOT + "aXb/", ROOT, true, new Date(0));
+        insert(ROOT + "aXb/2.sh", ROOT + "aXb/", false, null);
+        insert(ROOT + "3.sh", ROOT, false, null);
+    }
+
+    @Test
+    public void testQueryPagingByParentPaths() {
+        IPage<ResourceMetadata> page = resourceMetadataMapper.queryPagingByParentPaths(new Page<>(1, 2),
+                Collections.singletonList(ROOT), "");
+        Assertions.assertEquals(3, page.getTotal());
+        Assertions.assertEquals(Arrays.asList("3.sh", "aXb/"), fileNames(page.getRecords()));
+
+        page = resourceMetadataMapper.queryPagingByParentPaths(new Page<>(1, 10),
+                Arrays.asList(ROOT + "a_b/", ROOT + "aXb/"), "sh");
+        Assertions.assertEquals(Arrays.asList("aXb/2.sh", "a_b/1.sh"), fileNames(page.getRecords()));
+    }
+
+    @Test
+    public void testQueryByPathPrefix() {
+        List<ResourceMetadata> resources =
+                resourceMetadataMapper.queryByPathPrefix("/dolphinscheduler/tenant/resources/a\\_b/");
+        Assertions.assertEquals(Arrays.asList("a_b/", "a_b/1.sh"), fileNames(resources));
+
+        List<ResourceMetadata> unsyncedDirectories = resourceMetadataMapper.queryUnsyncedDirectories(ROOT);
+        Assertions.assertEquals(Collections.singletonList("a_b/"), fileNames(unsyncedDirectories));
+    }
+
+    @Test
+    public void testUpdateSyncTime() {
+        List<ResourceMetadata> directories =
+                resourceMetadataMapper.queryDirectoriesSyncedBefore(new Date(System.currentTimeMillis() - 1000), 10);
+        Assertions.assertEquals(Collections.singletonList("aXb/"), fileNames(directories));
+
+        ResourceMetadata directory = directories.get(0);
+        Date now = new Date();
+        Assertions.assertEquals(1,
+                resourceMetadataMapper.updateSyncTime(directory.getId(), directory.getSyncTime(), now));
+        // the directory is claimed by others
+        Assertions.assertEquals(0,
+                resourceMetadataMapper.updateSyncTime(directory.getId(), directory.getSyncTime(), now));
+
+        resourceMetadataMapper.clearSyncTime(directory.getPath());
+        Assertions.assertNull(resourceMetadataMapper.queryByPath(directory.getPath()).getSyncTime());
+    }
+
+    @Test
+    public void testDeleteByPathPrefix() {
+        resourceMetadataMapper.deleteByPathPrefix("/dolphinscheduler/tenant/resources/a\\_b/");
+        Assertions.assertNull(resourceMetadataMapper.queryByPath(ROOT + "a_b/1.sh"));
+        Assertions.assertNotNull(resourceMetadataMapper.queryByPath(ROOT + "aXb/2.sh"));
+
+        resourceMetadataMapper.deleteByTenantCode("tenant");
+        Assertions.assertTrue(resourceMetadataMapper.queryByParentPath(ROOT).isEmpty());
+    }
+
+    private void insert(String path, String parentPath, boolean isDirectory, Date syncTime) {
+        resourceMetadataMapper.insert(ResourceMetadata.builder()
+                .tenantCode("tenant")
+                .type(ResourceType.FILE)
+                .path(path)
+                .parentPath(parentPath)
+                .fullName(path)
+                .pfullName(parentPath)
+                .fileName(path.substring(ROOT.length()))
+                .alias(path)
+                .isDirectory(isDirectory)
+                .syncTime(syncTime)
+                .createTime(new Date())
+                .updateTime(new Date())
+                .build());
+    }
+
+    private List<String> fileNames(List<ResourceMetadata> resources) {
+        return resources.stream().map(ResourceMetadata::getFileName).collect(Collectors.toList());
+    }
+}
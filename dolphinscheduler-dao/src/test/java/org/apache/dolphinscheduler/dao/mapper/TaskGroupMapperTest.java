@@ -17,8 +17,11 @@
 
 package org.apache.dolphinscheduler.dao.mapper;
 
+import org.apache.dolphinscheduler.common.enums.Flag;
+import org.apache.dolphinscheduler.common.enums.TaskGroupQueueStatus;
 import org.apache.dolphinscheduler.dao.BaseDaoTest;
 import org.apache.dolphinscheduler.dao.entity.TaskGroup;
+import org.apache.dolphinscheduler.dao.entity.TaskGroupQueue;
 
 import java.util.ArrayList;
 import java.util.Date;
@@ -40,6 +43,9 @@ public class TaskGroupMapperTest extends BaseDaoTest {
     @Autowired
     TaskGroupMapper taskGroupMapper;
 
+    @Autowired
+    TaskGroupQueueMapper taskGroupQueueMapper;
+
     /**
      * test insert
      */
@@ -98,4 +104,41 @@ public class TaskGroupMapperTest extends BaseDaoTest {
 
         Assertions.assertEquals(taskGroupIPage.getTotal(), 1);
     }
+
+    /**
+     * test acquireTaskGroupResource
+     */
+    @Test
+    public void testAcquireTaskGroupResource() {
+        TaskGroup taskGroup = insertOne();
+        taskGroup.setGroupSize(1);
+        taskGroupMapper.updateById(taskGroup);
+        TaskGroupQueue first = insertQueue(1, taskGroup.getId());
+        TaskGroupQueue second = insertQueue(2, taskGroup.getId());
+
+        Assertions.assertEquals(1, taskGroupMapper.acquireTaskGroupResource(taskGroup.getId(), first.getId(),
+                TaskGroupQueueStatus.WAIT_QUEUE.getCode()));
+        // the task group is full
+        Assertions.assertEquals(0, taskGroupMapper.acquireTaskGroupResource(taskGroup.getId(), second.getId(),
+                TaskGroupQueueStatus.WAIT_QUEUE.getCode()));
+        Assertions.assertEquals(1, taskGroupMapper.selectById(taskGroup.getId()).getUseSize());
+    }
+
+    private TaskGroupQueue insertQueue(int taskId, int groupId) {
+        Date now = new Date();
+        TaskGroupQueue taskGroupQueue = TaskGroupQueue.builder()
+                .taskId(taskId)
+                .taskName("task" + taskId)
+                .groupId(groupId)
+                .processId(1)
+                .priority(1)
+                .status(TaskGroupQueueStatus.WAIT_QUEUE)
+                .inQueue(Flag.NO.getCode())
+                .forceStart(Flag.NO.getCode())
+                .createTime(now)
+                .updateTime(now)
+                .build();
+        taskGroupQueueMapper.insert(taskGroupQueue);
+        return taskGroupQueue;
+    }
 }
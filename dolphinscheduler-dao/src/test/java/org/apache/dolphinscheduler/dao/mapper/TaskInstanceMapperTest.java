@@ -191,6 +191,28 @@ public class TaskInstanceMapperTest extends BaseDaoTest {
         Assertions.assertNotEquals(taskInstances1.size(), 0);
     }
 
+    /**
+     * test find valid task list by process instance ids
+     */
+    @Test
+    public void testFindValidTaskListByProcessIds() {
+        // insert ProcessInstance
+        ProcessInstance processInstance = insertProcessInstance();
+
+        // insert taskInstance
+        TaskInstance task = insertTaskInstance(processInstance.getId());
+        TaskInstance task2 = insertTaskInstance(processInstance.getId());
+        task2.setFlag(Flag.NO);
+        taskInstanceMapper.updateById(task2);
+
+        List<TaskInstance> taskInstances = taskInstanceMapper.findValidTaskListByProcessIds(
+                Collections.singletonList(processInstance.getId()), Flag.YES);
+        taskInstanceMapper.deleteById(task2.getId());
+        taskInstanceMapper.deleteById(task.getId());
+        Assertions.assertEquals(1, taskInstances.size());
+        Assertions.assertEquals(task.getId(), taskInstances.get(0).getId());
+    }
+
     /**
      * test query by host and status
      */
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.dao.mapper;
+
+import org.apache.dolphinscheduler.dao.BaseDaoTest;
+import org.apache.dolphinscheduler.dao.entity.TrafficQuotaShare;
+
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+public class TrafficQuotaShareMapperTest extends BaseDaoTest {
+
+    @Autowired
+    private TrafficQuotaShareMapper trafficQuotaShareMapper;
+
+    @Test
+    public void testUpdateDemandByHost() {
+        Date now = new Date();
+        Assertions.assertEquals(0, trafficQuotaShareMapper.updateDemandByHost("host1", "{}", now));
+        trafficQuotaShareMapper.insert(TrafficQuotaShare.builder().host("host1").demand("{}").updateTime(now).build());
+
+        Assertions.assertEquals(1, trafficQuotaShareMapper.updateDemandByHost("host1", "{\"global\":1}", now));
+        List<TrafficQuotaShare> shares = trafficQuotaShareMapper.queryUpdatedAfter(new Date(now.getTime() - 1000));
+        Assertions.assertEquals(1, shares.size());
+        Assertions.assertEquals("{\"global\":1}", shares.get(0).getDemand());
+    }
+
+    @Test
+    public void testDeleteStaleShares() {
+        Date now = new Date();
+        Date staleTime = new Date(now.getTime() - 60 * 1000);
+        trafficQuotaShareMapper.insert(TrafficQuotaShare.builder().host("host1").demand("{}").updateTime(now).build());
+        trafficQuotaShareMapper
+                .insert(TrafficQuotaShare.builder().host("host2").demand("{}").updateTime(staleTime).build());
+
+        Assertions.assertEquals(1, trafficQuotaShareMapper.queryUpdatedAfter(new Date(now.getTime() - 1000)).size());
+        Assertions.assertEquals(1, trafficQuotaShareMapper.deleteUpdatedBefore(new Date(now.getTime() - 1000)));
+        Assertions.assertEquals(1, trafficQuotaShareMapper.deleteByHost("host1"));
+        Assertions.assertTrue(trafficQuotaShareMapper.queryUpdatedAfter(staleTime).isEmpty());
+    }
+}
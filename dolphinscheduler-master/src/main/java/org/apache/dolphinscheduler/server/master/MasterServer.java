@@ -23,11 +23,14 @@ import org.apache.dolphinscheduler.common.lifecycle.ServerLifeCycleManager;
 import org.apache.dolphinscheduler.common.thread.ThreadUtils;
 import org.apache.dolphinscheduler.plugin.task.api.TaskPluginManager;
 import org.apache.dolphinscheduler.scheduler.api.SchedulerApi;
+import org.apache.dolphinscheduler.server.master.persistence.StateTransitionPersistService;
 import org.apache.dolphinscheduler.server.master.registry.MasterRegistryClient;
 import org.apache.dolphinscheduler.server.master.rpc.MasterRPCServer;
 import org.apache.dolphinscheduler.server.master.runner.EventExecuteService;
 import org.apache.dolphinscheduler.server.master.runner.FailoverExecuteThread;
 import org.apache.dolphinscheduler.server.master.runner.MasterSchedulerBootstrap;
+import org.apache.dolphinscheduler.server.master.service.DependentResolveService;
+import org.apache.dolphinscheduler.server.master.service.InstanceStateRollupService;
 import org.apache.dolphinscheduler.service.bean.SpringApplicationContext;
 
 import javax.annotation.PostConstruct;
@@ -73,6 +76,15 @@ public class MasterServer implements IStoppable {
     @Autowired
     private MasterRPCServer masterRPCServer;
 
+    @Autowired
+    private StateTransitionPersistService statePersistService;
+
+    @Autowired
+    private DependentResolveService dependentResolveService;
+
+    @Autowired
+    private InstanceStateRollupService instanceStateRollupService;
+
     public static void main(String[] args) {
         Thread.currentThread().setName(Constants.THREAD_NAME_MASTER_SERVER);
         SpringApplication.run(MasterServer.class);
@@ -89,6 +101,10 @@ public class MasterServer implements IStoppable {
         // install task plugin
         this.taskPluginManager.loadPlugin();
 
+        this.statePersistService.start();
+        this.dependentResolveService.start();
+        this.instanceStateRollupService.start();
+
         // self tolerant
         this.masterRegistryClient.start();
         this.masterRegistryClient.setRegistryStoppable(this);
@@ -129,7 +145,9 @@ public class MasterServer implements IStoppable {
                 MasterRegistryClient closedMasterRegistryClient = masterRegistryClient;
                 // close spring Context and will invoke method with @PreDestroy annotation to destroy beans.
                 // like ServerNodeManager,HostManager,TaskResponseService,CuratorZookeeperClient,etc
-                SpringApplicationContext closedSpringContext = springApplicationContext) {
+                SpringApplicationContext closedSpringContext = springApplicationContext;
+                // flush the state transitions in memory before the spring context closed
+                StateTransitionPersistService closedStatePersistService = statePersistService) {
 
             log.info("Master server is stopping, current cause : {}", cause);
         } catch (Exception e) {
@@ -21,11 +21,14 @@ import static org.apache.dolphinscheduler.common.constants.Constants.REGISTRY_DO
 
 import org.apache.dolphinscheduler.common.utils.NetUtils;
 import org.apache.dolphinscheduler.registry.api.ConnectStrategyProperties;
+import org.apache.dolphinscheduler.remote.command.CommandType;
 import org.apache.dolphinscheduler.server.master.dispatch.host.assign.HostSelector;
 import org.apache.dolphinscheduler.server.master.processor.queue.TaskExecuteRunnable;
 import org.apache.dolphinscheduler.server.master.runner.WorkflowExecuteRunnable;
 
 import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
 
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
@@ -65,6 +68,15 @@ public class MasterConfig implements Validator {
      * The task dispatch thread pool size.
      */
     private int dispatchTaskNumber = 3;
+    /**
+     * The weight of the master in the command slot assignment, the master with bigger weight takes more slots.
+     */
+    private int hostWeight = 100;
+    /**
+     * The delay before the master consumes the commands of the slots taken over from the other masters, so the
+     * commands fetched by the former owner are handled before.
+     */
+    private Duration slotHandoffInterval = Duration.ofSeconds(3);
     /**
      * Worker select strategy.
      */
@@ -89,10 +101,65 @@ public class MasterConfig implements Validator {
     private double reservedMemory = 0.3;
     private Duration failoverInterval = Duration.ofMinutes(10);
     private boolean killApplicationWhenTaskFailover = true;
+    /**
+     * The number of workflow instances failover together, their task instances are loaded and updated in one batch.
+     */
+    private int failoverBatchSize = 500;
+    /**
+     * The number of threads to failover the workflow instance batches in parallel.
+     */
+    private int failoverThreads = 4;
     private ConnectStrategyProperties registryDisconnectStrategy = new ConnectStrategyProperties();
 
     private Duration workerGroupRefreshInterval = Duration.ofSeconds(10L);
 
+    /**
+     * The max interval that a task/workflow state transition will stay in memory before flushed to DB.
+     */
+    private Duration statePersistInterval = Duration.ofMillis(10);
+    /**
+     * The max number of state transitions flushed to DB in one JDBC batch.
+     */
+    private int statePersistBatchSize = 200;
+    /**
+     * The max age of a resolved dependent item result, the result finished on other masters is picked up after this.
+     */
+    private Duration dependentRefreshInterval = Duration.ofSeconds(5);
+    /**
+     * Whether to maintain the hourly instance state rollups used by the statistics of the home page.
+     */
+    private boolean stateRollupEnabled = true;
+    /**
+     * The interval to roll up the new closed hours and the hours whose instances changed.
+     */
+    private Duration stateRollupInterval = Duration.ofMinutes(1);
+    /**
+     * The delay after an hour closed before it is rolled up.
+     */
+    private Duration stateRollupDelay = Duration.ofMinutes(5);
+    /**
+     * How far back the hours are rolled up, the hours before are counted from the instance tables.
+     */
+    private Duration stateRollupBackfill = Duration.ofDays(30);
+    /**
+     * The max number of not rolled up hours which are rolled up in one round.
+     */
+    private int stateRollupBucketsPerRun = 24;
+    /**
+     * The closed hours in this window are rolled up again every {@link #stateRollupRefreshInterval}, so the changes
+     * not marked by this master, e.g. made before it restarted, are counted.
+     */
+    private Duration stateRollupRefreshWindow = Duration.ofHours(6);
+    /**
+     * The interval to roll up the hours in the {@link #stateRollupRefreshWindow} again.
+     */
+    private Duration stateRollupRefreshInterval = Duration.ofMinutes(30);
+    /**
+     * The request timeout of the command types sent by the master rpc client, e.g. the task dispatch and kill requests
+     * wait at most this timeout to be written to the worker, they are not limited by default.
+     */
+    private Map<CommandType, Duration> rpcRequestTimeout = new EnumMap<>(CommandType.class);
+
     // ip:listenPort
     private String masterAddress;
 
@@ -122,6 +189,12 @@ public class MasterConfig implements Validator {
         if (masterConfig.getDispatchTaskNumber() <= 0) {
             errors.rejectValue("dispatch-task-number", null, "should be a positive value");
         }
+        if (masterConfig.getHostWeight() <= 0) {
+            errors.rejectValue("host-weight", null, "should be a positive value");
+        }
+        if (masterConfig.getSlotHandoffInterval().toMillis() < 0) {
+            errors.rejectValue("slot-handoff-interval", null, "should be a valid duration");
+        }
         if (masterConfig.getHeartbeatInterval().toMillis() < 0) {
             errors.rejectValue("heartbeat-interval", null, "should be a valid duration");
         }
@@ -137,12 +210,48 @@ public class MasterConfig implements Validator {
         if (masterConfig.getFailoverInterval().toMillis() <= 0) {
             errors.rejectValue("failover-interval", null, "should be a valid duration");
         }
+        if (masterConfig.getFailoverBatchSize() <= 0) {
+            errors.rejectValue("failover-batch-size", null, "should be a positive value");
+        }
+        if (masterConfig.getFailoverThreads() <= 0) {
+            errors.rejectValue("failover-threads", null, "should be a positive value");
+        }
         if (masterConfig.getMaxCpuLoadAvg() <= 0) {
             masterConfig.setMaxCpuLoadAvg(Runtime.getRuntime().availableProcessors() * 2);
         }
         if (masterConfig.getWorkerGroupRefreshInterval().getSeconds() < 10) {
             errors.rejectValue("worker-group-refresh-interval", null, "should >= 10s");
         }
+        if (masterConfig.getStatePersistInterval().toMillis() <= 0) {
+            errors.rejectValue("state-persist-interval", null, "should be a valid duration");
+        }
+        if (masterConfig.getStatePersistBatchSize() <= 0) {
+            errors.rejectValue("state-persist-batch-size", null, "should be a positive value");
+        }
+        if (masterConfig.getDependentRefreshInterval().toMillis() <= 0) {
+            errors.rejectValue("dependent-refresh-interval", null, "should be a valid duration");
+        }
+        if (masterConfig.getStateRollupInterval().toMillis() <= 0) {
+            errors.rejectValue("state-rollup-interval", null, "should be a valid duration");
+        }
+        if (masterConfig.getStateRollupDelay().isNegative()) {
+            errors.rejectValue("state-rollup-delay", null, "should not be negative");
+        }
+        if (masterConfig.getStateRollupBackfill().isNegative()) {
+            errors.rejectValue("state-rollup-backfill", null, "should not be negative");
+        }
+        if (masterConfig.getStateRollupBucketsPerRun() <= 0) {
+            errors.rejectValue("state-rollup-buckets-per-run", null, "should be a positive value");
+        }
+        if (masterConfig.getStateRollupRefreshWindow().isNegative()) {
+            errors.rejectValue("state-rollup-refresh-window", null, "should not be negative");
+        }
+        if (masterConfig.getStateRollupRefreshInterval().toMillis() <= 0) {
+            errors.rejectValue("state-rollup-refresh-interval", null, "should be a valid duration");
+        }
+        if (masterConfig.getRpcRequestTimeout().values().stream().anyMatch(timeout -> timeout.toMillis() <= 0)) {
+            errors.rejectValue("rpc-request-timeout", null, "should be valid durations");
+        }
 
         masterConfig.setMasterAddress(NetUtils.getAddr(masterConfig.getListenPort()));
         masterConfig.setMasterRegistryPath(REGISTRY_DOLPHINSCHEDULER_MASTERS + "/" + masterConfig.getMasterAddress());
@@ -155,6 +264,8 @@ public class MasterConfig implements Validator {
         log.info("Master config: preExecThreads -> {} ", preExecThreads);
         log.info("Master config: execThreads -> {} ", execThreads);
         log.info("Master config: dispatchTaskNumber -> {} ", dispatchTaskNumber);
+        log.info("Master config: hostWeight -> {} ", hostWeight);
+        log.info("Master config: slotHandoffInterval -> {} ", slotHandoffInterval);
         log.info("Master config: hostSelector -> {} ", hostSelector);
         log.info("Master config: heartbeatInterval -> {} ", heartbeatInterval);
         log.info("Master config: taskCommitRetryTimes -> {} ", taskCommitRetryTimes);
@@ -164,9 +275,22 @@ public class MasterConfig implements Validator {
         log.info("Master config: reservedMemory -> {} ", reservedMemory);
         log.info("Master config: failoverInterval -> {} ", failoverInterval);
         log.info("Master config: killApplicationWhenTaskFailover -> {} ", killApplicationWhenTaskFailover);
+        log.info("Master config: failoverBatchSize -> {} ", failoverBatchSize);
+        log.info("Master config: failoverThreads -> {} ", failoverThreads);
         log.info("Master config: registryDisconnectStrategy -> {} ", registryDisconnectStrategy);
         log.info("Master config: masterAddress -> {} ", masterAddress);
         log.info("Master config: masterRegistryPath -> {} ", masterRegistryPath);
         log.info("Master config: workerGroupRefreshInterval -> {} ", workerGroupRefreshInterval);
+        log.info("Master config: statePersistInterval -> {} ", statePersistInterval);
+        log.info("Master config: statePersistBatchSize -> {} ", statePersistBatchSize);
+        log.info("Master config: dependentRefreshInterval -> {} ", dependentRefreshInterval);
+        log.info("Master config: stateRollupEnabled -> {} ", stateRollupEnabled);
+        log.info("Master config: stateRollupInterval -> {} ", stateRollupInterval);
+        log.info("Master config: stateRollupDelay -> {} ", stateRollupDelay);
+        log.info("Master config: stateRollupBackfill -> {} ", stateRollupBackfill);
+        log.info("Master config: stateRollupBucketsPerRun -> {} ", stateRollupBucketsPerRun);
+        log.info("Master config: stateRollupRefreshWindow -> {} ", stateRollupRefreshWindow);
+        log.info("Master config: stateRollupRefreshInterval -> {} ", stateRollupRefreshInterval);
+        log.info("Master config: rpcRequestTimeout -> {} ", rpcRequestTimeout);
     }
 }
@@ -40,6 +40,7 @@ import org.apache.dolphinscheduler.server.master.dispatch.enums.ExecutorType;
 import org.apache.dolphinscheduler.server.master.dispatch.exceptions.ExecuteException;
 import org.apache.dolphinscheduler.server.master.dispatch.exceptions.WorkerGroupNotFoundException;
 import org.apache.dolphinscheduler.server.master.metrics.TaskMetrics;
+import org.apache.dolphinscheduler.server.master.persistence.StateTransitionPersistService;
 import org.apache.dolphinscheduler.server.master.processor.queue.TaskEvent;
 import org.apache.dolphinscheduler.server.master.processor.queue.TaskEventService;
 import org.apache.dolphinscheduler.server.master.runner.WorkflowExecuteRunnable;
@@ -106,6 +107,9 @@ public class TaskPriorityQueueConsumer extends BaseDaemonThread {
     @Autowired
     private TaskEventService taskEventService;
 
+    @Autowired
+    private StateTransitionPersistService statePersistService;
+
     /**
      * storage operator
      */
@@ -229,7 +233,7 @@ public class TaskPriorityQueueConsumer extends BaseDaemonThread {
                 .build();
 
         if (isTaskNeedToCheck(taskPriority)) {
-            if (taskInstanceIsFinalState(taskPriority.getTaskId())) {
+            if (taskInstanceIsFinalState(taskInstance)) {
                 // when task finish, ignore this task, there is no need to dispatch anymore
                 log.info("Task {} is already finished, no need to dispatch, task instance id: {}",
                         taskInstance.getName(), taskInstance.getId());
@@ -242,6 +246,8 @@ public class TaskPriorityQueueConsumer extends BaseDaemonThread {
             return;
         }
 
+        // the task instance states should be durable before dispatched to worker
+        statePersistService.awaitPersisted();
         dispatcher.dispatch(executionContext);
         log.info("Master success dispatch task to worker, taskInstanceId: {}, worker: {}",
                 taskPriority.getTaskId(),
@@ -297,6 +303,18 @@ public class TaskPriorityQueueConsumer extends BaseDaemonThread {
         return taskInstance.getState().isFinished();
     }
 
+    /**
+     * The task instance held by the workflow runnable is the authoritative state of this master, the state changed by
+     * api is pushed to the runnable by rpc, so we only need to query the DB if the state is missing in memory.
+     */
+    private boolean taskInstanceIsFinalState(TaskInstance taskInstance) {
+        if (taskInstance.getState() == null) {
+            return taskInstanceIsFinalState(taskInstance.getId());
+        }
+        TaskMetrics.incTaskStateDbReadAvoided("dispatch");
+        return taskInstance.getState().isFinished();
+    }
+
     /**
      * check if task need to check state, if true, refresh the checkpoint
      */
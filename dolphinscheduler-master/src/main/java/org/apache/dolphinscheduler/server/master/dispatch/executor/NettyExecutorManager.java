@@ -24,6 +24,7 @@ import org.apache.dolphinscheduler.remote.command.Command;
 import org.apache.dolphinscheduler.remote.command.CommandType;
 import org.apache.dolphinscheduler.remote.config.NettyClientConfig;
 import org.apache.dolphinscheduler.remote.utils.Host;
+import org.apache.dolphinscheduler.server.master.config.MasterConfig;
 import org.apache.dolphinscheduler.server.master.dispatch.context.ExecutionContext;
 import org.apache.dolphinscheduler.server.master.dispatch.enums.ExecutorType;
 import org.apache.dolphinscheduler.server.master.dispatch.exceptions.ExecuteException;
@@ -65,21 +66,20 @@ public class NettyExecutorManager extends AbstractExecutorManager<Boolean> {
     @Autowired
     private TaskRecallProcessor taskRecallProcessor;
 
-    /**
-     * netty remote client
-     */
-    private final NettyRemotingClient nettyRemotingClient;
+    @Autowired
+    private MasterConfig masterConfig;
 
     /**
-     * constructor
+     * netty remote client
      */
-    public NettyExecutorManager() {
-        final NettyClientConfig clientConfig = new NettyClientConfig();
-        this.nettyRemotingClient = new NettyRemotingClient(clientConfig);
-    }
+    private NettyRemotingClient nettyRemotingClient;
 
     @PostConstruct
     public void init() {
+        final NettyClientConfig clientConfig = NettyClientConfig.builder()
+                .requestTimeoutMillis(NettyClientConfig.requestTimeoutMillisOf(masterConfig.getRpcRequestTimeout()))
+                .build();
+        this.nettyRemotingClient = new NettyRemotingClient(clientConfig);
         this.nettyRemotingClient.registerProcessor(CommandType.TASK_KILL_RESPONSE, taskKillResponseProcessor);
         this.nettyRemotingClient.registerProcessor(CommandType.TASK_REJECT, taskRecallProcessor);
     }
@@ -24,6 +24,7 @@ import org.apache.dolphinscheduler.dao.entity.TaskInstance;
 import org.apache.dolphinscheduler.dao.repository.TaskInstanceDao;
 import org.apache.dolphinscheduler.dao.utils.TaskInstanceUtils;
 import org.apache.dolphinscheduler.server.master.cache.ProcessInstanceExecCacheManager;
+import org.apache.dolphinscheduler.server.master.persistence.StateTransitionPersistService;
 import org.apache.dolphinscheduler.server.master.processor.queue.TaskEvent;
 import org.apache.dolphinscheduler.server.master.runner.WorkflowExecuteRunnable;
 import org.apache.dolphinscheduler.server.master.runner.WorkflowExecuteThreadPool;
@@ -54,6 +55,9 @@ public class TaskCacheEventHandler implements TaskEventHandler {
     @Autowired
     private TaskInstanceDao taskInstanceDao;
 
+    @Autowired
+    private StateTransitionPersistService statePersistService;
+
     /**
      * handle CACHE task event
      * copy a new task instance from the cache task has been successfully run
@@ -90,7 +94,7 @@ public class TaskCacheEventHandler implements TaskEventHandler {
 
         processService.changeOutParam(taskInstance);
 
-        taskInstanceDao.updateTaskInstance(taskInstance);
+        statePersistService.persistTaskInstance(taskInstance);
         TaskStateEvent stateEvent = TaskStateEvent.builder()
                 .processInstanceId(taskEvent.getProcessInstanceId())
                 .taskInstanceId(taskEvent.getTaskInstanceId())
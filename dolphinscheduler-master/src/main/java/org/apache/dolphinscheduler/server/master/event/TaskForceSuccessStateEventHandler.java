@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.master.event;
+
+import org.apache.dolphinscheduler.common.enums.StateEventType;
+import org.apache.dolphinscheduler.server.master.runner.WorkflowExecuteRunnable;
+
+import lombok.extern.slf4j.Slf4j;
+
+import com.google.auto.service.AutoService;
+
+/**
+ * Handle the task instance forced success by api, the state is pushed to the master which is running the workflow.
+ */
+@AutoService(StateEventHandler.class)
+@Slf4j
+public class TaskForceSuccessStateEventHandler implements StateEventHandler {
+
+    @Override
+    public boolean handleStateEvent(WorkflowExecuteRunnable workflowExecuteRunnable,
+                                    StateEvent stateEvent) throws StateEventHandleException, StateEventHandleError {
+        TaskStateEvent taskStateEvent = (TaskStateEvent) stateEvent;
+        workflowExecuteRunnable.checkTaskInstanceByStateEvent(taskStateEvent);
+
+        log.info("Handle task instance force success event, taskInstanceId: {}", taskStateEvent.getTaskInstanceId());
+        workflowExecuteRunnable.forceTaskSuccess(taskStateEvent.getTaskInstanceId());
+        return true;
+    }
+
+    @Override
+    public StateEventType getEventType() {
+        return StateEventType.TASK_FORCE_SUCCESS;
+    }
+}
@@ -42,6 +42,11 @@ public class TaskRetryStateEventHandler implements StateEventHandler {
         TaskMetrics.incTaskInstanceByState("retry");
         Map<Long, TaskInstance> waitToRetryTaskInstanceMap = workflowExecuteRunnable.getWaitToRetryTaskInstanceMap();
         TaskInstance taskInstance = waitToRetryTaskInstanceMap.get(taskStateEvent.getTaskCode());
+        if (taskInstance == null) {
+            // the retry is cancelled, e.g. the task has been forced success
+            log.info("The task instance is not waiting to retry, taskCode: {}", taskStateEvent.getTaskCode());
+            return true;
+        }
         workflowExecuteRunnable.addTaskToStandByList(taskInstance);
         workflowExecuteRunnable.submitStandByTask();
         waitToRetryTaskInstanceMap.remove(taskStateEvent.getTaskCode());
@@ -19,10 +19,10 @@ package org.apache.dolphinscheduler.server.master.event;
 
 import org.apache.dolphinscheduler.common.enums.TaskEventType;
 import org.apache.dolphinscheduler.dao.entity.TaskInstance;
-import org.apache.dolphinscheduler.dao.repository.TaskInstanceDao;
 import org.apache.dolphinscheduler.dao.utils.TaskInstanceUtils;
 import org.apache.dolphinscheduler.remote.command.TaskUpdatePidAckMessage;
 import org.apache.dolphinscheduler.server.master.cache.ProcessInstanceExecCacheManager;
+import org.apache.dolphinscheduler.server.master.persistence.StateTransitionPersistService;
 import org.apache.dolphinscheduler.server.master.processor.queue.TaskEvent;
 import org.apache.dolphinscheduler.server.master.runner.WorkflowExecuteRunnable;
 import org.apache.dolphinscheduler.server.master.runner.WorkflowExecuteThreadPool;
@@ -42,7 +42,7 @@ public class TaskUpdatePidEventHandler implements TaskEventHandler {
     private WorkflowExecuteThreadPool workflowExecuteThreadPool;
 
     @Autowired
-    private TaskInstanceDao taskInstanceDao;
+    private StateTransitionPersistService statePersistService;
 
     @Override
     public void handleTaskEvent(TaskEvent taskEvent) throws TaskEventHandleError {
@@ -75,8 +75,8 @@ public class TaskUpdatePidEventHandler implements TaskEventHandler {
             taskInstance.setStartTime(taskEvent.getStartTime());
             taskInstance.setHost(taskEvent.getWorkerAddress());
             taskInstance.setPid(taskEvent.getProcessId());
-            if (!taskInstanceDao.updateTaskInstance(taskInstance)) {
-                throw new TaskEventHandleError("Handle task running event error, update taskInstance to db failed");
+            if (!statePersistService.persistTaskInstanceAndWait(taskInstance)) {
+                throw new TaskEventHandleError("Handle task update pid event error, update taskInstance to db failed");
             }
             sendAckToWorker(taskEvent);
         } catch (Exception ex) {
@@ -84,9 +84,8 @@ public class TaskUpdatePidEventHandler implements TaskEventHandler {
             if (ex instanceof TaskEventHandleError) {
                 throw ex;
             }
-            throw new TaskEventHandleError("Handle task update pid  event error, update taskInstance to db failed", ex);
+            throw new TaskEventHandleError("Handle task update pid event error, update taskInstance to db failed", ex);
         }
-
     }
 
     private void sendAckToWorker(TaskEvent taskEvent) {
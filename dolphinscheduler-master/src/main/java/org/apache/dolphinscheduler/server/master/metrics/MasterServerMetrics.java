@@ -17,9 +17,12 @@
 
 package org.apache.dolphinscheduler.server.master.metrics;
 
+import java.util.concurrent.TimeUnit;
+
 import lombok.experimental.UtilityClass;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 
 @UtilityClass
 public class MasterServerMetrics {
@@ -40,6 +43,43 @@ public class MasterServerMetrics {
                     .description("Master server consume command count")
                     .register(Metrics.globalRegistry);
 
+    /**
+     * Used to measure the time cost of failover one master server.
+     */
+    private final Timer masterFailoverTimer =
+            Timer.builder("ds.master.failover.duration")
+                    .description("Time cost of failover one master server")
+                    .publishPercentiles(0.5, 0.75, 0.95, 0.99)
+                    .register(Metrics.globalRegistry);
+
+    /**
+     * Used to measure the number of workflow instances failover by master failover.
+     */
+    private final Counter masterFailoverWorkflowCounter =
+            Counter.builder("ds.master.failover.workflow.count")
+                    .description("Workflow instances failover by master failover count")
+                    .register(Metrics.globalRegistry);
+
+    /**
+     * Used to measure the number of task instances failover by master failover.
+     */
+    private final Counter masterFailoverTaskCounter =
+            Counter.builder("ds.master.failover.task.count")
+                    .description("Task instances failover by master failover count")
+                    .register(Metrics.globalRegistry);
+
+    public void recordMasterFailoverTime(long timeCostMills) {
+        masterFailoverTimer.record(timeCostMills, TimeUnit.MILLISECONDS);
+    }
+
+    public void incMasterFailoverWorkflow(int workflowCount) {
+        masterFailoverWorkflowCounter.increment(workflowCount);
+    }
+
+    public void incMasterFailoverTask(int taskCount) {
+        masterFailoverTaskCounter.increment(taskCount);
+    }
+
     public void incMasterOverload() {
         masterOverloadCounter.increment();
     }
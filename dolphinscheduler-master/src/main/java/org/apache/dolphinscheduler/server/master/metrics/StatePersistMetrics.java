@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.master.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import lombok.experimental.UtilityClass;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+@UtilityClass
+public class StatePersistMetrics {
+
+    private final Counter statePersistCounter =
+            Counter.builder("ds.master.state.persist.count")
+                    .description("State transitions written to DB count")
+                    .register(Metrics.globalRegistry);
+
+    private final Counter stateCoalesceCounter =
+            Counter.builder("ds.master.state.coalesce.count")
+                    .description("State transitions replaced by a later one before written to DB count")
+                    .register(Metrics.globalRegistry);
+
+    private final Counter statePersistFailureCounter =
+            Counter.builder("ds.master.state.persist.failure.count")
+                    .description("State transitions failed to write to DB count")
+                    .register(Metrics.globalRegistry);
+
+    private final Counter statePersistRetryCounter =
+            Counter.builder("ds.master.state.persist.retry.count")
+                    .description("State transitions requeued since their DB batch failed count")
+                    .register(Metrics.globalRegistry);
+
+    private final DistributionSummary statePersistBatchSize =
+            DistributionSummary.builder("ds.master.state.persist.batch.size")
+                    .description("State transitions count of each DB batch")
+                    .register(Metrics.globalRegistry);
+
+    private final Timer statePersistBatchTimer =
+            Timer.builder("ds.master.state.persist.batch.time")
+                    .description("Time cost of each DB batch")
+                    .register(Metrics.globalRegistry);
+
+    public void recordStatePersistBatch(int batchSize, int coalescedTimes, long costMillis) {
+        statePersistCounter.increment(batchSize);
+        stateCoalesceCounter.increment(coalescedTimes);
+        statePersistBatchSize.record(batchSize);
+        statePersistBatchTimer.record(costMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void incStatePersistFailure(int failureCount) {
+        statePersistFailureCounter.increment(failureCount);
+    }
+
+    public void incStatePersistRetry(int retryCount) {
+        statePersistRetryCounter.increment(retryCount);
+    }
+
+}
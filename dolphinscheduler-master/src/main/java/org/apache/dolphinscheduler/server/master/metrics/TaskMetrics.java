@@ -50,6 +50,56 @@ public class TaskMetrics {
 
     }
 
+    private final Map<String, Counter> taskStateDbReadAvoidedCounters = new HashMap<>();
+
+    private final Set<String> taskStateLookupPaths = ImmutableSet.of("dispatch", "standby");
+
+    static {
+        for (final String path : taskStateLookupPaths) {
+            taskStateDbReadAvoidedCounters.put(
+                    path,
+                    Counter.builder("ds.task.state.db.read.avoided.count")
+                            .tags("path", path)
+                            .description(String.format("Task state lookups served from memory in %s path count", path))
+                            .register(Metrics.globalRegistry));
+        }
+    }
+
+    private final Map<String, Counter> dependentResolveCounters = new HashMap<>();
+
+    private final Set<String> dependentResolveSources = ImmutableSet.of("cache", "db");
+
+    static {
+        for (final String source : dependentResolveSources) {
+            dependentResolveCounters.put(
+                    source,
+                    Counter.builder("ds.task.dependent.resolve.count")
+                            .tags("source", source)
+                            .description(String.format("Dependent item resolved from %s count", source))
+                            .register(Metrics.globalRegistry));
+        }
+    }
+
+    private final Map<String, Counter> taskGroupAcquireCounters = new HashMap<>();
+
+    private final Set<String> taskGroupAcquireResults = ImmutableSet.of("success", "wait", "force");
+
+    static {
+        for (final String result : taskGroupAcquireResults) {
+            taskGroupAcquireCounters.put(
+                    result,
+                    Counter.builder("ds.task.group.acquire.count")
+                            .tags("result", result)
+                            .description(String.format("Task group acquire %s count", result))
+                            .register(Metrics.globalRegistry));
+        }
+    }
+
+    private final Counter dependentNotifyCounter =
+            Counter.builder("ds.task.dependent.notify.count")
+                    .description("Dependent task woken up by the upstream change count")
+                    .register(Metrics.globalRegistry);
+
     private final Counter taskDispatchCounter =
             Counter.builder("ds.task.dispatch.count")
                     .description("Task dispatch count")
@@ -83,6 +133,31 @@ public class TaskMetrics {
         taskDispatchCounter.increment();
     }
 
+    public void incTaskStateDbReadAvoided(final String path) {
+        if (taskStateDbReadAvoidedCounters.get(path) == null) {
+            return;
+        }
+        taskStateDbReadAvoidedCounters.get(path).increment();
+    }
+
+    public void incDependentResolve(final String source) {
+        if (dependentResolveCounters.get(source) == null) {
+            return;
+        }
+        dependentResolveCounters.get(source).increment();
+    }
+
+    public void incTaskGroupAcquire(final String result) {
+        if (taskGroupAcquireCounters.get(result) == null) {
+            return;
+        }
+        taskGroupAcquireCounters.get(result).increment();
+    }
+
+    public void incDependentNotify() {
+        dependentNotifyCounter.increment();
+    }
+
     public void incTaskInstanceByState(final String state) {
         if (taskInstanceCounters.get(state) == null) {
             return;
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.master.persistence;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.Getter;
+
+/**
+ * In-memory journal of the state transitions which have not been written to DB.
+ * <p>
+ * The transitions are coalesced by entity id: if an entity is appended again before it is drained, the latest
+ * snapshot replaces the old one (last state wins) but the entity keeps its original position, so the drain order is
+ * the order in which the entities first became dirty.
+ *
+ * @param <T> entity type
+ */
+public class StateTransitionJournal<T> {
+
+    private final Object lock = new Object();
+
+    private final LinkedHashMap<Integer, Transition<T>> pendingTransitions = new LinkedHashMap<>();
+
+    private final Set<CompletableFuture<Boolean>> inflightFutures = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Append a snapshot of the given entity.
+     *
+     * @param id       entity id
+     * @param snapshot the entity snapshot, should not be changed after appended
+     * @return future which will be completed after the snapshot, or a later one, is written to DB
+     */
+    public CompletableFuture<Boolean> append(int id, T snapshot) {
+        synchronized (lock) {
+            Transition<T> transition = pendingTransitions.get(id);
+            if (transition == null) {
+                transition = new Transition<>(id, snapshot);
+                pendingTransitions.put(id, transition);
+            } else {
+                transition.coalesce(snapshot);
+            }
+            return transition.getFuture();
+        }
+    }
+
+    /**
+     * Drain at most {@code maxSize} transitions in the first-append order, the drained transitions are in-flight
+     * until their future is completed.
+     */
+    public List<Transition<T>> drain(int maxSize) {
+        synchronized (lock) {
+            List<Transition<T>> transitions = new ArrayList<>(Math.min(maxSize, pendingTransitions.size()));
+            Iterator<Map.Entry<Integer, Transition<T>>> iterator = pendingTransitions.entrySet().iterator();
+            while (iterator.hasNext() && transitions.size() < maxSize) {
+                Transition<T> transition = iterator.next().getValue();
+                iterator.remove();
+                CompletableFuture<Boolean> future = transition.getFuture();
+                inflightFutures.add(future);
+                future.whenComplete((result, ex) -> inflightFutures.remove(future));
+                transitions.add(transition);
+            }
+            return transitions;
+        }
+    }
+
+    /**
+     * Put the drained transitions which failed to write back to the head of the journal, in their first-append order.
+     * If an entity is appended again after drained, the requeued transition takes the later snapshot and completes
+     * the future of the later one.
+     */
+    public void requeue(List<Transition<T>> transitions) {
+        if (transitions.isEmpty()) {
+            return;
+        }
+        synchronized (lock) {
+            LinkedHashMap<Integer, Transition<T>> requeuedTransitions = new LinkedHashMap<>();
+            for (Transition<T> transition : transitions) {
+                Transition<T> later = pendingTransitions.remove(transition.getId());
+                if (later != null) {
+                    transition.coalesce(later.getSnapshot());
+                    transition.getFuture().whenComplete((result, ex) -> later.getFuture().complete(result));
+                }
+                requeuedTransitions.put(transition.getId(), transition);
+            }
+            requeuedTransitions.putAll(pendingTransitions);
+            pendingTransitions.clear();
+            pendingTransitions.putAll(requeuedTransitions);
+        }
+    }
+
+    /**
+     * @return a future which will be completed after all the transitions appended before this call are written
+     */
+    public CompletableFuture<Void> barrier() {
+        List<CompletableFuture<Boolean>> futures;
+        synchronized (lock) {
+            if (pendingTransitions.isEmpty() && inflightFutures.isEmpty()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            futures = new ArrayList<>(pendingTransitions.size() + inflightFutures.size());
+            for (Transition<T> transition : pendingTransitions.values()) {
+                futures.add(transition.getFuture());
+            }
+            futures.addAll(inflightFutures);
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    }
+
+    public int size() {
+        synchronized (lock) {
+            return pendingTransitions.size();
+        }
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Getter
+    public static class Transition<T> {
+
+        private final int id;
+
+        private T snapshot;
+
+        /**
+         * How many times this transition has been replaced by a later one.
+         */
+        private int coalescedTimes;
+
+        /**
+         * How many times this transition has failed to write.
+         */
+        private int failedTimes;
+
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+
+        Transition(int id, T snapshot) {
+            this.id = id;
+            this.snapshot = snapshot;
+        }
+
+        void coalesce(T snapshot) {
+            this.snapshot = snapshot;
+            this.coalescedTimes++;
+        }
+
+        int incFailedTimes() {
+            return ++failedTimes;
+        }
+    }
+}
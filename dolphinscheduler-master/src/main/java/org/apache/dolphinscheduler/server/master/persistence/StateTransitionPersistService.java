@@ -0,0 +1,311 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.master.persistence;
+
+import org.apache.dolphinscheduler.common.lifecycle.ServerLifeCycleManager;
+import org.apache.dolphinscheduler.common.thread.BaseDaemonThread;
+import org.apache.dolphinscheduler.dao.entity.ProcessInstance;
+import org.apache.dolphinscheduler.dao.entity.TaskInstance;
+import org.apache.dolphinscheduler.dao.repository.ProcessInstanceDao;
+import org.apache.dolphinscheduler.dao.repository.TaskInstanceDao;
+import org.apache.dolphinscheduler.dao.utils.TaskInstanceUtils;
+import org.apache.dolphinscheduler.server.master.config.MasterConfig;
+import org.apache.dolphinscheduler.server.master.metrics.StatePersistMetrics;
+import org.apache.dolphinscheduler.server.master.service.InstanceStateRollupService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Write-behind persistence of task/workflow instance state transitions.
+ * <p>
+ * The state transitions are appended to in-memory journals, coalesced by instance id, and flushed to DB by JDBC
+ * batches when the {@link MasterConfig#getStatePersistInterval()} elapsed or the journal reached
+ * {@link MasterConfig#getStatePersistBatchSize()}. The caller can wait for the returned future, or call
+ * {@link #awaitPersisted()} before a side effect which requires the transition is durable, e.g. dispatch a task,
+ * ack to worker, failover.
+ * <p>
+ * The transitions of a failed batch are requeued and written again by the next flushes, at most
+ * {@link #MAX_RETRY_TIMES} times, then their future is completed with {@code false}.
+ * <p>
+ * The master should write the task/workflow instances only by this service, a direct write to DB may be overwritten by
+ * an older snapshot which is still in the journal.
+ */
+@Slf4j
+@Service
+public class StateTransitionPersistService extends BaseDaemonThread implements AutoCloseable {
+
+    static final int MAX_RETRY_TIMES = 3;
+
+    @Autowired
+    private TaskInstanceDao taskInstanceDao;
+
+    @Autowired
+    private ProcessInstanceDao processInstanceDao;
+
+    @Autowired
+    private MasterConfig masterConfig;
+
+    @Autowired
+    private InstanceStateRollupService instanceStateRollupService;
+
+    private final StateTransitionJournal<TaskInstance> taskInstanceJournal = new StateTransitionJournal<>();
+
+    private final StateTransitionJournal<ProcessInstance> processInstanceJournal = new StateTransitionJournal<>();
+
+    /**
+     * Only one flush can be executed at the same time, so the transitions of the same instance are written in order.
+     */
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final Semaphore flushSignal = new Semaphore(0);
+
+    private volatile boolean running = false;
+
+    protected StateTransitionPersistService() {
+        super("StateTransitionPersistThread");
+    }
+
+    @Override
+    public synchronized void start() {
+        log.info("State transition persist service starting");
+        running = true;
+        super.start();
+        log.info("State transition persist service started");
+    }
+
+    /**
+     * Append the current state of the given task instance to the journal, a task instance without id will be inserted
+     * to DB directly.
+     *
+     * @return future which will be completed with the DB write result
+     */
+    public CompletableFuture<Boolean> persistTaskInstance(@NonNull TaskInstance taskInstance) {
+        if (taskInstance.getId() == null) {
+            boolean result = taskInstanceDao.upsertTaskInstance(taskInstance);
+            if (result) {
+                instanceStateRollupService.onTaskInstancePersisted(taskInstance.getStartTime());
+            }
+            return CompletableFuture.completedFuture(result);
+        }
+        TaskInstance snapshot = new TaskInstance();
+        TaskInstanceUtils.copyTaskInstance(taskInstance, snapshot);
+        CompletableFuture<Boolean> future = taskInstanceJournal.append(taskInstance.getId(), snapshot);
+        // the rollup of the start hour is refreshed after the transition is written
+        future.thenAccept(persisted -> {
+            if (Boolean.TRUE.equals(persisted)) {
+                instanceStateRollupService.onTaskInstancePersisted(snapshot.getStartTime());
+            }
+        });
+        afterAppend(taskInstanceJournal);
+        return future;
+    }
+
+    /**
+     * Append the current state of the given process instance to the journal, a process instance without id will be
+     * inserted to DB directly.
+     *
+     * @return future which will be completed with the DB write result
+     */
+    public CompletableFuture<Boolean> persistProcessInstance(@NonNull ProcessInstance processInstance) {
+        if (processInstance.getId() == null) {
+            boolean result = processInstanceDao.upsertProcessInstance(processInstance) > 0;
+            if (result) {
+                instanceStateRollupService.onWorkflowInstancePersisted(processInstance.getStartTime());
+            }
+            return CompletableFuture.completedFuture(result);
+        }
+        ProcessInstance snapshot = new ProcessInstance();
+        BeanUtils.copyProperties(processInstance, snapshot);
+        CompletableFuture<Boolean> future = processInstanceJournal.append(processInstance.getId(), snapshot);
+        future.thenAccept(persisted -> {
+            if (Boolean.TRUE.equals(persisted)) {
+                instanceStateRollupService.onWorkflowInstancePersisted(snapshot.getStartTime());
+            }
+        });
+        afterAppend(processInstanceJournal);
+        return future;
+    }
+
+    /**
+     * Persist the given task instance and wait until it is written, the wait is shared with the other transitions in
+     * the same batch.
+     */
+    public boolean persistTaskInstanceAndWait(@NonNull TaskInstance taskInstance) {
+        return awaitPersisted(persistTaskInstance(taskInstance));
+    }
+
+    /**
+     * Persist the given process instance and wait until it is written, the wait is shared with the other transitions
+     * in the same batch.
+     */
+    public boolean persistProcessInstanceAndWait(@NonNull ProcessInstance processInstance) {
+        return awaitPersisted(persistProcessInstance(processInstance));
+    }
+
+    /**
+     * Wait until the transition of the given future is written to DB.
+     *
+     * @return the DB write result
+     */
+    public boolean awaitPersisted(@NonNull CompletableFuture<Boolean> future) {
+        if (!future.isDone()) {
+            flush();
+        }
+        return future.join();
+    }
+
+    /**
+     * Durability barrier, all the transitions appended before this call are written to DB after this method return.
+     */
+    public void awaitPersisted() {
+        if (taskInstanceJournal.isEmpty() && processInstanceJournal.isEmpty() && !flushLock.isLocked()) {
+            return;
+        }
+        flush();
+    }
+
+    @Override
+    public void run() {
+        long flushIntervalMillis = masterConfig.getStatePersistInterval().toMillis();
+        while (!ServerLifeCycleManager.isStopped()) {
+            try {
+                flushSignal.tryAcquire(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                flushSignal.drainPermits();
+                flush();
+            } catch (InterruptedException interruptedException) {
+                log.warn("State transition persist service interrupted, will exit this loop",
+                        interruptedException);
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("State transition persist service flush error", e);
+            }
+        }
+        running = false;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        flush();
+        log.info("State transition persist service closed");
+    }
+
+    private void afterAppend(StateTransitionJournal<?> journal) {
+        if (!running) {
+            // the persist thread is not alive, e.g. the server is stopping, flush in the current thread
+            flush();
+            return;
+        }
+        if (journal.size() >= masterConfig.getStatePersistBatchSize()) {
+            flushSignal.release();
+        }
+    }
+
+    /**
+     * Flush all the transitions which are in the journals when this method is called.
+     */
+    private void flush() {
+        flushLock.lock();
+        try {
+            flushJournal(taskInstanceJournal, taskInstanceDao::batchUpdateTaskInstance);
+            flushJournal(processInstanceJournal, processInstanceDao::batchUpdateProcessInstance);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private <T> void flushJournal(StateTransitionJournal<T> journal, Function<List<T>, boolean[]> batchUpdater) {
+        // only flush the transitions existing now, avoid the flush never end when the journal keep being appended
+        int remaining = journal.size();
+        int batchSize = masterConfig.getStatePersistBatchSize();
+        while (remaining > 0) {
+            List<StateTransitionJournal.Transition<T>> transitions = journal.drain(Math.min(remaining, batchSize));
+            if (transitions.isEmpty()) {
+                return;
+            }
+            remaining -= transitions.size();
+            writeTransitions(journal, transitions, batchUpdater);
+        }
+    }
+
+    private <T> void writeTransitions(StateTransitionJournal<T> journal,
+                                      List<StateTransitionJournal.Transition<T>> transitions,
+                                      Function<List<T>, boolean[]> batchUpdater) {
+        List<T> snapshots = new ArrayList<>(transitions.size());
+        int coalescedTimes = 0;
+        for (StateTransitionJournal.Transition<T> transition : transitions) {
+            snapshots.add(transition.getSnapshot());
+            coalescedTimes += transition.getCoalescedTimes();
+        }
+        long startTime = System.currentTimeMillis();
+        boolean[] results;
+        try {
+            results = batchUpdater.apply(snapshots);
+        } catch (Exception ex) {
+            log.error("Persist state transitions to DB error, batch size: {}", transitions.size(), ex);
+            retryTransitions(journal, transitions);
+            return;
+        }
+        StatePersistMetrics.recordStatePersistBatch(transitions.size(), coalescedTimes,
+                System.currentTimeMillis() - startTime);
+        for (int i = 0; i < transitions.size(); i++) {
+            StateTransitionJournal.Transition<T> transition = transitions.get(i);
+            boolean success = i < results.length && results[i];
+            if (!success) {
+                log.error("Persist state transition to DB failed, id: {}", transition.getId());
+                StatePersistMetrics.incStatePersistFailure(1);
+            }
+            transition.getFuture().complete(success);
+        }
+    }
+
+    /**
+     * Requeue the transitions of the failed batch, they are written by the next flush of the persist thread, so the
+     * transitions are given up once the persist thread is not alive.
+     */
+    private <T> void retryTransitions(StateTransitionJournal<T> journal,
+                                      List<StateTransitionJournal.Transition<T>> transitions) {
+        List<StateTransitionJournal.Transition<T>> retryTransitions = new ArrayList<>(transitions.size());
+        for (StateTransitionJournal.Transition<T> transition : transitions) {
+            if (running && transition.incFailedTimes() <= MAX_RETRY_TIMES) {
+                retryTransitions.add(transition);
+            } else {
+                log.error("Persist state transition to DB failed, id: {}, failed times: {}", transition.getId(),
+                        transition.getFailedTimes());
+                StatePersistMetrics.incStatePersistFailure(1);
+                transition.getFuture().complete(false);
+            }
+        }
+        StatePersistMetrics.incStatePersistRetry(retryTransitions.size());
+        journal.requeue(retryTransitions);
+    }
+}
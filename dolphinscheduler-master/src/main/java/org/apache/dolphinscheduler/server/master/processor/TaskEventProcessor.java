@@ -48,7 +48,8 @@ public class TaskEventProcessor implements NettyRequestProcessor {
     @Override
     public void process(Channel channel, Command command) {
         Preconditions.checkArgument(CommandType.TASK_FORCE_STATE_EVENT_REQUEST == command.getType()
-                || CommandType.TASK_WAKEUP_EVENT_REQUEST == command.getType(),
+                || CommandType.TASK_WAKEUP_EVENT_REQUEST == command.getType()
+                || CommandType.TASK_FORCE_SUCCESS_EVENT_REQUEST == command.getType(),
                 String.format("invalid command type: %s", command.getType()));
 
         TaskEventChangeCommand taskEventChangeCommand =
@@ -57,7 +58,9 @@ public class TaskEventProcessor implements NettyRequestProcessor {
                 .processInstanceId(taskEventChangeCommand.getProcessInstanceId())
                 .taskInstanceId(taskEventChangeCommand.getTaskInstanceId())
                 .key(taskEventChangeCommand.getKey())
-                .type(StateEventType.WAKE_UP_TASK_GROUP)
+                .type(CommandType.TASK_FORCE_SUCCESS_EVENT_REQUEST == command.getType()
+                        ? StateEventType.TASK_FORCE_SUCCESS
+                        : StateEventType.WAKE_UP_TASK_GROUP)
                 .build();
         try (
                 LogUtils.MDCAutoClosableContext mdcAutoClosableContext = LogUtils.setWorkflowAndTaskInstanceIDMDC(
@@ -17,7 +17,6 @@
 
 package org.apache.dolphinscheduler.server.master.processor;
 
-import org.apache.dolphinscheduler.common.utils.JSONUtils;
 import org.apache.dolphinscheduler.plugin.task.api.utils.LogUtils;
 import org.apache.dolphinscheduler.remote.command.Command;
 import org.apache.dolphinscheduler.remote.command.CommandType;
@@ -56,8 +55,7 @@ public class TaskExecuteResponseProcessor implements NettyRequestProcessor {
         Preconditions.checkArgument(CommandType.TASK_EXECUTE_RESULT == command.getType(),
                 String.format("invalid command type : %s", command.getType()));
 
-        TaskExecuteResultCommand taskExecuteResultMessage = JSONUtils.parseObject(command.getBody(),
-                TaskExecuteResultCommand.class);
+        TaskExecuteResultCommand taskExecuteResultMessage = command.parseBody(TaskExecuteResultCommand.class);
         TaskEvent taskResultEvent = TaskEvent.newResultEvent(taskExecuteResultMessage,
                 channel,
                 taskExecuteResultMessage.getMessageSenderAddress());
@@ -17,7 +17,6 @@
 
 package org.apache.dolphinscheduler.server.master.processor;
 
-import org.apache.dolphinscheduler.common.utils.JSONUtils;
 import org.apache.dolphinscheduler.remote.command.Command;
 import org.apache.dolphinscheduler.remote.command.CommandType;
 import org.apache.dolphinscheduler.remote.command.TaskExecuteRunningCommand;
@@ -54,7 +53,7 @@ public class TaskExecuteRunningProcessor implements NettyRequestProcessor {
         Preconditions.checkArgument(CommandType.TASK_EXECUTE_RUNNING == command.getType(),
                 String.format("invalid command type : %s", command.getType()));
         TaskExecuteRunningCommand taskExecuteRunningMessage =
-                JSONUtils.parseObject(command.getBody(), TaskExecuteRunningCommand.class);
+                command.parseBody(TaskExecuteRunningCommand.class);
         log.info("taskExecuteRunningCommand: {}", taskExecuteRunningMessage);
 
         TaskEvent taskEvent = TaskEvent.newRunningEvent(taskExecuteRunningMessage,
@@ -17,7 +17,6 @@
 
 package org.apache.dolphinscheduler.server.master.processor;
 
-import org.apache.dolphinscheduler.common.utils.JSONUtils;
 import org.apache.dolphinscheduler.remote.command.Command;
 import org.apache.dolphinscheduler.remote.command.CommandType;
 import org.apache.dolphinscheduler.remote.command.TaskUpdatePidCommand;
@@ -54,7 +53,7 @@ public class TaskUpdatePidProcessor implements NettyRequestProcessor {
         Preconditions.checkArgument(CommandType.TASK_UPDATE_PID == command.getType(),
                 String.format("invalid command type : %s", command.getType()));
         TaskUpdatePidCommand taskUpdatePidCommand =
-                JSONUtils.parseObject(command.getBody(), TaskUpdatePidCommand.class);
+                command.parseBody(TaskUpdatePidCommand.class);
         log.info("taskUpdatePidCommand: {}", taskUpdatePidCommand);
 
         TaskEvent taskEvent = TaskEvent.newUpdatePidEvent(taskUpdatePidCommand,
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.master.registry;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import com.google.common.hash.Hashing;
+
+/**
+ * The consistent hash ring which assigns the command slots to the masters.
+ * <p>
+ * Each master is placed on the ring with the virtual nodes in proportion to its host weight, and each slot belongs to
+ * the first virtual node after the slot on the ring. So a joined or left master only moves the slots between itself
+ * and the other masters, which is about 1/N of all the slots, the other slots keep their owners.
+ */
+public final class MasterSlotRing {
+
+    /**
+     * The commands are divided into the slots by the command id.
+     */
+    public static final int SLOT_COUNT = 1024;
+
+    private final String[] slotOwners = new String[SLOT_COUNT];
+
+    private final Map<String, List<Integer>> masterSlots = new HashMap<>();
+
+    /**
+     * @param masterWeights master address -> host weight, the number of virtual nodes of the master
+     */
+    public MasterSlotRing(Map<String, Integer> masterWeights) {
+        TreeMap<Integer, String> ring = new TreeMap<>();
+        // the masters are placed in order, so the hash collisions are resolved in the same way on all the masters
+        for (String master : new TreeSet<>(masterWeights.keySet())) {
+            int virtualNodes = Math.max(masterWeights.get(master), 1);
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.putIfAbsent(hash(master + "#" + i), master);
+            }
+        }
+        if (ring.isEmpty()) {
+            return;
+        }
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            Map.Entry<Integer, String> virtualNode = ring.ceilingEntry(hash("slot#" + slot));
+            String owner = virtualNode == null ? ring.firstEntry().getValue() : virtualNode.getValue();
+            slotOwners[slot] = owner;
+            masterSlots.computeIfAbsent(owner, key -> new ArrayList<>()).add(slot);
+        }
+    }
+
+    public static int slotOf(long commandId) {
+        return (int) (commandId % SLOT_COUNT);
+    }
+
+    /**
+     * Get the master which the slot belongs to, null if there is no master.
+     */
+    public String getOwner(int slot) {
+        return slotOwners[slot];
+    }
+
+    /**
+     * Get the slots of the master in ascending order.
+     */
+    public List<Integer> getSlots(String master) {
+        List<Integer> slots = masterSlots.get(master);
+        return slots == null ? Collections.emptyList() : Collections.unmodifiableList(slots);
+    }
+
+    private static int hash(String key) {
+        return Hashing.murmur3_32_fixed().hashString(key, StandardCharsets.UTF_8).asInt();
+    }
+}
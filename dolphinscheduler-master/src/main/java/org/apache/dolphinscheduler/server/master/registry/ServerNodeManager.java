@@ -22,7 +22,8 @@ import static org.apache.dolphinscheduler.common.constants.Constants.REGISTRY_DO
 
 import org.apache.dolphinscheduler.common.constants.Constants;
 import org.apache.dolphinscheduler.common.enums.NodeType;
-import org.apache.dolphinscheduler.common.model.Server;
+import org.apache.dolphinscheduler.common.model.HeartBeat;
+import org.apache.dolphinscheduler.common.model.MasterHeartBeat;
 import org.apache.dolphinscheduler.common.model.WorkerHeartBeat;
 import org.apache.dolphinscheduler.common.utils.JSONUtils;
 import org.apache.dolphinscheduler.dao.AlertDao;
@@ -35,7 +36,6 @@ import org.apache.dolphinscheduler.registry.api.SubscribeListener;
 import org.apache.dolphinscheduler.remote.utils.NamedThreadFactory;
 import org.apache.dolphinscheduler.server.master.config.MasterConfig;
 import org.apache.dolphinscheduler.server.master.dispatch.exceptions.WorkerGroupNotFoundException;
-import org.apache.dolphinscheduler.service.queue.MasterPriorityQueue;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.ArrayUtils;
@@ -102,8 +102,6 @@ public class ServerNodeManager implements InitializingBean {
     @Autowired
     private WorkerGroupMapper workerGroupMapper;
 
-    private final MasterPriorityQueue masterPriorityQueue = new MasterPriorityQueue();
-
     @Autowired
     private AlertDao alertDao;
 
@@ -112,16 +110,33 @@ public class ServerNodeManager implements InitializingBean {
 
     private final List<WorkerInfoChangeListener> workerInfoChangeListeners = new ArrayList<>();
 
-    private volatile int currentSlot = 0;
+    /**
+     * The slots of the current master, slot -> the time from which the slot can be consumed, the slot taken over from
+     * the other masters can be consumed after the handoff interval.
+     */
+    private volatile Map<Integer, Long> slotActiveTimes = Collections.emptyMap();
 
-    private volatile int totalSlot = 0;
+    /**
+     * The weights of the masters which the slots are assigned by, master -> weight.
+     */
+    private volatile Map<String, Integer> masterWeights = Collections.emptyMap();
 
-    public int getSlot() {
-        return currentSlot;
+    /**
+     * Get the slots of the current master which can be consumed now.
+     */
+    public List<Integer> getActiveSlots() {
+        long currentTimeMillis = System.currentTimeMillis();
+        return slotActiveTimes.entrySet()
+                .stream()
+                .filter(entry -> entry.getValue() <= currentTimeMillis)
+                .map(Map.Entry::getKey)
+                .sorted()
+                .collect(Collectors.toList());
     }
 
-    public int getMasterSize() {
-        return totalSlot;
+    public boolean isActiveSlot(int slot) {
+        Long activeTime = slotActiveTimes.get(slot);
+        return activeTime != null && activeTime <= System.currentTimeMillis();
     }
 
     @Override
@@ -139,6 +154,12 @@ public class ServerNodeManager implements InitializingBean {
                 0,
                 masterConfig.getWorkerGroupRefreshInterval().getSeconds(),
                 TimeUnit.SECONDS);
+        // reassign the slots periodically, in case a change of the masters is missed
+        executorService.scheduleWithFixedDelay(
+                this::updateMasterNodes,
+                masterConfig.getHeartbeatInterval().toMillis(),
+                masterConfig.getHeartbeatInterval().toMillis(),
+                TimeUnit.MILLISECONDS);
 
         // init MasterNodeListener listener
         registryClient.subscribe(REGISTRY_DOLPHINSCHEDULER_MASTERS, new MasterDataListener());
@@ -178,7 +199,6 @@ public class ServerNodeManager implements InitializingBean {
         public void notify(Event event) {
             final String path = event.path();
             final Type type = event.type();
-            final String data = event.data();
             if (registryClient.isWorkerPath(path)) {
                 try {
                     String[] parts = path.split("/");
@@ -192,7 +212,11 @@ public class ServerNodeManager implements InitializingBean {
                         log.info("Worker node : {} down.", path);
                         alertDao.sendServerStoppedAlert(1, path, "WORKER");
                     } else if (type == Type.UPDATE) {
-                        syncSingleWorkerNodeInfo(workerAddress, JSONUtils.parseObject(data, WorkerHeartBeat.class));
+                        // the heartbeat has been parsed by the registry client cache
+                        HeartBeat heartBeat = registryClient.getHeartBeats(NodeType.WORKER).get(workerAddress);
+                        if (heartBeat != null) {
+                            syncSingleWorkerNodeInfo(workerAddress, (WorkerHeartBeat) heartBeat);
+                        }
                     }
                 } catch (Exception ex) {
                     log.error("WorkerGroupListener capture data change and get data failed", ex);
@@ -227,6 +251,10 @@ public class ServerNodeManager implements InitializingBean {
                         updateMasterNodes();
                         alertDao.sendServerStoppedAlert(1, path, "MASTER");
                     }
+                    if (type.equals(Type.UPDATE) && isMasterHostWeightChanged(path, event.data())) {
+                        log.info("master node : {} weight changed.", path);
+                        updateMasterNodes();
+                    }
                 } catch (Exception ex) {
                     log.error("MasterNodeListener capture data change and get data failed.", ex);
                 }
@@ -234,16 +262,26 @@ public class ServerNodeManager implements InitializingBean {
         }
     }
 
-    private void updateMasterNodes() {
-        currentSlot = 0;
-        totalSlot = 0;
-        this.masterNodes.clear();
+    private boolean isMasterHostWeightChanged(String path, String heartBeatJson) {
+        String masterAddress = path.substring(path.lastIndexOf('/') + 1);
+        MasterHeartBeat masterHeartBeat = JSONUtils.parseObject(heartBeatJson, MasterHeartBeat.class);
+        if (masterHeartBeat == null) {
+            return false;
+        }
+        Integer masterHostWeight = masterWeights.get(masterAddress);
+        return masterHostWeight == null || masterHostWeight != getMasterHostWeight(masterHeartBeat);
+    }
+
+    void updateMasterNodes() {
         String nodeLock = Constants.REGISTRY_DOLPHINSCHEDULER_LOCK_MASTERS;
+        // the master nodes will be synced again in the next heartbeat interval if the lock is held by others
+        if (!registryClient.getLock(nodeLock, masterConfig.getHeartbeatInterval())) {
+            log.warn("update master nodes skipped, cannot get the lock in {}", masterConfig.getHeartbeatInterval());
+            return;
+        }
         try {
-            registryClient.getLock(nodeLock);
             Collection<String> currentNodes = registryClient.getMasterNodesDirectly();
-            List<Server> masterNodeList = registryClient.getServerList(NodeType.MASTER);
-            syncMasterNodes(currentNodes, masterNodeList);
+            syncMasterNodes(currentNodes);
         } catch (Exception e) {
             log.error("update master nodes error", e);
         } finally {
@@ -255,9 +293,9 @@ public class ServerNodeManager implements InitializingBean {
     private void updateWorkerNodes() {
         workerGroupWriteLock.lock();
         try {
-            Map<String, String> workerNodeMaps = registryClient.getServerMaps(NodeType.WORKER);
-            for (Map.Entry<String, String> entry : workerNodeMaps.entrySet()) {
-                workerNodeInfo.put(entry.getKey(), JSONUtils.parseObject(entry.getValue(), WorkerHeartBeat.class));
+            Map<String, HeartBeat> workerHeartBeats = registryClient.getHeartBeats(NodeType.WORKER);
+            for (Map.Entry<String, HeartBeat> entry : workerHeartBeats.entrySet()) {
+                workerNodeInfo.put(entry.getKey(), (WorkerHeartBeat) entry.getValue());
             }
         } finally {
             workerGroupWriteLock.unlock();
@@ -296,29 +334,60 @@ public class ServerNodeManager implements InitializingBean {
     }
 
     /**
-     * sync master nodes
+     * sync master nodes, and reassign the slots by the consistent hash ring, the slots which are still owned by the
+     * current master keep their active time, the new taken over slots are active after the handoff interval.
      *
      * @param nodes master nodes
      */
-    private void syncMasterNodes(Collection<String> nodes, List<Server> masterNodes) {
+    private void syncMasterNodes(Collection<String> nodes) {
+        // the slots are not reassigned if the weight of any master can't be read, they are reassigned by the next sync
+        Map<String, Integer> currentMasterWeights = new HashMap<>();
+        for (String node : nodes) {
+            currentMasterWeights.put(node, getMasterHostWeight(node));
+        }
         masterLock.lock();
         try {
+            this.masterNodes.clear();
             this.masterNodes.addAll(nodes);
-            this.masterPriorityQueue.clear();
-            this.masterPriorityQueue.putList(masterNodes);
-            int index = masterPriorityQueue.getIndex(masterConfig.getMasterAddress());
-            if (index >= 0) {
-                totalSlot = nodes.size();
-                currentSlot = index;
-            } else {
+            masterWeights = currentMasterWeights;
+            MasterSlotRing slotRing = new MasterSlotRing(currentMasterWeights);
+            List<Integer> slots = slotRing.getSlots(masterConfig.getMasterAddress());
+            if (!nodes.contains(masterConfig.getMasterAddress())) {
                 log.warn("Current master is not in active master list");
             }
-            log.info("Update master nodes, total master size: {}, current slot: {}", totalSlot, currentSlot);
+            long handoffTime = System.currentTimeMillis() + masterConfig.getSlotHandoffInterval().toMillis();
+            Map<Integer, Long> previousSlotActiveTimes = slotActiveTimes;
+            Map<Integer, Long> currentSlotActiveTimes = new HashMap<>();
+            int takenOverSlotCount = 0;
+            for (Integer slot : slots) {
+                Long activeTime = previousSlotActiveTimes.get(slot);
+                if (activeTime == null) {
+                    activeTime = handoffTime;
+                    takenOverSlotCount++;
+                }
+                currentSlotActiveTimes.put(slot, activeTime);
+            }
+            slotActiveTimes = currentSlotActiveTimes;
+            log.info("Update master nodes, total master size: {}, current slot size: {}, taken over slot size: {}",
+                    nodes.size(), slots.size(), takenOverSlotCount);
         } finally {
             masterLock.unlock();
         }
     }
 
+    private int getMasterHostWeight(String masterAddress) {
+        return getMasterHostWeight(JSONUtils.parseObject(
+                registryClient.get(REGISTRY_DOLPHINSCHEDULER_MASTERS + "/" + masterAddress), MasterHeartBeat.class));
+    }
+
+    private int getMasterHostWeight(MasterHeartBeat masterHeartBeat) {
+        // the master of the former version doesn't report its weight
+        if (masterHeartBeat != null && masterHeartBeat.getMasterHostWeight() > 0) {
+            return masterHeartBeat.getMasterHostWeight();
+        }
+        return Constants.DEFAULT_MASTER_HOST_WEIGHT;
+    }
+
     public Map<String, Set<String>> getWorkerGroupNodes() {
         workerGroupReadLock.lock();
         try {
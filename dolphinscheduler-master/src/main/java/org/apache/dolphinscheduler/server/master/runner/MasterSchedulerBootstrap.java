@@ -26,7 +26,6 @@ import org.apache.dolphinscheduler.common.utils.NetUtils;
 import org.apache.dolphinscheduler.common.utils.OSUtils;
 import org.apache.dolphinscheduler.dao.entity.Command;
 import org.apache.dolphinscheduler.dao.entity.ProcessInstance;
-import org.apache.dolphinscheduler.dao.repository.ProcessInstanceDao;
 import org.apache.dolphinscheduler.dao.repository.TaskDefinitionLogDao;
 import org.apache.dolphinscheduler.dao.repository.TaskInstanceDao;
 import org.apache.dolphinscheduler.plugin.task.api.utils.LogUtils;
@@ -39,7 +38,11 @@ import org.apache.dolphinscheduler.server.master.event.WorkflowEventType;
 import org.apache.dolphinscheduler.server.master.exception.MasterException;
 import org.apache.dolphinscheduler.server.master.metrics.MasterServerMetrics;
 import org.apache.dolphinscheduler.server.master.metrics.ProcessInstanceMetrics;
+import org.apache.dolphinscheduler.server.master.persistence.StateTransitionPersistService;
+import org.apache.dolphinscheduler.server.master.registry.MasterSlotRing;
 import org.apache.dolphinscheduler.server.master.registry.ServerNodeManager;
+import org.apache.dolphinscheduler.server.master.service.DependentResolveService;
+import org.apache.dolphinscheduler.server.master.service.TaskGroupCoordinator;
 import org.apache.dolphinscheduler.service.alert.ProcessAlertManager;
 import org.apache.dolphinscheduler.service.command.CommandService;
 import org.apache.dolphinscheduler.service.expand.CuringParamsService;
@@ -71,9 +74,6 @@ public class MasterSchedulerBootstrap extends BaseDaemonThread implements AutoCl
     @Autowired
     private CommandService commandService;
 
-    @Autowired
-    private ProcessInstanceDao processInstanceDao;
-
     @Autowired
     private TaskInstanceDao taskInstanceDao;
 
@@ -112,6 +112,15 @@ public class MasterSchedulerBootstrap extends BaseDaemonThread implements AutoCl
     @Autowired
     private ServerNodeManager serverNodeManager;
 
+    @Autowired
+    private StateTransitionPersistService statePersistService;
+
+    @Autowired
+    private DependentResolveService dependentResolveService;
+
+    @Autowired
+    private TaskGroupCoordinator taskGroupCoordinator;
+
     private String masterAddress;
 
     protected MasterSchedulerBootstrap() {
@@ -188,14 +197,16 @@ public class MasterSchedulerBootstrap extends BaseDaemonThread implements AutoCl
                         WorkflowExecuteRunnable workflowRunnable = new WorkflowExecuteRunnable(processInstance,
                                 commandService,
                                 processService,
-                                processInstanceDao,
                                 nettyExecutorManager,
                                 processAlertManager,
                                 masterConfig,
                                 stateWheelExecuteThread,
                                 curingGlobalParamsService,
                                 taskInstanceDao,
-                                taskDefinitionLogDao);
+                                taskDefinitionLogDao,
+                                statePersistService,
+                                dependentResolveService,
+                                taskGroupCoordinator);
                         processInstanceExecCacheManager.cache(processInstance.getId(), workflowRunnable);
                         workflowEventQueue.addEvent(new WorkflowEvent(WorkflowEventType.START_WORKFLOW,
                                 processInstance.getId()));
@@ -262,20 +273,19 @@ public class MasterSchedulerBootstrap extends BaseDaemonThread implements AutoCl
     private List<Command> findCommands() throws MasterException {
         try {
             long scheduleStartTime = System.currentTimeMillis();
-            int thisMasterSlot = serverNodeManager.getSlot();
-            int masterCount = serverNodeManager.getMasterSize();
-            if (masterCount <= 0) {
-                log.warn("Master count: {} is invalid, the current slot: {}", masterCount, thisMasterSlot);
+            List<Integer> activeSlots = serverNodeManager.getActiveSlots();
+            if (activeSlots.isEmpty()) {
+                log.warn("The current master has no active slot, cannot consume commands");
                 return Collections.emptyList();
             }
             int pageSize = masterConfig.getFetchCommandNum();
             final List<Command> result =
-                    commandService.findCommandPageBySlot(pageSize, masterCount, thisMasterSlot);
+                    commandService.findCommandPageBySlot(pageSize, MasterSlotRing.SLOT_COUNT, activeSlots);
             if (CollectionUtils.isNotEmpty(result)) {
                 long cost = System.currentTimeMillis() - scheduleStartTime;
                 log.info(
-                        "Master schedule bootstrap loop command success, fetch command size: {}, cost: {}ms, current slot: {}, total slot size: {}",
-                        result.size(), cost, thisMasterSlot, masterCount);
+                        "Master schedule bootstrap loop command success, fetch command size: {}, cost: {}ms, current slot size: {}, total slot size: {}",
+                        result.size(), cost, activeSlots.size(), MasterSlotRing.SLOT_COUNT);
                 ProcessInstanceMetrics.recordCommandQueryTime(cost);
             }
             return result;
@@ -285,13 +295,11 @@ public class MasterSchedulerBootstrap extends BaseDaemonThread implements AutoCl
     }
 
     private SlotCheckState slotCheck(Command command) {
-        int slot = serverNodeManager.getSlot();
-        int masterSize = serverNodeManager.getMasterSize();
         SlotCheckState state;
-        if (masterSize <= 0) {
-            state = SlotCheckState.CHANGE;
-        } else if (command.getId() % masterSize == slot) {
+        if (serverNodeManager.isActiveSlot(MasterSlotRing.slotOf(command.getId()))) {
             state = SlotCheckState.PASS;
+        } else if (serverNodeManager.getActiveSlots().isEmpty()) {
+            state = SlotCheckState.CHANGE;
         } else {
             state = SlotCheckState.INJECT;
         }
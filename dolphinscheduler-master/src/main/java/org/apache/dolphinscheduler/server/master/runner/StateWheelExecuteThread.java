@@ -226,7 +226,8 @@ public class StateWheelExecuteThread extends BaseDaemonThread {
             log.warn("Task instance is already in state check list");
             return;
         }
-        if (taskInstance.isDependTask() || taskInstance.isSubProcess()) {
+        // the dependent task is woken up by the DependentResolveService, no need to poll it
+        if (taskInstance.isSubProcess()) {
             taskInstanceStateCheckList.add(taskInstanceKey);
             log.info("Added task instance into state check list");
         }
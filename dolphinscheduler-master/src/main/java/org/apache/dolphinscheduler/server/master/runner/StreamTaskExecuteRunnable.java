@@ -56,6 +56,7 @@ import org.apache.dolphinscheduler.server.master.dispatch.exceptions.ExecuteExce
 import org.apache.dolphinscheduler.server.master.event.StateEventHandleError;
 import org.apache.dolphinscheduler.server.master.event.StateEventHandleException;
 import org.apache.dolphinscheduler.server.master.metrics.TaskMetrics;
+import org.apache.dolphinscheduler.server.master.persistence.StateTransitionPersistService;
 import org.apache.dolphinscheduler.server.master.processor.queue.TaskEvent;
 import org.apache.dolphinscheduler.service.bean.SpringApplicationContext;
 import org.apache.dolphinscheduler.service.process.ProcessService;
@@ -89,6 +90,8 @@ public class StreamTaskExecuteRunnable implements Runnable {
 
     protected TaskInstanceDao taskInstanceDao;
 
+    protected StateTransitionPersistService statePersistService;
+
     protected ExecutorDispatcher dispatcher;
 
     protected ProcessTaskRelationMapper processTaskRelationMapper;
@@ -119,6 +122,7 @@ public class StreamTaskExecuteRunnable implements Runnable {
         this.taskPluginManager = SpringApplicationContext.getBean(TaskPluginManager.class);
         this.processTaskRelationMapper = SpringApplicationContext.getBean(ProcessTaskRelationMapper.class);
         this.taskInstanceDao = SpringApplicationContext.getBean(TaskInstanceDao.class);
+        this.statePersistService = SpringApplicationContext.getBean(StateTransitionPersistService.class);
         this.streamTaskInstanceExecCacheManager =
                 SpringApplicationContext.getBean(StreamTaskInstanceExecCacheManager.class);
         this.taskDefinition = taskDefinition;
@@ -134,7 +138,7 @@ public class StreamTaskExecuteRunnable implements Runnable {
         // submit task
         processService.updateTaskDefinitionResources(taskDefinition);
         taskInstance = newTaskInstance(taskDefinition);
-        taskInstanceDao.upsertTaskInstance(taskInstance);
+        statePersistService.persistTaskInstanceAndWait(taskInstance);
 
         // add cache
         streamTaskInstanceExecCacheManager.cache(taskInstance.getId(), this);
@@ -149,7 +153,7 @@ public class StreamTaskExecuteRunnable implements Runnable {
         TaskExecutionContext taskExecutionContext = getTaskExecutionContext(taskInstance);
         if (taskExecutionContext == null) {
             taskInstance.setState(TaskExecutionStatus.FAILURE);
-            taskInstanceDao.upsertTaskInstance(taskInstance);
+            statePersistService.persistTaskInstanceAndWait(taskInstance);
             return;
         }
 
@@ -177,7 +181,7 @@ public class StreamTaskExecuteRunnable implements Runnable {
 
             // set task instance fail
             taskInstance.setState(TaskExecutionStatus.FAILURE);
-            taskInstanceDao.upsertTaskInstance(taskInstance);
+            statePersistService.persistTaskInstanceAndWait(taskInstance);
             return;
         }
 
@@ -419,7 +423,9 @@ public class StreamTaskExecuteRunnable implements Runnable {
         taskInstance.setEndTime(taskEvent.getEndTime());
         taskInstance.setVarPool(taskEvent.getVarPool());
         processService.changeOutParam(taskInstance);
-        taskInstanceDao.updateTaskInstance(taskInstance);
+        if (!statePersistService.persistTaskInstanceAndWait(taskInstance)) {
+            throw new StateEventHandleException("Update the stream taskInstance to db failed");
+        }
 
         // send ack
         sendAckToWorker(taskEvent);
@@ -39,7 +39,6 @@ import org.apache.dolphinscheduler.common.enums.Flag;
 import org.apache.dolphinscheduler.common.enums.Priority;
 import org.apache.dolphinscheduler.common.enums.StateEventType;
 import org.apache.dolphinscheduler.common.enums.TaskDependType;
-import org.apache.dolphinscheduler.common.enums.TaskGroupQueueStatus;
 import org.apache.dolphinscheduler.common.enums.WorkflowExecutionStatus;
 import org.apache.dolphinscheduler.common.graph.DAG;
 import org.apache.dolphinscheduler.common.log.remote.RemoteLogUtils;
@@ -56,9 +55,7 @@ import org.apache.dolphinscheduler.dao.entity.ProcessTaskRelation;
 import org.apache.dolphinscheduler.dao.entity.ProjectUser;
 import org.apache.dolphinscheduler.dao.entity.Schedule;
 import org.apache.dolphinscheduler.dao.entity.TaskDefinitionLog;
-import org.apache.dolphinscheduler.dao.entity.TaskGroupQueue;
 import org.apache.dolphinscheduler.dao.entity.TaskInstance;
-import org.apache.dolphinscheduler.dao.repository.ProcessInstanceDao;
 import org.apache.dolphinscheduler.dao.repository.TaskDefinitionLogDao;
 import org.apache.dolphinscheduler.dao.repository.TaskInstanceDao;
 import org.apache.dolphinscheduler.dao.utils.TaskCacheUtils;
@@ -80,9 +77,12 @@ import org.apache.dolphinscheduler.server.master.event.StateEventHandlerManager;
 import org.apache.dolphinscheduler.server.master.event.TaskStateEvent;
 import org.apache.dolphinscheduler.server.master.event.WorkflowStateEvent;
 import org.apache.dolphinscheduler.server.master.metrics.TaskMetrics;
+import org.apache.dolphinscheduler.server.master.persistence.StateTransitionPersistService;
 import org.apache.dolphinscheduler.server.master.runner.task.ITaskProcessor;
 import org.apache.dolphinscheduler.server.master.runner.task.TaskAction;
 import org.apache.dolphinscheduler.server.master.runner.task.TaskProcessorFactory;
+import org.apache.dolphinscheduler.server.master.service.DependentResolveService;
+import org.apache.dolphinscheduler.server.master.service.TaskGroupCoordinator;
 import org.apache.dolphinscheduler.service.alert.ProcessAlertManager;
 import org.apache.dolphinscheduler.service.command.CommandService;
 import org.apache.dolphinscheduler.service.cron.CronUtils;
@@ -136,12 +136,16 @@ public class WorkflowExecuteRunnable implements Callable<WorkflowSubmitStatue> {
 
     private final CommandService commandService;
 
-    private ProcessInstanceDao processInstanceDao;
-
     private TaskInstanceDao taskInstanceDao;
 
     private TaskDefinitionLogDao taskDefinitionLogDao;
 
+    private final StateTransitionPersistService statePersistService;
+
+    private final DependentResolveService dependentResolveService;
+
+    private final TaskGroupCoordinator taskGroupCoordinator;
+
     private final ProcessAlertManager processAlertManager;
 
     private final NettyExecutorManager nettyExecutorManager;
@@ -244,27 +248,30 @@ public class WorkflowExecuteRunnable implements Callable<WorkflowSubmitStatue> {
     /**
      * @param processInstance         processInstance
      * @param processService          processService
-     * @param processInstanceDao      processInstanceDao
      * @param nettyExecutorManager    nettyExecutorManager
      * @param processAlertManager     processAlertManager
      * @param masterConfig            masterConfig
      * @param stateWheelExecuteThread stateWheelExecuteThread
+     * @param statePersistService     statePersistService
+     * @param dependentResolveService dependentResolveService
+     * @param taskGroupCoordinator    taskGroupCoordinator
      */
     public WorkflowExecuteRunnable(
                                    @NonNull ProcessInstance processInstance,
                                    @NonNull CommandService commandService,
                                    @NonNull ProcessService processService,
-                                   @NonNull ProcessInstanceDao processInstanceDao,
                                    @NonNull NettyExecutorManager nettyExecutorManager,
                                    @NonNull ProcessAlertManager processAlertManager,
                                    @NonNull MasterConfig masterConfig,
                                    @NonNull StateWheelExecuteThread stateWheelExecuteThread,
                                    @NonNull CuringParamsService curingParamsService,
                                    @NonNull TaskInstanceDao taskInstanceDao,
-                                   @NonNull TaskDefinitionLogDao taskDefinitionLogDao) {
+                                   @NonNull TaskDefinitionLogDao taskDefinitionLogDao,
+                                   @NonNull StateTransitionPersistService statePersistService,
+                                   @NonNull DependentResolveService dependentResolveService,
+                                   @NonNull TaskGroupCoordinator taskGroupCoordinator) {
         this.processService = processService;
         this.commandService = commandService;
-        this.processInstanceDao = processInstanceDao;
         this.processInstance = processInstance;
         this.nettyExecutorManager = nettyExecutorManager;
         this.processAlertManager = processAlertManager;
@@ -272,6 +279,9 @@ public class WorkflowExecuteRunnable implements Callable<WorkflowSubmitStatue> {
         this.curingParamsService = curingParamsService;
         this.taskInstanceDao = taskInstanceDao;
         this.taskDefinitionLogDao = taskDefinitionLogDao;
+        this.statePersistService = statePersistService;
+        this.dependentResolveService = dependentResolveService;
+        this.taskGroupCoordinator = taskGroupCoordinator;
         this.masterAddress = NetUtils.getAddr(masterConfig.getListenPort());
         TaskMetrics.registerTaskPrepared(readyToSubmitTaskQueue::size);
     }
@@ -372,35 +382,15 @@ public class WorkflowExecuteRunnable implements Callable<WorkflowSubmitStatue> {
     }
 
     public boolean checkForceStartAndWakeUp(StateEvent stateEvent) {
-        TaskGroupQueue taskGroupQueue = this.processService.loadTaskGroupQueue(stateEvent.getTaskInstanceId());
-        if (taskGroupQueue.getForceStart() == Flag.YES.getCode()) {
-            log.info("Begin to force start taskGroupQueue: {}", taskGroupQueue.getId());
-            TaskInstance taskInstance = this.taskInstanceDao.findTaskInstanceById(stateEvent.getTaskInstanceId());
-            ITaskProcessor taskProcessor = activeTaskProcessorMaps.get(taskInstance.getTaskCode());
-            taskProcessor.action(TaskAction.DISPATCH);
-            this.processService.updateTaskGroupQueueStatus(taskGroupQueue.getTaskId(),
-                    TaskGroupQueueStatus.ACQUIRE_SUCCESS.getCode());
-            log.info("Success force start taskGroupQueue: {}", taskGroupQueue.getId());
-            return true;
-        }
-        if (taskGroupQueue.getInQueue() == Flag.YES.getCode()) {
-            log.info("Begin to wake up taskGroupQueue: {}", taskGroupQueue.getId());
-            boolean acquireTaskGroup = processService.robTaskGroupResource(taskGroupQueue);
-            if (acquireTaskGroup) {
-                TaskInstance taskInstance = this.taskInstanceDao.findTaskInstanceById(stateEvent.getTaskInstanceId());
-                ITaskProcessor taskProcessor = activeTaskProcessorMaps.get(taskInstance.getTaskCode());
-                taskProcessor.action(TaskAction.DISPATCH);
-                log.info("Success wake up taskGroupQueue: {}", taskGroupQueue.getId());
-                return true;
-            }
-            log.warn("Failed to wake up taskGroupQueue, taskGroupQueueId: {}", taskGroupQueue.getId());
+        if (!taskGroupCoordinator.wakeUp(stateEvent.getTaskInstanceId())) {
             return false;
-        } else {
-            log.info(
-                    "Failed to wake up the taskGroupQueue: {}, since the taskGroupQueue is not in queue, will no need to wake up.",
-                    taskGroupQueue);
-            return true;
         }
+        TaskInstance taskInstance = getTaskInstance(stateEvent.getTaskInstanceId())
+                .orElseGet(() -> taskInstanceDao.findTaskInstanceById(stateEvent.getTaskInstanceId()));
+        ITaskProcessor taskProcessor = activeTaskProcessorMaps.get(taskInstance.getTaskCode());
+        taskProcessor.action(TaskAction.DISPATCH);
+        log.info("Success wake up task instance from task group, taskInstanceId: {}", taskInstance.getId());
+        return true;
     }
 
     public void processTimeout() {
@@ -421,12 +411,16 @@ public class WorkflowExecuteRunnable implements Callable<WorkflowSubmitStatue> {
             stateWheelExecuteThread.removeTask4TimeoutCheck(processInstance, taskInstance);
             stateWheelExecuteThread.removeTask4RetryCheck(processInstance, taskInstance);
             stateWheelExecuteThread.removeTask4StateCheck(processInstance, taskInstance);
+            // wake up the dependent tasks which are waiting for this task
+            dependentResolveService.onTaskFinished(processInstance, taskInstance);
 
             if (taskInstance.getState().isSuccess()) {
                 completeTaskMap.put(taskInstance.getTaskCode(), taskInstance.getId());
                 // todo: merge the last taskInstance
                 processInstance.setVarPool(taskInstance.getVarPool());
-                processInstanceDao.upsertProcessInstance(processInstance);
+                if (!statePersistService.persistProcessInstanceAndWait(processInstance)) {
+                    throw new StateEventHandleException("Update the varPool of workflowInstance to db failed");
+                }
                 // save the cacheKey only if the task is defined as cache task and the task is success
                 if (taskInstance.getIsCache().equals(Flag.YES)) {
                     saveCacheTaskInstance(taskInstance);
@@ -475,22 +469,7 @@ public class WorkflowExecuteRunnable implements Callable<WorkflowSubmitStatue> {
      */
     public void releaseTaskGroup(TaskInstance taskInstance) {
         if (taskInstance.getTaskGroupId() > 0) {
-            TaskInstance nextTaskInstance = this.processService.releaseTaskGroup(taskInstance);
-            if (nextTaskInstance != null) {
-                if (nextTaskInstance.getProcessInstanceId() == taskInstance.getProcessInstanceId()) {
-                    TaskStateEvent nextEvent = TaskStateEvent.builder()
-                            .processInstanceId(processInstance.getId())
-                            .taskInstanceId(nextTaskInstance.getId())
-                            .type(StateEventType.WAKE_UP_TASK_GROUP)
-                            .build();
-                    this.stateEvents.add(nextEvent);
-                } else {
-                    ProcessInstance processInstance =
-                            this.processService.findProcessInstanceById(nextTaskInstance.getProcessInstanceId());
-                    this.processService.sendStartTask2Master(processInstance, nextTaskInstance.getId(),
-                            org.apache.dolphinscheduler.remote.command.CommandType.TASK_WAKEUP_EVENT_REQUEST);
-                }
-            }
+            taskGroupCoordinator.releaseTaskGroup(taskInstance);
         }
     }
 
@@ -544,6 +523,8 @@ public class WorkflowExecuteRunnable implements Callable<WorkflowSubmitStatue> {
      */
     public void refreshTaskInstance(int taskInstanceId) {
         log.info("task instance update: {} ", taskInstanceId);
+        // make sure the transitions of this master are written before read from DB
+        statePersistService.awaitPersisted();
         TaskInstance taskInstance = taskInstanceDao.findTaskInstanceById(taskInstanceId);
         if (taskInstance == null) {
             log.error("can not find task instance, id:{}", taskInstanceId);
@@ -753,6 +734,8 @@ public class WorkflowExecuteRunnable implements Callable<WorkflowSubmitStatue> {
      */
     public void endProcess() {
         this.stateEvents.clear();
+        // wake up the dependent tasks which are waiting for this workflow
+        dependentResolveService.onWorkflowFinished(processInstance);
         if (processDefinition.getExecutionType().typeIsSerialWait() || processDefinition.getExecutionType()
                 .typeIsSerialPriority()) {
             checkSerialProcess(processDefinition);
@@ -764,7 +747,7 @@ public class WorkflowExecuteRunnable implements Callable<WorkflowSubmitStatue> {
         }
         if (checkTaskQueue()) {
             // release task group
-            processService.releaseAllTaskGroup(processInstance.getId());
+            taskGroupCoordinator.releaseAllTaskGroup(processInstance.getId());
         }
     }
 
@@ -875,7 +858,7 @@ public class WorkflowExecuteRunnable implements Callable<WorkflowSubmitStatue> {
                         TaskInstance oldTaskInstance = taskInstanceMap.get(oldTaskInstanceId);
                         if (!oldTaskInstance.getState().isFinished() && task.getState().isFinished()) {
                             task.setFlag(Flag.NO);
-                            taskInstanceDao.updateTaskInstance(task);
+                            statePersistService.persistTaskInstanceAndWait(task);
                             continue;
                         }
                     }
@@ -896,7 +879,7 @@ public class WorkflowExecuteRunnable implements Callable<WorkflowSubmitStatue> {
                         if (task.getState().isNeedFaultTolerance()) {
                             log.info("TaskInstance needs fault tolerance, will be added to standby list.");
                             task.setFlag(Flag.NO);
-                            taskInstanceDao.updateTaskInstance(task);
+                            statePersistService.persistTaskInstanceAndWait(task);
 
                             // tolerantTaskInstance add to standby list directly
                             TaskInstance tolerantTaskInstance = cloneTolerantTaskInstance(task);
@@ -951,7 +934,7 @@ public class WorkflowExecuteRunnable implements Callable<WorkflowSubmitStatue> {
                                 processInstance.getScheduleTime(),
                                 cmdParam.get(Constants.SCHEDULE_TIMEZONE));
                         processInstance.setGlobalParams(globalParams);
-                        processInstanceDao.updateProcessInstance(processInstance);
+                        statePersistService.persistProcessInstanceAndWait(processInstance);
                     }
                 }
             }
@@ -996,7 +979,7 @@ public class WorkflowExecuteRunnable implements Callable<WorkflowSubmitStatue> {
                 if (taskInstance.getId() != oldTaskInstanceId) {
                     TaskInstance oldTaskInstance = taskInstanceMap.get(oldTaskInstanceId);
                     oldTaskInstance.setFlag(Flag.NO);
-                    taskInstanceDao.updateTaskInstance(oldTaskInstance);
+                    statePersistService.persistTaskInstance(oldTaskInstance);
                     validTaskMap.remove(taskInstance.getTaskCode());
                     activeTaskProcessorMaps.remove(taskInstance.getTaskCode());
                 }
@@ -1011,11 +994,7 @@ public class WorkflowExecuteRunnable implements Callable<WorkflowSubmitStatue> {
             // it will be wakeup when other tasks release the resource.
             int taskGroupId = taskInstance.getTaskGroupId();
             if (taskGroupId > 0) {
-                boolean acquireTaskGroup = processService.acquireTaskGroup(taskInstance.getId(),
-                        taskInstance.getName(),
-                        taskGroupId,
-                        taskInstance.getProcessInstanceId(),
-                        taskInstance.getTaskGroupPriority());
+                boolean acquireTaskGroup = taskGroupCoordinator.acquireTaskGroup(taskInstance);
                 if (!acquireTaskGroup) {
                     log.info(
                             "Submitted task will not be dispatch right now because the first time to try to acquire" +
@@ -1746,13 +1725,12 @@ public class WorkflowExecuteRunnable implements Callable<WorkflowSubmitStatue> {
             if (newStates.isFinished()) {
                 processInstance.setEndTime(new Date());
             }
-            try {
-                processInstanceDao.updateProcessInstance(processInstance);
-            } catch (Exception ex) {
+            // wait the state is written, the workflow may be finished and removed from memory after this
+            if (!statePersistService.persistProcessInstanceAndWait(processInstance)) {
                 // recover the status
                 processInstance.setStateWithDesc(originStates, "recover state by DB error");
                 processInstance.setEndTime(null);
-                throw new StateEventHandleException("Update process instance status to DB error", ex);
+                throw new StateEventHandleException("Update process instance status to DB error");
             }
         }
     }
@@ -1862,20 +1840,10 @@ public class WorkflowExecuteRunnable implements Callable<WorkflowSubmitStatue> {
             if (task == null) {
                 continue;
             }
-            // stop tasks which is retrying if forced success happens
             if (task.taskCanRetry()) {
-                TaskInstance retryTask = taskInstanceDao.findTaskInstanceById(task.getId());
-                if (retryTask != null && retryTask.getState().isForceSuccess()) {
-                    task.setState(retryTask.getState());
-                    log.info(
-                            "Task {} has been forced success, put it into complete task list and stop retrying, taskInstanceId: {}",
-                            task.getName(), task.getId());
-                    removeTaskFromStandbyList(task);
-                    completeTaskMap.put(task.getTaskCode(), task.getId());
-                    taskInstanceMap.put(task.getId(), task);
-                    submitPostNode(Long.toString(task.getTaskCode()));
-                    continue;
-                }
+                // the force success of a retrying task is pushed by api and handled in forceTaskSuccess, so there is
+                // no need to query the task state from DB here
+                TaskMetrics.incTaskStateDbReadAvoided("standby");
             }
             // init varPool only this task is the first time running
             if (task.isFirstRun()) {
@@ -1924,6 +1892,52 @@ public class WorkflowExecuteRunnable implements Callable<WorkflowSubmitStatue> {
         }
     }
 
+    /**
+     * Handle the force success of a task instance which is pushed by api, stop the retry of this task if it is waiting
+     * to retry.
+     *
+     * @param taskInstanceId the id of the forced success task instance
+     */
+    public void forceTaskSuccess(int taskInstanceId) throws StateEventHandleException {
+        TaskInstance taskInstance = taskInstanceMap.get(taskInstanceId);
+        if (taskInstance == null) {
+            log.warn("Cannot find the forced success task instance in memory, taskInstanceId: {}", taskInstanceId);
+            return;
+        }
+        taskInstance.setState(TaskExecutionStatus.FORCED_SUCCESS);
+        long taskCode = taskInstance.getTaskCode();
+        errorTaskMap.remove(taskCode);
+
+        boolean retrying = false;
+        TaskInstance waitToRetryTask = waitToRetryTaskInstanceMap.remove(taskCode);
+        if (waitToRetryTask != null) {
+            stateWheelExecuteThread.removeTask4TimeoutCheck(processInstance, waitToRetryTask);
+            stateWheelExecuteThread.removeTask4RetryCheck(processInstance, waitToRetryTask);
+            retrying = true;
+        }
+        List<TaskInstance> standbyRetryTasks = new ArrayList<>();
+        for (Iterator<TaskInstance> iter = readyToSubmitTaskQueue.iterator(); iter.hasNext();) {
+            TaskInstance standbyTask = iter.next();
+            if (standbyTask.getTaskCode() == taskCode && standbyTask.taskCanRetry()) {
+                standbyRetryTasks.add(standbyTask);
+            }
+        }
+        for (TaskInstance standbyRetryTask : standbyRetryTasks) {
+            removeTaskFromStandbyList(standbyRetryTask);
+            retrying = true;
+        }
+        if (!retrying) {
+            log.info("Task {} has been forced success, taskInstanceId: {}", taskInstance.getName(), taskInstanceId);
+            return;
+        }
+        log.info(
+                "Task {} has been forced success, put it into complete task list and stop retrying, taskInstanceId: {}",
+                taskInstance.getName(), taskInstanceId);
+        completeTaskMap.put(taskCode, taskInstanceId);
+        submitPostNode(Long.toString(taskCode));
+        updateProcessInstanceState();
+    }
+
     /**
      * Get start task instance list from recover
      *
@@ -2123,7 +2137,7 @@ public class WorkflowExecuteRunnable implements Callable<WorkflowSubmitStatue> {
 
         for (TaskInstance taskInstance : removeTaskInstances) {
             taskInstance.setFlag(Flag.NO);
-            taskInstanceDao.updateTaskInstance(taskInstance);
+            statePersistService.persistTaskInstanceAndWait(taskInstance);
         }
 
         Set<String> removeSet = new HashSet<>();
@@ -2149,7 +2163,7 @@ public class WorkflowExecuteRunnable implements Callable<WorkflowSubmitStatue> {
                 .collect(Collectors.toList());
 
         processInstance.setVarPool(JSONUtils.toJsonString(processProperties));
-        processInstanceDao.updateProcessInstance(processInstance);
+        statePersistService.persistProcessInstanceAndWait(processInstance);
 
         // remove task instance from taskInstanceMap, completeTaskMap, validTaskMap, errorTaskMap
         taskInstanceMap.entrySet().removeIf(map -> dag.containsNode(Long.toString(map.getValue().getTaskCode())));
@@ -2163,11 +2177,7 @@ public class WorkflowExecuteRunnable implements Callable<WorkflowSubmitStatue> {
         Integer taskId = taskIdAndCacheKey.getLeft();
         if (taskId.equals(taskInstance.getId())) {
             taskInstance.setCacheKey(taskIdAndCacheKey.getRight());
-            try {
-                taskInstanceDao.updateTaskInstance(taskInstance);
-            } catch (Exception e) {
-                log.error("update task instance cache key failed", e);
-            }
+            statePersistService.persistTaskInstance(taskInstance);
         }
     }
 
@@ -79,7 +79,7 @@ public class BlockingTaskProcessor extends BaseTaskProcessor {
         this.taskInstance.setHost(NetUtils.getAddr(masterConfig.getListenPort()));
         this.taskInstance.setState(TaskExecutionStatus.RUNNING_EXECUTION);
         this.taskInstance.setStartTime(new Date());
-        this.taskInstanceDao.upsertTaskInstance(taskInstance);
+        statePersistService.persistTaskInstance(taskInstance);
         this.dependentParameters = taskInstance.getDependency();
         this.blockingParam = JSONUtils.parseObject(taskInstance.getTaskParams(), BlockingParameters.class);
     }
@@ -89,7 +89,7 @@ public class BlockingTaskProcessor extends BaseTaskProcessor {
         // todo: task cannot be pause
         taskInstance.setState(TaskExecutionStatus.PAUSE);
         taskInstance.setEndTime(new Date());
-        taskInstanceDao.upsertTaskInstance(taskInstance);
+        statePersistService.persistTaskInstance(taskInstance);
         log.info("blocking task has been paused");
         return true;
     }
@@ -98,7 +98,7 @@ public class BlockingTaskProcessor extends BaseTaskProcessor {
     protected boolean killTask() {
         taskInstance.setState(TaskExecutionStatus.KILL);
         taskInstance.setEndTime(new Date());
-        taskInstanceDao.upsertTaskInstance(taskInstance);
+        statePersistService.persistTaskInstance(taskInstance);
         log.info("blocking task has been killed");
         return true;
     }
@@ -172,7 +172,8 @@ public class BlockingTaskProcessor extends BaseTaskProcessor {
     }
 
     private void setConditionResult() {
-
+        // the upstream task states may be still in the write-behind journal
+        statePersistService.awaitPersisted();
         List<TaskInstance> taskInstances = taskInstanceDao
                 .findValidTaskListByProcessId(taskInstance.getProcessInstanceId(), processInstance.getTestFlag());
         for (TaskInstance task : taskInstances) {
@@ -206,7 +207,7 @@ public class BlockingTaskProcessor extends BaseTaskProcessor {
         }
         taskInstance.setState(TaskExecutionStatus.SUCCESS);
         taskInstance.setEndTime(new Date());
-        taskInstanceDao.updateTaskInstance(taskInstance);
+        statePersistService.persistTaskInstance(taskInstance);
         log.info("blocking task execute complete, blocking:{}", isBlocked);
     }
 }
@@ -158,7 +158,7 @@ public class CommonTaskProcessor extends BaseTaskProcessor {
             // we don't wait the kill response
             taskInstance.setState(TaskExecutionStatus.KILL);
             taskInstance.setEndTime(new Date());
-            taskInstanceDao.updateTaskInstance(taskInstance);
+            statePersistService.persistTaskInstanceAndWait(taskInstance);
             if (StringUtils.isNotEmpty(taskInstance.getHost())) {
                 killRemoteTask();
             }
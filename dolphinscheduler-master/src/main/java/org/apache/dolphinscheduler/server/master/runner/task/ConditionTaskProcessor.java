@@ -98,7 +98,7 @@ public class ConditionTaskProcessor extends BaseTaskProcessor {
     protected boolean pauseTask() {
         this.taskInstance.setState(TaskExecutionStatus.PAUSE);
         this.taskInstance.setEndTime(new Date());
-        taskInstanceDao.upsertTaskInstance(taskInstance);
+        statePersistService.persistTaskInstance(taskInstance);
         return true;
     }
 
@@ -119,7 +119,7 @@ public class ConditionTaskProcessor extends BaseTaskProcessor {
     protected boolean killTask() {
         this.taskInstance.setState(TaskExecutionStatus.KILL);
         this.taskInstance.setEndTime(new Date());
-        taskInstanceDao.upsertTaskInstance(taskInstance);
+        statePersistService.persistTaskInstance(taskInstance);
         return true;
     }
 
@@ -138,12 +138,13 @@ public class ConditionTaskProcessor extends BaseTaskProcessor {
         this.taskInstance.setHost(masterConfig.getMasterAddress());
         taskInstance.setState(TaskExecutionStatus.RUNNING_EXECUTION);
         taskInstance.setStartTime(new Date());
-        this.taskInstanceDao.upsertTaskInstance(taskInstance);
+        statePersistService.persistTaskInstance(taskInstance);
         this.dependentParameters = taskInstance.getDependency();
     }
 
     private void setConditionResult() {
-
+        // the upstream task states may be still in the write-behind journal
+        statePersistService.awaitPersisted();
         List<TaskInstance> taskInstances = taskInstanceDao
                 .findValidTaskListByProcessId(taskInstance.getProcessInstanceId(), processInstance.getTestFlag());
         for (TaskInstance task : taskInstances) {
@@ -194,6 +195,6 @@ public class ConditionTaskProcessor extends BaseTaskProcessor {
                 (conditionResult == DependResult.SUCCESS) ? TaskExecutionStatus.SUCCESS : TaskExecutionStatus.FAILURE;
         taskInstance.setState(status);
         taskInstance.setEndTime(new Date());
-        taskInstanceDao.updateTaskInstance(taskInstance);
+        statePersistService.persistTaskInstance(taskInstance);
     }
 }
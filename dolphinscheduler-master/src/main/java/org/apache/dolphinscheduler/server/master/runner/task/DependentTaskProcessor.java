@@ -34,6 +34,8 @@ import org.apache.dolphinscheduler.plugin.task.api.model.DependentTaskModel;
 import org.apache.dolphinscheduler.plugin.task.api.parameters.DependentParameters;
 import org.apache.dolphinscheduler.plugin.task.api.utils.DependentUtils;
 import org.apache.dolphinscheduler.plugin.task.api.utils.LogUtils;
+import org.apache.dolphinscheduler.server.master.service.DependentResolveService;
+import org.apache.dolphinscheduler.server.master.service.DependentResolveService.DependentSubscriber;
 import org.apache.dolphinscheduler.server.master.utils.DependentExecute;
 import org.apache.dolphinscheduler.service.bean.SpringApplicationContext;
 
@@ -65,6 +67,14 @@ public class DependentTaskProcessor extends BaseTaskProcessor {
 
     private final ProjectMapper projectMapper = SpringApplicationContext.getBean(ProjectMapper.class);
 
+    private final DependentResolveService dependentResolveService =
+            SpringApplicationContext.getBean(DependentResolveService.class);
+
+    /**
+     * subscribe the waiting dependent items, will be woken up when they changed
+     */
+    private DependentSubscriber dependentSubscriber;
+
     /**
      * dependent task list
      */
@@ -113,7 +123,7 @@ public class DependentTaskProcessor extends BaseTaskProcessor {
             taskInstance.setHost(masterConfig.getMasterAddress());
             taskInstance.setState(TaskExecutionStatus.RUNNING_EXECUTION);
             taskInstance.setStartTime(new Date());
-            taskInstanceDao.updateTaskInstance(taskInstance);
+            statePersistService.persistTaskInstance(taskInstance);
             initDependParameters();
             log.info("Success initialize dependent task parameters, the dependent data is: {}", dependentDate);
             return true;
@@ -170,6 +180,8 @@ public class DependentTaskProcessor extends BaseTaskProcessor {
             this.dependentDate = new Date();
         }
         this.testFlag = processInstance.getTestFlag();
+        this.dependentSubscriber = new DependentSubscriber(processInstance.getId(), taskInstance.getId(),
+                taskInstance.getTaskCode());
         // check dependent project is exist
         List<DependentTaskModel> dependTaskList = dependentParameters.getDependTaskList();
         Set<Long> projectCodes = new HashSet<>();
@@ -222,7 +234,8 @@ public class DependentTaskProcessor extends BaseTaskProcessor {
                             dependentItem.getKey());
                 }
             }
-            this.dependentTaskList.add(new DependentExecute(taskModel.getDependItemList(), taskModel.getRelation()));
+            this.dependentTaskList.add(new DependentExecute(taskModel.getDependItemList(), taskModel.getRelation(),
+                    dependentSubscriber));
         }
     }
 
@@ -230,7 +243,8 @@ public class DependentTaskProcessor extends BaseTaskProcessor {
     protected boolean pauseTask() {
         this.taskInstance.setState(TaskExecutionStatus.PAUSE);
         this.taskInstance.setEndTime(new Date());
-        taskInstanceDao.upsertTaskInstance(taskInstance);
+        unsubscribeDependentItems();
+        statePersistService.persistTaskInstance(taskInstance);
         return true;
     }
 
@@ -238,7 +252,8 @@ public class DependentTaskProcessor extends BaseTaskProcessor {
     protected boolean killTask() {
         this.taskInstance.setState(TaskExecutionStatus.KILL);
         this.taskInstance.setEndTime(new Date());
-        taskInstanceDao.upsertTaskInstance(taskInstance);
+        unsubscribeDependentItems();
+        statePersistService.persistTaskInstance(taskInstance);
         return true;
     }
 
@@ -250,6 +265,9 @@ public class DependentTaskProcessor extends BaseTaskProcessor {
     private boolean allDependentTaskFinish() {
         boolean finish = true;
         for (DependentExecute dependentExecute : dependentTaskList) {
+            if (!dependentExecute.finish(dependentDate, testFlag)) {
+                finish = false;
+            }
             for (Map.Entry<String, DependResult> entry : dependentExecute.getDependResultMap().entrySet()) {
                 if (!dependResultMap.containsKey(entry.getKey())) {
                     dependResultMap.put(entry.getKey(), entry.getValue());
@@ -258,9 +276,6 @@ public class DependentTaskProcessor extends BaseTaskProcessor {
                             entry.getKey(), entry.getValue(), dependentDate);
                 }
             }
-            if (!dependentExecute.finish(dependentDate, testFlag)) {
-                finish = false;
-            }
         }
         return finish;
     }
@@ -289,7 +304,14 @@ public class DependentTaskProcessor extends BaseTaskProcessor {
         status = (result == DependResult.SUCCESS) ? TaskExecutionStatus.SUCCESS : TaskExecutionStatus.FAILURE;
         taskInstance.setState(status);
         taskInstance.setEndTime(new Date());
-        taskInstanceDao.upsertTaskInstance(taskInstance);
+        unsubscribeDependentItems();
+        statePersistService.persistTaskInstance(taskInstance);
+    }
+
+    private void unsubscribeDependentItems() {
+        if (dependentSubscriber != null) {
+            dependentResolveService.unsubscribe(dependentSubscriber);
+        }
     }
 
     @Override
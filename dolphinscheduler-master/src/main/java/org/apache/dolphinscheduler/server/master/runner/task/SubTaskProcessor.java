@@ -133,7 +133,7 @@ public class SubTaskProcessor extends BaseTaskProcessor {
             taskInstance.setState(TaskExecutionStatus.of(subProcessInstance.getState().getCode()));
             taskInstance.setEndTime(new Date());
             dealFinish();
-            taskInstanceDao.upsertTaskInstance(taskInstance);
+            statePersistService.persistTaskInstance(taskInstance);
         }
     }
 
@@ -182,7 +182,7 @@ public class SubTaskProcessor extends BaseTaskProcessor {
             return false;
         }
         subProcessInstance.setStateWithDesc(WorkflowExecutionStatus.READY_PAUSE, "ready pause sub workflow");
-        processInstanceDao.updateProcessInstance(subProcessInstance);
+        statePersistService.persistProcessInstanceAndWait(subProcessInstance);
         sendToSubProcess();
         return true;
     }
@@ -201,7 +201,7 @@ public class SubTaskProcessor extends BaseTaskProcessor {
         taskInstance.setHost(NetUtils.getAddr(masterConfig.getListenPort()));
         taskInstance.setState(TaskExecutionStatus.RUNNING_EXECUTION);
         taskInstance.setStartTime(new Date());
-        taskInstanceDao.updateTaskInstance(taskInstance);
+        statePersistService.persistTaskInstance(taskInstance);
         log.info("set sub work flow {} task {} state: {}",
                 processInstance.getId(),
                 taskInstance.getId(),
@@ -218,7 +218,7 @@ public class SubTaskProcessor extends BaseTaskProcessor {
             return false;
         }
         subProcessInstance.setStateWithDesc(WorkflowExecutionStatus.READY_STOP, "ready stop by kill task");
-        processInstanceDao.updateProcessInstance(subProcessInstance);
+        statePersistService.persistProcessInstanceAndWait(subProcessInstance);
         sendToSubProcess();
         return true;
     }
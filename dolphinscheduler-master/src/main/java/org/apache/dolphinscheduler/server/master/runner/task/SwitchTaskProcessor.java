@@ -80,7 +80,7 @@ public class SwitchTaskProcessor extends BaseTaskProcessor {
         taskInstance.setHost(masterConfig.getMasterAddress());
         taskInstance.setState(TaskExecutionStatus.RUNNING_EXECUTION);
         taskInstance.setStartTime(new Date());
-        taskInstanceDao.updateTaskInstance(taskInstance);
+        statePersistService.persistTaskInstance(taskInstance);
 
         if (!this.taskInstance().getState().isFinished()) {
             setSwitchResult();
@@ -104,7 +104,7 @@ public class SwitchTaskProcessor extends BaseTaskProcessor {
     protected boolean pauseTask() {
         this.taskInstance.setState(TaskExecutionStatus.PAUSE);
         this.taskInstance.setEndTime(new Date());
-        taskInstanceDao.upsertTaskInstance(taskInstance);
+        statePersistService.persistTaskInstance(taskInstance);
         return true;
     }
 
@@ -112,7 +112,7 @@ public class SwitchTaskProcessor extends BaseTaskProcessor {
     protected boolean killTask() {
         this.taskInstance.setState(TaskExecutionStatus.KILL);
         this.taskInstance.setEndTime(new Date());
-        taskInstanceDao.upsertTaskInstance(taskInstance);
+        statePersistService.persistTaskInstance(taskInstance);
         return true;
     }
 
@@ -127,6 +127,8 @@ public class SwitchTaskProcessor extends BaseTaskProcessor {
     }
 
     private boolean setSwitchResult() {
+        // the upstream task states may be still in the write-behind journal
+        statePersistService.awaitPersisted();
         List<TaskInstance> taskInstances = taskInstanceDao.findValidTaskListByProcessId(
                 taskInstance.getProcessInstanceId(), processInstance.getTestFlag());
         Map<String, TaskExecutionStatus> completeTaskList = new HashMap<>();
@@ -188,7 +190,7 @@ public class SwitchTaskProcessor extends BaseTaskProcessor {
                 (conditionResult == DependResult.SUCCESS) ? TaskExecutionStatus.SUCCESS : TaskExecutionStatus.FAILURE;
         taskInstance.setEndTime(new Date());
         taskInstance.setState(status);
-        taskInstanceDao.updateTaskInstance(taskInstance);
+        statePersistService.persistTaskInstance(taskInstance);
     }
 
     public String setTaskParams(String content, String rgex) {
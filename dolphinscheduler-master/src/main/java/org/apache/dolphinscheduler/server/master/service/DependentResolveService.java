@@ -0,0 +1,390 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.master.service;
+
+import org.apache.dolphinscheduler.common.constants.Constants;
+import org.apache.dolphinscheduler.common.enums.StateEventType;
+import org.apache.dolphinscheduler.common.lifecycle.ServerLifeCycleManager;
+import org.apache.dolphinscheduler.common.thread.BaseDaemonThread;
+import org.apache.dolphinscheduler.dao.entity.ProcessInstance;
+import org.apache.dolphinscheduler.dao.entity.TaskInstance;
+import org.apache.dolphinscheduler.dao.repository.TaskInstanceDao;
+import org.apache.dolphinscheduler.plugin.task.api.enums.DependResult;
+import org.apache.dolphinscheduler.plugin.task.api.enums.TaskExecutionStatus;
+import org.apache.dolphinscheduler.plugin.task.api.model.DateInterval;
+import org.apache.dolphinscheduler.server.master.config.MasterConfig;
+import org.apache.dolphinscheduler.server.master.event.TaskStateEvent;
+import org.apache.dolphinscheduler.server.master.metrics.TaskMetrics;
+import org.apache.dolphinscheduler.server.master.persistence.StateTransitionPersistService;
+import org.apache.dolphinscheduler.server.master.runner.WorkflowExecuteThreadPool;
+import org.apache.dolphinscheduler.service.process.ProcessService;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+/**
+ * Resolve the dependent items of the dependent tasks running on this master.
+ * <p>
+ * The results are kept in a shared index keyed by (definitionCode, taskCode, dateInterval, testFlag), so all the
+ * dependent tasks waiting on the same upstream share one DB lookup. An entry is resolved from DB again only when the
+ * upstream workflow/task finished on this master, or the entry is older than
+ * {@link MasterConfig#getDependentRefreshInterval()}, which picks up the upstream finished on the other masters.
+ * <p>
+ * The dependent tasks whose item is still waiting subscribe to the entry, and are woken up by a task state event when
+ * the result changed, instead of being polled by the state wheel.
+ */
+@Slf4j
+@Service
+public class DependentResolveService extends BaseDaemonThread {
+
+    private final ProcessService processService;
+
+    private final TaskInstanceDao taskInstanceDao;
+
+    private final StateTransitionPersistService statePersistService;
+
+    private final WorkflowExecuteThreadPool workflowExecuteThreadPool;
+
+    private final MasterConfig masterConfig;
+
+    /**
+     * definitionCode -> (dependent key -> entry), indexed by definition code so a finish event only touches the
+     * entries of its own workflow definition.
+     */
+    private final Map<Long, Map<DependentKey, DependentEntry>> dependentIndex = new ConcurrentHashMap<>();
+
+    public DependentResolveService(ProcessService processService,
+                                   TaskInstanceDao taskInstanceDao,
+                                   StateTransitionPersistService statePersistService,
+                                   @Lazy WorkflowExecuteThreadPool workflowExecuteThreadPool,
+                                   MasterConfig masterConfig) {
+        super("DependentResolveThread");
+        this.processService = processService;
+        this.taskInstanceDao = taskInstanceDao;
+        this.statePersistService = statePersistService;
+        this.workflowExecuteThreadPool = workflowExecuteThreadPool;
+        this.masterConfig = masterConfig;
+    }
+
+    @Override
+    public synchronized void start() {
+        log.info("Dependent resolve service starting");
+        super.start();
+        log.info("Dependent resolve service started");
+    }
+
+    /**
+     * Get the result of the given dependent key, the result is loaded from DB only if the entry is missing or expired.
+     *
+     * @param dependentKey dependent key
+     * @param subscriber   the dependent task which will be notified if the result is waiting now and changed later,
+     *                     can be null
+     * @return dependent result
+     */
+    public DependResult resolve(@NonNull DependentKey dependentKey, DependentSubscriber subscriber) {
+        while (true) {
+            DependentEntry entry = dependentIndex
+                    .computeIfAbsent(dependentKey.getDefinitionCode(), definitionCode -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(dependentKey, key -> new DependentEntry());
+            synchronized (entry) {
+                if (entry.isEvicted()) {
+                    // the entry is evicted after we get it, try again
+                    continue;
+                }
+                if (entry.isExpired(System.currentTimeMillis(),
+                        masterConfig.getDependentRefreshInterval().toMillis())) {
+                    entry.refresh(loadDependResult(dependentKey));
+                    TaskMetrics.incDependentResolve("db");
+                } else {
+                    TaskMetrics.incDependentResolve("cache");
+                }
+                if (entry.getResult() == DependResult.WAITING && subscriber != null) {
+                    entry.getSubscribers().add(subscriber);
+                }
+                return entry.getResult();
+            }
+        }
+    }
+
+    /**
+     * Remove the subscriber from all the entries, should be called when the dependent task finished.
+     */
+    public void unsubscribe(@NonNull DependentSubscriber subscriber) {
+        for (Map<DependentKey, DependentEntry> entries : dependentIndex.values()) {
+            for (DependentEntry entry : entries.values()) {
+                synchronized (entry) {
+                    entry.getSubscribers().remove(subscriber);
+                }
+            }
+        }
+    }
+
+    /**
+     * The workflow instance finished on this master, the entries depend on this workflow need to be resolved again.
+     */
+    public void onWorkflowFinished(@NonNull ProcessInstance processInstance) {
+        invalidate(processInstance.getProcessDefinitionCode(), Constants.DEPENDENT_ALL_TASK_CODE);
+    }
+
+    /**
+     * The task instance finished on this master, the entries depend on this task need to be resolved again.
+     */
+    public void onTaskFinished(@NonNull ProcessInstance processInstance, @NonNull TaskInstance taskInstance) {
+        invalidate(processInstance.getProcessDefinitionCode(), taskInstance.getTaskCode());
+    }
+
+    @Override
+    public void run() {
+        while (!ServerLifeCycleManager.isStopped()) {
+            try {
+                refreshDependentIndex();
+            } catch (Exception ex) {
+                log.error("Dependent resolve service refresh error", ex);
+            }
+            try {
+                Thread.sleep(masterConfig.getDependentRefreshInterval().toMillis());
+            } catch (InterruptedException interruptedException) {
+                log.warn("Dependent resolve service interrupted, will exit this loop", interruptedException);
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    /**
+     * Resolve the expired entries which have subscribers again and notify the subscribers if the result is not waiting
+     * anymore, evict the expired entries which have no subscriber.
+     */
+    void refreshDependentIndex() {
+        long now = System.currentTimeMillis();
+        long refreshInterval = masterConfig.getDependentRefreshInterval().toMillis();
+        for (Map<DependentKey, DependentEntry> entries : dependentIndex.values()) {
+            for (Map.Entry<DependentKey, DependentEntry> indexEntry : entries.entrySet()) {
+                DependentKey dependentKey = indexEntry.getKey();
+                DependentEntry entry = indexEntry.getValue();
+                List<DependentSubscriber> subscribers;
+                synchronized (entry) {
+                    if (!entry.isExpired(now, refreshInterval)) {
+                        continue;
+                    }
+                    if (entry.getSubscribers().isEmpty()) {
+                        entry.evict();
+                        entries.remove(dependentKey, entry);
+                        continue;
+                    }
+                    entry.refresh(loadDependResult(dependentKey));
+                    TaskMetrics.incDependentResolve("db");
+                    if (entry.getResult() == DependResult.WAITING) {
+                        continue;
+                    }
+                    subscribers = entry.drainSubscribers();
+                }
+                notifySubscribers(subscribers);
+            }
+        }
+    }
+
+    private void invalidate(long definitionCode, long taskCode) {
+        Map<DependentKey, DependentEntry> entries = dependentIndex.get(definitionCode);
+        if (entries == null) {
+            return;
+        }
+        List<DependentSubscriber> subscribers = new ArrayList<>();
+        for (Map.Entry<DependentKey, DependentEntry> indexEntry : entries.entrySet()) {
+            long depTaskCode = indexEntry.getKey().getTaskCode();
+            if (taskCode != Constants.DEPENDENT_ALL_TASK_CODE && depTaskCode != taskCode) {
+                continue;
+            }
+            DependentEntry entry = indexEntry.getValue();
+            synchronized (entry) {
+                entry.invalidate();
+                subscribers.addAll(entry.drainSubscribers());
+            }
+        }
+        notifySubscribers(subscribers);
+    }
+
+    private void notifySubscribers(List<DependentSubscriber> subscribers) {
+        // a dependent task may subscribe to several entries, only wake it up once
+        for (DependentSubscriber subscriber : new HashSet<>(subscribers)) {
+            TaskStateEvent stateEvent = TaskStateEvent.builder()
+                    .processInstanceId(subscriber.getProcessInstanceId())
+                    .taskInstanceId(subscriber.getTaskInstanceId())
+                    .taskCode(subscriber.getTaskCode())
+                    .type(StateEventType.TASK_STATE_CHANGE)
+                    .status(TaskExecutionStatus.RUNNING_EXECUTION)
+                    .build();
+            workflowExecuteThreadPool.submitStateEvent(stateEvent);
+            TaskMetrics.incDependentNotify();
+        }
+    }
+
+    /**
+     * find the last one process instance that :
+     * 1. manual run and finish between the interval
+     * 2. schedule run and schedule time between the interval
+     * and get the dependent result from it
+     */
+    private DependResult loadDependResult(DependentKey dependentKey) {
+        // the upstream states of this master may be still in the write-behind journal
+        statePersistService.awaitPersisted();
+        ProcessInstance processInstance = findLastProcessInterval(dependentKey.getDefinitionCode(),
+                dependentKey.getDateInterval(), dependentKey.getTestFlag());
+        if (processInstance == null) {
+            return DependResult.WAITING;
+        }
+        // need to check workflow for updates, so get all task and check the task state
+        if (dependentKey.getTaskCode() == Constants.DEPENDENT_ALL_TASK_CODE) {
+            return dependResultByProcessInstance(processInstance);
+        }
+        return getDependTaskResult(dependentKey.getTaskCode(), processInstance, dependentKey.getTestFlag());
+    }
+
+    private ProcessInstance findLastProcessInterval(Long definitionCode, DateInterval dateInterval, int testFlag) {
+        ProcessInstance lastSchedulerProcess =
+                processService.findLastSchedulerProcessInterval(definitionCode, dateInterval, testFlag);
+
+        ProcessInstance lastManualProcess =
+                processService.findLastManualProcessInterval(definitionCode, dateInterval, testFlag);
+
+        if (lastManualProcess == null) {
+            return lastSchedulerProcess;
+        }
+        if (lastSchedulerProcess == null) {
+            return lastManualProcess;
+        }
+
+        // In the time range, there are both manual and scheduled workflow instances, return the last workflow instance
+        return lastManualProcess.getId() > lastSchedulerProcess.getId() ? lastManualProcess : lastSchedulerProcess;
+    }
+
+    private DependResult dependResultByProcessInstance(ProcessInstance processInstance) {
+        if (!processInstance.getState().isFinished()) {
+            return DependResult.WAITING;
+        }
+        if (processInstance.getState().isSuccess()) {
+            return DependResult.SUCCESS;
+        }
+        return DependResult.FAILED;
+    }
+
+    private DependResult getDependTaskResult(long taskCode, ProcessInstance processInstance, int testFlag) {
+        TaskInstance taskInstance = null;
+        List<TaskInstance> taskInstanceList =
+                taskInstanceDao.findValidTaskListByProcessId(processInstance.getId(), testFlag);
+
+        for (TaskInstance task : taskInstanceList) {
+            if (task.getTaskCode() == taskCode) {
+                taskInstance = task;
+                break;
+            }
+        }
+
+        if (taskInstance == null) {
+            // cannot find task in the process instance
+            // maybe because process instance is running or failed.
+            return processInstance.getState().isFinished() ? DependResult.FAILED : DependResult.WAITING;
+        }
+        TaskExecutionStatus state = taskInstance.getState();
+        if (!state.isFinished()) {
+            return DependResult.WAITING;
+        }
+        return state.isSuccess() ? DependResult.SUCCESS : DependResult.FAILED;
+    }
+
+    /**
+     * The key of the shared dependent index.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class DependentKey {
+
+        private final long definitionCode;
+
+        private final long taskCode;
+
+        private final DateInterval dateInterval;
+
+        private final int testFlag;
+    }
+
+    /**
+     * The dependent task which is waiting for the dependent result.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class DependentSubscriber {
+
+        private final int processInstanceId;
+
+        private final int taskInstanceId;
+
+        private final long taskCode;
+    }
+
+    @Getter
+    static class DependentEntry {
+
+        private DependResult result;
+
+        private long resolveTime;
+
+        private boolean invalidated = true;
+
+        private boolean evicted;
+
+        private Set<DependentSubscriber> subscribers = new HashSet<>();
+
+        boolean isExpired(long now, long refreshInterval) {
+            return invalidated || now - resolveTime >= refreshInterval;
+        }
+
+        void refresh(DependResult result) {
+            this.result = result;
+            this.resolveTime = System.currentTimeMillis();
+            this.invalidated = false;
+        }
+
+        void invalidate() {
+            this.invalidated = true;
+        }
+
+        void evict() {
+            this.evicted = true;
+        }
+
+        List<DependentSubscriber> drainSubscribers() {
+            List<DependentSubscriber> drained = new ArrayList<>(subscribers);
+            subscribers = new HashSet<>();
+            return drained;
+        }
+    }
+}
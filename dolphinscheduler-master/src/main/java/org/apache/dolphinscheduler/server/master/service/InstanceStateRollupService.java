@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.master.service;
+
+import org.apache.dolphinscheduler.common.constants.Constants;
+import org.apache.dolphinscheduler.common.lifecycle.ServerLifeCycleManager;
+import org.apache.dolphinscheduler.common.thread.BaseDaemonThread;
+import org.apache.dolphinscheduler.dao.entity.InstanceStateRollup;
+import org.apache.dolphinscheduler.dao.repository.InstanceStateRollupDao;
+import org.apache.dolphinscheduler.registry.api.RegistryClient;
+import org.apache.dolphinscheduler.server.master.config.MasterConfig;
+
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.stereotype.Service;
+
+/**
+ * Maintain the hourly workflow/task instance state rollups, which are used to count the instance states of the home
+ * page without scanning the instance tables.
+ * <p>
+ * An hour is rolled up once it closed for {@link MasterConfig#getStateRollupDelay()}, the hours are rolled up from the
+ * newest one back to {@link MasterConfig#getStateRollupBackfill()}. The state transitions persisted by this master
+ * mark the hour of the instance start time as changed, and the changed hours are rolled up again in the next round.
+ * The changes made out of the master are marked in the database by {@link InstanceStateRollupDao#markBucketsChanged},
+ * and the hours in {@link MasterConfig#getStateRollupRefreshWindow()} are rolled up again periodically, so the changes
+ * whose marks are lost, e.g. the master restarted, are counted too. The rounds of all the masters are serialized by a
+ * registry lock.
+ */
+@Slf4j
+@Service
+public class InstanceStateRollupService extends BaseDaemonThread {
+
+    private final InstanceStateRollupDao instanceStateRollupDao;
+
+    private final RegistryClient registryClient;
+
+    private final MasterConfig masterConfig;
+
+    private final Set<Long> changedWorkflowBuckets = ConcurrentHashMap.newKeySet();
+
+    private final Set<Long> changedTaskBuckets = ConcurrentHashMap.newKeySet();
+
+    private long lastRefreshTime;
+
+    public InstanceStateRollupService(InstanceStateRollupDao instanceStateRollupDao,
+                                      RegistryClient registryClient,
+                                      MasterConfig masterConfig) {
+        super("InstanceStateRollupThread");
+        this.instanceStateRollupDao = instanceStateRollupDao;
+        this.registryClient = registryClient;
+        this.masterConfig = masterConfig;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!masterConfig.isStateRollupEnabled()) {
+            log.info("Instance state rollup service is disabled");
+            return;
+        }
+        log.info("Instance state rollup service starting");
+        super.start();
+        log.info("Instance state rollup service started");
+    }
+
+    /**
+     * The state of a workflow instance which started at the given time is persisted.
+     */
+    public void onWorkflowInstancePersisted(Date startTime) {
+        markChanged(changedWorkflowBuckets, startTime);
+    }
+
+    /**
+     * The state of a task instance which started at the given time is persisted.
+     */
+    public void onTaskInstancePersisted(Date startTime) {
+        markChanged(changedTaskBuckets, startTime);
+    }
+
+    @Override
+    public void run() {
+        while (!ServerLifeCycleManager.isStopped()) {
+            try {
+                rollup(System.currentTimeMillis());
+            } catch (Exception ex) {
+                log.error("Instance state rollup service rollup error", ex);
+            }
+            try {
+                Thread.sleep(masterConfig.getStateRollupInterval().toMillis());
+            } catch (InterruptedException interruptedException) {
+                log.warn("Instance state rollup service interrupted, will exit this loop", interruptedException);
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    /**
+     * Roll up the changed hours and the not rolled up hours which closed before the given time.
+     */
+    void rollup(long currentTimeMillis) {
+        long sealedEndTime = InstanceStateRollup
+                .bucketTimeOf(new Date(currentTimeMillis - masterConfig.getStateRollupDelay().toMillis()))
+                .getTime();
+        long refreshStartTime = sealedEndTime;
+        if (currentTimeMillis - lastRefreshTime >= masterConfig.getStateRollupRefreshInterval().toMillis()) {
+            refreshStartTime = sealedEndTime - masterConfig.getStateRollupRefreshWindow().toMillis();
+        }
+        String lockPath = Constants.REGISTRY_DOLPHINSCHEDULER_LOCK_STATE_ROLLUP;
+        // the changed hours are kept and will be rolled up in the next round if the lock is held by others
+        if (!registryClient.getLock(lockPath, masterConfig.getStateRollupInterval())) {
+            log.warn("Instance state rollup skipped, cannot get the lock in {}", masterConfig.getStateRollupInterval());
+            return;
+        }
+        try {
+            rollup(InstanceStateRollup.WORKFLOW_INSTANCE, changedWorkflowBuckets, refreshStartTime, sealedEndTime);
+            rollup(InstanceStateRollup.TASK_INSTANCE, changedTaskBuckets, refreshStartTime, sealedEndTime);
+            if (refreshStartTime < sealedEndTime) {
+                lastRefreshTime = currentTimeMillis;
+            }
+        } finally {
+            registryClient.releaseLock(lockPath);
+        }
+    }
+
+    private void rollup(int instanceType, Set<Long> changedBuckets, long refreshStartTime, long sealedEndTime) {
+        Set<Long> sealedBuckets = new TreeSet<>();
+        Iterator<Long> iterator = changedBuckets.iterator();
+        while (iterator.hasNext()) {
+            Long bucket = iterator.next();
+            iterator.remove();
+            // the hours not closed will be rolled up after closed, so do not need to keep them
+            if (bucket < sealedEndTime) {
+                sealedBuckets.add(bucket);
+            }
+        }
+        for (Date bucket : instanceStateRollupDao.queryChangedBuckets(instanceType, new Date(sealedEndTime))) {
+            sealedBuckets.add(bucket.getTime());
+        }
+        for (long bucket = InstanceStateRollup.bucketTimeOf(new Date(refreshStartTime))
+                .getTime(); bucket < sealedEndTime; bucket += InstanceStateRollup.BUCKET_MILLIS) {
+            sealedBuckets.add(bucket);
+        }
+        int changedCount = 0;
+        for (Long bucket : sealedBuckets) {
+            if (rollupBucket(instanceType, bucket)) {
+                changedCount++;
+            } else {
+                changedBuckets.add(bucket);
+            }
+        }
+
+        long backfillStartTime = sealedEndTime - masterConfig.getStateRollupBackfill().toMillis();
+        Set<Long> rolledUpBuckets = new HashSet<>();
+        for (Date bucket : instanceStateRollupDao.queryRolledUpBuckets(instanceType, new Date(backfillStartTime),
+                new Date(sealedEndTime))) {
+            rolledUpBuckets.add(bucket.getTime());
+        }
+        int backfillCount = 0;
+        for (long bucket = sealedEndTime - InstanceStateRollup.BUCKET_MILLIS; bucket >= backfillStartTime
+                && backfillCount < masterConfig.getStateRollupBucketsPerRun(); bucket -=
+                        InstanceStateRollup.BUCKET_MILLIS) {
+            if (rolledUpBuckets.contains(bucket)) {
+                continue;
+            }
+            if (!rollupBucket(instanceType, bucket)) {
+                break;
+            }
+            backfillCount++;
+        }
+        if (changedCount > 0 || backfillCount > 0) {
+            log.info("Roll up instance states, instanceType: {}, changed buckets: {}, new buckets: {}",
+                    instanceType, changedCount, backfillCount);
+        }
+    }
+
+    private boolean rollupBucket(int instanceType, long bucket) {
+        try {
+            instanceStateRollupDao.rollupBucket(instanceType, new Date(bucket));
+            return true;
+        } catch (Exception ex) {
+            log.error("Roll up instance states error, instanceType: {}, bucket: {}", instanceType, new Date(bucket),
+                    ex);
+            return false;
+        }
+    }
+
+    private void markChanged(Set<Long> changedBuckets, Date startTime) {
+        if (startTime == null || !masterConfig.isStateRollupEnabled()) {
+            return;
+        }
+        changedBuckets.add(InstanceStateRollup.bucketTimeOf(startTime).getTime());
+    }
+}
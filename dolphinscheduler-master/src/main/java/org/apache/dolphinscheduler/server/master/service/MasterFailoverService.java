@@ -20,6 +20,7 @@ package org.apache.dolphinscheduler.server.master.service;
 import org.apache.dolphinscheduler.common.constants.Constants;
 import org.apache.dolphinscheduler.common.enums.NodeType;
 import org.apache.dolphinscheduler.common.model.Server;
+import org.apache.dolphinscheduler.common.thread.ThreadUtils;
 import org.apache.dolphinscheduler.dao.entity.ProcessDefinition;
 import org.apache.dolphinscheduler.dao.entity.ProcessInstance;
 import org.apache.dolphinscheduler.dao.entity.TaskInstance;
@@ -36,8 +37,10 @@ import org.apache.dolphinscheduler.server.master.cache.ProcessInstanceExecCacheM
 import org.apache.dolphinscheduler.server.master.config.MasterConfig;
 import org.apache.dolphinscheduler.server.master.dispatch.exceptions.ExecuteException;
 import org.apache.dolphinscheduler.server.master.dispatch.executor.NettyExecutorManager;
+import org.apache.dolphinscheduler.server.master.metrics.MasterServerMetrics;
 import org.apache.dolphinscheduler.server.master.metrics.ProcessInstanceMetrics;
 import org.apache.dolphinscheduler.server.master.metrics.TaskMetrics;
+import org.apache.dolphinscheduler.server.master.persistence.StateTransitionPersistService;
 import org.apache.dolphinscheduler.server.master.runner.task.TaskProcessorFactory;
 import org.apache.dolphinscheduler.service.log.LogClient;
 import org.apache.dolphinscheduler.service.process.ProcessService;
@@ -47,10 +50,14 @@ import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.time.StopWatch;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -61,6 +68,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.google.common.collect.Lists;
+
 import io.micrometer.core.annotation.Counted;
 import io.micrometer.core.annotation.Timed;
 
@@ -81,6 +90,12 @@ public class MasterFailoverService {
 
     private final TaskInstanceDao taskInstanceDao;
 
+    private final StateTransitionPersistService statePersistService;
+
+    private final InstanceStateRollupService instanceStateRollupService;
+
+    private final ExecutorService failoverExecutor;
+
     @Autowired
     private ProcessDefinitionDao processDefinitionDao;
 
@@ -90,7 +105,9 @@ public class MasterFailoverService {
                                  @NonNull NettyExecutorManager nettyExecutorManager,
                                  @NonNull ProcessInstanceExecCacheManager processInstanceExecCacheManager,
                                  @NonNull LogClient logClient,
-                                 @NonNull TaskInstanceDao taskInstanceDao) {
+                                 @NonNull TaskInstanceDao taskInstanceDao,
+                                 @NonNull StateTransitionPersistService statePersistService,
+                                 @NonNull InstanceStateRollupService instanceStateRollupService) {
         this.registryClient = registryClient;
         this.masterConfig = masterConfig;
         this.processService = processService;
@@ -99,6 +116,10 @@ public class MasterFailoverService {
         this.processInstanceExecCacheManager = processInstanceExecCacheManager;
         this.logClient = logClient;
         this.taskInstanceDao = taskInstanceDao;
+        this.statePersistService = statePersistService;
+        this.instanceStateRollupService = instanceStateRollupService;
+        this.failoverExecutor =
+                ThreadUtils.newDaemonFixedThreadExecutor("MasterFailoverThread", masterConfig.getFailoverThreads());
     }
 
     /**
@@ -125,8 +146,13 @@ public class MasterFailoverService {
 
     public void failoverMaster(String masterHost) {
         String failoverPath = Constants.REGISTRY_DOLPHINSCHEDULER_LOCK_FAILOVER_MASTERS + "/" + masterHost;
+        // the host will be checked again in the next failover round if the lock is held by others
+        if (!registryClient.getLock(failoverPath, masterConfig.getFailoverInterval())) {
+            log.warn("Master server failover skipped, cannot get the failover lock in {}, host:{}",
+                    masterConfig.getFailoverInterval(), masterHost);
+            return;
+        }
         try {
-            registryClient.getLock(failoverPath);
             doFailoverMaster(masterHost);
         } catch (Exception e) {
             log.error("Master server failover failed, host:{}", masterHost, e);
@@ -144,9 +170,12 @@ public class MasterFailoverService {
      */
     private void doFailoverMaster(@NonNull String masterHost) {
         StopWatch failoverTimeCost = StopWatch.createStarted();
+        // the task instance states in the write-behind journal should be written before query from DB
+        statePersistService.awaitPersisted();
 
-        Optional<Date> masterStartupTimeOptional = getServerStartupTime(registryClient.getServerList(NodeType.MASTER),
-                masterHost);
+        // read the registry directly, the cached servers may not apply the remove event of the master yet
+        Optional<Date> masterStartupTimeOptional =
+                getServerStartupTime(registryClient.getServerListDirectly(NodeType.MASTER), masterHost);
         List<ProcessInstance> needFailoverProcessInstanceList = processService.queryNeedFailoverProcessInstances(
                 masterHost);
         if (CollectionUtils.isEmpty(needFailoverProcessInstanceList)) {
@@ -165,50 +194,112 @@ public class MasterFailoverService {
                 .stream()
                 .collect(Collectors.toMap(ProcessDefinition::getCode, Function.identity()));
 
+        List<ProcessInstance> failoverProcessInstances = new ArrayList<>(needFailoverProcessInstanceList.size());
         for (ProcessInstance processInstance : needFailoverProcessInstanceList) {
-            try {
-                LogUtils.setWorkflowInstanceIdMDC(processInstance.getId());
-                log.info("WorkflowInstance failover starting");
+            try (
+                    final LogUtils.MDCAutoClosableContext mdcAutoClosableContext =
+                            LogUtils.setWorkflowInstanceIdMDC(processInstance.getId())) {
                 if (!checkProcessInstanceNeedFailover(masterStartupTimeOptional, processInstance)) {
                     log.info("WorkflowInstance doesn't need to failover");
                     continue;
                 }
-                ProcessDefinition processDefinition = codeDefinitionMap.get(processInstance.getProcessDefinitionCode());
-                processInstance.setProcessDefinition(processDefinition);
-                int processInstanceId = processInstance.getId();
-                List<TaskInstance> taskInstanceList =
-                        taskInstanceDao.findValidTaskListByProcessId(processInstanceId, processInstance.getTestFlag());
-                for (TaskInstance taskInstance : taskInstanceList) {
-                    try {
-                        LogUtils.setTaskInstanceIdMDC(taskInstance.getId());
-                        log.info("TaskInstance failover starting");
-                        if (!checkTaskInstanceNeedFailover(taskInstance)) {
-                            log.info("The taskInstance doesn't need to failover");
-                            continue;
-                        }
-                        failoverTaskInstance(processInstance, taskInstance);
-                        log.info("TaskInstance failover finished");
-                    } finally {
-                        LogUtils.removeTaskInstanceIdMDC();
-                    }
-                }
+                processInstance.setProcessDefinition(
+                        codeDefinitionMap.get(processInstance.getProcessDefinitionCode()));
+                failoverProcessInstances.add(processInstance);
+            }
+        }
 
-                ProcessInstanceMetrics.incProcessInstanceByStateAndProcessDefinitionCode("failover",
-                        processInstance.getProcessDefinitionCode().toString());
-                // updateProcessInstance host is null to mark this processInstance has been failover
-                // and insert a failover command
-                processInstance.setHost(Constants.NULL);
-                processService.processNeedFailoverProcessInstances(processInstance);
-                log.info("WorkflowInstance failover finished");
-            } finally {
-                LogUtils.removeWorkflowInstanceIdMDC();
+        // the workflow instances are failover in batches, each batch loads its task instances with one query and
+        // writes the task instances, workflow instances and recover commands with one JDBC batch each
+        List<List<ProcessInstance>> batches =
+                Lists.partition(failoverProcessInstances, masterConfig.getFailoverBatchSize());
+        List<Future<Integer>> failoverFutures = new ArrayList<>(batches.size());
+        for (List<ProcessInstance> batch : batches) {
+            failoverFutures.add(failoverExecutor.submit(() -> failoverProcessInstanceBatch(batch)));
+        }
+        int failoverWorkflowCount = 0;
+        int failoverTaskCount = 0;
+        Exception batchFailure = null;
+        for (int i = 0; i < failoverFutures.size(); i++) {
+            try {
+                failoverTaskCount += failoverFutures.get(i).get();
+                failoverWorkflowCount += batches.get(i).size();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Master failover is interrupted", e);
+            } catch (ExecutionException e) {
+                // the workflow instances of the failed batch still belong to the master, and are failover again by
+                // the next check
+                log.error("Master[{}] failover workflowInstance batch failed", masterHost, e.getCause());
+                batchFailure = e;
             }
         }
 
         failoverTimeCost.stop();
-        log.info("Master[{}] failover finished, useTime:{}ms",
+        MasterServerMetrics.recordMasterFailoverTime(failoverTimeCost.getTime(TimeUnit.MILLISECONDS));
+        MasterServerMetrics.incMasterFailoverWorkflow(failoverWorkflowCount);
+        MasterServerMetrics.incMasterFailoverTask(failoverTaskCount);
+        log.info("Master[{}] failover finished, workflowInstance size: {}, taskInstance size: {}, useTime:{}ms",
                 masterHost,
+                failoverWorkflowCount,
+                failoverTaskCount,
                 failoverTimeCost.getTime(TimeUnit.MILLISECONDS));
+        if (batchFailure != null) {
+            throw new RuntimeException(String.format("Master[%s] failover %d workflowInstances failed", masterHost,
+                    failoverProcessInstances.size() - failoverWorkflowCount), batchFailure.getCause());
+        }
+    }
+
+    /**
+     * Failover a batch of workflow instances.
+     *
+     * @param processInstances workflow instances need to failover
+     * @return the count of failover task instances
+     */
+    private int failoverProcessInstanceBatch(@NonNull List<ProcessInstance> processInstances) {
+        Map<Integer, ProcessInstance> processInstanceMap = processInstances
+                .stream()
+                .collect(Collectors.toMap(ProcessInstance::getId, Function.identity()));
+        List<TaskInstance> taskInstances =
+                taskInstanceDao.findValidTaskListByProcessIds(new ArrayList<>(processInstanceMap.keySet()));
+
+        List<TaskInstance> failoverTaskInstances = new ArrayList<>();
+        for (TaskInstance taskInstance : taskInstances) {
+            ProcessInstance processInstance = processInstanceMap.get(taskInstance.getProcessInstanceId());
+            if (processInstance == null || taskInstance.getTestFlag() != processInstance.getTestFlag()) {
+                continue;
+            }
+            try (
+                    final LogUtils.MDCAutoClosableContext mdcAutoClosableContext =
+                            LogUtils.setWorkflowAndTaskInstanceIDMDC(processInstance.getId(), taskInstance.getId())) {
+                log.info("TaskInstance failover starting");
+                if (!checkTaskInstanceNeedFailover(taskInstance)) {
+                    log.info("The taskInstance doesn't need to failover");
+                    continue;
+                }
+                failoverTaskInstance(processInstance, taskInstance);
+                failoverTaskInstances.add(taskInstance);
+                log.info("TaskInstance failover finished");
+            }
+        }
+        if (!failoverTaskInstances.isEmpty()) {
+            taskInstanceDao.batchUpdateTaskInstance(failoverTaskInstances);
+            failoverTaskInstances.forEach(
+                    taskInstance -> instanceStateRollupService.onTaskInstancePersisted(taskInstance.getStartTime()));
+        }
+
+        for (ProcessInstance processInstance : processInstances) {
+            // updateProcessInstance host is null to mark this processInstance has been failover
+            processInstance.setHost(Constants.NULL);
+        }
+        // update the workflow instances and insert the failover commands
+        processService.processNeedFailoverProcessInstances(processInstances);
+        for (ProcessInstance processInstance : processInstances) {
+            ProcessInstanceMetrics.incProcessInstanceByStateAndProcessDefinitionCode("failover",
+                    processInstance.getProcessDefinitionCode().toString());
+        }
+        log.info("WorkflowInstance batch failover finished, workflowInstanceIds: {}", processInstanceMap.keySet());
+        return failoverTaskInstances.size();
     }
 
     private Optional<Date> getServerStartupTime(List<Server> servers, String host) {
@@ -229,7 +320,7 @@ public class MasterFailoverService {
      * failover task instance
      * <p>
      * 1. kill yarn/k8s job if run on worker and there are yarn/k8s jobs in tasks.
-     * 2. change task state from running to need failover.
+     * 2. change task state from running to need failover, the task instance is updated with its batch.
      * 3. try to notify local master
      *
      * @param processInstance
@@ -263,7 +354,6 @@ public class MasterFailoverService {
         }
 
         taskInstance.setState(TaskExecutionStatus.NEED_FAULT_TOLERANCE);
-        taskInstanceDao.upsertTaskInstance(taskInstance);
     }
 
     private void sendKillCommandToWorker(@NonNull TaskInstance taskInstance) {
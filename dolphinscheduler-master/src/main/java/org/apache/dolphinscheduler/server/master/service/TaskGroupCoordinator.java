@@ -0,0 +1,387 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.master.service;
+
+import org.apache.dolphinscheduler.common.enums.Flag;
+import org.apache.dolphinscheduler.common.enums.StateEventType;
+import org.apache.dolphinscheduler.common.enums.TaskGroupQueueStatus;
+import org.apache.dolphinscheduler.dao.entity.ProcessInstance;
+import org.apache.dolphinscheduler.dao.entity.TaskGroup;
+import org.apache.dolphinscheduler.dao.entity.TaskGroupQueue;
+import org.apache.dolphinscheduler.dao.entity.TaskInstance;
+import org.apache.dolphinscheduler.dao.mapper.TaskGroupMapper;
+import org.apache.dolphinscheduler.dao.mapper.TaskGroupQueueMapper;
+import org.apache.dolphinscheduler.dao.mapper.TaskInstanceMapper;
+import org.apache.dolphinscheduler.remote.command.CommandType;
+import org.apache.dolphinscheduler.server.master.event.TaskStateEvent;
+import org.apache.dolphinscheduler.server.master.metrics.TaskMetrics;
+import org.apache.dolphinscheduler.server.master.runner.WorkflowExecuteThreadPool;
+import org.apache.dolphinscheduler.service.process.ProcessService;
+
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+/**
+ * Coordinate the task group slots of the task instances running on this master.
+ * <p>
+ * The waiting task instances of each task group are kept in a priority queue in memory, when a slot is released the
+ * next waiting task instance on this master is granted directly and woken up by a state event. The slot itself is a
+ * lease recorded in DB: {@code t_ds_task_group.use_size} is changed by a single conditional update together with the
+ * {@code t_ds_task_group_queue} status, so the slots survive the master restart and are shared with the other masters.
+ * If there is no waiting task instance on this master, the released slot is offered to the highest priority task
+ * instance waiting on the other masters.
+ */
+@Slf4j
+@Service
+public class TaskGroupCoordinator {
+
+    private final TaskGroupMapper taskGroupMapper;
+
+    private final TaskGroupQueueMapper taskGroupQueueMapper;
+
+    private final TaskInstanceMapper taskInstanceMapper;
+
+    private final ProcessService processService;
+
+    private final WorkflowExecuteThreadPool workflowExecuteThreadPool;
+
+    /**
+     * taskGroupId -> waiting task instances of the task group on this master
+     */
+    private final Map<Integer, TaskGroupWaitQueue> taskGroupWaitQueues = new ConcurrentHashMap<>();
+
+    /**
+     * the task instances which have been granted a slot by the released one, but not yet dispatched
+     */
+    private final Set<Integer> grantedTaskInstanceIds = ConcurrentHashMap.newKeySet();
+
+    public TaskGroupCoordinator(TaskGroupMapper taskGroupMapper,
+                                TaskGroupQueueMapper taskGroupQueueMapper,
+                                TaskInstanceMapper taskInstanceMapper,
+                                ProcessService processService,
+                                @Lazy WorkflowExecuteThreadPool workflowExecuteThreadPool) {
+        this.taskGroupMapper = taskGroupMapper;
+        this.taskGroupQueueMapper = taskGroupQueueMapper;
+        this.taskInstanceMapper = taskInstanceMapper;
+        this.processService = processService;
+        this.workflowExecuteThreadPool = workflowExecuteThreadPool;
+    }
+
+    /**
+     * the first time (when submit the task) get the slot of the task group
+     *
+     * @return true if the task instance can be dispatched now, otherwise it will be woken up when a slot is released
+     */
+    public boolean acquireTaskGroup(@NonNull TaskInstance taskInstance) {
+        TaskGroup taskGroup = taskGroupMapper.selectById(taskInstance.getTaskGroupId());
+        if (taskGroup == null) {
+            // we don't throw exception here, to avoid the task group has been deleted during workflow running
+            return true;
+        }
+        // if task group is not applicable
+        if (taskGroup.getStatus() == Flag.NO.getCode()) {
+            return true;
+        }
+        // Create a waiting taskGroupQueue, after acquire resource, we can update the status to ACQUIRE_SUCCESS
+        TaskGroupQueue taskGroupQueue = taskGroupQueueMapper.queryByTaskId(taskInstance.getId());
+        if (taskGroupQueue == null) {
+            taskGroupQueue = processService.insertIntoTaskGroupQueue(
+                    taskInstance.getId(),
+                    taskInstance.getName(),
+                    taskInstance.getTaskGroupId(),
+                    taskInstance.getProcessInstanceId(),
+                    taskInstance.getTaskGroupPriority(),
+                    TaskGroupQueueStatus.WAIT_QUEUE);
+        } else {
+            log.info("The task queue is already exist, taskId: {}", taskInstance.getId());
+            if (taskGroupQueue.getStatus() == TaskGroupQueueStatus.ACQUIRE_SUCCESS) {
+                return true;
+            }
+            taskGroupQueue.setInQueue(Flag.NO.getCode());
+            taskGroupQueue.setStatus(TaskGroupQueueStatus.WAIT_QUEUE);
+            taskGroupQueueMapper.updateById(taskGroupQueue);
+        }
+
+        TaskGroupWaitQueue waitQueue =
+                taskGroupWaitQueues.computeIfAbsent(taskGroupQueue.getGroupId(), groupId -> new TaskGroupWaitQueue());
+        synchronized (waitQueue) {
+            // the task instance with higher priority is waiting on this master, queue up behind it
+            if (!waitQueue.hasHigherPriorityWaiter(taskGroupQueue.getPriority()) && tryAcquire(taskGroupQueue)) {
+                log.info("Success acquire taskGroup, taskInstanceId: {}, taskGroupId: {}", taskInstance.getId(),
+                        taskGroupQueue.getGroupId());
+                TaskMetrics.incTaskGroupAcquire("success");
+                return true;
+            }
+            waitQueue.add(TaskGroupWaiter.of(taskGroupQueue));
+        }
+        log.info("Failed to acquire taskGroup, taskInstanceId: {}, taskGroupId: {}", taskInstance.getId(),
+                taskGroupQueue.getGroupId());
+        TaskMetrics.incTaskGroupAcquire("wait");
+        return false;
+    }
+
+    /**
+     * Check if the waiting task instance can be dispatched when it is woken up.
+     *
+     * @return true if the task instance has been granted a slot or forced to start
+     */
+    public boolean wakeUp(int taskInstanceId) {
+        if (grantedTaskInstanceIds.remove(taskInstanceId)) {
+            // granted by the released slot on this master
+            return true;
+        }
+        TaskGroupQueue taskGroupQueue = taskGroupQueueMapper.queryByTaskId(taskInstanceId);
+        if (taskGroupQueue == null || taskGroupQueue.getStatus() != TaskGroupQueueStatus.WAIT_QUEUE) {
+            log.info("The taskGroupQueue is not waiting, will no need to wake up, taskInstanceId: {}",
+                    taskInstanceId);
+            return false;
+        }
+        TaskGroupWaitQueue waitQueue =
+                taskGroupWaitQueues.computeIfAbsent(taskGroupQueue.getGroupId(), groupId -> new TaskGroupWaitQueue());
+        synchronized (waitQueue) {
+            if (taskGroupQueue.getForceStart() == Flag.YES.getCode()) {
+                log.info("Begin to force start taskGroupQueue: {}", taskGroupQueue.getId());
+                waitQueue.remove(taskInstanceId);
+                taskGroupQueue.setStatus(TaskGroupQueueStatus.ACQUIRE_SUCCESS);
+                taskGroupQueue.setInQueue(Flag.NO.getCode());
+                taskGroupQueueMapper.updateById(taskGroupQueue);
+                TaskMetrics.incTaskGroupAcquire("force");
+                return true;
+            }
+            if (taskGroupQueue.getInQueue() == Flag.YES.getCode() && tryAcquire(taskGroupQueue)) {
+                // the slot is released by the other master
+                waitQueue.remove(taskInstanceId);
+                TaskMetrics.incTaskGroupAcquire("success");
+                return true;
+            }
+        }
+        log.info("Failed to wake up taskGroupQueue, taskGroupQueueId: {}", taskGroupQueue.getId());
+        return false;
+    }
+
+    /**
+     * release the slot when the corresponding task is finished, and grant it to the next waiting task instance.
+     */
+    public void releaseTaskGroup(@NonNull TaskInstance taskInstance) {
+        log.info("Begin to release task group: {}", taskInstance.getTaskGroupId());
+        grantedTaskInstanceIds.remove(taskInstance.getId());
+        TaskGroupQueue taskGroupQueue = taskGroupQueueMapper.queryByTaskId(taskInstance.getId());
+        if (taskGroupQueue == null || taskGroupQueue.getStatus() == TaskGroupQueueStatus.RELEASE) {
+            log.info("The taskGroupQueue's status is release, taskInstanceId: {}", taskInstance.getId());
+            return;
+        }
+        TaskGroupWaitQueue waitQueue = taskGroupWaitQueues.get(taskGroupQueue.getGroupId());
+        if (waitQueue != null) {
+            synchronized (waitQueue) {
+                waitQueue.remove(taskInstance.getId());
+            }
+        }
+        TaskGroupQueueStatus status = taskGroupQueue.getStatus();
+        if (status == TaskGroupQueueStatus.ACQUIRE_SUCCESS && taskGroupQueue.getForceStart() == Flag.NO.getCode()) {
+            taskGroupMapper.releaseTaskGroupResource(taskGroupQueue.getGroupId(), taskGroupQueue.getId(),
+                    TaskGroupQueueStatus.ACQUIRE_SUCCESS.getCode());
+        }
+        taskGroupQueue.setStatus(TaskGroupQueueStatus.RELEASE);
+        taskGroupQueue.setInQueue(Flag.NO.getCode());
+        taskGroupQueue.setUpdateTime(new Date());
+        taskGroupQueueMapper.updateById(taskGroupQueue);
+        log.info("Finished to release task group, taskGroupId: {}", taskInstance.getTaskGroupId());
+
+        if (status == TaskGroupQueueStatus.ACQUIRE_SUCCESS) {
+            grantNextWaiter(taskGroupQueue.getGroupId());
+        }
+    }
+
+    /**
+     * release all the slots and waiting task instances of the finished workflow instance
+     */
+    public void releaseAllTaskGroup(int processInstanceId) {
+        List<TaskInstance> taskInstances = taskInstanceMapper.loadAllInfosNoRelease(processInstanceId,
+                TaskGroupQueueStatus.ACQUIRE_SUCCESS.getCode());
+        for (TaskInstance taskInstance : taskInstances) {
+            releaseTaskGroup(taskInstance);
+        }
+        for (TaskGroupWaitQueue waitQueue : taskGroupWaitQueues.values()) {
+            synchronized (waitQueue) {
+                waitQueue.removeByProcessInstanceId(processInstanceId);
+            }
+        }
+    }
+
+    int getWaitingCount(int taskGroupId) {
+        TaskGroupWaitQueue waitQueue = taskGroupWaitQueues.get(taskGroupId);
+        return waitQueue == null ? 0 : waitQueue.size();
+    }
+
+    private void grantNextWaiter(int taskGroupId) {
+        TaskGroupWaitQueue waitQueue = taskGroupWaitQueues.get(taskGroupId);
+        TaskGroupWaiter granted = null;
+        if (waitQueue != null) {
+            synchronized (waitQueue) {
+                TaskGroupWaiter waiter = waitQueue.peek();
+                if (waiter != null) {
+                    TaskGroupQueue taskGroupQueue = taskGroupQueueMapper.queryByTaskId(waiter.getTaskInstanceId());
+                    if (taskGroupQueue == null || taskGroupQueue.getStatus() != TaskGroupQueueStatus.WAIT_QUEUE) {
+                        // the waiter is released or forced to start by others
+                        waitQueue.remove(waiter.getTaskInstanceId());
+                    } else if (tryAcquire(taskGroupQueue)) {
+                        waitQueue.remove(waiter.getTaskInstanceId());
+                        granted = waiter;
+                    } else {
+                        // the slot is taken by the other master, the waiter will be woken up by the next release
+                        return;
+                    }
+                }
+            }
+        }
+        if (granted != null) {
+            grantedTaskInstanceIds.add(granted.getTaskInstanceId());
+            TaskStateEvent wakeUpEvent = TaskStateEvent.builder()
+                    .processInstanceId(granted.getProcessInstanceId())
+                    .taskInstanceId(granted.getTaskInstanceId())
+                    .type(StateEventType.WAKE_UP_TASK_GROUP)
+                    .build();
+            workflowExecuteThreadPool.submitStateEvent(wakeUpEvent);
+            log.info("Granted task group slot to taskInstanceId: {}, taskGroupId: {}", granted.getTaskInstanceId(),
+                    taskGroupId);
+            return;
+        }
+        if (waitQueue != null && waitQueue.size() > 0) {
+            // the head waiter has been removed, try the next one
+            grantNextWaiter(taskGroupId);
+            return;
+        }
+        wakeUpRemoteWaiter(taskGroupId);
+    }
+
+    /**
+     * No task instance is waiting on this master, offer the slot to the highest priority one on the other masters.
+     */
+    private void wakeUpRemoteWaiter(int taskGroupId) {
+        TaskGroupQueue taskGroupQueue = taskGroupQueueMapper.queryTheHighestPriorityTasks(taskGroupId,
+                TaskGroupQueueStatus.WAIT_QUEUE.getCode(),
+                Flag.NO.getCode(),
+                Flag.NO.getCode());
+        if (taskGroupQueue == null) {
+            log.info("The taskGroupQueue is null, taskGroup: {}", taskGroupId);
+            return;
+        }
+        if (taskGroupQueueMapper.updateInQueueCAS(Flag.NO.getCode(), Flag.YES.getCode(),
+                taskGroupQueue.getId()) != 1) {
+            // the waiter has been offered by others
+            return;
+        }
+        ProcessInstance processInstance = processService.findProcessInstanceById(taskGroupQueue.getProcessId());
+        if (processInstance == null) {
+            log.warn("Cannot find the workflow instance of the taskGroupQueue: {}", taskGroupQueue.getId());
+            return;
+        }
+        processService.sendStartTask2Master(processInstance, taskGroupQueue.getTaskId(),
+                CommandType.TASK_WAKEUP_EVENT_REQUEST);
+        log.info("Finished to release task group queue: taskGroupId: {}, taskGroupQueueId: {}",
+                taskGroupId, taskGroupQueue.getId());
+    }
+
+    private boolean tryAcquire(TaskGroupQueue taskGroupQueue) {
+        int affectedCount = taskGroupMapper.acquireTaskGroupResource(taskGroupQueue.getGroupId(),
+                taskGroupQueue.getId(), TaskGroupQueueStatus.WAIT_QUEUE.getCode());
+        if (affectedCount != 1) {
+            log.info("The current task Group is full, taskGroupId: {}", taskGroupQueue.getGroupId());
+            return false;
+        }
+        taskGroupQueue.setStatus(TaskGroupQueueStatus.ACQUIRE_SUCCESS);
+        taskGroupQueue.setInQueue(Flag.NO.getCode());
+        taskGroupQueue.setUpdateTime(new Date());
+        taskGroupQueueMapper.updateById(taskGroupQueue);
+        return true;
+    }
+
+    /**
+     * The waiting task instances of one task group, ordered by priority desc and then by queue order.
+     */
+    static class TaskGroupWaitQueue {
+
+        private final TreeSet<TaskGroupWaiter> waiters = new TreeSet<>(
+                Comparator.comparingInt(TaskGroupWaiter::getPriority).reversed()
+                        .thenComparingInt(TaskGroupWaiter::getQueueId));
+
+        private final Map<Integer, TaskGroupWaiter> waiterIndex = new HashMap<>();
+
+        void add(TaskGroupWaiter waiter) {
+            remove(waiter.getTaskInstanceId());
+            waiters.add(waiter);
+            waiterIndex.put(waiter.getTaskInstanceId(), waiter);
+        }
+
+        void remove(int taskInstanceId) {
+            TaskGroupWaiter waiter = waiterIndex.remove(taskInstanceId);
+            if (waiter != null) {
+                waiters.remove(waiter);
+            }
+        }
+
+        void removeByProcessInstanceId(int processInstanceId) {
+            waiters.removeIf(waiter -> waiter.getProcessInstanceId() == processInstanceId);
+            waiterIndex.values().removeIf(waiter -> waiter.getProcessInstanceId() == processInstanceId);
+        }
+
+        TaskGroupWaiter peek() {
+            return waiters.isEmpty() ? null : waiters.first();
+        }
+
+        boolean hasHigherPriorityWaiter(int priority) {
+            return !waiters.isEmpty() && waiters.first().getPriority() > priority;
+        }
+
+        int size() {
+            return waiters.size();
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class TaskGroupWaiter {
+
+        private final int queueId;
+
+        private final int taskInstanceId;
+
+        private final int processInstanceId;
+
+        private final int priority;
+
+        static TaskGroupWaiter of(TaskGroupQueue taskGroupQueue) {
+            return new TaskGroupWaiter(taskGroupQueue.getId(), taskGroupQueue.getTaskId(),
+                    taskGroupQueue.getProcessId(), taskGroupQueue.getPriority());
+        }
+    }
+}
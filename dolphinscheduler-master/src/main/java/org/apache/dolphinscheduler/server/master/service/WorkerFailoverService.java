@@ -34,6 +34,7 @@ import org.apache.dolphinscheduler.server.master.cache.ProcessInstanceExecCacheM
 import org.apache.dolphinscheduler.server.master.config.MasterConfig;
 import org.apache.dolphinscheduler.server.master.event.TaskStateEvent;
 import org.apache.dolphinscheduler.server.master.metrics.TaskMetrics;
+import org.apache.dolphinscheduler.server.master.persistence.StateTransitionPersistService;
 import org.apache.dolphinscheduler.server.master.runner.WorkflowExecuteRunnable;
 import org.apache.dolphinscheduler.server.master.runner.WorkflowExecuteThreadPool;
 import org.apache.dolphinscheduler.server.master.runner.task.TaskProcessorFactory;
@@ -74,13 +75,16 @@ public class WorkerFailoverService {
 
     private final TaskInstanceDao taskInstanceDao;
 
+    private final StateTransitionPersistService statePersistService;
+
     public WorkerFailoverService(@NonNull RegistryClient registryClient,
                                  @NonNull MasterConfig masterConfig,
                                  @NonNull ProcessService processService,
                                  @NonNull WorkflowExecuteThreadPool workflowExecuteThreadPool,
                                  @NonNull ProcessInstanceExecCacheManager cacheManager,
                                  @NonNull LogClient logClient,
-                                 @NonNull TaskInstanceDao taskInstanceDao) {
+                                 @NonNull TaskInstanceDao taskInstanceDao,
+                                 @NonNull StateTransitionPersistService statePersistService) {
         this.registryClient = registryClient;
         this.masterConfig = masterConfig;
         this.processService = processService;
@@ -89,6 +93,7 @@ public class WorkerFailoverService {
         this.logClient = logClient;
         this.localAddress = masterConfig.getMasterAddress();
         this.taskInstanceDao = taskInstanceDao;
+        this.statePersistService = statePersistService;
     }
 
     /**
@@ -102,10 +107,13 @@ public class WorkerFailoverService {
     public void failoverWorker(@NonNull String workerHost) {
         log.info("Worker[{}] failover starting", workerHost);
         final StopWatch failoverTimeCost = StopWatch.createStarted();
+        // the task instance states in the write-behind journal should be written before query from DB
+        statePersistService.awaitPersisted();
 
         // we query the task instance from cache, so that we can directly update the cache
+        // read the registry directly, the cached servers may not apply the remove event of the worker yet
         final Optional<Date> needFailoverWorkerStartTime =
-                getServerStartupTime(registryClient.getServerList(NodeType.WORKER), workerHost);
+                getServerStartupTime(registryClient.getServerListDirectly(NodeType.WORKER), workerHost);
 
         final List<TaskInstance> needFailoverTaskInstanceList = getNeedFailoverTaskInstance(workerHost);
         if (CollectionUtils.isEmpty(needFailoverTaskInstanceList)) {
@@ -186,7 +194,8 @@ public class WorkerFailoverService {
 
         taskInstance.setState(TaskExecutionStatus.NEED_FAULT_TOLERANCE);
         taskInstance.setFlag(Flag.NO);
-        taskInstanceDao.upsertTaskInstance(taskInstance);
+        // the failover state supersedes the state transitions of the task instance in the journal
+        statePersistService.persistTaskInstance(taskInstance);
 
         TaskStateEvent stateEvent = TaskStateEvent.builder()
                 .processInstanceId(processInstance.getId())
@@ -61,6 +61,7 @@ public class MasterHeartBeatTask extends BaseHeartBeatTask<MasterHeartBeat> {
                 .memoryUsage(OSUtils.memoryUsage())
                 .diskAvailable(OSUtils.diskAvailable())
                 .processId(processId)
+                .masterHostWeight(masterConfig.getHostWeight())
                 .build();
     }
 
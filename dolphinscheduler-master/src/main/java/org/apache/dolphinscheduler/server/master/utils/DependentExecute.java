@@ -17,18 +17,15 @@
 
 package org.apache.dolphinscheduler.server.master.utils;
 
-import org.apache.dolphinscheduler.common.constants.Constants;
-import org.apache.dolphinscheduler.dao.entity.ProcessInstance;
-import org.apache.dolphinscheduler.dao.entity.TaskInstance;
-import org.apache.dolphinscheduler.dao.repository.TaskInstanceDao;
 import org.apache.dolphinscheduler.plugin.task.api.enums.DependResult;
 import org.apache.dolphinscheduler.plugin.task.api.enums.DependentRelation;
-import org.apache.dolphinscheduler.plugin.task.api.enums.TaskExecutionStatus;
 import org.apache.dolphinscheduler.plugin.task.api.model.DateInterval;
 import org.apache.dolphinscheduler.plugin.task.api.model.DependentItem;
 import org.apache.dolphinscheduler.plugin.task.api.utils.DependentUtils;
+import org.apache.dolphinscheduler.server.master.service.DependentResolveService;
+import org.apache.dolphinscheduler.server.master.service.DependentResolveService.DependentKey;
+import org.apache.dolphinscheduler.server.master.service.DependentResolveService.DependentSubscriber;
 import org.apache.dolphinscheduler.service.bean.SpringApplicationContext;
-import org.apache.dolphinscheduler.service.process.ProcessService;
 
 import java.util.ArrayList;
 import java.util.Date;
@@ -41,12 +38,8 @@ import java.util.Map;
  */
 public class DependentExecute {
 
-    /**
-     * process service
-     */
-    private final ProcessService processService = SpringApplicationContext.getBean(ProcessService.class);
-
-    private final TaskInstanceDao taskInstanceDao = SpringApplicationContext.getBean(TaskInstanceDao.class);
+    private final DependentResolveService dependentResolveService =
+            SpringApplicationContext.getBean(DependentResolveService.class);
 
     /**
      * depend item list
@@ -68,15 +61,23 @@ public class DependentExecute {
      */
     private Map<String, DependResult> dependResultMap = new HashMap<>();
 
+    /**
+     * the dependent task which will be notified when the waiting item changed
+     */
+    private DependentSubscriber subscriber;
+
     /**
      * constructor
      *
-     * @param itemList item list
-     * @param relation relation
+     * @param itemList   item list
+     * @param relation   relation
+     * @param subscriber subscriber
      */
-    public DependentExecute(List<DependentItem> itemList, DependentRelation relation) {
+    public DependentExecute(List<DependentItem> itemList, DependentRelation relation,
+                            DependentSubscriber subscriber) {
         this.dependItemList = itemList;
         this.relation = relation;
+        this.subscriber = subscriber;
     }
 
     /**
@@ -105,17 +106,9 @@ public class DependentExecute {
 
         DependResult result = DependResult.FAILED;
         for (DateInterval dateInterval : dateIntervals) {
-            ProcessInstance processInstance = findLastProcessInterval(dependentItem.getDefinitionCode(),
-                    dateInterval, testFlag);
-            if (processInstance == null) {
-                return DependResult.WAITING;
-            }
-            // need to check workflow for updates, so get all task and check the task state
-            if (dependentItem.getDepTaskCode() == Constants.DEPENDENT_ALL_TASK_CODE) {
-                result = dependResultByProcessInstance(processInstance);
-            } else {
-                result = getDependTaskResult(dependentItem.getDepTaskCode(), processInstance, testFlag);
-            }
+            DependentKey dependentKey = new DependentKey(dependentItem.getDefinitionCode(),
+                    dependentItem.getDepTaskCode(), dateInterval, testFlag);
+            result = dependentResolveService.resolve(dependentKey, subscriber);
             if (result != DependResult.SUCCESS) {
                 break;
             }
@@ -123,101 +116,6 @@ public class DependentExecute {
         return result;
     }
 
-    /**
-     * depend type = depend_all
-     *
-     * @return
-     */
-    private DependResult dependResultByProcessInstance(ProcessInstance processInstance) {
-        if (!processInstance.getState().isFinished()) {
-            return DependResult.WAITING;
-        }
-        if (processInstance.getState().isSuccess()) {
-            return DependResult.SUCCESS;
-        }
-        return DependResult.FAILED;
-    }
-
-    /**
-     * get depend task result
-     *
-     * @param taskCode
-     * @param processInstance
-     * @return
-     */
-    private DependResult getDependTaskResult(long taskCode, ProcessInstance processInstance, int testFlag) {
-        DependResult result;
-        TaskInstance taskInstance = null;
-        List<TaskInstance> taskInstanceList =
-                taskInstanceDao.findValidTaskListByProcessId(processInstance.getId(), testFlag);
-
-        for (TaskInstance task : taskInstanceList) {
-            if (task.getTaskCode() == taskCode) {
-                taskInstance = task;
-                break;
-            }
-        }
-
-        if (taskInstance == null) {
-            // cannot find task in the process instance
-            // maybe because process instance is running or failed.
-            if (processInstance.getState().isFinished()) {
-                result = DependResult.FAILED;
-            } else {
-                return DependResult.WAITING;
-            }
-        } else {
-            result = getDependResultByState(taskInstance.getState());
-        }
-
-        return result;
-    }
-
-    /**
-     * find the last one process instance that :
-     * 1. manual run and finish between the interval
-     * 2. schedule run and schedule time between the interval
-     *
-     * @param definitionCode definition code
-     * @param dateInterval   date interval
-     * @return ProcessInstance
-     */
-    private ProcessInstance findLastProcessInterval(Long definitionCode, DateInterval dateInterval, int testFlag) {
-
-        ProcessInstance lastSchedulerProcess =
-                processService.findLastSchedulerProcessInterval(definitionCode, dateInterval, testFlag);
-
-        ProcessInstance lastManualProcess =
-                processService.findLastManualProcessInterval(definitionCode, dateInterval, testFlag);
-
-        if (lastManualProcess == null) {
-            return lastSchedulerProcess;
-        }
-        if (lastSchedulerProcess == null) {
-            return lastManualProcess;
-        }
-
-        // In the time range, there are both manual and scheduled workflow instances, return the last workflow instance
-        return lastManualProcess.getId() > lastSchedulerProcess.getId() ? lastManualProcess : lastSchedulerProcess;
-    }
-
-    /**
-     * get dependent result by task/process instance state
-     *
-     * @param state state
-     * @return DependResult
-     */
-    private DependResult getDependResultByState(TaskExecutionStatus state) {
-
-        if (!state.isFinished()) {
-            return DependResult.WAITING;
-        } else if (state.isSuccess()) {
-            return DependResult.SUCCESS;
-        } else {
-            return DependResult.FAILED;
-        }
-    }
-
     /**
      * judge depend item finished
      *
@@ -227,9 +125,8 @@ public class DependentExecute {
     public boolean finish(Date currentTime, int testFlag) {
         if (modelDependResult == DependResult.WAITING) {
             modelDependResult = getModelDependResult(currentTime, testFlag);
-            return false;
         }
-        return true;
+        return modelDependResult != DependResult.WAITING;
     }
 
     /**
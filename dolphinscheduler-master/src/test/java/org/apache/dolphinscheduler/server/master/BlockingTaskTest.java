@@ -35,6 +35,7 @@ import org.apache.dolphinscheduler.plugin.task.api.model.DependentTaskModel;
 import org.apache.dolphinscheduler.plugin.task.api.parameters.BlockingParameters;
 import org.apache.dolphinscheduler.plugin.task.api.parameters.DependentParameters;
 import org.apache.dolphinscheduler.server.master.config.MasterConfig;
+import org.apache.dolphinscheduler.server.master.persistence.StateTransitionPersistService;
 import org.apache.dolphinscheduler.server.master.runner.task.BlockingTaskProcessor;
 import org.apache.dolphinscheduler.server.master.runner.task.TaskAction;
 import org.apache.dolphinscheduler.service.bean.SpringApplicationContext;
@@ -90,6 +91,8 @@ public class BlockingTaskTest {
 
         taskInstanceDao = Mockito.mock(TaskInstanceDao.class);
         Mockito.when(SpringApplicationContext.getBean(TaskInstanceDao.class)).thenReturn(taskInstanceDao);
+        Mockito.when(SpringApplicationContext.getBean(StateTransitionPersistService.class))
+                .thenReturn(Mockito.mock(StateTransitionPersistService.class));
 
         taskDefinitionDao = Mockito.mock(TaskDefinitionDao.class);
         Mockito.when(SpringApplicationContext.getBean(TaskDefinitionDao.class)).thenReturn(taskDefinitionDao);
@@ -33,6 +33,7 @@ import org.apache.dolphinscheduler.plugin.task.api.model.DependentTaskModel;
 import org.apache.dolphinscheduler.plugin.task.api.parameters.ConditionsParameters;
 import org.apache.dolphinscheduler.plugin.task.api.parameters.DependentParameters;
 import org.apache.dolphinscheduler.server.master.config.MasterConfig;
+import org.apache.dolphinscheduler.server.master.persistence.StateTransitionPersistService;
 import org.apache.dolphinscheduler.service.bean.SpringApplicationContext;
 import org.apache.dolphinscheduler.service.model.TaskNode;
 import org.apache.dolphinscheduler.service.process.ProcessService;
@@ -83,6 +84,8 @@ public class ConditionsTaskTest {
 
         taskInstanceDao = Mockito.mock(TaskInstanceDao.class);
         Mockito.when(applicationContext.getBean(TaskInstanceDao.class)).thenReturn(taskInstanceDao);
+        Mockito.when(applicationContext.getBean(StateTransitionPersistService.class))
+                .thenReturn(Mockito.mock(StateTransitionPersistService.class));
 
         taskDefinitionDao = Mockito.mock(TaskDefinitionDao.class);
         Mockito.when(SpringApplicationContext.getBean(TaskDefinitionDao.class)).thenReturn(taskDefinitionDao);
@@ -34,6 +34,8 @@ import org.apache.dolphinscheduler.plugin.task.api.model.DependentItem;
 import org.apache.dolphinscheduler.plugin.task.api.model.DependentTaskModel;
 import org.apache.dolphinscheduler.plugin.task.api.parameters.DependentParameters;
 import org.apache.dolphinscheduler.server.master.config.MasterConfig;
+import org.apache.dolphinscheduler.server.master.persistence.StateTransitionPersistService;
+import org.apache.dolphinscheduler.server.master.service.DependentResolveService;
 import org.apache.dolphinscheduler.service.bean.SpringApplicationContext;
 import org.apache.dolphinscheduler.service.model.TaskNode;
 import org.apache.dolphinscheduler.service.process.ProcessService;
@@ -103,6 +105,10 @@ public class DependentTaskTest {
 
         taskInstanceDao = Mockito.mock(TaskInstanceDao.class);
         Mockito.when(applicationContext.getBean(TaskInstanceDao.class)).thenReturn(taskInstanceDao);
+        Mockito.when(applicationContext.getBean(StateTransitionPersistService.class))
+                .thenReturn(Mockito.mock(StateTransitionPersistService.class));
+        Mockito.when(applicationContext.getBean(DependentResolveService.class))
+                .thenReturn(Mockito.mock(DependentResolveService.class));
 
         taskDefinitionDao = Mockito.mock(TaskDefinitionDao.class);
         Mockito.when(SpringApplicationContext.getBean(TaskDefinitionDao.class)).thenReturn(taskDefinitionDao);
@@ -160,12 +166,12 @@ public class DependentTaskTest {
         testBasicInit();
         ProcessInstance dependentProcessInstance =
                 getProcessInstanceForFindLastRunningProcess(200, WorkflowExecutionStatus.FAILURE);
-        // for DependentExecute.findLastProcessInterval
+        // for DependentResolveService.findLastProcessInterval
         Mockito.when(processService
                 .findLastRunningProcess(Mockito.eq(2L), Mockito.any(), Mockito.any(), Mockito.anyInt()))
                 .thenReturn(dependentProcessInstance);
 
-        // for DependentExecute.getDependTaskResult
+        // for DependentResolveService.getDependTaskResult
         Mockito.when(taskInstanceDao
                 .findValidTaskListByProcessId(200, 0))
                 .thenReturn(Stream.of(
@@ -182,12 +188,12 @@ public class DependentTaskTest {
         testBasicInit();
         ProcessInstance dependentProcessInstance =
                 getProcessInstanceForFindLastRunningProcess(200, WorkflowExecutionStatus.SUCCESS);
-        // for DependentExecute.findLastProcessInterval
+        // for DependentResolveService.findLastProcessInterval
         Mockito.when(processService
                 .findLastRunningProcess(Mockito.eq(2L), Mockito.any(), Mockito.any(), Mockito.anyInt()))
                 .thenReturn(dependentProcessInstance);
 
-        // for DependentExecute.getDependTaskResult
+        // for DependentResolveService.getDependTaskResult
         Mockito.when(taskInstanceDao
                 .findValidTaskListByProcessId(200, 0))
                 .thenReturn(Stream.of(
@@ -230,7 +236,7 @@ public class DependentTaskTest {
         ProcessInstance processInstance300 =
                 getProcessInstanceForFindLastRunningProcess(300, WorkflowExecutionStatus.SUCCESS);
 
-        // for DependentExecute.findLastProcessInterval
+        // for DependentResolveService.findLastProcessInterval
         Mockito.when(processService
                 .findLastRunningProcess(Mockito.eq(2L), Mockito.any(), Mockito.any(), Mockito.anyInt()))
                 .thenReturn(processInstance200);
@@ -238,7 +244,7 @@ public class DependentTaskTest {
                 .findLastRunningProcess(Mockito.eq(3L), Mockito.any(), Mockito.any(), Mockito.anyInt()))
                 .thenReturn(processInstance300);
 
-        // for DependentExecute.getDependTaskResult
+        // for DependentResolveService.getDependTaskResult
         Mockito.when(taskInstanceDao
                 .findValidTaskListByProcessId(200, 0))
                 .thenReturn(Stream.of(
@@ -280,7 +286,7 @@ public class DependentTaskTest {
     @Test
     public void testDependentOnAllSuccess() {
         testDependentOnAllInit();
-        // for DependentExecute.findLastProcessInterval
+        // for DependentResolveService.findLastProcessInterval
         Mockito.when(processService
                 .findLastRunningProcess(Mockito.eq(2L), Mockito.any(), Mockito.any(), Mockito.anyInt()))
                 .thenReturn(getProcessInstanceForFindLastRunningProcess(200, WorkflowExecutionStatus.SUCCESS));
@@ -290,7 +296,7 @@ public class DependentTaskTest {
     @Test
     public void testDependentOnAllFailure() {
         testDependentOnAllInit();
-        // for DependentExecute.findLastProcessInterval
+        // for DependentResolveService.findLastProcessInterval
         Mockito.when(processService
                 .findLastRunningProcess(Mockito.eq(2L), Mockito.any(), Mockito.any(), Mockito.anyInt()))
                 .thenReturn(getProcessInstanceForFindLastRunningProcess(200, WorkflowExecutionStatus.FAILURE));
@@ -324,14 +330,14 @@ public class DependentTaskTest {
 
         ProcessInstance dependentProcessInstance =
                 getProcessInstanceForFindLastRunningProcess(200, WorkflowExecutionStatus.RUNNING_EXECUTION);
-        // for DependentExecute.findLastProcessInterval
+        // for DependentResolveService.findLastProcessInterval
         Mockito.when(processService
                 .findLastRunningProcess(Mockito.eq(2L), Mockito.any(), Mockito.any(), Mockito.anyInt()))
                 .thenReturn(dependentProcessInstance);
 
         // DependentTaskExecThread taskExecThread = new DependentTaskExecThread(taskInstance);
 
-        // for DependentExecute.getDependTaskResult
+        // for DependentResolveService.getDependTaskResult
         Mockito.when(taskInstanceDao
                 .findValidTaskListByProcessId(200, 0))
                 .thenAnswer(i -> {
@@ -30,6 +30,7 @@ import org.apache.dolphinscheduler.plugin.task.api.enums.TaskExecutionStatus;
 import org.apache.dolphinscheduler.plugin.task.api.enums.TaskTimeoutStrategy;
 import org.apache.dolphinscheduler.plugin.task.api.model.Property;
 import org.apache.dolphinscheduler.server.master.config.MasterConfig;
+import org.apache.dolphinscheduler.server.master.persistence.StateTransitionPersistService;
 import org.apache.dolphinscheduler.server.master.runner.task.SubTaskProcessor;
 import org.apache.dolphinscheduler.server.master.runner.task.TaskAction;
 import org.apache.dolphinscheduler.service.bean.SpringApplicationContext;
@@ -77,6 +78,8 @@ public class SubProcessTaskTest {
 
         taskInstanceDao = Mockito.mock(TaskInstanceDao.class);
         Mockito.when(SpringApplicationContext.getBean(TaskInstanceDao.class)).thenReturn(taskInstanceDao);
+        Mockito.when(SpringApplicationContext.getBean(StateTransitionPersistService.class))
+                .thenReturn(Mockito.mock(StateTransitionPersistService.class));
 
         mockedStaticServerLifeCycleManager = Mockito.mockStatic(ServerLifeCycleManager.class);
         Mockito.when(ServerLifeCycleManager.isStopped()).thenReturn(false);
@@ -17,10 +17,18 @@
 
 package org.apache.dolphinscheduler.server.master.config;
 
+import org.apache.dolphinscheduler.remote.command.CommandType;
+import org.apache.dolphinscheduler.remote.config.NettyClientConfig;
+
+import java.time.Duration;
+import java.util.Collections;
+
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
@@ -38,4 +46,21 @@ public class MasterConfigTest {
         int masterDispatchTaskNumber = masterConfig.getDispatchTaskNumber();
         Assertions.assertEquals(3, masterDispatchTaskNumber);
     }
+
+    @Test
+    public void getRpcRequestTimeout() {
+        MasterConfig boundMasterConfig = new Binder(new MapConfigurationPropertySource(
+                Collections.singletonMap("master.rpc-request-timeout.TASK_KILL_REQUEST", "5s")))
+                        .bind("master", MasterConfig.class).get();
+        Assertions.assertEquals(Duration.ofSeconds(5),
+                boundMasterConfig.getRpcRequestTimeout().get(CommandType.TASK_KILL_REQUEST));
+
+        NettyClientConfig clientConfig = NettyClientConfig.builder()
+                .requestTimeoutMillis(
+                        NettyClientConfig.requestTimeoutMillisOf(boundMasterConfig.getRpcRequestTimeout()))
+                .build();
+        Assertions.assertEquals(5000L, clientConfig.requestTimeoutOf(CommandType.TASK_KILL_REQUEST, 0));
+        // the command types not configured use the timeout of the caller
+        Assertions.assertEquals(1000L, clientConfig.requestTimeoutOf(CommandType.TASK_DISPATCH_REQUEST, 1000L));
+    }
 }
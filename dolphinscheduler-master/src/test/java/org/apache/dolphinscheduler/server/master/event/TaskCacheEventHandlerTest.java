@@ -24,6 +24,7 @@ import org.apache.dolphinscheduler.dao.entity.ProcessInstance;
 import org.apache.dolphinscheduler.dao.entity.TaskInstance;
 import org.apache.dolphinscheduler.dao.repository.TaskInstanceDao;
 import org.apache.dolphinscheduler.server.master.cache.ProcessInstanceExecCacheManager;
+import org.apache.dolphinscheduler.server.master.persistence.StateTransitionPersistService;
 import org.apache.dolphinscheduler.server.master.processor.queue.TaskEvent;
 import org.apache.dolphinscheduler.server.master.runner.WorkflowExecuteRunnable;
 import org.apache.dolphinscheduler.server.master.runner.WorkflowExecuteThreadPool;
@@ -63,6 +64,9 @@ class TaskCacheEventHandlerTest {
     @Mock
     private TaskInstanceDao taskInstanceDao;
 
+    @Mock
+    private StateTransitionPersistService statePersistService;
+
     @Test
     void testHandleTaskEvent() {
         TaskEvent taskEvent = Mockito.mock(TaskEvent.class);
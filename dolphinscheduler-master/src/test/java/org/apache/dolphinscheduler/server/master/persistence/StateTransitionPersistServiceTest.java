@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.master.persistence;
+
+import org.apache.dolphinscheduler.common.enums.WorkflowExecutionStatus;
+import org.apache.dolphinscheduler.dao.entity.ProcessInstance;
+import org.apache.dolphinscheduler.dao.entity.TaskInstance;
+import org.apache.dolphinscheduler.dao.repository.ProcessInstanceDao;
+import org.apache.dolphinscheduler.dao.repository.TaskInstanceDao;
+import org.apache.dolphinscheduler.plugin.task.api.enums.TaskExecutionStatus;
+import org.apache.dolphinscheduler.server.master.config.MasterConfig;
+import org.apache.dolphinscheduler.server.master.service.InstanceStateRollupService;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class StateTransitionPersistServiceTest {
+
+    @InjectMocks
+    private StateTransitionPersistService statePersistService;
+
+    @Mock
+    private TaskInstanceDao taskInstanceDao;
+
+    @Mock
+    private ProcessInstanceDao processInstanceDao;
+
+    @Mock
+    private MasterConfig masterConfig;
+
+    @Mock
+    private InstanceStateRollupService instanceStateRollupService;
+
+    @BeforeEach
+    void before() {
+        Mockito.lenient().when(masterConfig.getStatePersistBatchSize()).thenReturn(2);
+    }
+
+    @Test
+    void testJournalCoalesceAndKeepOrder() {
+        StateTransitionJournal<String> journal = new StateTransitionJournal<>();
+        CompletableFuture<Boolean> first = journal.append(1, "1-submit");
+        journal.append(2, "2-submit");
+        CompletableFuture<Boolean> coalesced = journal.append(1, "1-running");
+        Assertions.assertSame(first, coalesced);
+        Assertions.assertEquals(2, journal.size());
+
+        List<StateTransitionJournal.Transition<String>> transitions = journal.drain(10);
+        Assertions.assertEquals(2, transitions.size());
+        Assertions.assertEquals(1, transitions.get(0).getId());
+        Assertions.assertEquals("1-running", transitions.get(0).getSnapshot());
+        Assertions.assertEquals(1, transitions.get(0).getCoalescedTimes());
+        Assertions.assertEquals("2-submit", transitions.get(1).getSnapshot());
+        Assertions.assertTrue(journal.isEmpty());
+    }
+
+    @Test
+    void testJournalBarrierWaitInflightTransitions() {
+        StateTransitionJournal<String> journal = new StateTransitionJournal<>();
+        Assertions.assertTrue(journal.barrier().isDone());
+
+        journal.append(1, "1-running");
+        List<StateTransitionJournal.Transition<String>> transitions = journal.drain(10);
+        CompletableFuture<Void> barrier = journal.barrier();
+        Assertions.assertFalse(barrier.isDone());
+
+        transitions.get(0).getFuture().complete(true);
+        Assertions.assertTrue(barrier.isDone());
+    }
+
+    @Test
+    void testJournalRequeueBeforeLaterTransitions() {
+        StateTransitionJournal<String> journal = new StateTransitionJournal<>();
+        journal.append(1, "1-submit");
+        journal.append(2, "2-submit");
+        List<StateTransitionJournal.Transition<String>> failedTransitions = journal.drain(10);
+        CompletableFuture<Boolean> later = journal.append(1, "1-running");
+        journal.append(3, "3-submit");
+
+        journal.requeue(failedTransitions);
+        List<StateTransitionJournal.Transition<String>> transitions = journal.drain(10);
+        Assertions.assertEquals(3, transitions.size());
+        // the requeued transition takes the later snapshot
+        Assertions.assertEquals("1-running", transitions.get(0).getSnapshot());
+        Assertions.assertEquals("2-submit", transitions.get(1).getSnapshot());
+        Assertions.assertEquals("3-submit", transitions.get(2).getSnapshot());
+
+        transitions.get(0).getFuture().complete(true);
+        Assertions.assertTrue(later.join());
+    }
+
+    @Test
+    void testRetryFailedBatch() {
+        Mockito.when(processInstanceDao.batchUpdateProcessInstance(Mockito.anyList()))
+                .thenThrow(new IllegalStateException("db error"))
+                .thenAnswer(invocation -> new boolean[]{true});
+        ReflectionTestUtils.setField(statePersistService, "running", true);
+        ProcessInstance processInstance = new ProcessInstance();
+        processInstance.setId(1);
+        processInstance.setState(WorkflowExecutionStatus.SUCCESS);
+
+        CompletableFuture<Boolean> future = statePersistService.persistProcessInstance(processInstance);
+        statePersistService.awaitPersisted();
+        // the failed batch is requeued and written by the next flush
+        Assertions.assertFalse(future.isDone());
+        statePersistService.awaitPersisted();
+        Assertions.assertTrue(future.join());
+        Mockito.verify(processInstanceDao, Mockito.times(2)).batchUpdateProcessInstance(Mockito.anyList());
+    }
+
+    @Test
+    void testGiveUpAfterMaxRetryTimes() {
+        Mockito.when(processInstanceDao.batchUpdateProcessInstance(Mockito.anyList()))
+                .thenThrow(new IllegalStateException("db error"));
+        ReflectionTestUtils.setField(statePersistService, "running", true);
+        ProcessInstance processInstance = new ProcessInstance();
+        processInstance.setId(1);
+
+        CompletableFuture<Boolean> future = statePersistService.persistProcessInstance(processInstance);
+        for (int i = 0; i <= StateTransitionPersistService.MAX_RETRY_TIMES; i++) {
+            Assertions.assertFalse(future.isDone());
+            statePersistService.awaitPersisted();
+        }
+        Assertions.assertFalse(future.join());
+        Mockito.verify(processInstanceDao, Mockito.times(StateTransitionPersistService.MAX_RETRY_TIMES + 1))
+                .batchUpdateProcessInstance(Mockito.anyList());
+    }
+
+    @Test
+    void testPersistTaskInstanceBySnapshot() {
+        Mockito.when(taskInstanceDao.batchUpdateTaskInstance(Mockito.anyList()))
+                .thenAnswer(invocation -> new boolean[]{true});
+        TaskInstance taskInstance = new TaskInstance();
+        taskInstance.setId(1);
+        taskInstance.setTaskParams("{}");
+        taskInstance.setState(TaskExecutionStatus.RUNNING_EXECUTION);
+
+        // the service is not started, so the transition is flushed in the current thread
+        CompletableFuture<Boolean> future = statePersistService.persistTaskInstance(taskInstance);
+        taskInstance.setState(TaskExecutionStatus.SUCCESS);
+
+        Assertions.assertTrue(statePersistService.awaitPersisted(future));
+        ArgumentCaptor<List<TaskInstance>> captor = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(taskInstanceDao).batchUpdateTaskInstance(captor.capture());
+        Assertions.assertEquals(TaskExecutionStatus.RUNNING_EXECUTION, captor.getValue().get(0).getState());
+    }
+
+    @Test
+    void testPersistTaskInstanceWithoutId() {
+        Mockito.when(taskInstanceDao.upsertTaskInstance(Mockito.any())).thenReturn(true);
+        Assertions.assertTrue(statePersistService.persistTaskInstanceAndWait(new TaskInstance()));
+        Mockito.verify(taskInstanceDao, Mockito.never()).batchUpdateTaskInstance(Mockito.anyList());
+    }
+
+    @Test
+    void testPersistProcessInstanceFailed() {
+        Mockito.when(processInstanceDao.batchUpdateProcessInstance(Mockito.anyList()))
+                .thenThrow(new IllegalStateException("db error"));
+        ProcessInstance processInstance = new ProcessInstance();
+        processInstance.setId(1);
+        processInstance.setState(WorkflowExecutionStatus.SUCCESS);
+        Assertions.assertFalse(statePersistService.persistProcessInstanceAndWait(processInstance));
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.master.registry;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class MasterSlotRingTest {
+
+    @Test
+    void testAllSlotsAssigned() {
+        MasterSlotRing slotRing = new MasterSlotRing(masterWeights(3, 100));
+        int slotCount = 0;
+        for (int i = 0; i < 3; i++) {
+            slotCount += slotRing.getSlots(master(i)).size();
+        }
+        Assertions.assertEquals(MasterSlotRing.SLOT_COUNT, slotCount);
+        for (int slot = 0; slot < MasterSlotRing.SLOT_COUNT; slot++) {
+            Assertions.assertTrue(slotRing.getSlots(slotRing.getOwner(slot)).contains(slot));
+        }
+        Assertions.assertTrue(slotRing.getSlots("unknown:5678").isEmpty());
+        Assertions.assertTrue(new MasterSlotRing(new HashMap<>()).getSlots(master(0)).isEmpty());
+    }
+
+    @Test
+    void testMembershipChangeMovesFewSlots() {
+        MasterSlotRing before = new MasterSlotRing(masterWeights(4, 100));
+        MasterSlotRing after = new MasterSlotRing(masterWeights(5, 100));
+        int movedSlotCount = 0;
+        for (int slot = 0; slot < MasterSlotRing.SLOT_COUNT; slot++) {
+            if (!before.getOwner(slot).equals(after.getOwner(slot))) {
+                // the slots only move to the joined master
+                Assertions.assertEquals(master(4), after.getOwner(slot));
+                movedSlotCount++;
+            }
+        }
+        // about 1/5 of the slots move to the joined master
+        Assertions.assertTrue(movedSlotCount > MasterSlotRing.SLOT_COUNT / 10);
+        Assertions.assertTrue(movedSlotCount < MasterSlotRing.SLOT_COUNT * 3 / 10);
+    }
+
+    @Test
+    void testWeightedSlots() {
+        Map<String, Integer> masterWeights = masterWeights(2, 100);
+        masterWeights.put(master(1), 300);
+        MasterSlotRing slotRing = new MasterSlotRing(masterWeights);
+        Assertions.assertTrue(slotRing.getSlots(master(1)).size() > 2 * slotRing.getSlots(master(0)).size());
+    }
+
+    @Test
+    void testSlotOf() {
+        Assertions.assertEquals(1, MasterSlotRing.slotOf(MasterSlotRing.SLOT_COUNT + 1));
+    }
+
+    private static Map<String, Integer> masterWeights(int masterCount, int weight) {
+        Map<String, Integer> masterWeights = new HashMap<>();
+        for (int i = 0; i < masterCount; i++) {
+            masterWeights.put(master(i), weight);
+        }
+        return masterWeights;
+    }
+
+    private static String master(int index) {
+        return "192.168.0." + index + ":5678";
+    }
+}
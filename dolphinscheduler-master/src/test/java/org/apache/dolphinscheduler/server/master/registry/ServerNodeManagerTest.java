@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.master.registry;
+
+import org.apache.dolphinscheduler.common.model.MasterHeartBeat;
+import org.apache.dolphinscheduler.common.utils.JSONUtils;
+import org.apache.dolphinscheduler.registry.api.RegistryClient;
+import org.apache.dolphinscheduler.registry.api.RegistryException;
+import org.apache.dolphinscheduler.server.master.config.MasterConfig;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ServerNodeManagerTest {
+
+    private static final String CURRENT_MASTER = "127.0.0.1:5678";
+
+    private static final String OTHER_MASTER = "127.0.0.2:5678";
+
+    @InjectMocks
+    private ServerNodeManager serverNodeManager;
+
+    @Mock
+    private RegistryClient registryClient;
+
+    @Mock
+    private MasterConfig masterConfig;
+
+    @BeforeEach
+    void before() {
+        Mockito.when(masterConfig.getMasterAddress()).thenReturn(CURRENT_MASTER);
+        Mockito.when(masterConfig.getHeartbeatInterval()).thenReturn(Duration.ofSeconds(10));
+        Mockito.when(registryClient.getLock(Mockito.anyString(), Mockito.any(Duration.class))).thenReturn(true);
+        Mockito.when(registryClient.get(Mockito.anyString()))
+                .thenReturn(JSONUtils.toJsonString(MasterHeartBeat.builder().masterHostWeight(100).build()));
+    }
+
+    @Test
+    void testSlotHandoff() {
+        // the slots of the first sync are active at once
+        Mockito.when(masterConfig.getSlotHandoffInterval()).thenReturn(Duration.ZERO);
+        syncMasters(CURRENT_MASTER, OTHER_MASTER);
+        List<Integer> keptSlots = slots(CURRENT_MASTER, OTHER_MASTER);
+        Assertions.assertEquals(keptSlots, serverNodeManager.getActiveSlots());
+
+        // gain: the slots taken over from the removed master are active after the handoff interval
+        Mockito.when(masterConfig.getSlotHandoffInterval()).thenReturn(Duration.ofHours(1));
+        syncMasters(CURRENT_MASTER);
+        List<Integer> gainedSlots = new ArrayList<>(slots(CURRENT_MASTER));
+        gainedSlots.removeAll(keptSlots);
+        Assertions.assertFalse(gainedSlots.isEmpty());
+        gainedSlots.forEach(slot -> Assertions.assertFalse(serverNodeManager.isActiveSlot(slot)));
+        // keep: the slots still owned by the current master carry over their active time
+        Assertions.assertEquals(keptSlots, serverNodeManager.getActiveSlots());
+
+        // lose: the slots assigned to the joined master are not active any more
+        syncMasters(CURRENT_MASTER, OTHER_MASTER);
+        Assertions.assertEquals(keptSlots, serverNodeManager.getActiveSlots());
+        gainedSlots.forEach(slot -> Assertions.assertFalse(serverNodeManager.isActiveSlot(slot)));
+    }
+
+    @Test
+    void testKeepSlotsIfWeightReadFailed() {
+        Mockito.when(masterConfig.getSlotHandoffInterval()).thenReturn(Duration.ZERO);
+        syncMasters(CURRENT_MASTER, OTHER_MASTER);
+        List<Integer> slots = serverNodeManager.getActiveSlots();
+
+        // the other master can't be read, the slots are not reassigned by the default weight
+        Mockito.when(registryClient.get(Mockito.endsWith(OTHER_MASTER))).thenThrow(new RegistryException("error"));
+        Mockito.when(registryClient.getMasterNodesDirectly())
+                .thenReturn(Arrays.asList(CURRENT_MASTER, OTHER_MASTER, "127.0.0.3:5678"));
+        serverNodeManager.updateMasterNodes();
+        Assertions.assertEquals(slots, serverNodeManager.getActiveSlots());
+    }
+
+    @Test
+    void testKeepSlotsIfLockTimeout() {
+        Mockito.when(masterConfig.getSlotHandoffInterval()).thenReturn(Duration.ZERO);
+        syncMasters(CURRENT_MASTER, OTHER_MASTER);
+        List<Integer> slots = serverNodeManager.getActiveSlots();
+
+        // the master nodes are synced in the next heartbeat interval, the lock held by others is not released
+        Mockito.when(registryClient.getLock(Mockito.anyString(), Mockito.any(Duration.class))).thenReturn(false);
+        serverNodeManager.updateMasterNodes();
+        Assertions.assertEquals(slots, serverNodeManager.getActiveSlots());
+        Mockito.verify(registryClient, Mockito.times(1)).getMasterNodesDirectly();
+        Mockito.verify(registryClient, Mockito.times(1)).releaseLock(Mockito.anyString());
+    }
+
+    private void syncMasters(String... masters) {
+        Mockito.when(registryClient.getMasterNodesDirectly()).thenReturn(Arrays.asList(masters));
+        serverNodeManager.updateMasterNodes();
+    }
+
+    private static List<Integer> slots(String... masters) {
+        Map<String, Integer> masterWeights = new HashMap<>();
+        for (String master : masters) {
+            masterWeights.put(master, 100);
+        }
+        List<Integer> slots = new ArrayList<>(new MasterSlotRing(masterWeights).getSlots(CURRENT_MASTER));
+        Collections.sort(slots);
+        return slots;
+    }
+}
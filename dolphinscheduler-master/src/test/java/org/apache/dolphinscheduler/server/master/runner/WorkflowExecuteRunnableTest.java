@@ -32,11 +32,14 @@ import org.apache.dolphinscheduler.dao.entity.ProcessDefinition;
 import org.apache.dolphinscheduler.dao.entity.ProcessInstance;
 import org.apache.dolphinscheduler.dao.entity.Schedule;
 import org.apache.dolphinscheduler.dao.entity.TaskInstance;
-import org.apache.dolphinscheduler.dao.repository.ProcessInstanceDao;
 import org.apache.dolphinscheduler.dao.repository.TaskDefinitionLogDao;
 import org.apache.dolphinscheduler.dao.repository.TaskInstanceDao;
+import org.apache.dolphinscheduler.plugin.task.api.enums.TaskExecutionStatus;
 import org.apache.dolphinscheduler.server.master.config.MasterConfig;
 import org.apache.dolphinscheduler.server.master.dispatch.executor.NettyExecutorManager;
+import org.apache.dolphinscheduler.server.master.persistence.StateTransitionPersistService;
+import org.apache.dolphinscheduler.server.master.service.DependentResolveService;
+import org.apache.dolphinscheduler.server.master.service.TaskGroupCoordinator;
 import org.apache.dolphinscheduler.service.alert.ProcessAlertManager;
 import org.apache.dolphinscheduler.service.bean.SpringApplicationContext;
 import org.apache.dolphinscheduler.service.command.CommandService;
@@ -83,8 +86,6 @@ public class WorkflowExecuteRunnableTest {
 
     private CommandService commandService;
 
-    private ProcessInstanceDao processInstanceDao;
-
     private MasterConfig config;
 
     private ApplicationContext applicationContext;
@@ -102,7 +103,6 @@ public class WorkflowExecuteRunnableTest {
         config = new MasterConfig();
         processService = Mockito.mock(ProcessService.class);
         commandService = Mockito.mock(CommandService.class);
-        processInstanceDao = Mockito.mock(ProcessInstanceDao.class);
         processInstance = Mockito.mock(ProcessInstance.class);
         taskInstanceDao = Mockito.mock(TaskInstanceDao.class);
         taskDefinitionLogDao = Mockito.mock(TaskDefinitionLogDao.class);
@@ -119,10 +119,11 @@ public class WorkflowExecuteRunnableTest {
         NettyExecutorManager nettyExecutorManager = Mockito.mock(NettyExecutorManager.class);
         ProcessAlertManager processAlertManager = Mockito.mock(ProcessAlertManager.class);
         workflowExecuteThread = Mockito.spy(
-                new WorkflowExecuteRunnable(processInstance, commandService, processService, processInstanceDao,
+                new WorkflowExecuteRunnable(processInstance, commandService, processService,
                         nettyExecutorManager,
                         processAlertManager, config, stateWheelExecuteThread, curingGlobalParamsService,
-                        taskInstanceDao, taskDefinitionLogDao));
+                        taskInstanceDao, taskDefinitionLogDao, Mockito.mock(StateTransitionPersistService.class),
+                        Mockito.mock(DependentResolveService.class), Mockito.mock(TaskGroupCoordinator.class)));
         Field dag = WorkflowExecuteRunnable.class.getDeclaredField("dag");
         dag.setAccessible(true);
         dag.set(workflowExecuteThread, new DAG());
@@ -316,6 +317,33 @@ public class WorkflowExecuteRunnableTest {
 
     }
 
+    @Test
+    public void testForceTaskSuccess() throws Exception {
+        TaskInstance taskInstance = new TaskInstance();
+        taskInstance.setId(1);
+        taskInstance.setTaskCode(1);
+        taskInstance.setState(TaskExecutionStatus.FAILURE);
+
+        Map<Integer, TaskInstance> taskInstanceMap = new ConcurrentHashMap<>();
+        taskInstanceMap.put(taskInstance.getId(), taskInstance);
+        Map<Long, Integer> errorTaskMap = new ConcurrentHashMap<>();
+        errorTaskMap.put(taskInstance.getTaskCode(), taskInstance.getId());
+
+        Class<WorkflowExecuteRunnable> masterExecThreadClass = WorkflowExecuteRunnable.class;
+        Field taskInstanceMapField = masterExecThreadClass.getDeclaredField("taskInstanceMap");
+        taskInstanceMapField.setAccessible(true);
+        taskInstanceMapField.set(workflowExecuteThread, taskInstanceMap);
+        Field errorTaskMapField = masterExecThreadClass.getDeclaredField("errorTaskMap");
+        errorTaskMapField.setAccessible(true);
+        errorTaskMapField.set(workflowExecuteThread, errorTaskMap);
+
+        workflowExecuteThread.forceTaskSuccess(taskInstance.getId());
+
+        Assertions.assertEquals(TaskExecutionStatus.FORCED_SUCCESS, taskInstance.getState());
+        Assertions.assertTrue(errorTaskMap.isEmpty());
+        Mockito.verify(taskInstanceDao, Mockito.never()).findTaskInstanceById(Mockito.anyInt());
+    }
+
     private List<Schedule> zeroSchedulerList() {
         return Collections.emptyList();
     }
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.master.service;
+
+import org.apache.dolphinscheduler.common.constants.Constants;
+import org.apache.dolphinscheduler.common.enums.WorkflowExecutionStatus;
+import org.apache.dolphinscheduler.dao.entity.ProcessInstance;
+import org.apache.dolphinscheduler.dao.entity.TaskInstance;
+import org.apache.dolphinscheduler.dao.repository.TaskInstanceDao;
+import org.apache.dolphinscheduler.plugin.task.api.enums.DependResult;
+import org.apache.dolphinscheduler.plugin.task.api.enums.TaskExecutionStatus;
+import org.apache.dolphinscheduler.plugin.task.api.model.DateInterval;
+import org.apache.dolphinscheduler.server.master.config.MasterConfig;
+import org.apache.dolphinscheduler.server.master.event.TaskStateEvent;
+import org.apache.dolphinscheduler.server.master.persistence.StateTransitionPersistService;
+import org.apache.dolphinscheduler.server.master.runner.WorkflowExecuteThreadPool;
+import org.apache.dolphinscheduler.server.master.service.DependentResolveService.DependentKey;
+import org.apache.dolphinscheduler.server.master.service.DependentResolveService.DependentSubscriber;
+import org.apache.dolphinscheduler.service.process.ProcessService;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Date;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class DependentResolveServiceTest {
+
+    private static final long DEFINITION_CODE = 1L;
+
+    private static final long TASK_CODE = 10L;
+
+    @Mock
+    private ProcessService processService;
+
+    @Mock
+    private TaskInstanceDao taskInstanceDao;
+
+    @Mock
+    private StateTransitionPersistService statePersistService;
+
+    @Mock
+    private WorkflowExecuteThreadPool workflowExecuteThreadPool;
+
+    private DependentResolveService dependentResolveService;
+
+    private final DateInterval dateInterval = new DateInterval(new Date(0), new Date(1000));
+
+    private ProcessInstance processInstance;
+
+    @BeforeEach
+    void before() {
+        MasterConfig masterConfig = new MasterConfig();
+        masterConfig.setDependentRefreshInterval(Duration.ofHours(1));
+        dependentResolveService = new DependentResolveService(processService, taskInstanceDao,
+                statePersistService, workflowExecuteThreadPool, masterConfig);
+
+        processInstance = new ProcessInstance();
+        processInstance.setId(100);
+        processInstance.setProcessDefinitionCode(DEFINITION_CODE);
+        processInstance.setState(WorkflowExecutionStatus.RUNNING_EXECUTION);
+        Mockito.when(processService.findLastSchedulerProcessInterval(DEFINITION_CODE, dateInterval, 0))
+                .thenReturn(processInstance);
+    }
+
+    @Test
+    void testResolveSharedByDependentTasks() {
+        DependentKey dependentKey = new DependentKey(DEFINITION_CODE, Constants.DEPENDENT_ALL_TASK_CODE,
+                dateInterval, 0);
+        Assertions.assertEquals(DependResult.WAITING,
+                dependentResolveService.resolve(dependentKey, new DependentSubscriber(1, 1, 1L)));
+        Assertions.assertEquals(DependResult.WAITING,
+                dependentResolveService.resolve(dependentKey, new DependentSubscriber(2, 2, 2L)));
+
+        // the second dependent task is served by the index
+        Mockito.verify(processService, Mockito.times(1))
+                .findLastSchedulerProcessInterval(DEFINITION_CODE, dateInterval, 0);
+    }
+
+    @Test
+    void testTaskFinishedNotifySubscribers() {
+        TaskInstance upstreamTask = new TaskInstance();
+        upstreamTask.setTaskCode(TASK_CODE);
+        upstreamTask.setState(TaskExecutionStatus.RUNNING_EXECUTION);
+        Mockito.when(taskInstanceDao.findValidTaskListByProcessId(100, 0))
+                .thenReturn(Collections.singletonList(upstreamTask));
+
+        DependentKey dependentKey = new DependentKey(DEFINITION_CODE, TASK_CODE, dateInterval, 0);
+        DependentSubscriber subscriber = new DependentSubscriber(1, 2, 3L);
+        Assertions.assertEquals(DependResult.WAITING, dependentResolveService.resolve(dependentKey, subscriber));
+
+        upstreamTask.setState(TaskExecutionStatus.SUCCESS);
+        dependentResolveService.onTaskFinished(processInstance, upstreamTask);
+
+        ArgumentCaptor<TaskStateEvent> captor = ArgumentCaptor.forClass(TaskStateEvent.class);
+        Mockito.verify(workflowExecuteThreadPool).submitStateEvent(captor.capture());
+        Assertions.assertEquals(2, captor.getValue().getTaskInstanceId());
+        Assertions.assertEquals(DependResult.SUCCESS, dependentResolveService.resolve(dependentKey, subscriber));
+        Mockito.verify(statePersistService, Mockito.times(2)).awaitPersisted();
+    }
+
+    @Test
+    void testUnsubscribe() {
+        DependentKey dependentKey = new DependentKey(DEFINITION_CODE, Constants.DEPENDENT_ALL_TASK_CODE,
+                dateInterval, 0);
+        DependentSubscriber subscriber = new DependentSubscriber(1, 2, 3L);
+        dependentResolveService.resolve(dependentKey, subscriber);
+        dependentResolveService.unsubscribe(subscriber);
+
+        processInstance.setState(WorkflowExecutionStatus.SUCCESS);
+        dependentResolveService.onWorkflowFinished(processInstance);
+        Mockito.verify(workflowExecuteThreadPool, Mockito.never()).submitStateEvent(Mockito.any());
+    }
+}
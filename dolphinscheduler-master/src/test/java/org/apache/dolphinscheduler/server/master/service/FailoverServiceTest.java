@@ -37,6 +37,7 @@ import org.apache.dolphinscheduler.server.master.cache.ProcessInstanceExecCacheM
 import org.apache.dolphinscheduler.server.master.config.MasterConfig;
 import org.apache.dolphinscheduler.server.master.dispatch.executor.NettyExecutorManager;
 import org.apache.dolphinscheduler.server.master.event.StateEvent;
+import org.apache.dolphinscheduler.server.master.persistence.StateTransitionPersistService;
 import org.apache.dolphinscheduler.server.master.runner.WorkflowExecuteRunnable;
 import org.apache.dolphinscheduler.server.master.runner.WorkflowExecuteThreadPool;
 import org.apache.dolphinscheduler.service.bean.SpringApplicationContext;
@@ -44,6 +45,7 @@ import org.apache.dolphinscheduler.service.log.LogClient;
 import org.apache.dolphinscheduler.service.process.ProcessService;
 
 import java.lang.reflect.Field;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
@@ -98,6 +100,12 @@ public class FailoverServiceTest {
     @Mock
     private ProcessDefinitionDao processDefinitionDao;
 
+    @Mock
+    private StateTransitionPersistService statePersistService;
+
+    @Mock
+    private InstanceStateRollupService instanceStateRollupService;
+
     private static int masterPort = 5678;
     private static int workerPort = 1234;
 
@@ -116,9 +124,13 @@ public class FailoverServiceTest {
         given(masterConfig.getListenPort()).willReturn(masterPort);
         testMasterHost = NetUtils.getAddr(masterConfig.getListenPort());
         given(masterConfig.getMasterAddress()).willReturn(testMasterHost);
+        given(masterConfig.getFailoverBatchSize()).willReturn(500);
+        given(masterConfig.getFailoverThreads()).willReturn(1);
+        given(masterConfig.getFailoverInterval()).willReturn(Duration.ofMinutes(10));
         MasterFailoverService masterFailoverService =
                 new MasterFailoverService(registryClient, masterConfig, processService, nettyExecutorManager,
-                        processInstanceExecCacheManager, logClient, taskInstanceDao);
+                        processInstanceExecCacheManager, logClient, taskInstanceDao, statePersistService,
+                        instanceStateRollupService);
         Field processDefinitionDaoField = masterFailoverService.getClass().getDeclaredField("processDefinitionDao");
         processDefinitionDaoField.setAccessible(true);
         ReflectionUtils.setField(processDefinitionDaoField, masterFailoverService, processDefinitionDao);
@@ -128,7 +140,8 @@ public class FailoverServiceTest {
                 workflowExecuteThreadPool,
                 cacheManager,
                 logClient,
-                taskInstanceDao);
+                taskInstanceDao,
+                statePersistService);
 
         failoverService = new FailoverService(masterFailoverService, workerFailoverService);
 
@@ -138,7 +151,7 @@ public class FailoverServiceTest {
 
         testWorkerHost = ip + ":" + workerPort;
 
-        given(registryClient.getLock(Mockito.anyString())).willReturn(true);
+        given(registryClient.getLock(Mockito.anyString(), Mockito.any(Duration.class))).willReturn(true);
         given(registryClient.releaseLock(Mockito.anyString())).willReturn(true);
 
         processInstance = new ProcessInstance();
@@ -152,21 +165,25 @@ public class FailoverServiceTest {
 
         masterTaskInstance = new TaskInstance();
         masterTaskInstance.setId(1);
+        masterTaskInstance.setProcessInstanceId(1);
         masterTaskInstance.setStartTime(new Date());
         masterTaskInstance.setHost(testMasterHost);
         masterTaskInstance.setTaskType(TASK_TYPE_SWITCH);
 
         workerTaskInstance = new TaskInstance();
         workerTaskInstance.setId(2);
+        workerTaskInstance.setProcessInstanceId(1);
         workerTaskInstance.setStartTime(new Date());
         workerTaskInstance.setHost(testWorkerHost);
         workerTaskInstance.setTaskType(COMMON_TASK_TYPE);
 
         given(processService.queryNeedFailoverProcessInstances(Mockito.anyString()))
                 .willReturn(Arrays.asList(processInstance));
-        doNothing().when(processService).processNeedFailoverProcessInstances(Mockito.any(ProcessInstance.class));
+        doNothing().when(processService).processNeedFailoverProcessInstances(Mockito.anyList());
         given(taskInstanceDao.findValidTaskListByProcessId(Mockito.anyInt(), Mockito.anyInt()))
                 .willReturn(Lists.newArrayList(masterTaskInstance, workerTaskInstance));
+        given(taskInstanceDao.findValidTaskListByProcessIds(Mockito.anyList()))
+                .willReturn(Lists.newArrayList(masterTaskInstance, workerTaskInstance));
 
         Thread.sleep(1000);
         Server masterServer = new Server();
@@ -179,8 +196,10 @@ public class FailoverServiceTest {
         workerServer.setPort(workerPort);
         workerServer.setCreateTime(new Date());
 
-        given(registryClient.getServerList(NodeType.WORKER)).willReturn(new ArrayList<>(Arrays.asList(workerServer)));
-        given(registryClient.getServerList(NodeType.MASTER)).willReturn(new ArrayList<>(Arrays.asList(masterServer)));
+        given(registryClient.getServerListDirectly(NodeType.WORKER))
+                .willReturn(new ArrayList<>(Arrays.asList(workerServer)));
+        given(registryClient.getServerListDirectly(NodeType.MASTER))
+                .willReturn(new ArrayList<>(Arrays.asList(masterServer)));
 
         doNothing().when(workflowExecuteThreadPool).submitStateEvent(Mockito.any(StateEvent.class));
     }
@@ -205,6 +224,69 @@ public class FailoverServiceTest {
         Assertions.assertEquals(Constants.NULL, processInstance.getHost());
     }
 
+    @Test
+    public void failoverMasterWhenBatchFailed() {
+        processInstance.setHost(testMasterHost);
+        masterTaskInstance.setState(TaskExecutionStatus.RUNNING_EXECUTION);
+        Mockito.doThrow(new RuntimeException("write failed")).when(processService)
+                .processNeedFailoverProcessInstances(Mockito.anyList());
+
+        // the failure is thrown to the failover of the master, which releases the lock and waits for the next check
+        Assertions.assertDoesNotThrow(() -> failoverService.failoverServerWhenDown(testMasterHost, NodeType.MASTER));
+        Mockito.verify(registryClient).releaseLock(Mockito.anyString());
+    }
+
+    @Test
+    public void failoverMasterWhenLockTimeout() {
+        processInstance.setHost(testMasterHost);
+        masterTaskInstance.setState(TaskExecutionStatus.RUNNING_EXECUTION);
+        given(registryClient.getLock(Mockito.anyString(), Mockito.any(Duration.class))).willReturn(false);
+
+        // the failover is left to the next check, and the lock held by others is not released
+        failoverService.failoverServerWhenDown(testMasterHost, NodeType.MASTER);
+        Assertions.assertEquals(TaskExecutionStatus.RUNNING_EXECUTION, masterTaskInstance.getState());
+        Assertions.assertEquals(testMasterHost, processInstance.getHost());
+        Mockito.verify(processService, Mockito.never()).queryNeedFailoverProcessInstances(Mockito.anyString());
+        Mockito.verify(registryClient, Mockito.never()).releaseLock(Mockito.anyString());
+    }
+
+    @Test
+    public void failoverMasterWhenCacheBehindRemoveEvent() {
+        // the cache still holds the dead master with the startup time before the workflow instance
+        Server staleMasterServer = new Server();
+        staleMasterServer.setHost(testMasterHost.split(":")[0]);
+        staleMasterServer.setPort(masterPort);
+        staleMasterServer.setCreateTime(new Date(processInstance.getRestartTime().getTime() - 60_000));
+        given(registryClient.getServerList(NodeType.MASTER)).willReturn(Lists.newArrayList(staleMasterServer));
+        given(registryClient.getServerListDirectly(NodeType.MASTER)).willReturn(new ArrayList<>());
+
+        masterTaskInstance.setState(TaskExecutionStatus.RUNNING_EXECUTION);
+        failoverService.failoverServerWhenDown(testMasterHost, NodeType.MASTER);
+        Assertions.assertEquals(TaskExecutionStatus.NEED_FAULT_TOLERANCE, masterTaskInstance.getState());
+        Assertions.assertEquals(Constants.NULL, processInstance.getHost());
+    }
+
+    @Test
+    public void failoverWorkerWhenCacheBehindRemoveEvent() {
+        // the cache still holds the dead worker with the startup time before the task instance
+        Server staleWorkerServer = new Server();
+        staleWorkerServer.setHost(testWorkerHost.split(":")[0]);
+        staleWorkerServer.setPort(workerPort);
+        staleWorkerServer.setCreateTime(new Date(workerTaskInstance.getStartTime().getTime() - 60_000));
+        given(registryClient.getServerList(NodeType.WORKER)).willReturn(Lists.newArrayList(staleWorkerServer));
+        given(registryClient.getServerListDirectly(NodeType.WORKER)).willReturn(new ArrayList<>());
+
+        workerTaskInstance.setState(TaskExecutionStatus.RUNNING_EXECUTION);
+        WorkflowExecuteRunnable workflowExecuteRunnable = Mockito.mock(WorkflowExecuteRunnable.class);
+        Mockito.when(workflowExecuteRunnable.getAllTaskInstances()).thenReturn(Lists.newArrayList(workerTaskInstance));
+        Mockito.when(workflowExecuteRunnable.getProcessInstance()).thenReturn(processInstance);
+        Mockito.when(cacheManager.getAll()).thenReturn(Lists.newArrayList(workflowExecuteRunnable));
+        Mockito.when(cacheManager.getByProcessInstanceId(Mockito.anyInt())).thenReturn(workflowExecuteRunnable);
+
+        failoverService.failoverServerWhenDown(testWorkerHost, NodeType.WORKER);
+        Assertions.assertEquals(TaskExecutionStatus.NEED_FAULT_TOLERANCE, workerTaskInstance.getState());
+    }
+
     @Test
     public void failoverWorkTest() {
         workerTaskInstance.setState(TaskExecutionStatus.RUNNING_EXECUTION);
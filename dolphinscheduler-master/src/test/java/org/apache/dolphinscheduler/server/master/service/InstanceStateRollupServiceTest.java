@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.master.service;
+
+import org.apache.dolphinscheduler.dao.entity.InstanceStateRollup;
+import org.apache.dolphinscheduler.dao.repository.InstanceStateRollupDao;
+import org.apache.dolphinscheduler.registry.api.RegistryClient;
+import org.apache.dolphinscheduler.server.master.config.MasterConfig;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class InstanceStateRollupServiceTest {
+
+    private static final long HOUR = InstanceStateRollup.BUCKET_MILLIS;
+
+    private static final long NOW = 1000 * HOUR + Duration.ofMinutes(10).toMillis();
+
+    @Mock
+    private InstanceStateRollupDao instanceStateRollupDao;
+
+    @Mock
+    private RegistryClient registryClient;
+
+    private MasterConfig masterConfig;
+
+    private InstanceStateRollupService instanceStateRollupService;
+
+    @BeforeEach
+    void before() {
+        masterConfig = new MasterConfig();
+        masterConfig.setStateRollupDelay(Duration.ofMinutes(5));
+        masterConfig.setStateRollupBackfill(Duration.ofHours(3));
+        masterConfig.setStateRollupBucketsPerRun(2);
+        masterConfig.setStateRollupRefreshWindow(Duration.ZERO);
+        Mockito.lenient().when(registryClient.getLock(Mockito.anyString(), Mockito.any(Duration.class)))
+                .thenReturn(true);
+        instanceStateRollupService = new InstanceStateRollupService(instanceStateRollupDao, registryClient,
+                masterConfig);
+    }
+
+    @Test
+    void testRollupChangedAndNotRolledUpBuckets() {
+        Mockito.when(instanceStateRollupDao.queryRolledUpBuckets(Mockito.anyInt(), Mockito.eq(new Date(997 * HOUR)),
+                Mockito.eq(new Date(1000 * HOUR))))
+                .thenAnswer(invocation -> invocation.<Integer>getArgument(0) == InstanceStateRollup.WORKFLOW_INSTANCE
+                        ? Arrays.asList(new Date(997 * HOUR), new Date(998 * HOUR))
+                        : Collections.emptyList());
+
+        instanceStateRollupService.onWorkflowInstancePersisted(new Date(998 * HOUR + 1));
+        // the hour is not closed
+        instanceStateRollupService.onWorkflowInstancePersisted(new Date(1000 * HOUR + 1));
+        instanceStateRollupService.rollup(NOW);
+
+        Mockito.verify(instanceStateRollupDao).rollupBucket(InstanceStateRollup.WORKFLOW_INSTANCE,
+                new Date(998 * HOUR));
+        Mockito.verify(instanceStateRollupDao).rollupBucket(InstanceStateRollup.WORKFLOW_INSTANCE,
+                new Date(999 * HOUR));
+        Mockito.verify(instanceStateRollupDao, Mockito.never()).rollupBucket(Mockito.anyInt(),
+                Mockito.eq(new Date(1000 * HOUR)));
+        // the task instance rollups are backfilled from the newest hour, limited by the buckets per run
+        Mockito.verify(instanceStateRollupDao).rollupBucket(InstanceStateRollup.TASK_INSTANCE, new Date(999 * HOUR));
+        Mockito.verify(instanceStateRollupDao).rollupBucket(InstanceStateRollup.TASK_INSTANCE, new Date(998 * HOUR));
+        Mockito.verify(instanceStateRollupDao, Mockito.never()).rollupBucket(InstanceStateRollup.TASK_INSTANCE,
+                new Date(997 * HOUR));
+        Mockito.verify(registryClient).releaseLock(Mockito.anyString());
+    }
+
+    @Test
+    void testRollupFailedBucketRetried() {
+        Mockito.when(instanceStateRollupDao.queryRolledUpBuckets(Mockito.anyInt(), Mockito.any(), Mockito.any()))
+                .thenReturn(Arrays.asList(new Date(997 * HOUR), new Date(998 * HOUR), new Date(999 * HOUR)));
+        Mockito.doThrow(new RuntimeException("db error")).doNothing().when(instanceStateRollupDao)
+                .rollupBucket(InstanceStateRollup.TASK_INSTANCE, new Date(998 * HOUR));
+
+        instanceStateRollupService.onTaskInstancePersisted(new Date(998 * HOUR));
+        instanceStateRollupService.rollup(NOW);
+        instanceStateRollupService.rollup(NOW);
+        instanceStateRollupService.rollup(NOW);
+
+        Mockito.verify(instanceStateRollupDao, Mockito.times(2)).rollupBucket(InstanceStateRollup.TASK_INSTANCE,
+                new Date(998 * HOUR));
+    }
+
+    @Test
+    void testChangedBucketKeptIfLockTimeout() {
+        Mockito.when(registryClient.getLock(Mockito.anyString(), Mockito.any(Duration.class))).thenReturn(false,
+                true);
+        Mockito.when(instanceStateRollupDao.queryRolledUpBuckets(Mockito.anyInt(), Mockito.any(), Mockito.any()))
+                .thenReturn(Arrays.asList(new Date(997 * HOUR), new Date(998 * HOUR), new Date(999 * HOUR)));
+
+        instanceStateRollupService.onWorkflowInstancePersisted(new Date(998 * HOUR));
+        instanceStateRollupService.rollup(NOW);
+        Mockito.verify(instanceStateRollupDao, Mockito.never()).rollupBucket(Mockito.anyInt(), Mockito.any());
+        // the lock held by others is not released
+        Mockito.verify(registryClient, Mockito.never()).releaseLock(Mockito.anyString());
+
+        instanceStateRollupService.rollup(NOW);
+        Mockito.verify(instanceStateRollupDao).rollupBucket(InstanceStateRollup.WORKFLOW_INSTANCE,
+                new Date(998 * HOUR));
+        Mockito.verify(registryClient).releaseLock(Mockito.anyString());
+    }
+
+    @Test
+    void testRollupBucketsMarkedInDatabase() {
+        Mockito.when(instanceStateRollupDao.queryRolledUpBuckets(Mockito.anyInt(), Mockito.any(), Mockito.any()))
+                .thenReturn(Arrays.asList(new Date(997 * HOUR), new Date(998 * HOUR), new Date(999 * HOUR)));
+        Mockito.when(instanceStateRollupDao.queryChangedBuckets(InstanceStateRollup.WORKFLOW_INSTANCE,
+                new Date(1000 * HOUR))).thenReturn(Collections.singletonList(new Date(900 * HOUR)));
+
+        instanceStateRollupService.rollup(NOW);
+
+        // the hour changed out of the master is rolled up even if it's before the backfill range
+        Mockito.verify(instanceStateRollupDao).rollupBucket(InstanceStateRollup.WORKFLOW_INSTANCE,
+                new Date(900 * HOUR));
+        Mockito.verify(instanceStateRollupDao, Mockito.times(1)).rollupBucket(Mockito.anyInt(), Mockito.any());
+    }
+
+    @Test
+    void testRefreshWindowRolledUpPeriodically() {
+        masterConfig.setStateRollupRefreshWindow(Duration.ofHours(2));
+        masterConfig.setStateRollupRefreshInterval(Duration.ofMinutes(30));
+        Mockito.when(instanceStateRollupDao.queryRolledUpBuckets(Mockito.anyInt(), Mockito.any(), Mockito.any()))
+                .thenReturn(Arrays.asList(new Date(997 * HOUR), new Date(998 * HOUR), new Date(999 * HOUR)));
+
+        // the hours in the window are rolled up again though no change is marked, e.g. lost by a restart
+        instanceStateRollupService.rollup(NOW);
+        Mockito.verify(instanceStateRollupDao).rollupBucket(InstanceStateRollup.WORKFLOW_INSTANCE,
+                new Date(998 * HOUR));
+        Mockito.verify(instanceStateRollupDao).rollupBucket(InstanceStateRollup.WORKFLOW_INSTANCE,
+                new Date(999 * HOUR));
+        Mockito.verify(instanceStateRollupDao).rollupBucket(InstanceStateRollup.TASK_INSTANCE, new Date(998 * HOUR));
+        Mockito.verify(instanceStateRollupDao).rollupBucket(InstanceStateRollup.TASK_INSTANCE, new Date(999 * HOUR));
+        Mockito.verify(instanceStateRollupDao, Mockito.never()).rollupBucket(Mockito.anyInt(),
+                Mockito.eq(new Date(997 * HOUR)));
+
+        // not again until the refresh interval elapsed
+        instanceStateRollupService.rollup(NOW + Duration.ofMinutes(10).toMillis());
+        Mockito.verify(instanceStateRollupDao, Mockito.times(4)).rollupBucket(Mockito.anyInt(), Mockito.any());
+        instanceStateRollupService.rollup(NOW + Duration.ofMinutes(30).toMillis());
+        Mockito.verify(instanceStateRollupDao, Mockito.times(8)).rollupBucket(Mockito.anyInt(), Mockito.any());
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.server.master.service;
+
+import org.apache.dolphinscheduler.common.enums.Flag;
+import org.apache.dolphinscheduler.common.enums.TaskGroupQueueStatus;
+import org.apache.dolphinscheduler.dao.entity.TaskGroup;
+import org.apache.dolphinscheduler.dao.entity.TaskGroupQueue;
+import org.apache.dolphinscheduler.dao.entity.TaskInstance;
+import org.apache.dolphinscheduler.dao.mapper.TaskGroupMapper;
+import org.apache.dolphinscheduler.dao.mapper.TaskGroupQueueMapper;
+import org.apache.dolphinscheduler.dao.mapper.TaskInstanceMapper;
+import org.apache.dolphinscheduler.server.master.event.StateEvent;
+import org.apache.dolphinscheduler.server.master.runner.WorkflowExecuteThreadPool;
+import org.apache.dolphinscheduler.service.process.ProcessService;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class TaskGroupCoordinatorTest {
+
+    private static final int TASK_GROUP_ID = 1;
+
+    @InjectMocks
+    private TaskGroupCoordinator taskGroupCoordinator;
+
+    @Mock
+    private TaskGroupMapper taskGroupMapper;
+
+    @Mock
+    private TaskGroupQueueMapper taskGroupQueueMapper;
+
+    @Mock
+    private TaskInstanceMapper taskInstanceMapper;
+
+    @Mock
+    private ProcessService processService;
+
+    @Mock
+    private WorkflowExecuteThreadPool workflowExecuteThreadPool;
+
+    private final Map<Integer, TaskGroupQueue> taskGroupQueues = new HashMap<>();
+
+    /**
+     * the task group size is 1
+     */
+    private int useSize;
+
+    @BeforeEach
+    void before() {
+        TaskGroup taskGroup = new TaskGroup();
+        taskGroup.setId(TASK_GROUP_ID);
+        taskGroup.setStatus(Flag.YES.getCode());
+        Mockito.lenient().when(taskGroupMapper.selectById(TASK_GROUP_ID)).thenReturn(taskGroup);
+        Mockito.lenient().when(taskGroupQueueMapper.queryByTaskId(Mockito.anyInt()))
+                .thenAnswer(invocation -> taskGroupQueues.get(invocation.<Integer>getArgument(0)));
+        Mockito.lenient().when(processService.insertIntoTaskGroupQueue(Mockito.anyInt(), Mockito.any(),
+                Mockito.anyInt(), Mockito.anyInt(), Mockito.anyInt(), Mockito.any())).thenAnswer(invocation -> {
+                    TaskGroupQueue taskGroupQueue = TaskGroupQueue.builder()
+                            .id(invocation.getArgument(0))
+                            .taskId(invocation.getArgument(0))
+                            .groupId(invocation.getArgument(2))
+                            .processId(invocation.getArgument(3))
+                            .priority(invocation.getArgument(4))
+                            .status(invocation.getArgument(5))
+                            .build();
+                    taskGroupQueues.put(taskGroupQueue.getTaskId(), taskGroupQueue);
+                    return taskGroupQueue;
+                });
+        Mockito.lenient().when(taskGroupMapper.acquireTaskGroupResource(Mockito.eq(TASK_GROUP_ID), Mockito.anyInt(),
+                Mockito.eq(TaskGroupQueueStatus.WAIT_QUEUE.getCode()))).thenAnswer(invocation -> {
+                    if (useSize >= 1) {
+                        return 0;
+                    }
+                    useSize++;
+                    return 1;
+                });
+        Mockito.lenient().when(taskGroupMapper.releaseTaskGroupResource(Mockito.eq(TASK_GROUP_ID), Mockito.anyInt(),
+                Mockito.eq(TaskGroupQueueStatus.ACQUIRE_SUCCESS.getCode()))).thenAnswer(invocation -> {
+                    useSize--;
+                    return 1;
+                });
+    }
+
+    @Test
+    void testReleaseGrantHighestPriorityWaiter() {
+        TaskInstance holder = taskInstance(1, 1);
+        Assertions.assertTrue(taskGroupCoordinator.acquireTaskGroup(holder));
+
+        Assertions.assertFalse(taskGroupCoordinator.acquireTaskGroup(taskInstance(2, 1)));
+        Assertions.assertFalse(taskGroupCoordinator.acquireTaskGroup(taskInstance(3, 5)));
+        Assertions.assertEquals(2, taskGroupCoordinator.getWaitingCount(TASK_GROUP_ID));
+
+        taskGroupCoordinator.releaseTaskGroup(holder);
+
+        ArgumentCaptor<StateEvent> captor = ArgumentCaptor.forClass(StateEvent.class);
+        Mockito.verify(workflowExecuteThreadPool).submitStateEvent(captor.capture());
+        Assertions.assertEquals(3, captor.getValue().getTaskInstanceId());
+        Assertions.assertEquals(TaskGroupQueueStatus.ACQUIRE_SUCCESS, taskGroupQueues.get(3).getStatus());
+        Assertions.assertEquals(TaskGroupQueueStatus.RELEASE, taskGroupQueues.get(1).getStatus());
+        Assertions.assertTrue(taskGroupCoordinator.wakeUp(3));
+        Assertions.assertEquals(1, taskGroupCoordinator.getWaitingCount(TASK_GROUP_ID));
+        Assertions.assertEquals(1, useSize);
+    }
+
+    @Test
+    void testLowerPriorityWaitBehindWaiter() {
+        TaskInstance holder = taskInstance(1, 1);
+        Assertions.assertTrue(taskGroupCoordinator.acquireTaskGroup(holder));
+        Assertions.assertFalse(taskGroupCoordinator.acquireTaskGroup(taskInstance(2, 5)));
+        // the slot is released by the other master
+        useSize = 0;
+
+        Assertions.assertFalse(taskGroupCoordinator.acquireTaskGroup(taskInstance(3, 1)));
+        Mockito.verify(taskGroupMapper, Mockito.times(2)).acquireTaskGroupResource(Mockito.eq(TASK_GROUP_ID),
+                Mockito.anyInt(), Mockito.anyInt());
+    }
+
+    @Test
+    void testReleaseWaitingTaskInstance() {
+        Assertions.assertTrue(taskGroupCoordinator.acquireTaskGroup(taskInstance(1, 1)));
+        TaskInstance waiter = taskInstance(2, 1);
+        Assertions.assertFalse(taskGroupCoordinator.acquireTaskGroup(waiter));
+
+        taskGroupCoordinator.releaseTaskGroup(waiter);
+
+        Assertions.assertEquals(0, taskGroupCoordinator.getWaitingCount(TASK_GROUP_ID));
+        Assertions.assertEquals(1, useSize);
+        Mockito.verify(taskGroupMapper, Mockito.never()).releaseTaskGroupResource(Mockito.anyInt(),
+                Mockito.anyInt(), Mockito.anyInt());
+        Mockito.verify(workflowExecuteThreadPool, Mockito.never()).submitStateEvent(Mockito.any());
+    }
+
+    private TaskInstance taskInstance(int id, int priority) {
+        TaskInstance taskInstance = new TaskInstance();
+        taskInstance.setId(id);
+        taskInstance.setName("task" + id);
+        taskInstance.setProcessInstanceId(100);
+        taskInstance.setTaskGroupId(TASK_GROUP_ID);
+        taskInstance.setTaskGroupPriority(priority);
+        return taskInstance;
+    }
+}
@@ -70,6 +70,10 @@ public abstract class AbstractBaseBenchmark {
             optBuilder.forks(getForks());
         }
 
+        if (getThreads() > 0) {
+            optBuilder.threads(getThreads());
+        }
+
         String output = getReportDir();
         if (output != null) {
             boolean writeFileStatus;
@@ -97,7 +101,14 @@ public abstract class AbstractBaseBenchmark {
 
     @Test
     public void run() throws Exception {
-        new Runner(newOptionsBuilder().build()).run();
+        new Runner(configureOptions(newOptionsBuilder()).build()).run();
+    }
+
+    /**
+     * Override to add benchmark specific options, such as profilers.
+     */
+    protected ChainedOptionsBuilder configureOptions(ChainedOptionsBuilder optionsBuilder) {
+        return optionsBuilder;
     }
 
     private int getWarmupIterations() {
@@ -111,6 +122,11 @@ public abstract class AbstractBaseBenchmark {
         return null != value ? Integer.parseInt(value) : -1;
     }
 
+    private static int getThreads() {
+        String value = System.getProperty("threads");
+        return null != value ? Integer.parseInt(value) : -1;
+    }
+
     private static String getReportDir() {
         return System.getProperty("perfReportDir");
     }
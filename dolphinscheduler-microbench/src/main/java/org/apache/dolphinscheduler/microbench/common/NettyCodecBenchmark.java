@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.microbench.common;
+
+import org.apache.dolphinscheduler.common.utils.JSONUtils;
+import org.apache.dolphinscheduler.microbench.base.AbstractBaseBenchmark;
+import org.apache.dolphinscheduler.remote.codec.NettyDecoder;
+import org.apache.dolphinscheduler.remote.codec.NettyEncoder;
+import org.apache.dolphinscheduler.remote.command.Command;
+import org.apache.dolphinscheduler.remote.command.CommandContext;
+import org.apache.dolphinscheduler.remote.command.CommandType;
+import org.apache.dolphinscheduler.remote.command.TaskExecuteResultCommand;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.handler.codec.ReplayingDecoder;
+
+/**
+ * Encode and decode a task execute result command by the remote codec and by the byte array codec it replaced, the
+ * frame is split into two reads to cover partial frames. The gc profiler reports the allocation rate of each codec.
+ */
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class NettyCodecBenchmark extends AbstractBaseBenchmark {
+
+    @Param({"256", "4096"})
+    private int varPoolSize;
+
+    private TaskExecuteResultCommand resultCommand;
+
+    private EmbeddedChannel pooledEncoderChannel;
+
+    private EmbeddedChannel pooledDecoderChannel;
+
+    private EmbeddedChannel byteArrayEncoderChannel;
+
+    private EmbeddedChannel byteArrayDecoderChannel;
+
+    @Setup
+    public void before() {
+        resultCommand = new TaskExecuteResultCommand("127.0.0.1:1234", "127.0.0.1:5678", System.currentTimeMillis());
+        resultCommand.setTaskInstanceId(1);
+        resultCommand.setProcessInstanceId(1);
+        resultCommand.setLogPath("/tmp/dolphinscheduler/log/1.log");
+        StringBuilder varPool = new StringBuilder(varPoolSize);
+        while (varPool.length() < varPoolSize) {
+            varPool.append('v');
+        }
+        resultCommand.setVarPool(varPool.toString());
+
+        pooledEncoderChannel = new EmbeddedChannel(new NettyEncoder());
+        pooledDecoderChannel = new EmbeddedChannel(new NettyDecoder());
+        byteArrayEncoderChannel = new EmbeddedChannel(new ByteArrayEncoder());
+        byteArrayDecoderChannel = new EmbeddedChannel(new ByteArrayDecoder());
+    }
+
+    @Benchmark
+    public TaskExecuteResultCommand pooledCodec() {
+        pooledEncoderChannel.writeOutbound(resultCommand.convert2Command());
+        Command command = transfer(pooledEncoderChannel, pooledDecoderChannel);
+        try {
+            return command.parseBody(TaskExecuteResultCommand.class);
+        } finally {
+            command.release();
+        }
+    }
+
+    @Benchmark
+    public TaskExecuteResultCommand byteArrayCodec() {
+        Command sent = new Command();
+        sent.setType(CommandType.TASK_EXECUTE_RESULT);
+        sent.setBody(JSONUtils.toJsonByteArray(resultCommand));
+        byteArrayEncoderChannel.writeOutbound(sent);
+        Command command = transfer(byteArrayEncoderChannel, byteArrayDecoderChannel);
+        return JSONUtils.parseObject(command.getBody(), TaskExecuteResultCommand.class);
+    }
+
+    @TearDown
+    public void after() {
+        pooledEncoderChannel.finishAndReleaseAll();
+        pooledDecoderChannel.finishAndReleaseAll();
+        byteArrayEncoderChannel.finishAndReleaseAll();
+        byteArrayDecoderChannel.finishAndReleaseAll();
+    }
+
+    @Override
+    protected ChainedOptionsBuilder configureOptions(ChainedOptionsBuilder optionsBuilder) {
+        return optionsBuilder.addProfiler(GCProfiler.class);
+    }
+
+    private Command transfer(EmbeddedChannel encoderChannel, EmbeddedChannel decoderChannel) {
+        ByteBuf frame = encoderChannel.readOutbound();
+        int half = frame.readableBytes() / 2;
+        decoderChannel.writeInbound(frame.readRetainedSlice(half));
+        decoderChannel.writeInbound(frame);
+        return decoderChannel.readInbound();
+    }
+
+    /**
+     * The encoder which copies the byte array body of the command.
+     */
+    private static class ByteArrayEncoder extends MessageToByteEncoder<Command> {
+
+        @Override
+        protected void encode(ChannelHandlerContext ctx, Command msg, ByteBuf out) {
+            out.writeByte(Command.MAGIC);
+            out.writeByte(Command.VERSION);
+            out.writeByte(msg.getType().ordinal());
+            out.writeLong(msg.getOpaque());
+            byte[] context = msg.getContext().toBytes();
+            out.writeInt(context.length);
+            out.writeBytes(context);
+            out.writeInt(msg.getBody().length);
+            out.writeBytes(msg.getBody());
+        }
+    }
+
+    /**
+     * The replaying decoder which copies the context and the body into byte arrays.
+     */
+    private static class ByteArrayDecoder extends ReplayingDecoder<Void> {
+
+        @Override
+        protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+            in.skipBytes(2);
+            CommandType type = CommandType.values()[in.readByte()];
+            long opaque = in.readLong();
+            byte[] context = new byte[in.readInt()];
+            in.readBytes(context);
+            byte[] body = new byte[in.readInt()];
+            in.readBytes(body);
+            Command command = new Command(opaque);
+            command.setType(type);
+            command.setContext(CommandContext.valueOf(context));
+            command.setBody(body);
+            out.add(command);
+        }
+    }
+}
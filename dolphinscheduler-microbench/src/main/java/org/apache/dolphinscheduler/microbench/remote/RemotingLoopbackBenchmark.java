@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.microbench.remote;
+
+import org.apache.dolphinscheduler.microbench.base.AbstractBaseBenchmark;
+import org.apache.dolphinscheduler.remote.NettyRemotingClient;
+import org.apache.dolphinscheduler.remote.NettyRemotingServer;
+import org.apache.dolphinscheduler.remote.command.BaseCommand;
+import org.apache.dolphinscheduler.remote.command.Command;
+import org.apache.dolphinscheduler.remote.command.CommandType;
+import org.apache.dolphinscheduler.remote.command.TaskExecuteAckCommand;
+import org.apache.dolphinscheduler.remote.command.TaskExecuteResultCommand;
+import org.apache.dolphinscheduler.remote.config.NettyClientConfig;
+import org.apache.dolphinscheduler.remote.config.NettyServerConfig;
+import org.apache.dolphinscheduler.remote.exceptions.RemotingException;
+import org.apache.dolphinscheduler.remote.processor.NettyRequestProcessor;
+import org.apache.dolphinscheduler.remote.utils.Host;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.profile.StackProfiler;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+
+import io.netty.channel.Channel;
+
+/**
+ * Send task execute results from {@link NettyRemotingClient} to a {@link NettyRemotingServer} on the loopback
+ * address, the server parses the result and responds an ack as the master does.
+ * <p>
+ * The sync benchmark measures the round trip of one request, the async benchmark keeps the given number of requests
+ * in flight. Run with -Dthreads to add concurrent callers, the stack profiler reports the blocked and waiting thread
+ * states to show the contention.
+ */
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RemotingLoopbackBenchmark extends AbstractBaseBenchmark {
+
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @Param({"256", "4096", "65536"})
+    private int payloadSize;
+
+    private NettyRemotingServer server;
+
+    private NettyRemotingClient client;
+
+    private Host host;
+
+    private BaseCommand resultCommand;
+
+    @Setup
+    public void before() throws IOException {
+        NettyServerConfig serverConfig = new NettyServerConfig();
+        serverConfig.setListenPort(freePort());
+        server = new NettyRemotingServer(serverConfig);
+        server.registerProcessor(CommandType.TASK_EXECUTE_RESULT, new AckProcessor());
+        server.start();
+        client = new NettyRemotingClient(new NettyClientConfig());
+        host = new Host("127.0.0.1", serverConfig.getListenPort());
+        resultCommand = TaskCommands.create(CommandType.TASK_EXECUTE_RESULT, payloadSize);
+    }
+
+    @Benchmark
+    public Command sendSync() throws RemotingException, InterruptedException {
+        return client.sendSync(host, TaskCommands.convert2Command(resultCommand), TIMEOUT_MILLIS);
+    }
+
+    @Benchmark
+    public void sendAsync(AsyncWindow window) throws RemotingException, InterruptedException {
+        CountDownLatch latch = new CountDownLatch(window.concurrency);
+        AtomicInteger failures = new AtomicInteger();
+        for (int i = 0; i < window.concurrency; i++) {
+            client.sendAsync(host, TaskCommands.convert2Command(resultCommand), TIMEOUT_MILLIS, responseFuture -> {
+                if (responseFuture.getResponseCommand() == null) {
+                    failures.incrementAndGet();
+                }
+                latch.countDown();
+            });
+        }
+        latch.await();
+        if (failures.get() > 0) {
+            throw new IllegalStateException(failures.get() + " requests failed");
+        }
+    }
+
+    @TearDown
+    public void after() {
+        client.close();
+        server.close();
+    }
+
+    @Override
+    protected ChainedOptionsBuilder configureOptions(ChainedOptionsBuilder optionsBuilder) {
+        return optionsBuilder.addProfiler(GCProfiler.class).addProfiler(StackProfiler.class);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            return serverSocket.getLocalPort();
+        }
+    }
+
+    /**
+     * The number of the async requests in flight.
+     */
+    @State(Scope.Benchmark)
+    public static class AsyncWindow {
+
+        @Param({"1", "16", "64"})
+        private int concurrency;
+    }
+
+    /**
+     * Parse the task execute result and respond an ack.
+     */
+    private static class AckProcessor implements NettyRequestProcessor {
+
+        @Override
+        public void process(Channel channel, Command command) {
+            TaskExecuteResultCommand result = command.parseBody(TaskExecuteResultCommand.class);
+            Command ack =
+                    new TaskExecuteAckCommand(true, result.getTaskInstanceId(), result.getMessageReceiverAddress(),
+                            result.getMessageSenderAddress(), System.currentTimeMillis()).convert2Command();
+            ack.setOpaque(command.getOpaque());
+            channel.writeAndFlush(ack);
+        }
+    }
+}
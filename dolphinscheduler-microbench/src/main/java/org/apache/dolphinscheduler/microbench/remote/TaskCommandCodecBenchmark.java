@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.microbench.remote;
+
+import org.apache.dolphinscheduler.microbench.base.AbstractBaseBenchmark;
+import org.apache.dolphinscheduler.remote.codec.NettyDecoder;
+import org.apache.dolphinscheduler.remote.codec.NettyEncoder;
+import org.apache.dolphinscheduler.remote.command.BaseCommand;
+import org.apache.dolphinscheduler.remote.command.Command;
+import org.apache.dolphinscheduler.remote.command.CommandType;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+/**
+ * Encode and decode the task commands sent between master and worker by {@link NettyEncoder} and
+ * {@link NettyDecoder}, the decode includes parsing the body as the processors do. The gc profiler reports the
+ * allocation of each operation.
+ */
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TaskCommandCodecBenchmark extends AbstractBaseBenchmark {
+
+    @Param({"TASK_DISPATCH_REQUEST", "TASK_EXECUTE_RESULT", "TASK_EXECUTE_RUNNING"})
+    private CommandType commandType;
+
+    @Param({"256", "4096", "65536"})
+    private int payloadSize;
+
+    private BaseCommand taskCommand;
+
+    private ByteBuf encodedFrame;
+
+    private EmbeddedChannel encoderChannel;
+
+    private EmbeddedChannel decoderChannel;
+
+    @Setup
+    public void before() {
+        taskCommand = TaskCommands.create(commandType, payloadSize);
+        encoderChannel = new EmbeddedChannel(new NettyEncoder());
+        decoderChannel = new EmbeddedChannel(new NettyDecoder());
+        encoderChannel.writeOutbound(TaskCommands.convert2Command(taskCommand));
+        encodedFrame = encoderChannel.readOutbound();
+    }
+
+    @Benchmark
+    public int encode() {
+        encoderChannel.writeOutbound(TaskCommands.convert2Command(taskCommand));
+        ByteBuf frame = encoderChannel.readOutbound();
+        try {
+            return frame.readableBytes();
+        } finally {
+            frame.release();
+        }
+    }
+
+    @Benchmark
+    public BaseCommand decode() {
+        decoderChannel.writeInbound(encodedFrame.retainedDuplicate());
+        Command command = decoderChannel.readInbound();
+        try {
+            return command.parseBody(taskCommand.getClass());
+        } finally {
+            command.release();
+        }
+    }
+
+    @TearDown
+    public void after() {
+        encodedFrame.release();
+        encoderChannel.finishAndReleaseAll();
+        decoderChannel.finishAndReleaseAll();
+    }
+
+    @Override
+    protected ChainedOptionsBuilder configureOptions(ChainedOptionsBuilder optionsBuilder) {
+        return optionsBuilder.addProfiler(GCProfiler.class);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.microbench.remote;
+
+import org.apache.dolphinscheduler.plugin.task.api.TaskExecutionContext;
+import org.apache.dolphinscheduler.plugin.task.api.enums.TaskExecutionStatus;
+import org.apache.dolphinscheduler.remote.command.BaseCommand;
+import org.apache.dolphinscheduler.remote.command.Command;
+import org.apache.dolphinscheduler.remote.command.CommandType;
+import org.apache.dolphinscheduler.remote.command.TaskDispatchCommand;
+import org.apache.dolphinscheduler.remote.command.TaskExecuteResultCommand;
+import org.apache.dolphinscheduler.remote.command.TaskExecuteRunningCommand;
+
+/**
+ * The task commands sent between master and worker, the variable part of each command is filled to the payload size.
+ */
+final class TaskCommands {
+
+    private static final String MASTER_ADDRESS = "127.0.0.1:5678";
+
+    private static final String WORKER_ADDRESS = "127.0.0.1:1234";
+
+    private TaskCommands() {
+    }
+
+    /**
+     * @param commandType TASK_DISPATCH_REQUEST, TASK_EXECUTE_RESULT or TASK_EXECUTE_RUNNING
+     * @param payloadSize the length of the task params, var pool or app ids
+     */
+    static BaseCommand create(CommandType commandType, int payloadSize) {
+        String payload = payload(payloadSize);
+        long now = System.currentTimeMillis();
+        switch (commandType) {
+            case TASK_DISPATCH_REQUEST:
+                TaskExecutionContext taskExecutionContext = new TaskExecutionContext();
+                taskExecutionContext.setTaskInstanceId(1);
+                taskExecutionContext.setProcessInstanceId(1);
+                taskExecutionContext.setTaskName("benchmark");
+                taskExecutionContext.setTaskType("SHELL");
+                taskExecutionContext.setWorkerGroup("default");
+                taskExecutionContext.setTaskParams(payload);
+                return new TaskDispatchCommand(taskExecutionContext, MASTER_ADDRESS, WORKER_ADDRESS, now);
+            case TASK_EXECUTE_RESULT:
+                TaskExecuteResultCommand resultCommand = new TaskExecuteResultCommand(WORKER_ADDRESS,
+                        MASTER_ADDRESS, now);
+                resultCommand.setTaskInstanceId(1);
+                resultCommand.setProcessInstanceId(1);
+                resultCommand.setStatus(TaskExecutionStatus.SUCCESS.getCode());
+                resultCommand.setLogPath("/tmp/dolphinscheduler/log/1.log");
+                resultCommand.setVarPool(payload);
+                return resultCommand;
+            case TASK_EXECUTE_RUNNING:
+                TaskExecuteRunningCommand runningCommand = new TaskExecuteRunningCommand(WORKER_ADDRESS,
+                        MASTER_ADDRESS, now);
+                runningCommand.setTaskInstanceId(1);
+                runningCommand.setProcessInstanceId(1);
+                runningCommand.setStatus(TaskExecutionStatus.RUNNING_EXECUTION);
+                runningCommand.setLogPath("/tmp/dolphinscheduler/log/1.log");
+                runningCommand.setAppIds(payload);
+                return runningCommand;
+            default:
+                throw new IllegalArgumentException("unsupported command type: " + commandType);
+        }
+    }
+
+    static Command convert2Command(BaseCommand command) {
+        if (command instanceof TaskDispatchCommand) {
+            return ((TaskDispatchCommand) command).convert2Command();
+        }
+        if (command instanceof TaskExecuteResultCommand) {
+            return ((TaskExecuteResultCommand) command).convert2Command();
+        }
+        return ((TaskExecuteRunningCommand) command).convert2Command();
+    }
+
+    private static String payload(int payloadSize) {
+        StringBuilder payload = new StringBuilder(payloadSize);
+        while (payload.length() < payloadSize) {
+            payload.append('v');
+        }
+        return payload.toString();
+    }
+}
@@ -88,6 +88,14 @@ public interface Registry extends Closeable {
      */
     boolean acquireLock(String key);
 
+    /**
+     * Acquire the lock of the prefix {@param key}, will wait in the given timeout
+     *
+     * @param timeout max wait time in milliseconds
+     * @return {@code true} if the lock is acquired, {@code false} if the lock cannot be acquired in the given timeout
+     */
+    boolean acquireLock(String key, long timeout);
+
     /**
      * Release the lock of the prefix {@param key}
      */
@@ -22,20 +22,13 @@ import static com.google.common.base.Preconditions.checkArgument;
 import org.apache.dolphinscheduler.common.IStoppable;
 import org.apache.dolphinscheduler.common.constants.Constants;
 import org.apache.dolphinscheduler.common.enums.NodeType;
-import org.apache.dolphinscheduler.common.model.MasterHeartBeat;
+import org.apache.dolphinscheduler.common.model.HeartBeat;
 import org.apache.dolphinscheduler.common.model.Server;
-import org.apache.dolphinscheduler.common.model.WorkerHeartBeat;
-import org.apache.dolphinscheduler.common.utils.JSONUtils;
-
-import org.apache.commons.lang3.StringUtils;
 
 import java.io.IOException;
 import java.time.Duration;
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -45,6 +38,7 @@ import javax.annotation.PostConstruct;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import com.google.common.base.Strings;
@@ -58,13 +52,29 @@ public class RegistryClient {
 
     private final Registry registry;
 
-    public RegistryClient(Registry registry) {
+    private final Map<NodeType, ServerNodeCache> serverNodeCaches = new EnumMap<>(NodeType.class);
+
+    /**
+     * @param serverCacheMaxStaleness the max staleness of the cached servers if the registry events are lost
+     */
+    public RegistryClient(Registry registry,
+                          @Value("${registry.server-cache-max-staleness:30s}") Duration serverCacheMaxStaleness) {
         this.registry = registry;
+        for (NodeType nodeType : new NodeType[]{NodeType.MASTER, NodeType.WORKER}) {
+            serverNodeCaches.put(nodeType,
+                    new ServerNodeCache(registry, nodeType, rootNodePath(nodeType), serverCacheMaxStaleness));
+        }
     }
 
     @PostConstruct
     public void afterConstruct() {
         initNodes();
+        registry.addConnectionStateListener(state -> {
+            if (state == ConnectionState.RECONNECTED) {
+                // the events may be lost when disconnected
+                serverNodeCaches.values().forEach(ServerNodeCache::invalidate);
+            }
+        });
     }
 
     public void connectUntilTimeout(@NonNull Duration duration) throws RegistryException {
@@ -72,75 +82,38 @@ public class RegistryClient {
     }
 
     public int getActiveMasterNum() {
-        Collection<String> childrenList = new ArrayList<>();
-        try {
-            // read master node parent path from conf
-            if (exists(rootNodePath(NodeType.MASTER))) {
-                childrenList = getChildrenKeys(rootNodePath(NodeType.MASTER));
-            }
-        } catch (Exception e) {
-            log.error("getActiveMasterNum error", e);
-        }
-        return childrenList.size();
+        return getServerMaps(NodeType.MASTER).size();
     }
 
+    /**
+     * Return the cached servers, the servers with empty heartbeat are excluded
+     */
     public List<Server> getServerList(NodeType nodeType) {
-        Map<String, String> serverMaps = getServerMaps(nodeType);
-        String parentPath = rootNodePath(nodeType);
-
-        List<Server> serverList = new ArrayList<>();
-        for (Map.Entry<String, String> entry : serverMaps.entrySet()) {
-            String serverPath = entry.getKey();
-            String heartBeatJson = entry.getValue();
-            if (StringUtils.isEmpty(heartBeatJson)) {
-                log.error("The heartBeatJson is empty, serverPath: {}", serverPath);
-                continue;
-            }
-            Server server = new Server();
-            switch (nodeType) {
-                case MASTER:
-                    MasterHeartBeat masterHeartBeat = JSONUtils.parseObject(heartBeatJson, MasterHeartBeat.class);
-                    server.setCreateTime(new Date(masterHeartBeat.getStartupTime()));
-                    server.setLastHeartbeatTime(new Date(masterHeartBeat.getReportTime()));
-                    server.setId(masterHeartBeat.getProcessId());
-                    break;
-                case WORKER:
-                    WorkerHeartBeat workerHeartBeat = JSONUtils.parseObject(heartBeatJson, WorkerHeartBeat.class);
-                    server.setCreateTime(new Date(workerHeartBeat.getStartupTime()));
-                    server.setLastHeartbeatTime(new Date(workerHeartBeat.getReportTime()));
-                    server.setId(workerHeartBeat.getProcessId());
-                    break;
-            }
+        return getServerNodeCache(nodeType).getSnapshot().getServers();
+    }
 
-            server.setResInfo(heartBeatJson);
-            // todo: add host, port in heartBeat Info, so that we don't need to parse this again
-            server.setZkDirectory(parentPath + "/" + serverPath);
-            // set host and port
-            String[] hostAndPort = serverPath.split(Constants.COLON);
-            // fetch the last one
-            server.setHost(hostAndPort[0]);
-            server.setPort(Integer.parseInt(hostAndPort[1]));
-            serverList.add(server);
-        }
-        return serverList;
+    /**
+     * Return the servers read from the registry, the cache is refreshed by the result. It's used when the servers
+     * should reflect the latest registry change, e.g. the failover is triggered by another subscription of the
+     * registry, which may be notified before the cache applies the same event.
+     */
+    public List<Server> getServerListDirectly(NodeType nodeType) {
+        return getServerNodeCache(nodeType).reloadSnapshot().getServers();
     }
 
     /**
-     * Return server host:port -> value
+     * Return the cached server host:port -> heartbeat json
      */
     public Map<String, String> getServerMaps(NodeType nodeType) {
-        Map<String, String> serverMap = new HashMap<>();
-        try {
-            String path = rootNodePath(nodeType);
-            Collection<String> serverList = getServerNodes(nodeType);
-            for (String server : serverList) {
-                serverMap.putIfAbsent(server, get(path + Constants.SINGLE_SLASH + server));
-            }
-        } catch (Exception e) {
-            log.error("get server list failed", e);
-        }
+        return getServerNodeCache(nodeType).getSnapshot().getHeartBeatJsons();
+    }
 
-        return serverMap;
+    /**
+     * Return the cached server host:port -> parsed heartbeat, {@link org.apache.dolphinscheduler.common.model.MasterHeartBeat}
+     * or {@link org.apache.dolphinscheduler.common.model.WorkerHeartBeat} of the node type
+     */
+    public Map<String, HeartBeat> getHeartBeats(NodeType nodeType) {
+        return getServerNodeCache(nodeType).getSnapshot().getHeartBeats();
     }
 
     public boolean checkNodeExists(String host, NodeType nodeType) {
@@ -186,6 +159,13 @@ public class RegistryClient {
     }
 
     public void subscribe(String path, SubscribeListener listener) {
+        for (ServerNodeCache serverNodeCache : serverNodeCaches.values()) {
+            if (serverNodeCache.getRootPath().equals(path)) {
+                // the listener reads the cache which has applied the event
+                serverNodeCache.addListener(listener);
+                return;
+            }
+        }
         registry.subscribe(path, listener);
     }
 
@@ -201,6 +181,15 @@ public class RegistryClient {
         return registry.acquireLock(key);
     }
 
+    /**
+     * Try to get the lock in the given timeout.
+     *
+     * @return {@code true} if get the lock, {@code false} if the lock is held by others after the timeout
+     */
+    public boolean getLock(String key, Duration timeout) {
+        return registry.acquireLock(key, timeout.toMillis());
+    }
+
     public boolean releaseLock(String key) {
         return registry.releaseLock(key);
     }
@@ -226,11 +215,7 @@ public class RegistryClient {
     }
 
     public Set<String> getServerNodeSet(NodeType nodeType) {
-        try {
-            return new HashSet<>(getServerNodes(nodeType));
-        } catch (Exception e) {
-            throw new RegistryException("Failed to get server node: " + nodeType, e);
-        }
+        return getServerMaps(nodeType).keySet();
     }
 
     private void initNodes() {
@@ -249,9 +234,12 @@ public class RegistryClient {
         }
     }
 
-    private Collection<String> getServerNodes(NodeType nodeType) {
-        final String path = rootNodePath(nodeType);
-        return getChildrenKeys(path);
+    private ServerNodeCache getServerNodeCache(NodeType nodeType) {
+        ServerNodeCache serverNodeCache = serverNodeCaches.get(nodeType);
+        if (serverNodeCache == null) {
+            throw new IllegalStateException("Should not reach here");
+        }
+        return serverNodeCache;
     }
 
 }
@@ -0,0 +1,308 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.registry.api;
+
+import org.apache.dolphinscheduler.common.constants.Constants;
+import org.apache.dolphinscheduler.common.enums.NodeType;
+import org.apache.dolphinscheduler.common.model.HeartBeat;
+import org.apache.dolphinscheduler.common.model.MasterHeartBeat;
+import org.apache.dolphinscheduler.common.model.Server;
+import org.apache.dolphinscheduler.common.model.WorkerHeartBeat;
+import org.apache.dolphinscheduler.common.utils.JSONUtils;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The local view of the servers of one node type, it is kept up to date by the subscription of the registry and holds
+ * the parsed heartbeats, so the lookups do not read the registry.
+ * <p>
+ * The events of the registry may be lost, e.g. on reconnecting, so the view is reloaded from the registry when it is
+ * older than the max staleness. The view is reloaded on every lookup if the subscription failed.
+ * <p>
+ * The other listeners of the root path are notified after the event is applied to the view, so they read the view
+ * that is consistent with the event.
+ */
+@Slf4j
+final class ServerNodeCache implements SubscribeListener {
+
+    private final Registry registry;
+
+    private final NodeType nodeType;
+
+    private final String rootPath;
+
+    private final long maxStalenessMillis;
+
+    private final List<SubscribeListener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile Snapshot snapshot;
+
+    private volatile boolean subscribed;
+
+    ServerNodeCache(Registry registry, NodeType nodeType, String rootPath, Duration maxStaleness) {
+        this.registry = registry;
+        this.nodeType = nodeType;
+        this.rootPath = rootPath;
+        this.maxStalenessMillis = maxStaleness.toMillis();
+    }
+
+    /**
+     * Get the snapshot of the servers, the snapshot is immutable.
+     */
+    Snapshot getSnapshot() {
+        subscribeIfNecessary();
+        Snapshot current = snapshot;
+        if (current == null || !subscribed || isStale(current)) {
+            current = reload(current);
+        }
+        return current;
+    }
+
+    /**
+     * Add a listener of the root path, which is notified after the cache.
+     */
+    void addListener(SubscribeListener listener) {
+        subscribeIfNecessary();
+        listeners.add(listener);
+    }
+
+    String getRootPath() {
+        return rootPath;
+    }
+
+    /**
+     * Force the next lookup to reload from the registry.
+     */
+    void invalidate() {
+        snapshot = null;
+    }
+
+    @Override
+    public void notify(Event event) {
+        try {
+            apply(event);
+        } catch (Exception ex) {
+            log.error("Apply the registry event {} to the {} cache failed", event, nodeType, ex);
+            invalidate();
+        }
+        for (SubscribeListener listener : listeners) {
+            listener.notify(event);
+        }
+    }
+
+    private void apply(Event event) {
+        if (event.type() == null || event.path() == null) {
+            return;
+        }
+        String serverPath = serverPathOf(event.path());
+        if (serverPath == null) {
+            return;
+        }
+        synchronized (this) {
+            Snapshot current = snapshot;
+            if (current == null) {
+                // the next lookup reloads the full view
+                return;
+            }
+            Map<String, String> heartBeatJsons = new LinkedHashMap<>(current.heartBeatJsons);
+            if (event.type() == Event.Type.REMOVE) {
+                if (heartBeatJsons.remove(serverPath) == null) {
+                    return;
+                }
+            } else {
+                heartBeatJsons.put(serverPath, event.data());
+            }
+            snapshot = new Snapshot(heartBeatJsons, current.loadTime, current);
+        }
+    }
+
+    private void subscribeIfNecessary() {
+        if (subscribed) {
+            return;
+        }
+        synchronized (this) {
+            if (subscribed) {
+                return;
+            }
+            try {
+                registry.subscribe(rootPath, this);
+                subscribed = true;
+            } catch (Exception ex) {
+                log.warn("Subscribe the {} path failed, the {} cache will be reloaded on every lookup", rootPath,
+                        nodeType, ex);
+            }
+        }
+    }
+
+    private boolean isStale(Snapshot current) {
+        return System.currentTimeMillis() - current.loadTime > maxStalenessMillis;
+    }
+
+    /**
+     * Reload the snapshot from the registry, even if the snapshot is up to date with the applied events.
+     */
+    synchronized Snapshot reloadSnapshot() {
+        return load(snapshot);
+    }
+
+    private synchronized Snapshot reload(Snapshot expected) {
+        Snapshot current = snapshot;
+        if (current != expected && current != null && subscribed && !isStale(current)) {
+            // reloaded by another thread
+            return current;
+        }
+        return load(current);
+    }
+
+    private Snapshot load(Snapshot current) {
+        long loadTime = System.currentTimeMillis();
+        Map<String, String> heartBeatJsons = new LinkedHashMap<>();
+        try {
+            for (String server : registry.children(rootPath)) {
+                heartBeatJsons.putIfAbsent(server, registry.get(rootPath + Constants.SINGLE_SLASH + server));
+            }
+        } catch (Exception e) {
+            log.error("get server list failed", e);
+        }
+        snapshot = new Snapshot(heartBeatJsons, loadTime, current);
+        return snapshot;
+    }
+
+    /**
+     * @return the server host:port if the path is a server node of the root path, else null
+     */
+    private String serverPathOf(String path) {
+        if (!path.startsWith(rootPath + Constants.SINGLE_SLASH)) {
+            return null;
+        }
+        String serverPath = path.substring(rootPath.length() + 1);
+        return serverPath.isEmpty() || serverPath.contains(Constants.SINGLE_SLASH) ? null : serverPath;
+    }
+
+    private Server toServer(String serverPath, String heartBeatJson, HeartBeat heartBeat) {
+        Server server = new Server();
+        if (heartBeat instanceof MasterHeartBeat) {
+            MasterHeartBeat masterHeartBeat = (MasterHeartBeat) heartBeat;
+            server.setCreateTime(new Date(masterHeartBeat.getStartupTime()));
+            server.setLastHeartbeatTime(new Date(masterHeartBeat.getReportTime()));
+            server.setId(masterHeartBeat.getProcessId());
+        } else if (heartBeat instanceof WorkerHeartBeat) {
+            WorkerHeartBeat workerHeartBeat = (WorkerHeartBeat) heartBeat;
+            server.setCreateTime(new Date(workerHeartBeat.getStartupTime()));
+            server.setLastHeartbeatTime(new Date(workerHeartBeat.getReportTime()));
+            server.setId(workerHeartBeat.getProcessId());
+        }
+        server.setResInfo(heartBeatJson);
+        server.setZkDirectory(rootPath + "/" + serverPath);
+        // set host and port
+        String[] hostAndPort = serverPath.split(Constants.COLON);
+        server.setHost(hostAndPort[0]);
+        server.setPort(Integer.parseInt(hostAndPort[1]));
+        return server;
+    }
+
+    private HeartBeat parseHeartBeat(String heartBeatJson) {
+        switch (nodeType) {
+            case MASTER:
+                return JSONUtils.parseObject(heartBeatJson, MasterHeartBeat.class);
+            case WORKER:
+                return JSONUtils.parseObject(heartBeatJson, WorkerHeartBeat.class);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * The immutable view of the servers, the heartbeat of the unchanged server is reused from the previous view.
+     */
+    final class Snapshot {
+
+        private final Map<String, String> heartBeatJsons;
+
+        private final Map<String, HeartBeat> heartBeats;
+
+        private final Map<String, Server> servers;
+
+        private final List<Server> serverList;
+
+        private final long loadTime;
+
+        private Snapshot(Map<String, String> heartBeatJsons, long loadTime, Snapshot previous) {
+            Map<String, HeartBeat> parsedHeartBeats = new LinkedHashMap<>();
+            Map<String, Server> parsedServers = new LinkedHashMap<>();
+            for (Map.Entry<String, String> entry : heartBeatJsons.entrySet()) {
+                String serverPath = entry.getKey();
+                String heartBeatJson = entry.getValue();
+                if (StringUtils.isEmpty(heartBeatJson)) {
+                    log.error("The heartBeatJson is empty, serverPath: {}", serverPath);
+                    continue;
+                }
+                if (previous != null && heartBeatJson.equals(previous.heartBeatJsons.get(serverPath))
+                        && previous.heartBeats.containsKey(serverPath)) {
+                    parsedHeartBeats.put(serverPath, previous.heartBeats.get(serverPath));
+                    parsedServers.put(serverPath, previous.servers.get(serverPath));
+                    continue;
+                }
+                try {
+                    HeartBeat heartBeat = parseHeartBeat(heartBeatJson);
+                    if (heartBeat == null) {
+                        continue;
+                    }
+                    parsedHeartBeats.put(serverPath, heartBeat);
+                    parsedServers.put(serverPath, toServer(serverPath, heartBeatJson, heartBeat));
+                } catch (Exception ex) {
+                    log.error("Parse the heartbeat of {} failed, heartBeatJson: {}", serverPath, heartBeatJson, ex);
+                }
+            }
+            this.heartBeatJsons = Collections.unmodifiableMap(heartBeatJsons);
+            this.heartBeats = Collections.unmodifiableMap(parsedHeartBeats);
+            this.servers = parsedServers;
+            this.serverList = Collections.unmodifiableList(new ArrayList<>(parsedServers.values()));
+            this.loadTime = loadTime;
+        }
+
+        /**
+         * @return server host:port -> heartbeat json
+         */
+        Map<String, String> getHeartBeatJsons() {
+            return heartBeatJsons;
+        }
+
+        /**
+         * @return server host:port -> parsed heartbeat
+         */
+        Map<String, HeartBeat> getHeartBeats() {
+            return heartBeats;
+        }
+
+        List<Server> getServers() {
+            return serverList;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.registry.api;
+
+import org.apache.dolphinscheduler.common.constants.Constants;
+import org.apache.dolphinscheduler.common.enums.NodeType;
+import org.apache.dolphinscheduler.common.model.Server;
+import org.apache.dolphinscheduler.common.model.WorkerHeartBeat;
+import org.apache.dolphinscheduler.common.utils.JSONUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+class RegistryClientTest {
+
+    private static final String WORKER_1 = "127.0.0.1:1234";
+
+    private static final String WORKER_2 = "127.0.0.2:1234";
+
+    private Registry registry;
+
+    private RegistryClient registryClient;
+
+    @BeforeEach
+    void before() {
+        registry = Mockito.mock(Registry.class);
+        Mockito.when(registry.children(Constants.REGISTRY_DOLPHINSCHEDULER_WORKERS))
+                .thenReturn(Collections.singletonList(WORKER_1));
+        Mockito.when(registry.get(workerPath(WORKER_1))).thenReturn(heartBeat(1));
+        registryClient = new RegistryClient(registry, Duration.ofHours(1));
+    }
+
+    @Test
+    void testServerListServedByCache() {
+        List<Server> servers = registryClient.getServerList(NodeType.WORKER);
+        Assertions.assertEquals(1, servers.size());
+        Assertions.assertEquals("127.0.0.1", servers.get(0).getHost());
+        Assertions.assertEquals(1, servers.get(0).getId());
+
+        Assertions.assertSame(servers, registryClient.getServerList(NodeType.WORKER));
+        Assertions.assertEquals(1, registryClient.getServerMaps(NodeType.WORKER).size());
+        Mockito.verify(registry, Mockito.times(1)).children(Constants.REGISTRY_DOLPHINSCHEDULER_WORKERS);
+        Mockito.verify(registry, Mockito.times(1)).get(workerPath(WORKER_1));
+    }
+
+    @Test
+    void testEventAppliedBeforeListener() {
+        registryClient.getServerList(NodeType.WORKER);
+        AtomicReference<List<String>> hostsSeenByListener = new AtomicReference<>();
+        registryClient.subscribe(Constants.REGISTRY_DOLPHINSCHEDULER_WORKERS, event -> {
+            List<String> hosts = new ArrayList<>(registryClient.getServerNodeSet(NodeType.WORKER));
+            hostsSeenByListener.set(hosts);
+        });
+        SubscribeListener cache = captureSubscription();
+
+        cache.notify(new Event(Constants.REGISTRY_DOLPHINSCHEDULER_WORKERS, workerPath(WORKER_2), heartBeat(2),
+                Event.Type.ADD));
+        Assertions.assertEquals(2, hostsSeenByListener.get().size());
+        Assertions.assertEquals(2,
+                ((WorkerHeartBeat) registryClient.getHeartBeats(NodeType.WORKER).get(WORKER_2)).getProcessId());
+
+        cache.notify(new Event(Constants.REGISTRY_DOLPHINSCHEDULER_WORKERS, workerPath(WORKER_1), null,
+                Event.Type.REMOVE));
+        Assertions.assertEquals(Collections.singletonList(WORKER_2), hostsSeenByListener.get());
+        Mockito.verify(registry, Mockito.times(1)).children(Constants.REGISTRY_DOLPHINSCHEDULER_WORKERS);
+    }
+
+    @Test
+    void testServerListDirectlyWhenCacheBehindEvent() {
+        registryClient.getServerList(NodeType.WORKER);
+        registryClient.subscribe(Constants.REGISTRY_DOLPHINSCHEDULER_WORKERS, event -> {
+        });
+        // the worker is removed, but the remove event is not applied to the cache yet
+        Mockito.when(registry.children(Constants.REGISTRY_DOLPHINSCHEDULER_WORKERS))
+                .thenReturn(Collections.emptyList());
+        Assertions.assertEquals(1, registryClient.getServerList(NodeType.WORKER).size());
+
+        Assertions.assertTrue(registryClient.getServerListDirectly(NodeType.WORKER).isEmpty());
+        // the cache is refreshed by the direct read
+        Assertions.assertTrue(registryClient.getServerList(NodeType.WORKER).isEmpty());
+    }
+
+    @Test
+    void testReloadWhenStale() {
+        registryClient = new RegistryClient(registry, Duration.ZERO);
+        registryClient.getServerList(NodeType.WORKER);
+        Mockito.when(registry.children(Constants.REGISTRY_DOLPHINSCHEDULER_WORKERS))
+                .thenReturn(Collections.emptyList());
+        sleep(5);
+
+        Assertions.assertTrue(registryClient.getServerList(NodeType.WORKER).isEmpty());
+    }
+
+    @Test
+    void testReloadWhenSubscribeFailed() {
+        Mockito.when(registry.subscribe(Mockito.anyString(), Mockito.any()))
+                .thenThrow(new RegistryException("subscribe failed"));
+        registryClient.getServerList(NodeType.WORKER);
+        registryClient.getServerList(NodeType.WORKER);
+
+        Mockito.verify(registry, Mockito.times(2)).children(Constants.REGISTRY_DOLPHINSCHEDULER_WORKERS);
+    }
+
+    private SubscribeListener captureSubscription() {
+        ArgumentCaptor<SubscribeListener> captor = ArgumentCaptor.forClass(SubscribeListener.class);
+        Mockito.verify(registry).subscribe(Mockito.eq(Constants.REGISTRY_DOLPHINSCHEDULER_WORKERS),
+                captor.capture());
+        return captor.getValue();
+    }
+
+    private static String workerPath(String worker) {
+        return Constants.REGISTRY_DOLPHINSCHEDULER_WORKERS + Constants.SINGLE_SLASH + worker;
+    }
+
+    private static String heartBeat(int processId) {
+        WorkerHeartBeat workerHeartBeat = new WorkerHeartBeat();
+        workerHeartBeat.setProcessId(processId);
+        workerHeartBeat.setStartupTime(System.currentTimeMillis());
+        workerHeartBeat.setReportTime(System.currentTimeMillis());
+        return JSONUtils.toJsonString(workerHeartBeat);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.plugin.registry.embedded;
+
+import org.apache.dolphinscheduler.plugin.registry.embedded.command.RegistryEventCommand;
+import org.apache.dolphinscheduler.remote.command.CommandType;
+
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import io.netty.channel.Channel;
+
+/**
+ * Push the events to the remote client or standby server by the channel which the request is received from.
+ */
+@RequiredArgsConstructor
+@EqualsAndHashCode
+class ChannelEventSink implements EventSink {
+
+    private final Channel channel;
+
+    private final CommandType commandType;
+
+    @Override
+    public void send(RegistryEventCommand event) {
+        channel.writeAndFlush(event.convert2Command(commandType));
+    }
+
+    @Override
+    public boolean isActive() {
+        return channel.isActive();
+    }
+}
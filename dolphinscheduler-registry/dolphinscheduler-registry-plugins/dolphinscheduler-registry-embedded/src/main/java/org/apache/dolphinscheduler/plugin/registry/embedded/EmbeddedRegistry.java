@@ -0,0 +1,573 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.plugin.registry.embedded;
+
+import org.apache.dolphinscheduler.plugin.registry.embedded.command.RegistryEventCommand;
+import org.apache.dolphinscheduler.plugin.registry.embedded.command.RegistryRequestCommand;
+import org.apache.dolphinscheduler.plugin.registry.embedded.command.RegistryResponseCommand;
+import org.apache.dolphinscheduler.plugin.registry.embedded.model.RegistryNode;
+import org.apache.dolphinscheduler.plugin.registry.embedded.model.RegistryOperation;
+import org.apache.dolphinscheduler.plugin.registry.embedded.model.ResponseStatus;
+import org.apache.dolphinscheduler.registry.api.ConnectionListener;
+import org.apache.dolphinscheduler.registry.api.ConnectionState;
+import org.apache.dolphinscheduler.registry.api.Event;
+import org.apache.dolphinscheduler.registry.api.Registry;
+import org.apache.dolphinscheduler.registry.api.RegistryException;
+import org.apache.dolphinscheduler.registry.api.SubscribeListener;
+import org.apache.dolphinscheduler.remote.NettyRemotingClient;
+import org.apache.dolphinscheduler.remote.command.Command;
+import org.apache.dolphinscheduler.remote.command.CommandType;
+import org.apache.dolphinscheduler.remote.config.NettyClientConfig;
+import org.apache.dolphinscheduler.remote.exceptions.RemotingException;
+import org.apache.dolphinscheduler.remote.utils.Host;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * This is one of the implementation of {@link Registry}, with this implementation, the registry is served by the
+ * {@link EmbeddedRegistryServer} embedded in the master, and is reached over the netty remoting, so no other
+ * component is needed.
+ * <p>
+ * The client keeps its session by heartbeat, and restores its ephemeral nodes and subscriptions when it switches to a
+ * new leader or its session is expired. The watch events are pushed by the leader, and are notified in order by a
+ * single thread.
+ */
+@Component
+@ConditionalOnProperty(prefix = "registry", name = "type", havingValue = "embedded")
+@Slf4j
+public class EmbeddedRegistry implements Registry {
+
+    private static final AtomicLong LOCK_ACQUISITION_ID = new AtomicLong();
+
+    private static final ThreadLocal<Map<String, String>> threadLocalLockMap = new ThreadLocal<>();
+
+    private final EmbeddedRegistryProperties properties;
+
+    private final String sessionId = UUID.randomUUID().toString();
+
+    /**
+     * The server in the current process, null if the server is not enabled.
+     */
+    private final EmbeddedRegistryServer registryServer;
+
+    private final List<Host> servers;
+
+    private final NettyRemotingClient nettyRemotingClient;
+
+    private final ExecutorService eventExecutor;
+
+    private final ScheduledExecutorService heartbeatExecutor;
+
+    private final EventSink localEventSink;
+
+    private final Map<String, String> ephemeralNodes = new ConcurrentHashMap<>();
+
+    private final Map<String, List<SubscribeListener>> subscribeListeners = new ConcurrentHashMap<>();
+
+    /**
+     * The nodes under the subscribed paths, it's only accessed by the event thread.
+     */
+    private final Map<String, String> watchedNodes = new HashMap<>();
+
+    private final List<ConnectionListener> connectionListeners = new CopyOnWriteArrayList<>();
+
+    private volatile Host leader;
+
+    private volatile boolean sessionRestoreNeeded;
+
+    private volatile ConnectionState connectionState;
+
+    private volatile long lastHeartbeatTime;
+
+    public EmbeddedRegistry(EmbeddedRegistryProperties properties) {
+        this.properties = properties;
+        this.servers = EmbeddedRegistryServer.parseServers(properties.getServers());
+        if (properties.isServerEnabled()) {
+            this.registryServer = new EmbeddedRegistryServer(properties);
+        } else if (servers.isEmpty()) {
+            throw new RegistryException("The embedded registry servers are not set, and the server is not enabled");
+        } else {
+            this.registryServer = null;
+        }
+        this.nettyRemotingClient = servers.isEmpty() ? null
+                : new NettyRemotingClient(NettyClientConfig.builder().channelPoolSize(1).build());
+        this.eventExecutor = Executors.newSingleThreadExecutor(
+                new ThreadFactoryBuilder().setNameFormat("EmbeddedRegistryEventThread").setDaemon(true).build());
+        this.heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("EmbeddedRegistryHeartbeatThread").setDaemon(true).build());
+        this.localEventSink = new EventSink() {
+
+            @Override
+            public void send(RegistryEventCommand event) {
+                eventExecutor.execute(() -> onEvent(event));
+            }
+
+            @Override
+            public boolean isActive() {
+                return !eventExecutor.isShutdown();
+            }
+        };
+    }
+
+    @PostConstruct
+    public void start() {
+        if (registryServer != null) {
+            registryServer.start();
+        }
+        if (nettyRemotingClient != null) {
+            nettyRemotingClient.registerProcessor(CommandType.REGISTRY_EVENT,
+                    (channel, command) -> onEvent(command.parseBody(RegistryEventCommand.class)), eventExecutor);
+        }
+        heartbeatExecutor.scheduleWithFixedDelay(this::heartbeat, 0,
+                properties.getHeartbeatInterval().toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Started Embedded Registry, session: {}", sessionId);
+    }
+
+    @Override
+    public void connectUntilTimeout(@NonNull Duration timeout) throws RegistryException {
+        long beginTimeMillis = System.currentTimeMillis();
+        long endTimeMills = timeout.getSeconds() <= 0 ? Long.MAX_VALUE : beginTimeMillis + timeout.toMillis();
+        while (connectionState != ConnectionState.CONNECTED) {
+            if (System.currentTimeMillis() > endTimeMills) {
+                throw new RegistryException(
+                        String.format("Cannot connect to the embedded registry in %s s", timeout.getSeconds()));
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RegistryException("Cannot connect to the embedded registry due to interrupted exception",
+                        e);
+            }
+        }
+    }
+
+    @Override
+    public boolean subscribe(String path, SubscribeListener listener) {
+        List<SubscribeListener> listeners =
+                subscribeListeners.computeIfAbsent(path, key -> new CopyOnWriteArrayList<>());
+        listeners.add(listener);
+        try {
+            request(RegistryRequestCommand.builder().operation(RegistryOperation.SUBSCRIBE).key(path).build());
+        } catch (RegistryException e) {
+            listeners.remove(listener);
+            throw new RegistryException("Failed to subscribe listener for key: " + path, e);
+        }
+        return true;
+    }
+
+    @Override
+    public void unsubscribe(String path) {
+        subscribeListeners.remove(path);
+        try {
+            request(RegistryRequestCommand.builder().operation(RegistryOperation.UNSUBSCRIBE).key(path).build());
+        } catch (RegistryException e) {
+            log.warn("Unsubscribe the path: {} error, the events of it will be ignored", path, e);
+        }
+    }
+
+    @Override
+    public void addConnectionStateListener(ConnectionListener listener) {
+        connectionListeners.add(listener);
+    }
+
+    @Override
+    public String get(String key) {
+        return request(RegistryRequestCommand.builder().operation(RegistryOperation.GET).key(key).build())
+                .getValue();
+    }
+
+    @Override
+    public void put(String key, String value, boolean deleteOnDisconnect) {
+        request(RegistryRequestCommand.builder()
+                .operation(RegistryOperation.PUT)
+                .key(key)
+                .value(value)
+                .ephemeral(deleteOnDisconnect)
+                .build());
+        if (deleteOnDisconnect) {
+            ephemeralNodes.put(key, value);
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        request(RegistryRequestCommand.builder().operation(RegistryOperation.DELETE).key(key).build());
+        ephemeralNodes.keySet().removeIf(ephemeralKey -> RegistryStore.isUnderPath(key, ephemeralKey));
+    }
+
+    @Override
+    public Collection<String> children(String key) {
+        List<String> children =
+                request(RegistryRequestCommand.builder().operation(RegistryOperation.CHILDREN).key(key).build())
+                        .getChildren();
+        children.sort(Comparator.reverseOrder());
+        return children;
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return request(RegistryRequestCommand.builder().operation(RegistryOperation.EXISTS).key(key).build())
+                .isResult();
+    }
+
+    @Override
+    public boolean acquireLock(String key) {
+        String lockOwner = sessionId + "_" + LOCK_ACQUISITION_ID.incrementAndGet();
+        // wait in rounds, so the request will not be timeout on the remoting layer
+        while (!acquireLock(key, lockOwner, properties.getSessionTimeout().toMillis())) {
+            log.debug("Acquire the lock {} timeout, try again", key);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean acquireLock(String key, long timeout) {
+        return acquireLock(key, sessionId + "_" + LOCK_ACQUISITION_ID.incrementAndGet(), timeout);
+    }
+
+    private boolean acquireLock(String key, String lockOwner, long timeout) {
+        RegistryRequestCommand lockRequest = RegistryRequestCommand.builder()
+                .operation(RegistryOperation.LOCK)
+                .key(key)
+                .lockOwner(lockOwner)
+                .timeout(timeout)
+                .build();
+        RegistryResponseCommand response;
+        try {
+            response = request(lockRequest, timeout + properties.getRequestTimeout().toMillis());
+        } catch (RegistryException e) {
+            // the lock may be granted after the request failed
+            cancelLock(key, lockOwner);
+            throw new RegistryException("Acquire the lock error, lockKey: " + key, e);
+        }
+        if (!response.isResult()) {
+            return false;
+        }
+        if (threadLocalLockMap.get() == null) {
+            threadLocalLockMap.set(new HashMap<>());
+        }
+        threadLocalLockMap.get().put(key, lockOwner);
+        return true;
+    }
+
+    private void cancelLock(String key, String lockOwner) {
+        try {
+            request(RegistryRequestCommand.builder()
+                    .operation(RegistryOperation.UNLOCK)
+                    .key(key)
+                    .lockOwner(lockOwner)
+                    .build());
+        } catch (RegistryException e) {
+            log.warn("Cancel the lock: {} error, it will be released when the session expires", key, e);
+        }
+    }
+
+    @Override
+    public boolean releaseLock(String key) {
+        Map<String, String> lockMap = threadLocalLockMap.get();
+        if (lockMap == null || !lockMap.containsKey(key)) {
+            return false;
+        }
+        String lockOwner = lockMap.remove(key);
+        if (lockMap.isEmpty()) {
+            threadLocalLockMap.remove();
+        }
+        return request(RegistryRequestCommand.builder()
+                .operation(RegistryOperation.UNLOCK)
+                .key(key)
+                .lockOwner(lockOwner)
+                .build()).isResult();
+    }
+
+    private RegistryResponseCommand request(RegistryRequestCommand request) {
+        return request(request, properties.getRequestTimeout().toMillis());
+    }
+
+    /**
+     * Send the request to the leader, the leader is looked for in the configured servers if the current one is lost.
+     */
+    private RegistryResponseCommand request(RegistryRequestCommand request, long timeoutMillis) {
+        request.setSessionId(sessionId);
+        if (servers.isEmpty()) {
+            return checkResponse(requestLocalServer(request, timeoutMillis));
+        }
+        Deque<Host> candidates = new ArrayDeque<>();
+        Host currentLeader = leader;
+        if (currentLeader != null) {
+            candidates.add(currentLeader);
+        }
+        candidates.addAll(servers);
+        Set<Host> requestedServers = new HashSet<>();
+        while (!candidates.isEmpty()) {
+            Host server = candidates.poll();
+            if (!requestedServers.add(server)) {
+                continue;
+            }
+            RegistryResponseCommand response = requestServer(server, request, timeoutMillis);
+            if (response == null) {
+                continue;
+            }
+            if (response.getStatus() == ResponseStatus.NOT_LEADER) {
+                if (response.getLeader() != null) {
+                    candidates.addFirst(Host.of(response.getLeader()));
+                }
+                continue;
+            }
+            if (!server.equals(currentLeader)) {
+                log.info("The embedded registry leader is changed from {} to {}", currentLeader, server);
+                leader = server;
+                sessionRestoreNeeded = true;
+            }
+            return checkResponse(response);
+        }
+        throw new RegistryException("Cannot find the leader of the embedded registry servers: " + servers);
+    }
+
+    private RegistryResponseCommand requestServer(Host server, RegistryRequestCommand request, long timeoutMillis) {
+        if (registryServer != null && server.equals(registryServer.getLocalServer())) {
+            return requestLocalServer(request, timeoutMillis);
+        }
+        try {
+            Command response = nettyRemotingClient.sendSync(server, request.convert2Command(), timeoutMillis);
+            return response.parseBody(RegistryResponseCommand.class);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RegistryException("Send the registry request is interrupted", e);
+        } catch (RemotingException e) {
+            log.debug("Send the registry request {} to {} error", request.getOperation(), server, e);
+            return null;
+        }
+    }
+
+    private RegistryResponseCommand requestLocalServer(RegistryRequestCommand request, long timeoutMillis) {
+        CompletableFuture<RegistryResponseCommand> future = new CompletableFuture<>();
+        registryServer.handle(request, localEventSink, future::complete);
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RegistryException("Send the registry request is interrupted", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new RegistryException("Send the registry request to the local server error", e);
+        }
+    }
+
+    private RegistryResponseCommand checkResponse(RegistryResponseCommand response) {
+        if (response.getStatus() != ResponseStatus.SUCCESS) {
+            throw new RegistryException("Registry request failed: " + response.getMessage());
+        }
+        return response;
+    }
+
+    /**
+     * Keep the session alive, and restore the session if the leader is changed or the session is expired.
+     */
+    private void heartbeat() {
+        try {
+            RegistryResponseCommand response =
+                    request(RegistryRequestCommand.builder().operation(RegistryOperation.HEARTBEAT).build());
+            if (sessionRestoreNeeded || response.isNewSession()) {
+                sessionRestoreNeeded = true;
+                restoreSession();
+                sessionRestoreNeeded = false;
+            } else if (!response.isSubscribed() && !subscribeListeners.isEmpty()) {
+                log.info("The subscription of the embedded registry is lost, will subscribe again");
+                resubscribe();
+            }
+            lastHeartbeatTime = System.currentTimeMillis();
+            updateConnectionState(ConnectionState.CONNECTED);
+        } catch (Exception e) {
+            log.warn("Embedded registry heartbeat error", e);
+            if (System.currentTimeMillis() - lastHeartbeatTime > properties.getSessionTimeout().toMillis()) {
+                updateConnectionState(ConnectionState.DISCONNECTED);
+            } else {
+                updateConnectionState(ConnectionState.SUSPENDED);
+            }
+        }
+    }
+
+    private void restoreSession() {
+        for (Map.Entry<String, String> ephemeralNode : ephemeralNodes.entrySet()) {
+            request(RegistryRequestCommand.builder()
+                    .operation(RegistryOperation.PUT)
+                    .key(ephemeralNode.getKey())
+                    .value(ephemeralNode.getValue())
+                    .ephemeral(true)
+                    .build());
+        }
+        resubscribe();
+        log.info("Restored the embedded registry session, ephemeral nodes: {}, subscribed paths: {}",
+                ephemeralNodes.keySet(), subscribeListeners.keySet());
+    }
+
+    private void resubscribe() {
+        for (String path : subscribeListeners.keySet()) {
+            request(RegistryRequestCommand.builder().operation(RegistryOperation.SUBSCRIBE).key(path).build());
+        }
+    }
+
+    private void updateConnectionState(ConnectionState state) {
+        ConnectionState previousState = connectionState;
+        switch (state) {
+            case CONNECTED:
+                if (previousState == null) {
+                    connectionState = ConnectionState.CONNECTED;
+                    triggerListener(ConnectionState.CONNECTED);
+                } else if (previousState != ConnectionState.CONNECTED) {
+                    connectionState = ConnectionState.CONNECTED;
+                    triggerListener(ConnectionState.RECONNECTED);
+                }
+                break;
+            case SUSPENDED:
+                if (previousState == ConnectionState.CONNECTED) {
+                    connectionState = ConnectionState.SUSPENDED;
+                    triggerListener(ConnectionState.SUSPENDED);
+                }
+                break;
+            case DISCONNECTED:
+                if (previousState == ConnectionState.CONNECTED || previousState == ConnectionState.SUSPENDED) {
+                    connectionState = ConnectionState.DISCONNECTED;
+                    triggerListener(ConnectionState.DISCONNECTED);
+                }
+                break;
+            default:
+        }
+    }
+
+    private void triggerListener(ConnectionState state) {
+        for (ConnectionListener connectionListener : connectionListeners) {
+            connectionListener.onUpdate(state);
+        }
+    }
+
+    /**
+     * Apply the event to the watched nodes, and notify the listeners, it's called by the event thread.
+     */
+    private void onEvent(RegistryEventCommand event) {
+        switch (event.getType()) {
+            case SNAPSHOT:
+                Map<String, String> snapshot = new HashMap<>();
+                for (RegistryNode node : event.getNodes()) {
+                    snapshot.put(node.getKey(), node.getValue());
+                }
+                // the nodes deleted while the subscription is lost
+                List<String> deletedKeys = new ArrayList<>();
+                for (String key : watchedNodes.keySet()) {
+                    if (RegistryStore.isUnderPath(event.getPath(), key) && !snapshot.containsKey(key)) {
+                        deletedKeys.add(key);
+                    }
+                }
+                for (String key : deletedKeys) {
+                    notifyListeners(key, watchedNodes.remove(key), Event.Type.REMOVE);
+                }
+                for (Map.Entry<String, String> node : snapshot.entrySet()) {
+                    String previousValue = watchedNodes.put(node.getKey(), node.getValue());
+                    if (previousValue == null) {
+                        notifyListeners(node.getKey(), node.getValue(), Event.Type.ADD);
+                    } else if (!previousValue.equals(node.getValue())) {
+                        notifyListeners(node.getKey(), node.getValue(), Event.Type.UPDATE);
+                    }
+                }
+                break;
+            case PUT:
+                RegistryNode putNode = event.getNode();
+                Event.Type type = watchedNodes.put(putNode.getKey(), putNode.getValue()) == null
+                        ? Event.Type.ADD
+                        : Event.Type.UPDATE;
+                notifyListeners(putNode.getKey(), putNode.getValue(), type);
+                break;
+            case DELETE:
+                RegistryNode deletedNode = event.getNode();
+                if (watchedNodes.remove(deletedNode.getKey()) != null) {
+                    notifyListeners(deletedNode.getKey(), deletedNode.getValue(), Event.Type.REMOVE);
+                }
+                break;
+            default:
+        }
+    }
+
+    private void notifyListeners(String key, String data, Event.Type type) {
+        for (Map.Entry<String, List<SubscribeListener>> entry : subscribeListeners.entrySet()) {
+            if (!RegistryStore.isUnderPath(entry.getKey(), key)) {
+                continue;
+            }
+            Event event = new Event(entry.getKey(), key, data, type);
+            for (SubscribeListener listener : entry.getValue()) {
+                try {
+                    listener.notify(event);
+                } catch (Exception e) {
+                    log.error("Notify the registry event {} error", event, e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        log.info("Closing Embedded Registry...");
+        heartbeatExecutor.shutdownNow();
+        // delete the ephemeral nodes, so the others are notified without waiting the session expires
+        for (String key : ephemeralNodes.keySet()) {
+            try {
+                delete(key);
+            } catch (Exception e) {
+                log.warn("Delete the ephemeral node: {} error", key, e);
+            }
+        }
+        if (nettyRemotingClient != null) {
+            nettyRemotingClient.close();
+        }
+        eventExecutor.shutdownNow();
+        if (registryServer != null) {
+            registryServer.close();
+        }
+        log.info("Closed Embedded Registry...");
+    }
+}
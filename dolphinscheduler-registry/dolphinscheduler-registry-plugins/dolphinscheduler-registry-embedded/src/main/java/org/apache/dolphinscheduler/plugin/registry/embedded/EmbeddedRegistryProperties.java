@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.plugin.registry.embedded;
+
+import java.time.Duration;
+
+import lombok.Data;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConditionalOnProperty(prefix = "registry", name = "type", havingValue = "embedded")
+@ConfigurationProperties(prefix = "registry")
+public class EmbeddedRegistryProperties {
+
+    /**
+     * The addresses of the registry servers, e.g. master1:5680,master2:5680, the first server which is reachable
+     * becomes the leader, and the others are the standby servers. If empty, the registry only serves the current
+     * process, e.g. the standalone server.
+     */
+    private String servers = "";
+    /**
+     * If true, a registry server is started in the current process, its address should be one of the servers.
+     */
+    private boolean serverEnabled = false;
+    private int listenPort = 5680;
+    /**
+     * The ephemeral nodes and the locks of the session are removed if the session has no heartbeat in the timeout.
+     */
+    private Duration sessionTimeout = Duration.ofSeconds(30);
+    private Duration heartbeatInterval = Duration.ofSeconds(3);
+    private Duration requestTimeout = Duration.ofSeconds(5);
+
+}
@@ -0,0 +1,482 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.plugin.registry.embedded;
+
+import org.apache.dolphinscheduler.plugin.registry.embedded.command.RegistryEventCommand;
+import org.apache.dolphinscheduler.plugin.registry.embedded.command.RegistryRequestCommand;
+import org.apache.dolphinscheduler.plugin.registry.embedded.command.RegistryResponseCommand;
+import org.apache.dolphinscheduler.plugin.registry.embedded.model.RegistryNode;
+import org.apache.dolphinscheduler.plugin.registry.embedded.model.RegistryOperation;
+import org.apache.dolphinscheduler.plugin.registry.embedded.model.ResponseStatus;
+import org.apache.dolphinscheduler.registry.api.RegistryException;
+import org.apache.dolphinscheduler.remote.NettyRemotingClient;
+import org.apache.dolphinscheduler.remote.NettyRemotingServer;
+import org.apache.dolphinscheduler.remote.command.Command;
+import org.apache.dolphinscheduler.remote.command.CommandType;
+import org.apache.dolphinscheduler.remote.config.NettyClientConfig;
+import org.apache.dolphinscheduler.remote.config.NettyServerConfig;
+import org.apache.dolphinscheduler.remote.utils.Host;
+
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import lombok.extern.slf4j.Slf4j;
+
+import com.google.common.base.Splitter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.netty.channel.Channel;
+
+/**
+ * The registry server embedded in the master.
+ * <p>
+ * One of the servers is the leader which serves the clients, and pushes all the changes to the other servers, which
+ * are the standby servers. A server looks for the leader in the order of the configured servers when it starts or
+ * loses the leader, and becomes the leader if no leader is found and no server before it is reachable. The new leader
+ * renews the sessions of the replicated data, so the clients can reconnect to it before their ephemeral nodes expire.
+ * <p>
+ * Each leader starts a new term, which is higher than all the terms known by it. The leader probes the other servers,
+ * and steps down once it finds a higher term, or another leader of the same term before it in the servers, so the
+ * leaders elected on both sides of a network partition are merged into one once the partition heals. The standby
+ * servers ignore the replication events of the terms lower than the known one.
+ * <p>
+ * If no server is configured, the server only serves the clients in the current process, without listening any port.
+ */
+@Slf4j
+public class EmbeddedRegistryServer implements AutoCloseable {
+
+    /**
+     * The leader is lost if the standby server receives nothing from it in these heartbeat intervals.
+     */
+    private static final int LEADER_LOST_HEARTBEATS = 3;
+
+    enum Role {
+        LOOKING,
+        STANDBY,
+        LEADER
+    }
+
+    private final EmbeddedRegistryProperties properties;
+
+    private final RegistryStore registryStore = new RegistryStore();
+
+    private final List<Host> servers;
+
+    /**
+     * The address of the current server, null if the server only serves the current process.
+     */
+    private final Host localServer;
+
+    private final ScheduledExecutorService scheduledExecutorService;
+
+    private NettyRemotingServer nettyRemotingServer;
+
+    private NettyRemotingClient replicationClient;
+
+    private ExecutorService replicationExecutor;
+
+    private volatile Role role = Role.LOOKING;
+
+    private volatile Host leader;
+
+    private volatile long lastReplicationTime;
+
+    /**
+     * The latest leader term known by the current server, it's only changed while holding the lock of the server.
+     */
+    private volatile long term;
+
+    public EmbeddedRegistryServer(EmbeddedRegistryProperties properties) {
+        this.properties = properties;
+        this.servers = parseServers(properties.getServers());
+        this.localServer = servers.isEmpty() ? null : findLocalServer(servers, properties.getListenPort());
+        // the check and the probe run apart, so an unreachable server doesn't delay the session expiration
+        this.scheduledExecutorService = Executors.newScheduledThreadPool(2,
+                new ThreadFactoryBuilder().setNameFormat("EmbeddedRegistryServerThread-%d").setDaemon(true).build());
+    }
+
+    public void start() {
+        if (localServer == null) {
+            role = Role.LEADER;
+            log.info("Embedded registry server started, it only serves the current process");
+        } else {
+            NettyServerConfig serverConfig = new NettyServerConfig();
+            serverConfig.setListenPort(properties.getListenPort());
+            nettyRemotingServer = new NettyRemotingServer(serverConfig);
+            nettyRemotingServer.registerProcessor(CommandType.REGISTRY_REQUEST, this::process);
+            nettyRemotingServer.start();
+
+            // the replication events are applied in order by a single thread
+            replicationExecutor = Executors.newSingleThreadExecutor(
+                    new ThreadFactoryBuilder().setNameFormat("EmbeddedRegistryReplicationThread").setDaemon(true)
+                            .build());
+            replicationClient = new NettyRemotingClient(NettyClientConfig.builder().channelPoolSize(1).build());
+            replicationClient.registerProcessor(CommandType.REGISTRY_REPLICATION, this::processReplication,
+                    replicationExecutor);
+            scheduledExecutorService.scheduleWithFixedDelay(this::probeServers,
+                    properties.getHeartbeatInterval().toMillis(), properties.getHeartbeatInterval().toMillis(),
+                    TimeUnit.MILLISECONDS);
+            log.info("Embedded registry server started at {}, servers: {}", localServer, servers);
+        }
+        scheduledExecutorService.scheduleWithFixedDelay(this::check, 0,
+                properties.getHeartbeatInterval().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isLeader() {
+        return role == Role.LEADER;
+    }
+
+    Role getRole() {
+        return role;
+    }
+
+    long getTerm() {
+        return term;
+    }
+
+    public Host getLocalServer() {
+        return localServer;
+    }
+
+    /**
+     * Handle the request from the client, the response is sent by the responder once it's ready.
+     *
+     * @param sink the receiver of the events pushed to the client
+     */
+    void handle(RegistryRequestCommand request, EventSink sink, Consumer<RegistryResponseCommand> responder) {
+        if (request.getOperation() == RegistryOperation.SYNC) {
+            observeTerm(request.getTerm(), null);
+        } else if (request.getOperation() == RegistryOperation.PROBE) {
+            // the probe is sent by the leader of the carried term
+            observeTerm(request.getTerm(), Host.of(request.getServerAddress()));
+            RegistryResponseCommand probeResponse = RegistryResponseCommand.success();
+            probeResponse.setResult(role == Role.LEADER);
+            probeResponse.setTerm(term);
+            responder.accept(probeResponse);
+            return;
+        }
+        if (role != Role.LEADER) {
+            Host currentLeader = leader;
+            RegistryResponseCommand notLeaderResponse =
+                    RegistryResponseCommand.notLeader(currentLeader == null ? null : currentLeader.getAddress());
+            notLeaderResponse.setTerm(term);
+            responder.accept(notLeaderResponse);
+            return;
+        }
+        long currentTimeMillis = System.currentTimeMillis();
+        RegistryResponseCommand response = RegistryResponseCommand.success();
+        try {
+            switch (request.getOperation()) {
+                case HEARTBEAT:
+                    response.setNewSession(registryStore.heartbeat(request.getSessionId(), currentTimeMillis));
+                    response.setSubscribed(registryStore.isSubscribed(request.getSessionId()));
+                    break;
+                case GET:
+                    RegistryNode node = registryStore.get(request.getKey());
+                    response.setValue(node == null ? null : node.getValue());
+                    response.setResult(node != null);
+                    break;
+                case EXISTS:
+                    response.setResult(registryStore.exists(request.getKey()));
+                    break;
+                case CHILDREN:
+                    response.setChildren(registryStore.children(request.getKey()));
+                    break;
+                case PUT:
+                    registryStore.put(request.getKey(), request.getValue(),
+                            request.isEphemeral() ? request.getSessionId() : null, currentTimeMillis);
+                    break;
+                case DELETE:
+                    registryStore.delete(request.getKey());
+                    break;
+                case SUBSCRIBE:
+                    registryStore.subscribe(request.getSessionId(), request.getKey(), sink);
+                    break;
+                case UNSUBSCRIBE:
+                    registryStore.unsubscribe(request.getSessionId(), request.getKey());
+                    break;
+                case LOCK:
+                    RegistryStore.LockWaiter waiter = registryStore.lock(request.getKey(), request.getLockOwner(),
+                            request.getSessionId(), acquired -> {
+                                RegistryResponseCommand lockResponse = RegistryResponseCommand.success();
+                                lockResponse.setResult(acquired);
+                                responder.accept(lockResponse);
+                            });
+                    if (waiter != null) {
+                        scheduledExecutorService.schedule(() -> registryStore.cancelLockWaiter(waiter),
+                                request.getTimeout(), TimeUnit.MILLISECONDS);
+                    }
+                    // the response is sent once the lock is granted or the waiting is timeout
+                    return;
+                case UNLOCK:
+                    response.setResult(registryStore.unlock(request.getKey(), request.getLockOwner()));
+                    break;
+                case SYNC:
+                    registryStore.addReplica(request.getServerAddress(), sink);
+                    response.setTerm(term);
+                    log.info("The standby server {} is connected", request.getServerAddress());
+                    break;
+                default:
+                    response = RegistryResponseCommand.failed("Unsupported operation: " + request.getOperation());
+            }
+        } catch (Exception e) {
+            log.error("Handle registry request {} error", request, e);
+            response = RegistryResponseCommand.failed(e.getMessage());
+        }
+        responder.accept(response);
+    }
+
+    private void process(Channel channel, Command command) {
+        RegistryRequestCommand request = command.parseBody(RegistryRequestCommand.class);
+        CommandType eventType = request.getOperation() == RegistryOperation.SYNC
+                ? CommandType.REGISTRY_REPLICATION
+                : CommandType.REGISTRY_EVENT;
+        long opaque = command.getOpaque();
+        handle(request, new ChannelEventSink(channel, eventType),
+                response -> channel.writeAndFlush(response.convert2Command(opaque)));
+    }
+
+    private void processReplication(Channel channel, Command command) {
+        RegistryEventCommand event = command.parseBody(RegistryEventCommand.class);
+        if (event.getTerm() < term) {
+            log.debug("Ignore the replication event from {}, its term {} is stale", channel.remoteAddress(),
+                    event.getTerm());
+            return;
+        }
+        observeTerm(event.getTerm(), null);
+        if (role == Role.LEADER) {
+            log.warn("Receive the replication event from {}, but the current server is the leader",
+                    channel.remoteAddress());
+            return;
+        }
+        lastReplicationTime = System.currentTimeMillis();
+        registryStore.applyReplication(event);
+    }
+
+    /**
+     * Expire the sessions and ping the standby servers if the current server is the leader, otherwise look for the
+     * leader if the leader is lost.
+     */
+    private void check() {
+        try {
+            long currentTimeMillis = System.currentTimeMillis();
+            switch (role) {
+                case LEADER:
+                    List<String> expiredSessions = registryStore.expireSessions(currentTimeMillis,
+                            properties.getSessionTimeout().toMillis());
+                    if (!expiredSessions.isEmpty()) {
+                        log.info("The registry sessions: {} are expired", expiredSessions);
+                    }
+                    registryStore.pingReplicas();
+                    break;
+                case STANDBY:
+                    if (currentTimeMillis - lastReplicationTime <= LEADER_LOST_HEARTBEATS
+                            * properties.getHeartbeatInterval().toMillis()) {
+                        break;
+                    }
+                    log.warn("Lost the registry leader {}, will look for the new leader", leader);
+                    role = Role.LOOKING;
+                    leader = null;
+                    lookForLeader();
+                    break;
+                case LOOKING:
+                    lookForLeader();
+                    break;
+                default:
+            }
+        } catch (Exception e) {
+            log.error("Embedded registry server check error", e);
+        }
+    }
+
+    private void lookForLeader() {
+        boolean formerServerReachable = false;
+        int localIndex = servers.indexOf(localServer);
+        for (int i = 0; i < servers.size(); i++) {
+            Host server = servers.get(i);
+            if (i == localIndex) {
+                continue;
+            }
+            RegistryRequestCommand syncRequest = RegistryRequestCommand.builder()
+                    .operation(RegistryOperation.SYNC)
+                    .serverAddress(localServer.getAddress())
+                    .term(term)
+                    .build();
+            RegistryResponseCommand response;
+            try {
+                Command responseCommand = replicationClient.sendSync(server, syncRequest.convert2Command(),
+                        properties.getRequestTimeout().toMillis());
+                response = responseCommand.parseBody(RegistryResponseCommand.class);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.debug("The registry server {} is unreachable", server, e);
+                continue;
+            }
+            observeTerm(response.getTerm(), null);
+            if (response.getStatus() == ResponseStatus.SUCCESS) {
+                lastReplicationTime = System.currentTimeMillis();
+                leader = server;
+                role = Role.STANDBY;
+                log.info("The registry server {} becomes the standby of the leader {}", localServer, server);
+                return;
+            }
+            if (i < localIndex) {
+                formerServerReachable = true;
+            }
+        }
+        if (!formerServerReachable) {
+            becomeLeader();
+        }
+    }
+
+    /**
+     * Become the leader of a new term, which is higher than all the terms known by the current server.
+     */
+    synchronized void becomeLeader() {
+        term++;
+        registryStore.startLeaderTerm(term, System.currentTimeMillis());
+        leader = localServer;
+        role = Role.LEADER;
+        log.info("The registry server {} becomes the leader of term {}", localServer, term);
+    }
+
+    /**
+     * Follow the term known by the other server, the leader steps down if the term is higher, or the other server is
+     * the leader of the same term and is before the current server.
+     *
+     * @param otherLeader the other server if it's the leader of the term, otherwise null
+     */
+    private synchronized void observeTerm(long otherTerm, Host otherLeader) {
+        if (otherTerm > term) {
+            term = otherTerm;
+            if (role == Role.LEADER) {
+                stepDown();
+            }
+            return;
+        }
+        if (otherTerm == term && otherLeader != null && role == Role.LEADER
+                && servers.indexOf(otherLeader) < servers.indexOf(localServer)) {
+            stepDown();
+        }
+    }
+
+    private void stepDown() {
+        log.warn("The registry server {} steps down from the leader, there is another leader of term {}",
+                localServer, term);
+        role = Role.LOOKING;
+        leader = null;
+        registryStore.resetLeaderState();
+    }
+
+    /**
+     * Probe the other servers if the current server is the leader, so it steps down if another leader is elected
+     * while the servers are partitioned.
+     */
+    private void probeServers() {
+        try {
+            for (Host server : servers) {
+                if (role != Role.LEADER) {
+                    return;
+                }
+                if (server.equals(localServer)) {
+                    continue;
+                }
+                RegistryRequestCommand probeRequest = RegistryRequestCommand.builder()
+                        .operation(RegistryOperation.PROBE)
+                        .serverAddress(localServer.getAddress())
+                        .term(term)
+                        .build();
+                RegistryResponseCommand response;
+                try {
+                    Command responseCommand = replicationClient.sendSync(server, probeRequest.convert2Command(),
+                            properties.getRequestTimeout().toMillis());
+                    response = responseCommand.parseBody(RegistryResponseCommand.class);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    log.debug("The registry server {} is unreachable", server, e);
+                    continue;
+                }
+                observeTerm(response.getTerm(), response.isResult() ? server : null);
+            }
+        } catch (Exception e) {
+            log.error("Embedded registry server probe error", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduledExecutorService.shutdownNow();
+        role = Role.LOOKING;
+        registryStore.resetLeaderState();
+        if (nettyRemotingServer != null) {
+            nettyRemotingServer.close();
+        }
+        if (replicationClient != null) {
+            replicationClient.close();
+        }
+        if (replicationExecutor != null) {
+            replicationExecutor.shutdownNow();
+        }
+        log.info("Embedded registry server closed");
+    }
+
+    static List<Host> parseServers(String servers) {
+        return Splitter.on(',')
+                .trimResults()
+                .omitEmptyStrings()
+                .splitToList(servers == null ? "" : servers)
+                .stream()
+                .map(Host::of)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Find the address of the current server, whose port is the listen port and whose host is a local address.
+     */
+    private static Host findLocalServer(List<Host> servers, int listenPort) {
+        for (Host server : servers) {
+            if (server.getPort() == listenPort && isLocalAddress(server.getIp())) {
+                return server;
+            }
+        }
+        throw new RegistryException(String.format(
+                "The embedded registry server is enabled, but the listen port %s of current server is not in the servers: %s",
+                listenPort, servers));
+    }
+
+    private static boolean isLocalAddress(String host) {
+        try {
+            InetAddress address = InetAddress.getByName(host);
+            return address.isAnyLocalAddress() || address.isLoopbackAddress()
+                    || NetworkInterface.getByInetAddress(address) != null;
+        } catch (Exception e) {
+            log.warn("Resolve the registry server {} error", host, e);
+            return false;
+        }
+    }
+}
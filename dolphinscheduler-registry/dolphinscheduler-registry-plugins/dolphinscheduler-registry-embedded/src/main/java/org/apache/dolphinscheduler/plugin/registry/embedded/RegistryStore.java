@@ -0,0 +1,438 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.plugin.registry.embedded;
+
+import org.apache.dolphinscheduler.plugin.registry.embedded.command.RegistryEventCommand;
+import org.apache.dolphinscheduler.plugin.registry.embedded.model.RegistryEventType;
+import org.apache.dolphinscheduler.plugin.registry.embedded.model.RegistryNode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The in-memory data of the embedded registry.
+ * <p>
+ * All the changes are made while holding the lock of the store, and are pushed to the subscribers and the standby
+ * servers in the same order. The locks are kept apart from the nodes, and the waiters of a lock are granted in order.
+ */
+@Slf4j
+class RegistryStore {
+
+    private static final String PATH_SEPARATOR = "/";
+
+    private final NavigableMap<String, RegistryNode> nodes = new TreeMap<>();
+
+    /**
+     * sessionId -> the last heartbeat time
+     */
+    private final Map<String, Long> sessions = new HashMap<>();
+
+    /**
+     * lock key -> the held lock, whose value is the lock owner
+     */
+    private final Map<String, RegistryNode> locks = new HashMap<>();
+
+    private final Map<String, List<LockWaiter>> lockWaiters = new HashMap<>();
+
+    /**
+     * sessionId -> subscriber
+     */
+    private final Map<String, Subscriber> subscribers = new HashMap<>();
+
+    /**
+     * standby server address -> event sink
+     */
+    private final Map<String, EventSink> replicas = new HashMap<>();
+
+    /**
+     * The term of the current leader, it's carried by the replication events, so the standby servers can ignore the
+     * events from a stale leader.
+     */
+    private long term;
+
+    /**
+     * Keep the session alive.
+     *
+     * @return true if the session is new, then its ephemeral nodes need to be restored by the client
+     */
+    synchronized boolean heartbeat(String sessionId, long currentTimeMillis) {
+        return sessions.put(sessionId, currentTimeMillis) == null;
+    }
+
+    synchronized boolean isSubscribed(String sessionId) {
+        Subscriber subscriber = subscribers.get(sessionId);
+        return subscriber != null && subscriber.getSink().isActive();
+    }
+
+    /**
+     * Expire the sessions which have no heartbeat in the timeout, their ephemeral nodes are deleted and their locks are
+     * released.
+     *
+     * @return the expired sessions
+     */
+    synchronized List<String> expireSessions(long currentTimeMillis, long sessionTimeoutMillis) {
+        List<String> expiredSessions = sessions.entrySet()
+                .stream()
+                .filter(entry -> currentTimeMillis - entry.getValue() > sessionTimeoutMillis)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        expiredSessions.forEach(this::removeSession);
+        return expiredSessions;
+    }
+
+    private void removeSession(String sessionId) {
+        sessions.remove(sessionId);
+        subscribers.remove(sessionId);
+        List<String> ephemeralKeys = nodes.values()
+                .stream()
+                .filter(node -> sessionId.equals(node.getSessionId()))
+                .map(RegistryNode::getKey)
+                .collect(Collectors.toList());
+        ephemeralKeys.forEach(this::deleteNode);
+        List<String> heldLocks = locks.values()
+                .stream()
+                .filter(lock -> sessionId.equals(lock.getSessionId()))
+                .map(RegistryNode::getKey)
+                .collect(Collectors.toList());
+        heldLocks.forEach(this::releaseLock);
+        for (List<LockWaiter> waiters : lockWaiters.values()) {
+            Iterator<LockWaiter> iterator = waiters.iterator();
+            while (iterator.hasNext()) {
+                LockWaiter waiter = iterator.next();
+                if (sessionId.equals(waiter.getSessionId())) {
+                    iterator.remove();
+                    waiter.getCallback().accept(false);
+                }
+            }
+        }
+    }
+
+    /**
+     * Start the term of the new leader, and renew the sessions which own the nodes or the locks, so the clients have a
+     * whole session timeout to reconnect to it.
+     */
+    synchronized void startLeaderTerm(long term, long currentTimeMillis) {
+        this.term = term;
+        sessions.clear();
+        for (RegistryNode node : nodes.values()) {
+            if (node.getSessionId() != null) {
+                sessions.put(node.getSessionId(), currentTimeMillis);
+            }
+        }
+        for (RegistryNode lock : locks.values()) {
+            sessions.put(lock.getSessionId(), currentTimeMillis);
+        }
+    }
+
+    synchronized RegistryNode get(String key) {
+        return nodes.get(key);
+    }
+
+    /**
+     * @return true if the key exists, or it's the parent of the existing keys
+     */
+    synchronized boolean exists(String key) {
+        return nodes.containsKey(key) || !descendants(key).isEmpty();
+    }
+
+    /**
+     * @return the names of the children, the parents which are not put are also included
+     */
+    synchronized List<String> children(String key) {
+        String prefix = key.endsWith(PATH_SEPARATOR) ? key : key + PATH_SEPARATOR;
+        Set<String> children = new LinkedHashSet<>();
+        for (String descendant : descendants(key).keySet()) {
+            String relativePath = descendant.substring(prefix.length());
+            int separatorIndex = relativePath.indexOf(PATH_SEPARATOR);
+            children.add(separatorIndex < 0 ? relativePath : relativePath.substring(0, separatorIndex));
+        }
+        return new ArrayList<>(children);
+    }
+
+    /**
+     * Put the node, the node is ephemeral if the session is not null.
+     */
+    synchronized void put(String key, String value, String sessionId, long currentTimeMillis) {
+        if (sessionId != null) {
+            sessions.putIfAbsent(sessionId, currentTimeMillis);
+        }
+        RegistryNode node = new RegistryNode(key, value, sessionId);
+        nodes.put(key, node);
+        publish(RegistryEventType.PUT, node);
+    }
+
+    /**
+     * Delete the key and its descendants.
+     */
+    synchronized void delete(String key) {
+        List<String> deletedKeys = new ArrayList<>(descendants(key).keySet());
+        deletedKeys.add(key);
+        deletedKeys.forEach(this::deleteNode);
+    }
+
+    private void deleteNode(String key) {
+        RegistryNode node = nodes.remove(key);
+        if (node != null) {
+            publish(RegistryEventType.DELETE, node);
+        }
+    }
+
+    private NavigableMap<String, RegistryNode> descendants(String key) {
+        String prefix = key.endsWith(PATH_SEPARATOR) ? key : key + PATH_SEPARATOR;
+        return nodes.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    /**
+     * Subscribe the changes of the path, the current nodes under the path are pushed as a snapshot event first.
+     */
+    synchronized void subscribe(String sessionId, String path, EventSink sink) {
+        Subscriber subscriber = subscribers.get(sessionId);
+        if (subscriber == null || !subscriber.getSink().equals(sink)) {
+            // the client resubscribes all the paths once it's told the subscriber is lost
+            subscriber = new Subscriber(sink, new HashSet<>());
+            subscribers.put(sessionId, subscriber);
+        }
+        subscriber.getPaths().add(path);
+        List<RegistryNode> snapshot = new ArrayList<>(descendants(path).values());
+        RegistryNode node = nodes.get(path);
+        if (node != null) {
+            snapshot.add(node);
+        }
+        sink.send(RegistryEventCommand.builder()
+                .type(RegistryEventType.SNAPSHOT)
+                .path(path)
+                .nodes(snapshot)
+                .build());
+    }
+
+    synchronized void unsubscribe(String sessionId, String path) {
+        Subscriber subscriber = subscribers.get(sessionId);
+        if (subscriber != null) {
+            subscriber.getPaths().remove(path);
+        }
+    }
+
+    /**
+     * Add a standby server, all the nodes and locks are pushed as a snapshot event, then the following changes.
+     */
+    synchronized void addReplica(String serverAddress, EventSink sink) {
+        replicas.put(serverAddress, sink);
+        sink.send(RegistryEventCommand.builder()
+                .type(RegistryEventType.SNAPSHOT)
+                .term(term)
+                .nodes(new ArrayList<>(nodes.values()))
+                .locks(new ArrayList<>(locks.values()))
+                .build());
+    }
+
+    synchronized Set<String> getReplicas() {
+        return new HashSet<>(replicas.keySet());
+    }
+
+    /**
+     * Send the heartbeat to the standby servers.
+     */
+    synchronized void pingReplicas() {
+        RegistryEventCommand event = RegistryEventCommand.builder().type(RegistryEventType.PING).term(term).build();
+        replicas.values().removeIf(sink -> !sink.isActive());
+        replicas.values().forEach(sink -> sink.send(event));
+    }
+
+    /**
+     * Apply the event from the leader, it's called on the standby server.
+     */
+    synchronized void applyReplication(RegistryEventCommand event) {
+        switch (event.getType()) {
+            case SNAPSHOT:
+                nodes.clear();
+                event.getNodes().forEach(node -> nodes.put(node.getKey(), node));
+                locks.clear();
+                event.getLocks().forEach(lock -> locks.put(lock.getKey(), lock));
+                break;
+            case PUT:
+                nodes.put(event.getNode().getKey(), event.getNode());
+                break;
+            case DELETE:
+                nodes.remove(event.getNode().getKey());
+                break;
+            case LOCK:
+                locks.put(event.getNode().getKey(), event.getNode());
+                break;
+            case UNLOCK:
+                locks.remove(event.getNode().getKey());
+                break;
+            default:
+        }
+    }
+
+    /**
+     * Grant the lock if it's free and no one is waiting, otherwise queue the waiter.
+     *
+     * @param callback called with true once the lock is granted, or with false if the waiting is cancelled
+     * @return the waiter if the lock is not granted, null if granted
+     */
+    synchronized LockWaiter lock(String key, String owner, String sessionId, Consumer<Boolean> callback) {
+        RegistryNode lock = locks.get(key);
+        List<LockWaiter> waiters = lockWaiters.computeIfAbsent(key, k -> new LinkedList<>());
+        if ((lock == null && waiters.isEmpty()) || (lock != null && owner.equals(lock.getValue()))) {
+            if (lock == null) {
+                grantLock(key, owner, sessionId);
+            }
+            callback.accept(true);
+            return null;
+        }
+        LockWaiter waiter = new LockWaiter(key, owner, sessionId, callback);
+        ListIterator<LockWaiter> iterator = waiters.listIterator();
+        while (iterator.hasNext()) {
+            LockWaiter previous = iterator.next();
+            if (previous.getOwner().equals(owner)) {
+                // the same acquisition retries, it keeps its position
+                iterator.set(waiter);
+                previous.getCallback().accept(false);
+                return waiter;
+            }
+        }
+        waiters.add(waiter);
+        return waiter;
+    }
+
+    /**
+     * Cancel the waiter if it's still waiting, it's called when the waiter is timeout.
+     */
+    synchronized void cancelLockWaiter(LockWaiter waiter) {
+        List<LockWaiter> waiters = lockWaiters.get(waiter.getKey());
+        if (waiters != null && waiters.remove(waiter)) {
+            waiter.getCallback().accept(false);
+            if (waiters.isEmpty()) {
+                lockWaiters.remove(waiter.getKey());
+            }
+        }
+    }
+
+    /**
+     * Release the lock if it's held by the owner, otherwise cancel the waiting of the owner.
+     *
+     * @return true if the lock is released
+     */
+    synchronized boolean unlock(String key, String owner) {
+        RegistryNode lock = locks.get(key);
+        if (lock != null && owner.equals(lock.getValue())) {
+            releaseLock(key);
+            return true;
+        }
+        List<LockWaiter> waiters = lockWaiters.get(key);
+        if (waiters != null) {
+            waiters.stream()
+                    .filter(waiter -> waiter.getOwner().equals(owner))
+                    .findFirst()
+                    .ifPresent(this::cancelLockWaiter);
+        }
+        return false;
+    }
+
+    private void releaseLock(String key) {
+        publish(RegistryEventType.UNLOCK, locks.remove(key));
+        List<LockWaiter> waiters = lockWaiters.get(key);
+        if (waiters == null || waiters.isEmpty()) {
+            lockWaiters.remove(key);
+            return;
+        }
+        LockWaiter waiter = waiters.remove(0);
+        if (waiters.isEmpty()) {
+            lockWaiters.remove(key);
+        }
+        grantLock(key, waiter.getOwner(), waiter.getSessionId());
+        waiter.getCallback().accept(true);
+    }
+
+    private void grantLock(String key, String owner, String sessionId) {
+        RegistryNode lock = new RegistryNode(key, owner, sessionId);
+        locks.put(key, lock);
+        publish(RegistryEventType.LOCK, lock);
+    }
+
+    /**
+     * Push the change to the standby servers, and to the subscribers if the node is changed.
+     */
+    private void publish(RegistryEventType type, RegistryNode node) {
+        RegistryEventCommand event = RegistryEventCommand.builder().type(type).term(term).node(node).build();
+        if (type == RegistryEventType.PUT || type == RegistryEventType.DELETE) {
+            subscribers.values().removeIf(subscriber -> !subscriber.getSink().isActive());
+            for (Subscriber subscriber : subscribers.values()) {
+                if (subscriber.matches(node.getKey())) {
+                    subscriber.getSink().send(event);
+                }
+            }
+        }
+        replicas.values().removeIf(sink -> !sink.isActive());
+        replicas.values().forEach(sink -> sink.send(event));
+    }
+
+    /**
+     * Drop the sessions, subscribers and waiters, it's called when the server is no longer the leader.
+     */
+    synchronized void resetLeaderState() {
+        sessions.clear();
+        subscribers.clear();
+        replicas.clear();
+        lockWaiters.values().forEach(waiters -> waiters.forEach(waiter -> waiter.getCallback().accept(false)));
+        lockWaiters.clear();
+    }
+
+    static boolean isUnderPath(String path, String key) {
+        return key.equals(path) || key.startsWith(path.endsWith(PATH_SEPARATOR) ? path : path + PATH_SEPARATOR);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static class LockWaiter {
+
+        private final String key;
+        private final String owner;
+        private final String sessionId;
+        private final Consumer<Boolean> callback;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Subscriber {
+
+        private final EventSink sink;
+        private final Set<String> paths;
+
+        boolean matches(String key) {
+            return paths.stream().anyMatch(path -> isUnderPath(path, key));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.plugin.registry.embedded.command;
+
+import org.apache.dolphinscheduler.common.utils.JSONUtils;
+import org.apache.dolphinscheduler.plugin.registry.embedded.model.RegistryEventType;
+import org.apache.dolphinscheduler.plugin.registry.embedded.model.RegistryNode;
+import org.apache.dolphinscheduler.remote.command.Command;
+import org.apache.dolphinscheduler.remote.command.CommandType;
+
+import java.io.Serializable;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The event pushed by the leader, it's the watch event for the registry clients, and the replication event for the
+ * standby servers.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegistryEventCommand implements Serializable {
+
+    private RegistryEventType type;
+
+    /**
+     * The term of the leader which pushes the event.
+     */
+    private long term;
+
+    /**
+     * The subscribed path of the snapshot event.
+     */
+    private String path;
+
+    /**
+     * The changed node, or the changed lock whose value is the lock owner.
+     */
+    private RegistryNode node;
+
+    /**
+     * The nodes of the snapshot event.
+     */
+    private List<RegistryNode> nodes;
+
+    /**
+     * The held locks of the snapshot event for the standby servers.
+     */
+    private List<RegistryNode> locks;
+
+    public Command convert2Command(CommandType commandType) {
+        Command command = new Command();
+        command.setType(commandType);
+        command.setBody(JSONUtils.toJsonByteArray(this));
+        return command;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.plugin.registry.embedded.command;
+
+import org.apache.dolphinscheduler.common.utils.JSONUtils;
+import org.apache.dolphinscheduler.plugin.registry.embedded.model.RegistryOperation;
+import org.apache.dolphinscheduler.remote.command.Command;
+import org.apache.dolphinscheduler.remote.command.CommandType;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegistryRequestCommand implements Serializable {
+
+    private RegistryOperation operation;
+
+    /**
+     * The session of the client, it's kept by the client across the leader changes.
+     */
+    private String sessionId;
+
+    private String key;
+
+    private String value;
+
+    /**
+     * If true, the put node will be deleted when the session expires.
+     */
+    private boolean ephemeral;
+
+    /**
+     * The lock owner, it's unique for each lock acquisition.
+     */
+    private String lockOwner;
+
+    /**
+     * The lock wait timeout in milliseconds.
+     */
+    private long timeout;
+
+    /**
+     * The address of the server which sends the sync or probe request.
+     */
+    private String serverAddress;
+
+    /**
+     * The latest leader term known by the server which sends the sync or probe request.
+     */
+    private long term;
+
+    public Command convert2Command() {
+        Command command = new Command();
+        command.setType(CommandType.REGISTRY_REQUEST);
+        command.setBody(JSONUtils.toJsonByteArray(this));
+        return command;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.plugin.registry.embedded.command;
+
+import org.apache.dolphinscheduler.common.utils.JSONUtils;
+import org.apache.dolphinscheduler.plugin.registry.embedded.model.ResponseStatus;
+import org.apache.dolphinscheduler.remote.command.Command;
+import org.apache.dolphinscheduler.remote.command.CommandType;
+
+import java.io.Serializable;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegistryResponseCommand implements Serializable {
+
+    private ResponseStatus status;
+
+    /**
+     * The address of the current leader, it's set if the status is {@link ResponseStatus#NOT_LEADER}.
+     */
+    private String leader;
+
+    /**
+     * The latest leader term known by the server, it's set in the responses to the other servers.
+     */
+    private long term;
+
+    private String value;
+
+    /**
+     * The result of the exists check or the lock acquisition, or if the server is the leader for the probe.
+     */
+    private boolean result;
+
+    private List<String> children;
+
+    /**
+     * If true, the session is created by this heartbeat, so its ephemeral nodes need to be restored.
+     */
+    private boolean newSession;
+
+    /**
+     * If true, the server is pushing the events to the session.
+     */
+    private boolean subscribed;
+
+    private String message;
+
+    public static RegistryResponseCommand success() {
+        return RegistryResponseCommand.builder().status(ResponseStatus.SUCCESS).build();
+    }
+
+    public static RegistryResponseCommand notLeader(String leader) {
+        return RegistryResponseCommand.builder().status(ResponseStatus.NOT_LEADER).leader(leader).build();
+    }
+
+    public static RegistryResponseCommand failed(String message) {
+        return RegistryResponseCommand.builder().status(ResponseStatus.FAILED).message(message).build();
+    }
+
+    public Command convert2Command(long opaque) {
+        Command command = new Command(opaque);
+        command.setType(CommandType.REGISTRY_RESPONSE);
+        command.setBody(JSONUtils.toJsonByteArray(this));
+        return command;
+    }
+}
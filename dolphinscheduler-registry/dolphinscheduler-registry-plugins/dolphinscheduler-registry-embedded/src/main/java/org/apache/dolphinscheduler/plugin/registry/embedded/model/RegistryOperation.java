@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.plugin.registry.embedded.model;
+
+/**
+ * The operations of the embedded registry request.
+ */
+public enum RegistryOperation {
+
+    /**
+     * keep the session alive, the client should restore its ephemeral nodes and subscriptions if the session is new
+     */
+    HEARTBEAT,
+    GET,
+    EXISTS,
+    CHILDREN,
+    PUT,
+    DELETE,
+    /**
+     * subscribe the changes of the path, the current nodes under the path are pushed as a snapshot event
+     */
+    SUBSCRIBE,
+    UNSUBSCRIBE,
+    /**
+     * wait for the lock in the given timeout, the waiters are granted in order
+     */
+    LOCK,
+    /**
+     * release the lock, or cancel the waiting if the lock is not granted
+     */
+    UNLOCK,
+    /**
+     * register a standby server, the data is pushed to it as a snapshot then the following changes
+     */
+    SYNC,
+    /**
+     * sent by the leader to the other servers, so the stale one of two leaders steps down
+     */
+    PROBE
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.plugin.registry.embedded;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class EmbeddedRegistryServerTest {
+
+    @Test
+    public void partitionTest() throws InterruptedException {
+        String servers = "127.0.0.1:15683,127.0.0.1:15684";
+        EmbeddedRegistryServer first = new EmbeddedRegistryServer(properties(servers, 15683));
+        EmbeddedRegistryServer second = new EmbeddedRegistryServer(properties(servers, 15684));
+        try {
+            first.start();
+            second.start();
+            waitUntil(() -> first.isLeader() && second.getRole() == EmbeddedRegistryServer.Role.STANDBY);
+            long firstTerm = first.getTerm();
+            Assertions.assertEquals(firstTerm, second.getTerm());
+
+            // the standby server is elected as if it lost the leader in a partition, then the partition heals
+            second.becomeLeader();
+            Assertions.assertTrue(second.isLeader());
+            Assertions.assertEquals(firstTerm + 1, second.getTerm());
+
+            // the leader of the stale term steps down, and becomes the standby of the new leader
+            waitUntil(() -> first.getRole() == EmbeddedRegistryServer.Role.STANDBY);
+            Assertions.assertTrue(second.isLeader());
+            Assertions.assertEquals(second.getTerm(), first.getTerm());
+        } finally {
+            first.close();
+            second.close();
+        }
+    }
+
+    @Test
+    public void sameTermTest() throws InterruptedException {
+        String servers = "127.0.0.1:15685,127.0.0.1:15686";
+        EmbeddedRegistryServer first = new EmbeddedRegistryServer(properties(servers, 15685));
+        EmbeddedRegistryServer second = new EmbeddedRegistryServer(properties(servers, 15686));
+        try {
+            // both servers are elected in the first term without seeing each other
+            first.becomeLeader();
+            second.becomeLeader();
+            Assertions.assertEquals(first.getTerm(), second.getTerm());
+            first.start();
+            second.start();
+
+            // the leader after the other one in the servers steps down
+            waitUntil(() -> second.getRole() == EmbeddedRegistryServer.Role.STANDBY);
+            Assertions.assertTrue(first.isLeader());
+        } finally {
+            first.close();
+            second.close();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.getAsBoolean()) {
+            Assertions.assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(100);
+        }
+    }
+
+    private static EmbeddedRegistryProperties properties(String servers, int listenPort) {
+        EmbeddedRegistryProperties properties = new EmbeddedRegistryProperties();
+        properties.setServers(servers);
+        properties.setServerEnabled(true);
+        properties.setListenPort(listenPort);
+        properties.setHeartbeatInterval(Duration.ofMillis(200));
+        properties.setSessionTimeout(Duration.ofSeconds(3));
+        properties.setRequestTimeout(Duration.ofSeconds(1));
+        return properties;
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.plugin.registry.embedded;
+
+import org.apache.dolphinscheduler.registry.api.Event;
+import org.apache.dolphinscheduler.registry.api.RegistryException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class EmbeddedRegistryTest {
+
+    private EmbeddedRegistry registry;
+
+    @BeforeEach
+    public void before() {
+        registry = new EmbeddedRegistry(properties("", 0));
+        registry.start();
+        registry.connectUntilTimeout(Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void persistTest() {
+        registry.put("/nodes/m1", "v1", false);
+        registry.put("/nodes/m2", "", true);
+        Assertions.assertEquals(Arrays.asList("m2", "m1"), registry.children("/nodes"));
+        Assertions.assertEquals("v1", registry.get("/nodes/m1"));
+        Assertions.assertTrue(registry.exists("/nodes"));
+        registry.delete("/nodes/m2");
+        Assertions.assertFalse(registry.exists("/nodes/m2"));
+        Assertions.assertNull(registry.get("/nodes/m2"));
+    }
+
+    @Test
+    public void subscribeTest() throws InterruptedException {
+        registry.put("/sub/m1", "v1", false);
+        BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+        Assertions.assertTrue(registry.subscribe("/sub", events::add));
+        assertEvent(events.poll(5, TimeUnit.SECONDS), "/sub/m1", "v1", Event.Type.ADD);
+
+        registry.put("/sub/m1", "v2", false);
+        assertEvent(events.poll(5, TimeUnit.SECONDS), "/sub/m1", "v2", Event.Type.UPDATE);
+        registry.put("/sub/m2", "v1", true);
+        assertEvent(events.poll(5, TimeUnit.SECONDS), "/sub/m2", "v1", Event.Type.ADD);
+        registry.delete("/sub/m1");
+        assertEvent(events.poll(5, TimeUnit.SECONDS), "/sub/m1", "v2", Event.Type.REMOVE);
+        registry.put("/other/m1", "v1", false);
+        Assertions.assertNull(events.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void lockTest() throws InterruptedException {
+        CountDownLatch lockedLatch = new CountDownLatch(1);
+        CountDownLatch allLatch = new CountDownLatch(2);
+        List<String> testData = Collections.synchronizedList(new ArrayList<>());
+        new Thread(() -> {
+            registry.acquireLock("/lock");
+            lockedLatch.countDown();
+            try {
+                Thread.sleep(500);
+                testData.add("thread1");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                registry.releaseLock("/lock");
+                allLatch.countDown();
+            }
+        }).start();
+        Assertions.assertTrue(lockedLatch.await(5, TimeUnit.SECONDS));
+        new Thread(() -> {
+            try {
+                registry.acquireLock("/lock");
+                testData.add("thread2");
+            } finally {
+                registry.releaseLock("/lock");
+                allLatch.countDown();
+            }
+        }).start();
+        Assertions.assertTrue(allLatch.await(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(Arrays.asList("thread1", "thread2"), testData);
+    }
+
+    @Test
+    public void tryLockTest() throws InterruptedException {
+        Assertions.assertTrue(registry.acquireLock("/tryLock", 1000));
+        CountDownLatch countDownLatch = new CountDownLatch(1);
+        List<Boolean> results = new ArrayList<>();
+        new Thread(() -> {
+            results.add(registry.acquireLock("/tryLock", 100));
+            countDownLatch.countDown();
+        }).start();
+        Assertions.assertTrue(countDownLatch.await(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(Collections.singletonList(false), results);
+        Assertions.assertTrue(registry.releaseLock("/tryLock"));
+        Assertions.assertTrue(registry.acquireLock("/tryLock", 1000));
+        registry.releaseLock("/tryLock");
+    }
+
+    @Test
+    public void failoverTest() throws InterruptedException {
+        String servers = "127.0.0.1:15681,127.0.0.1:15682";
+        EmbeddedRegistry first = new EmbeddedRegistry(properties(servers, 15681));
+        EmbeddedRegistry second = new EmbeddedRegistry(properties(servers, 15682));
+        try {
+            first.start();
+            first.connectUntilTimeout(Duration.ofSeconds(10));
+            second.start();
+            second.connectUntilTimeout(Duration.ofSeconds(10));
+
+            BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+            second.subscribe("/nodes", events::add);
+            first.put("/nodes/persistent", "v1", false);
+            assertEvent(events.poll(5, TimeUnit.SECONDS), "/nodes/persistent", "v1", Event.Type.ADD);
+            first.put("/nodes/ephemeral", "v1", true);
+            assertEvent(events.poll(5, TimeUnit.SECONDS), "/nodes/ephemeral", "v1", Event.Type.ADD);
+            second.put("/nodes/m2", "v1", true);
+            assertEvent(events.poll(5, TimeUnit.SECONDS), "/nodes/m2", "v1", Event.Type.ADD);
+
+            // the ephemeral node of the closed leader is removed, the others are kept by the new leader
+            first.close();
+            assertEvent(events.poll(10, TimeUnit.SECONDS), "/nodes/ephemeral", "v1", Event.Type.REMOVE);
+            // the requests fail until the standby server becomes the leader
+            long deadline = System.currentTimeMillis() + 10000;
+            while (!existsAfterFailover(second, "/nodes/m2")) {
+                Assertions.assertTrue(System.currentTimeMillis() < deadline);
+                Thread.sleep(100);
+            }
+            Assertions.assertEquals("v1", second.get("/nodes/persistent"));
+            second.put("/nodes/m3", "v1", false);
+            assertEvent(events.poll(10, TimeUnit.SECONDS), "/nodes/m3", "v1", Event.Type.ADD);
+        } finally {
+            first.close();
+            second.close();
+        }
+    }
+
+    private static boolean existsAfterFailover(EmbeddedRegistry registry, String key) {
+        try {
+            return registry.exists(key);
+        } catch (RegistryException e) {
+            return false;
+        }
+    }
+
+    private static void assertEvent(Event event, String path, String data, Event.Type type) {
+        Assertions.assertNotNull(event);
+        Assertions.assertEquals(path, event.path());
+        Assertions.assertEquals(data, event.data());
+        Assertions.assertEquals(type, event.type());
+    }
+
+    private static EmbeddedRegistryProperties properties(String servers, int listenPort) {
+        EmbeddedRegistryProperties properties = new EmbeddedRegistryProperties();
+        properties.setServers(servers);
+        properties.setServerEnabled(true);
+        properties.setListenPort(listenPort);
+        properties.setHeartbeatInterval(Duration.ofMillis(200));
+        properties.setSessionTimeout(Duration.ofSeconds(3));
+        properties.setRequestTimeout(Duration.ofSeconds(1));
+        return properties;
+    }
+
+    @AfterEach
+    public void after() {
+        registry.close();
+    }
+}
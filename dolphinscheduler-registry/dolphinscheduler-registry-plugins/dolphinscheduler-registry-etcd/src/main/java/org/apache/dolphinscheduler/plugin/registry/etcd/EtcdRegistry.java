@@ -31,8 +31,11 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
@@ -54,6 +57,7 @@ import io.etcd.jetcd.Lease;
 import io.etcd.jetcd.Lock;
 import io.etcd.jetcd.Util;
 import io.etcd.jetcd.Watch;
+import io.etcd.jetcd.lock.LockResponse;
 import io.etcd.jetcd.options.DeleteOption;
 import io.etcd.jetcd.options.GetOption;
 import io.etcd.jetcd.options.PutOption;
@@ -298,6 +302,46 @@ public class EtcdRegistry implements Registry {
         }
     }
 
+    /**
+     * get the lock with a lease in the given timeout, the lease will be revoked if timeout
+     */
+    @Override
+    public boolean acquireLock(String key, long timeout) {
+        Lock lockClient = client.getLockClient();
+        Lease leaseClient = client.getLeaseClient();
+        long leaseId = 0;
+        CompletableFuture<LockResponse> lockFuture = null;
+        try {
+            leaseId = leaseClient.grant(TIME_TO_LIVE_SECONDS).get().getID();
+            // keep the lease
+            leaseClient.keepAlive(leaseId, Observers.observer(response -> {
+            }));
+            lockFuture = lockClient.lock(byteSequence(key), leaseId);
+            lockFuture.get(timeout, TimeUnit.MILLISECONDS);
+
+            // save the leaseId for release Lock
+            if (null == threadLocalLockMap.get()) {
+                threadLocalLockMap.set(new HashMap<>());
+            }
+            threadLocalLockMap.get().put(key, leaseId);
+            return true;
+        } catch (TimeoutException e) {
+            // cancel the pending lock request before revoking the lease, or it may still get the lock
+            lockFuture.cancel(true);
+            leaseClient.revoke(leaseId);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (lockFuture != null) {
+                lockFuture.cancel(true);
+                leaseClient.revoke(leaseId);
+            }
+            throw new RegistryException("etcd get lock error", e);
+        } catch (ExecutionException e) {
+            throw new RegistryException("etcd get lock error, lockKey: " + key, e);
+        }
+    }
+
     /**
      * release the lock by revoking the leaseId
      */
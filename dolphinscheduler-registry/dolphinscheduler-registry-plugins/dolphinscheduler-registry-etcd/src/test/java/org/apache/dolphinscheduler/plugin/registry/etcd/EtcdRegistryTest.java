@@ -26,6 +26,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
@@ -116,6 +117,23 @@ public class EtcdRegistryTest {
         Assertions.assertEquals(testData, Arrays.asList("thread1", "thread2"));
     }
 
+    @Test
+    public void lockTimeoutTest() throws InterruptedException {
+        registry.acquireLock("/lock/timeout");
+        try {
+            AtomicBoolean acquired = new AtomicBoolean(true);
+            Thread thread = new Thread(() -> acquired.set(registry.acquireLock("/lock/timeout", 200)));
+            thread.start();
+            thread.join();
+            Assertions.assertFalse(acquired.get());
+        } finally {
+            registry.releaseLock("/lock/timeout");
+        }
+        // the cancelled lock request doesn't hold the lock
+        Assertions.assertTrue(registry.acquireLock("/lock/timeout", 1000));
+        registry.releaseLock("/lock/timeout");
+    }
+
     @Test
     public void subscribeTest() {
         boolean status = registry.subscribe("/sub", new TestListener());
@@ -17,14 +17,20 @@
 
 package org.apache.dolphinscheduler.plugin.registry.mysql;
 
+import org.apache.dolphinscheduler.plugin.registry.mysql.mapper.MysqlRegistryChangeLogMapper;
 import org.apache.dolphinscheduler.plugin.registry.mysql.mapper.MysqlRegistryDataMapper;
 import org.apache.dolphinscheduler.plugin.registry.mysql.mapper.MysqlRegistryLockMapper;
+import org.apache.dolphinscheduler.plugin.registry.mysql.mapper.MysqlRegistryLockWaiterMapper;
+import org.apache.dolphinscheduler.plugin.registry.mysql.model.ChangeType;
 import org.apache.dolphinscheduler.plugin.registry.mysql.model.DataType;
+import org.apache.dolphinscheduler.plugin.registry.mysql.model.MysqlRegistryChangeLog;
 import org.apache.dolphinscheduler.plugin.registry.mysql.model.MysqlRegistryData;
 import org.apache.dolphinscheduler.plugin.registry.mysql.model.MysqlRegistryLock;
+import org.apache.dolphinscheduler.plugin.registry.mysql.model.MysqlRegistryLockWaiter;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.ibatis.session.SqlSessionFactory;
 
 import java.sql.SQLException;
 import java.sql.SQLIntegrityConstraintViolationException;
@@ -33,8 +39,11 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Component
 @ConditionalOnProperty(prefix = "registry", name = "type", havingValue = "mysql")
@@ -44,12 +53,28 @@ public class MysqlOperator {
     private MysqlRegistryDataMapper mysqlRegistryDataMapper;
     @Autowired
     private MysqlRegistryLockMapper mysqlRegistryLockMapper;
+    @Autowired
+    private MysqlRegistryLockWaiterMapper mysqlRegistryLockWaiterMapper;
+    @Autowired
+    private MysqlRegistryChangeLogMapper mysqlRegistryChangeLogMapper;
 
     private final long expireTimeWindow;
 
-    public MysqlOperator(MysqlRegistryProperties registryProperties) {
+    private final long changeLogRetention;
+
+    /**
+     * Commit the registry data and its change log together, it's not exposed as a bean, so the transaction manager of
+     * the server is not replaced.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    public MysqlOperator(MysqlRegistryProperties registryProperties,
+                         @Qualifier("mysqlRegistrySqlSessionFactory") SqlSessionFactory mysqlRegistrySqlSessionFactory) {
         this.expireTimeWindow =
                 registryProperties.getTermExpireTimes() * registryProperties.getTermRefreshInterval().toMillis();
+        this.changeLogRetention = registryProperties.getChangeLogRetention().toMillis();
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(
+                mysqlRegistrySqlSessionFactory.getConfiguration().getEnvironment().getDataSource()));
     }
 
     public void healthCheck() {
@@ -61,58 +86,106 @@ public class MysqlOperator {
     }
 
     public Long insertOrUpdateEphemeralData(String key, String value) throws SQLException {
-        MysqlRegistryData mysqlRegistryData = mysqlRegistryDataMapper.selectByKey(key);
-        if (mysqlRegistryData != null) {
-            long id = mysqlRegistryData.getId();
-            if (mysqlRegistryDataMapper.updateDataAndTermById(id, value, System.currentTimeMillis()) <= 0) {
-                throw new SQLException(String.format("update registry value failed, key: %s, value: %s", key, value));
-            }
-            return id;
-        }
-        mysqlRegistryData = MysqlRegistryData.builder()
-                .key(key)
-                .data(value)
-                .type(DataType.EPHEMERAL.getTypeValue())
-                .lastTerm(System.currentTimeMillis())
-                .build();
-        mysqlRegistryDataMapper.insert(mysqlRegistryData);
-        return mysqlRegistryData.getId();
+        return insertOrUpdateData(key, value, DataType.EPHEMERAL);
     }
 
     public long insertOrUpdatePersistentData(String key, String value) throws SQLException {
-        MysqlRegistryData mysqlRegistryData = mysqlRegistryDataMapper.selectByKey(key);
-        if (mysqlRegistryData != null) {
-            long id = mysqlRegistryData.getId();
-            if (mysqlRegistryDataMapper.updateDataAndTermById(id, value, System.currentTimeMillis()) <= 0) {
-                throw new SQLException(String.format("update registry value failed, key: %s, value: %s", key, value));
+        return insertOrUpdateData(key, value, DataType.PERSISTENT);
+    }
+
+    private long insertOrUpdateData(String key, String value, DataType dataType) throws SQLException {
+        Long dataId = transactionTemplate.execute(status -> {
+            MysqlRegistryData mysqlRegistryData = mysqlRegistryDataMapper.selectByKey(key);
+            if (mysqlRegistryData != null) {
+                long id = mysqlRegistryData.getId();
+                if (mysqlRegistryDataMapper.updateDataAndTermById(id, value, System.currentTimeMillis()) <= 0) {
+                    return null;
+                }
+                appendChangeLog(key, value, ChangeType.PUT);
+                return id;
             }
-            return id;
+            mysqlRegistryData = MysqlRegistryData.builder()
+                    .key(key)
+                    .data(value)
+                    .type(dataType.getTypeValue())
+                    .lastTerm(System.currentTimeMillis())
+                    .build();
+            mysqlRegistryDataMapper.insert(mysqlRegistryData);
+            appendChangeLog(key, value, ChangeType.PUT);
+            return mysqlRegistryData.getId();
+        });
+        if (dataId == null) {
+            throw new SQLException(String.format("update registry value failed, key: %s, value: %s", key, value));
         }
-        mysqlRegistryData = MysqlRegistryData.builder()
-                .key(key)
-                .data(value)
-                .type(DataType.PERSISTENT.getTypeValue())
-                .lastTerm(System.currentTimeMillis())
-                .build();
-        mysqlRegistryDataMapper.insert(mysqlRegistryData);
-        return mysqlRegistryData.getId();
+        return dataId;
     }
 
     public void deleteDataByKey(String key) {
-        mysqlRegistryDataMapper.deleteByKey(key);
+        transactionTemplate.executeWithoutResult(status -> {
+            if (mysqlRegistryDataMapper.deleteByKey(key) > 0) {
+                appendChangeLog(key, null, ChangeType.DELETE);
+            }
+        });
     }
 
     public void deleteDataById(long id) {
-        mysqlRegistryDataMapper.deleteById(id);
+        transactionTemplate.executeWithoutResult(status -> {
+            MysqlRegistryData mysqlRegistryData = mysqlRegistryDataMapper.selectById(id);
+            if (mysqlRegistryData != null && mysqlRegistryDataMapper.deleteById(id) > 0) {
+                appendChangeLog(mysqlRegistryData.getKey(), null, ChangeType.DELETE);
+            }
+        });
     }
 
     public void clearExpireLock() {
         mysqlRegistryLockMapper.clearExpireLock(System.currentTimeMillis() - expireTimeWindow);
+        mysqlRegistryLockWaiterMapper.clearExpireWaiter(System.currentTimeMillis() - expireTimeWindow);
     }
 
     public void clearExpireEphemeralDate() {
-        mysqlRegistryDataMapper.clearExpireEphemeralDate(System.currentTimeMillis() - expireTimeWindow,
-                DataType.EPHEMERAL.getTypeValue());
+        long expireTerm = System.currentTimeMillis() - expireTimeWindow;
+        List<MysqlRegistryData> expireDataList =
+                mysqlRegistryDataMapper.selectExpireEphemeralDate(expireTerm, DataType.EPHEMERAL.getTypeValue());
+        for (MysqlRegistryData expireData : expireDataList) {
+            transactionTemplate.executeWithoutResult(status -> {
+                // the data may be refreshed or deleted by others after selected
+                if (mysqlRegistryDataMapper.deleteExpireById(expireData.getId(), expireTerm) > 0) {
+                    appendChangeLog(expireData.getKey(), null, ChangeType.DELETE);
+                }
+            });
+        }
+    }
+
+    public void clearExpireChangeLog() {
+        mysqlRegistryChangeLogMapper.clearExpireChangeLog(System.currentTimeMillis() - changeLogRetention);
+    }
+
+    /**
+     * Query the change logs after the given id, and the change logs of the given ids which may be committed late.
+     */
+    public List<MysqlRegistryChangeLog> queryChangeLogs(long afterId, Collection<Long> ids) {
+        return mysqlRegistryChangeLogMapper.selectAfterIdOrInIds(afterId, ids);
+    }
+
+    /**
+     * @return the max id of the change logs, 0 if there is no change log.
+     */
+    public long queryMaxChangeLogId() {
+        Long maxId = mysqlRegistryChangeLogMapper.selectMaxId();
+        return maxId == null ? 0 : maxId;
+    }
+
+    /**
+     * Append the change log of the registry data, it should be called in the transaction which changes the data.
+     */
+    private void appendChangeLog(String key, String data, ChangeType changeType) {
+        MysqlRegistryChangeLog mysqlRegistryChangeLog = MysqlRegistryChangeLog.builder()
+                .key(key)
+                .data(data)
+                .changeType(changeType.getTypeValue())
+                .changeTime(System.currentTimeMillis())
+                .build();
+        mysqlRegistryChangeLogMapper.insert(mysqlRegistryChangeLog);
     }
 
     public MysqlRegistryData getData(String key) throws SQLException {
@@ -162,6 +235,38 @@ public class MysqlOperator {
         return mysqlRegistryLockMapper.deleteById(lockId) > 0;
     }
 
+    /**
+     * Append a waiter to the tail of the wait queue of the target lock.
+     */
+    public MysqlRegistryLockWaiter insertLockWaiter(String key) {
+        MysqlRegistryLockWaiter mysqlRegistryLockWaiter = MysqlRegistryLockWaiter.builder()
+                .key(key)
+                .lockOwner(MysqlRegistryConstant.LOCK_OWNER)
+                .lastTerm(System.currentTimeMillis())
+                .build();
+        mysqlRegistryLockWaiterMapper.insert(mysqlRegistryLockWaiter);
+        return mysqlRegistryLockWaiter;
+    }
+
+    /**
+     * @return {@code true} if the waiter is at the head of the wait queue of its lock.
+     */
+    public boolean isHeadLockWaiter(MysqlRegistryLockWaiter mysqlRegistryLockWaiter) {
+        Long headId = mysqlRegistryLockWaiterMapper.selectHeadIdByKey(mysqlRegistryLockWaiter.getKey());
+        return mysqlRegistryLockWaiter.getId().equals(headId);
+    }
+
+    /**
+     * @return {@code true} if the waiter is still in the wait queue, it may be cleared once expired.
+     */
+    public boolean existLockWaiter(long waiterId) {
+        return mysqlRegistryLockWaiterMapper.selectById(waiterId) != null;
+    }
+
+    public void deleteLockWaiter(long waiterId) {
+        mysqlRegistryLockWaiterMapper.deleteById(waiterId);
+    }
+
     public boolean updateEphemeralDataTerm(Collection<Long> ephemeralDateIds) throws SQLException {
         if (CollectionUtils.isEmpty(ephemeralDateIds)) {
             return true;
@@ -176,4 +281,11 @@ public class MysqlOperator {
         return mysqlRegistryLockMapper.updateTermByIds(lockIds, System.currentTimeMillis()) > 0;
     }
 
+    public boolean updateLockWaiterTerm(List<Long> waiterIds) {
+        if (CollectionUtils.isEmpty(waiterIds)) {
+            return true;
+        }
+        return mysqlRegistryLockWaiterMapper.updateTermByIds(waiterIds, System.currentTimeMillis()) > 0;
+    }
+
 }
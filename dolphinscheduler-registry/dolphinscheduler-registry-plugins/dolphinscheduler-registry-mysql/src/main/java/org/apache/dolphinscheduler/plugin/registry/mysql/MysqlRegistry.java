@@ -58,6 +58,7 @@ public class MysqlRegistry implements Registry {
         this.mysqlOperator = mysqlOperator;
         mysqlOperator.clearExpireLock();
         mysqlOperator.clearExpireEphemeralDate();
+        mysqlOperator.clearExpireChangeLog();
         this.mysqlRegistryProperties = mysqlRegistryProperties;
         this.ephemeralDateManager = new EphemeralDateManager(mysqlRegistryProperties, mysqlOperator);
         this.subscribeDataManager = new SubscribeDataManager(mysqlRegistryProperties, mysqlOperator);
@@ -173,6 +174,17 @@ public class MysqlRegistry implements Registry {
         }
     }
 
+    @Override
+    public boolean acquireLock(String key, long timeout) {
+        try {
+            return registryLockManager.tryAcquireLock(key, timeout);
+        } catch (RegistryException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RegistryException(String.format("Acquire lock: %s error", key), e);
+        }
+    }
+
     @Override
     public boolean releaseLock(String key) {
         registryLockManager.releaseLock(key);
@@ -17,8 +17,10 @@
 
 package org.apache.dolphinscheduler.plugin.registry.mysql;
 
+import org.apache.dolphinscheduler.plugin.registry.mysql.mapper.MysqlRegistryChangeLogMapper;
 import org.apache.dolphinscheduler.plugin.registry.mysql.mapper.MysqlRegistryDataMapper;
 import org.apache.dolphinscheduler.plugin.registry.mysql.mapper.MysqlRegistryLockMapper;
+import org.apache.dolphinscheduler.plugin.registry.mysql.mapper.MysqlRegistryLockWaiterMapper;
 
 import org.apache.ibatis.session.SqlSessionFactory;
 
@@ -45,6 +47,8 @@ public class MysqlRegistryConfiguration {
     public SqlSessionTemplate mysqlRegistrySqlSessionTemplate(SqlSessionFactory mysqlRegistrySqlSessionFactory) {
         mysqlRegistrySqlSessionFactory.getConfiguration().addMapper(MysqlRegistryDataMapper.class);
         mysqlRegistrySqlSessionFactory.getConfiguration().addMapper(MysqlRegistryLockMapper.class);
+        mysqlRegistrySqlSessionFactory.getConfiguration().addMapper(MysqlRegistryLockWaiterMapper.class);
+        mysqlRegistrySqlSessionFactory.getConfiguration().addMapper(MysqlRegistryChangeLogMapper.class);
         return new SqlSessionTemplate(mysqlRegistrySqlSessionFactory);
     }
 
@@ -58,4 +62,14 @@ public class MysqlRegistryConfiguration {
         return mysqlRegistrySqlSessionTemplate.getMapper(MysqlRegistryLockMapper.class);
     }
 
+    @Bean
+    public MysqlRegistryLockWaiterMapper mysqlRegistryLockWaiterMapper(SqlSessionTemplate mysqlRegistrySqlSessionTemplate) {
+        return mysqlRegistrySqlSessionTemplate.getMapper(MysqlRegistryLockWaiterMapper.class);
+    }
+
+    @Bean
+    public MysqlRegistryChangeLogMapper mysqlRegistryChangeLogMapper(SqlSessionTemplate mysqlRegistrySqlSessionTemplate) {
+        return mysqlRegistrySqlSessionTemplate.getMapper(MysqlRegistryChangeLogMapper.class);
+    }
+
 }
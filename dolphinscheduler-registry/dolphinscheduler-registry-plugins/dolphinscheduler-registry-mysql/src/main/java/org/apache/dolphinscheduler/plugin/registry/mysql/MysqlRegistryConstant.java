@@ -27,5 +27,7 @@ public final class MysqlRegistryConstant {
 
     public static final long LOCK_ACQUIRE_INTERVAL = 1_000;
 
+    public static final long LOCK_ACQUIRE_MIN_INTERVAL = 50;
+
     public static final String LOCK_OWNER = NetUtils.getHost() + "_" + OSUtils.getProcessID();
 }
@@ -42,6 +42,15 @@ public class MysqlRegistryProperties {
      * e.g. if you set 2, and latest two refresh error, then the ephemeral data/lock will be expire.
      */
     private int termExpireTimes = 3;
+    /**
+     * How long the change logs are kept, the server which has not read the change logs in half of it will reload all
+     * the data.
+     */
+    private Duration changeLogRetention = Duration.ofMinutes(5);
+    /**
+     * The interval to reload all the data, in case a change log is lost, e.g. its id is skipped for a long time.
+     */
+    private Duration fullSyncInterval = Duration.ofMinutes(1);
     private HikariConfig hikariConfig;
 
 }
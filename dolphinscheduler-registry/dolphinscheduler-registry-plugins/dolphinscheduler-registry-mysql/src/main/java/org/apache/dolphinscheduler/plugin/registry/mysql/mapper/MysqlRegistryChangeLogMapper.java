@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.plugin.registry.mysql.mapper;
+
+import org.apache.dolphinscheduler.plugin.registry.mysql.model.MysqlRegistryChangeLog;
+
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+
+public interface MysqlRegistryChangeLogMapper extends BaseMapper<MysqlRegistryChangeLog> {
+
+    @Select({"<script>",
+            "select * from t_ds_mysql_registry_change_log",
+            "where `id` > #{afterId}",
+            "<if test='ids != null and ids.size() > 0'>",
+            "or `id` IN ",
+            "<foreach item='id' index='index' collection='ids' open='(' separator=',' close=')'>",
+            "   #{id}",
+            "</foreach>",
+            "</if>",
+            "order by `id`",
+            "</script>"})
+    List<MysqlRegistryChangeLog> selectAfterIdOrInIds(@Param("afterId") long afterId,
+                                                      @Param("ids") Collection<Long> ids);
+
+    @Select("select max(`id`) from t_ds_mysql_registry_change_log")
+    Long selectMaxId();
+
+    @Delete("delete from t_ds_mysql_registry_change_log where `change_time` < #{changeTime}")
+    void clearExpireChangeLog(@Param("changeTime") long changeTime);
+}
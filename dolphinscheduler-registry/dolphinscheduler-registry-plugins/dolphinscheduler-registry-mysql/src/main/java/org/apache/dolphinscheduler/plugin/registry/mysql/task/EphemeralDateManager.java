@@ -144,6 +144,7 @@ public class EphemeralDateManager implements AutoCloseable {
                     updateEphemeralDateTerm();
                 }
                 mysqlOperator.clearExpireEphemeralDate();
+                mysqlOperator.clearExpireChangeLog();
                 return ConnectionState.CONNECTED;
             } catch (Exception ex) {
                 log.error("Get connection state error, meet an unknown exception", ex);
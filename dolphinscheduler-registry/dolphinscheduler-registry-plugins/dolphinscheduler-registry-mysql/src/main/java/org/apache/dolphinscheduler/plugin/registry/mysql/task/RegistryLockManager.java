@@ -17,19 +17,21 @@
 
 package org.apache.dolphinscheduler.plugin.registry.mysql.task;
 
-import org.apache.dolphinscheduler.common.thread.ThreadUtils;
 import org.apache.dolphinscheduler.plugin.registry.mysql.MysqlOperator;
 import org.apache.dolphinscheduler.plugin.registry.mysql.MysqlRegistryConstant;
 import org.apache.dolphinscheduler.plugin.registry.mysql.MysqlRegistryProperties;
 import org.apache.dolphinscheduler.plugin.registry.mysql.model.MysqlRegistryLock;
+import org.apache.dolphinscheduler.plugin.registry.mysql.model.MysqlRegistryLockWaiter;
 import org.apache.dolphinscheduler.registry.api.RegistryException;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -45,19 +47,23 @@ public class RegistryLockManager implements AutoCloseable {
     private final MysqlOperator mysqlOperator;
     private final MysqlRegistryProperties registryProperties;
     private final Map<String, MysqlRegistryLock> lockHoldMap;
+    private final Map<String, Semaphore> localLockMap;
+    private final Map<Long, MysqlRegistryLockWaiter> lockWaiterMap;
     private final ScheduledExecutorService lockTermUpdateThreadPool;
 
     public RegistryLockManager(MysqlRegistryProperties registryProperties, MysqlOperator mysqlOperator) {
         this.registryProperties = registryProperties;
         this.mysqlOperator = mysqlOperator;
         this.lockHoldMap = new ConcurrentHashMap<>();
+        this.localLockMap = new ConcurrentHashMap<>();
+        this.lockWaiterMap = new ConcurrentHashMap<>();
         this.lockTermUpdateThreadPool = Executors.newSingleThreadScheduledExecutor(
                 new ThreadFactoryBuilder().setNameFormat("MysqlRegistryLockTermRefreshThread").setDaemon(true).build());
     }
 
     public void start() {
         lockTermUpdateThreadPool.scheduleWithFixedDelay(
-                new LockTermRefreshTask(lockHoldMap, mysqlOperator),
+                new LockTermRefreshTask(lockHoldMap, lockWaiterMap, mysqlOperator),
                 registryProperties.getTermRefreshInterval().toMillis(),
                 registryProperties.getTermRefreshInterval().toMillis(),
                 TimeUnit.MILLISECONDS);
@@ -67,32 +73,109 @@ public class RegistryLockManager implements AutoCloseable {
      * Acquire the lock, if cannot get the lock will await.
      */
     public void acquireLock(String lockKey) throws RegistryException {
-        // maybe we can use the computeIf absent
-        lockHoldMap.computeIfAbsent(lockKey, key -> {
-            MysqlRegistryLock mysqlRegistryLock;
-            try {
-                while ((mysqlRegistryLock = mysqlOperator.tryToAcquireLock(lockKey)) == null) {
-                    log.debug("Acquire the lock {} failed try again", key);
-                    // acquire failed, wait and try again
-                    ThreadUtils.sleep(MysqlRegistryConstant.LOCK_ACQUIRE_INTERVAL);
+        tryAcquireLock(lockKey, Long.MAX_VALUE);
+    }
+
+    /**
+     * Acquire the lock, if cannot get the lock in the given timeout will return false.
+     * <p>
+     * The threads of the current server wait in a local fair queue, and the next one is waked up once the lock is
+     * released by the current server. Only the head of the local queue waits in the database wait queue, which only
+     * tries to insert the lock when it's the head of the database wait queue, and checks the queue with a backoff
+     * interval, so the servers will not compete for the lock with conflicting inserts.
+     */
+    public boolean tryAcquireLock(String lockKey, long timeoutMillis) throws RegistryException {
+        long currentTimeMillis = System.currentTimeMillis();
+        long deadline = timeoutMillis >= Long.MAX_VALUE - currentTimeMillis ? Long.MAX_VALUE
+                : currentTimeMillis + Math.max(timeoutMillis, 0);
+        Semaphore localLock = localLockMap.computeIfAbsent(lockKey, key -> new Semaphore(1, true));
+        try {
+            if (!localLock.tryAcquire(remainingMillis(deadline), TimeUnit.MILLISECONDS)) {
+                log.debug("Acquire the lock {} timeout, the lock is held by current server", lockKey);
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RegistryException(String.format("Acquire the lock: %s interrupted", lockKey), e);
+        }
+        boolean acquired = false;
+        try {
+            acquired = waitForLock(lockKey, deadline);
+            return acquired;
+        } finally {
+            if (!acquired) {
+                localLock.release();
+            }
+        }
+    }
+
+    private boolean waitForLock(String lockKey, long deadline) throws RegistryException {
+        MysqlRegistryLockWaiter lockWaiter = mysqlOperator.insertLockWaiter(lockKey);
+        lockWaiterMap.put(lockWaiter.getId(), lockWaiter);
+        try {
+            long acquireInterval = MysqlRegistryConstant.LOCK_ACQUIRE_MIN_INTERVAL;
+            boolean head = false;
+            while (true) {
+                if (mysqlOperator.isHeadLockWaiter(lockWaiter)) {
+                    if (!head) {
+                        // check the lock eagerly once become the head
+                        head = true;
+                        acquireInterval = MysqlRegistryConstant.LOCK_ACQUIRE_MIN_INTERVAL;
+                    }
+                    MysqlRegistryLock mysqlRegistryLock = mysqlOperator.tryToAcquireLock(lockKey);
+                    if (mysqlRegistryLock != null) {
+                        lockHoldMap.put(lockKey, mysqlRegistryLock);
+                        return true;
+                    }
+                } else if (!mysqlOperator.existLockWaiter(lockWaiter.getId())) {
+                    // the waiter is cleared as expired, e.g. its term is not refreshed during a long GC pause,
+                    // rejoin the wait queue or it will never become the head
+                    log.warn("The lock waiter {} of lock {} is cleared, rejoin the wait queue", lockWaiter.getId(),
+                            lockKey);
+                    lockWaiterMap.remove(lockWaiter.getId());
+                    lockWaiter = mysqlOperator.insertLockWaiter(lockKey);
+                    lockWaiterMap.put(lockWaiter.getId(), lockWaiter);
+                }
+                long remainingMillis = remainingMillis(deadline);
+                if (remainingMillis <= 0) {
+                    log.debug("Acquire the lock {} timeout", lockKey);
+                    return false;
                 }
-            } catch (SQLException e) {
-                throw new RegistryException("Acquire the lock error", e);
+                log.debug("Acquire the lock {} failed, wait {}ms and try again", lockKey, acquireInterval);
+                TimeUnit.MILLISECONDS.sleep(Math.min(acquireInterval, remainingMillis));
+                acquireInterval = Math.min(acquireInterval * 2, MysqlRegistryConstant.LOCK_ACQUIRE_INTERVAL);
             }
-            return mysqlRegistryLock;
-        });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RegistryException(String.format("Acquire the lock: %s interrupted", lockKey), e);
+        } catch (SQLException e) {
+            throw new RegistryException("Acquire the lock error", e);
+        } finally {
+            lockWaiterMap.remove(lockWaiter.getId());
+            mysqlOperator.deleteLockWaiter(lockWaiter.getId());
+        }
+    }
+
+    private static long remainingMillis(long deadline) {
+        if (deadline == Long.MAX_VALUE) {
+            return Long.MAX_VALUE;
+        }
+        return deadline - System.currentTimeMillis();
     }
 
     public void releaseLock(String lockKey) {
-        MysqlRegistryLock mysqlRegistryLock = lockHoldMap.get(lockKey);
-        if (mysqlRegistryLock != null) {
-            try {
-                // the lock is unExit
-                mysqlOperator.releaseLock(mysqlRegistryLock.getId());
-                lockHoldMap.remove(lockKey);
-            } catch (SQLException e) {
-                throw new RegistryException(String.format("Release lock: %s error", lockKey), e);
-            }
+        MysqlRegistryLock mysqlRegistryLock = lockHoldMap.remove(lockKey);
+        if (mysqlRegistryLock == null) {
+            return;
+        }
+        try {
+            // if the lock cannot be deleted, it will expire since its term is no longer refreshed
+            mysqlOperator.releaseLock(mysqlRegistryLock.getId());
+        } catch (SQLException e) {
+            throw new RegistryException(String.format("Release lock: %s error", lockKey), e);
+        } finally {
+            // wake up the next waiter of the current server
+            localLockMap.get(lockKey).release();
         }
     }
 
@@ -105,17 +188,18 @@ public class RegistryLockManager implements AutoCloseable {
     }
 
     /**
-     * This task is used to refresh the lock held by the current server.
+     * This task is used to refresh the lock held by the current server, and the waiters of the current server.
      */
     @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
     static class LockTermRefreshTask implements Runnable {
 
         private final Map<String, MysqlRegistryLock> lockHoldMap;
+        private final Map<Long, MysqlRegistryLockWaiter> lockWaiterMap;
         private final MysqlOperator mysqlOperator;
 
         public void run() {
             try {
-                if (lockHoldMap.isEmpty()) {
+                if (lockHoldMap.isEmpty() && lockWaiterMap.isEmpty()) {
                     return;
                 }
                 List<Long> lockIds = lockHoldMap.values()
@@ -125,6 +209,11 @@ public class RegistryLockManager implements AutoCloseable {
                 if (!mysqlOperator.updateLockTerm(lockIds)) {
                     log.warn("Update the lock: {} term failed.", lockIds);
                 }
+                List<Long> waiterIds = new ArrayList<>(lockWaiterMap.keySet());
+                if (!mysqlOperator.updateLockWaiterTerm(waiterIds)) {
+                    log.warn("Update the lock waiter: {} term failed.", waiterIds);
+                }
+                // the waiters also need to clear the lock and the waiters of the dead servers
                 mysqlOperator.clearExpireLock();
             } catch (Exception e) {
                 log.error("Update lock term error", e);
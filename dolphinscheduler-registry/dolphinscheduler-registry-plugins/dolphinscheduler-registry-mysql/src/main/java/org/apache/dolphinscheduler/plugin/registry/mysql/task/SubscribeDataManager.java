@@ -19,21 +19,27 @@ package org.apache.dolphinscheduler.plugin.registry.mysql.task;
 
 import org.apache.dolphinscheduler.plugin.registry.mysql.MysqlOperator;
 import org.apache.dolphinscheduler.plugin.registry.mysql.MysqlRegistryProperties;
+import org.apache.dolphinscheduler.plugin.registry.mysql.model.ChangeType;
+import org.apache.dolphinscheduler.plugin.registry.mysql.model.MysqlRegistryChangeLog;
 import org.apache.dolphinscheduler.plugin.registry.mysql.model.MysqlRegistryData;
 import org.apache.dolphinscheduler.registry.api.Event;
 import org.apache.dolphinscheduler.registry.api.SubscribeListener;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
@@ -44,6 +50,11 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
 @Slf4j
 public class SubscribeDataManager implements AutoCloseable {
 
+    /**
+     * The max number of the skipped change log ids to check again, all the data is reloaded if more ids are skipped.
+     */
+    private static final int MAX_SKIPPED_CHANGE_LOG_IDS = 1000;
+
     private final MysqlOperator mysqlOperator;
     private final MysqlRegistryProperties registryProperties;
     private final Map<String, List<SubscribeListener>> dataSubScribeMap = new ConcurrentHashMap<>();
@@ -61,14 +72,15 @@ public class SubscribeDataManager implements AutoCloseable {
 
     public void start() {
         dataSubscribeCheckThreadPool.scheduleWithFixedDelay(
-                new RegistrySubscribeDataCheckTask(dataSubScribeMap, mysqlOperator, mysqlRegistryDataMap),
+                new RegistrySubscribeDataCheckTask(dataSubScribeMap, mysqlOperator, mysqlRegistryDataMap,
+                        registryProperties),
                 registryProperties.getTermRefreshInterval().toMillis(),
                 registryProperties.getTermRefreshInterval().toMillis(),
                 TimeUnit.MILLISECONDS);
     }
 
     public void addListener(String path, SubscribeListener subscribeListener) {
-        dataSubScribeMap.computeIfAbsent(path, k -> new ArrayList<>()).add(subscribeListener);
+        dataSubScribeMap.computeIfAbsent(path, k -> new CopyOnWriteArrayList<>()).add(subscribeListener);
     }
 
     public void removeListener(String path) {
@@ -89,63 +101,172 @@ public class SubscribeDataManager implements AutoCloseable {
         dataSubScribeMap.clear();
     }
 
-    @RequiredArgsConstructor
+    /**
+     * Apply the change logs since the last check to the local data, and trigger the listeners.
+     * <p>
+     * The change logs are identified by the auto increment id, a smaller id may be committed after a bigger one, so
+     * the skipped ids are checked again until they are found or expired. All the data is reloaded at first, every
+     * full sync interval, or if a change log may be lost, i.e. the skipped id is expired or the change logs may have
+     * been cleared before being read.
+     */
     static class RegistrySubscribeDataCheckTask implements Runnable {
 
         private final Map<String, List<SubscribeListener>> dataSubScribeMap;
         private final MysqlOperator mysqlOperator;
         private final Map<String, MysqlRegistryData> mysqlRegistryDataMap;
+        private final long changeLogRetention;
+        private final long skippedIdExpireTime;
+        private final long fullSyncInterval;
+
+        /**
+         * The max id of the applied change logs, -1 if the data has not been loaded.
+         */
+        private long lastChangeLogId = -1;
+        private long lastCheckTime;
+        private long lastReloadTime;
+        /**
+         * The skipped change log id -> the time it is skipped.
+         */
+        private final Map<Long, Long> skippedChangeLogIds = new HashMap<>();
+        /**
+         * The key -> the id of the change log applied to it, used to ignore the change log committed late.
+         */
+        private final Map<String, Long> keyChangeLogIds = new HashMap<>();
+
+        RegistrySubscribeDataCheckTask(Map<String, List<SubscribeListener>> dataSubScribeMap,
+                                       MysqlOperator mysqlOperator,
+                                       Map<String, MysqlRegistryData> mysqlRegistryDataMap,
+                                       MysqlRegistryProperties registryProperties) {
+            this.dataSubScribeMap = dataSubScribeMap;
+            this.mysqlOperator = mysqlOperator;
+            this.mysqlRegistryDataMap = mysqlRegistryDataMap;
+            this.changeLogRetention = registryProperties.getChangeLogRetention().toMillis();
+            this.skippedIdExpireTime = registryProperties.getTermExpireTimes()
+                    * registryProperties.getTermRefreshInterval().toMillis();
+            this.fullSyncInterval = registryProperties.getFullSyncInterval().toMillis();
+        }
 
         @Override
         public void run() {
-            // query the full data from database, and update the mysqlRegistryDataMap
             try {
-                Map<String, MysqlRegistryData> currentMysqlDataMap = mysqlOperator.queryAllMysqlRegistryData()
-                        .stream()
-                        .collect(Collectors.toMap(MysqlRegistryData::getKey, Function.identity()));
-                // find the different
-                List<MysqlRegistryData> addedData = new ArrayList<>();
-                List<MysqlRegistryData> deletedData = new ArrayList<>();
-                List<MysqlRegistryData> updatedData = new ArrayList<>();
-                for (Map.Entry<String, MysqlRegistryData> entry : currentMysqlDataMap.entrySet()) {
-                    MysqlRegistryData newData = entry.getValue();
-                    MysqlRegistryData oldData = mysqlRegistryDataMap.get(entry.getKey());
-                    if (oldData == null) {
-                        addedData.add(newData);
-                    } else {
-                        if (!entry.getValue().getLastUpdateTime().equals(oldData.getLastUpdateTime())) {
-                            updatedData.add(newData);
+                long now = System.currentTimeMillis();
+                if (lastChangeLogId < 0
+                        || now - lastCheckTime > changeLogRetention / 2
+                        || now - lastReloadTime >= fullSyncInterval) {
+                    reloadAll(now);
+                } else if (!applyChangeLogs()) {
+                    log.info("The change logs of mysql registry may be lost, reload all the data");
+                    reloadAll(now);
+                }
+                lastCheckTime = now;
+            } catch (Exception e) {
+                log.error("Query data from mysql registry error", e);
+            }
+        }
+
+        private void reloadAll(long now) {
+            // the changes after the max id are applied by the next check
+            long maxChangeLogId = mysqlOperator.queryMaxChangeLogId();
+            Map<String, MysqlRegistryData> currentMysqlDataMap = mysqlOperator.queryAllMysqlRegistryData()
+                    .stream()
+                    .collect(Collectors.toMap(MysqlRegistryData::getKey, Function.identity()));
+            List<Event> events = new ArrayList<>();
+            for (Map.Entry<String, MysqlRegistryData> entry : currentMysqlDataMap.entrySet()) {
+                MysqlRegistryData newData = entry.getValue();
+                MysqlRegistryData oldData = mysqlRegistryDataMap.put(entry.getKey(), newData);
+                if (oldData == null) {
+                    events.add(new Event(newData.getKey(), newData.getKey(), newData.getData(), Event.Type.ADD));
+                } else if (!Objects.equals(oldData.getData(), newData.getData())) {
+                    events.add(new Event(newData.getKey(), newData.getKey(), newData.getData(), Event.Type.UPDATE));
+                }
+            }
+            Iterator<Map.Entry<String, MysqlRegistryData>> iterator = mysqlRegistryDataMap.entrySet().iterator();
+            while (iterator.hasNext()) {
+                MysqlRegistryData oldData = iterator.next().getValue();
+                if (!currentMysqlDataMap.containsKey(oldData.getKey())) {
+                    iterator.remove();
+                    events.add(new Event(oldData.getKey(), oldData.getKey(), oldData.getData(), Event.Type.REMOVE));
+                }
+            }
+            lastChangeLogId = maxChangeLogId;
+            lastReloadTime = now;
+            skippedChangeLogIds.clear();
+            keyChangeLogIds.clear();
+            triggerListener(events);
+        }
+
+        /**
+         * @return false if a change log may be lost, then all the data should be reloaded
+         */
+        private boolean applyChangeLogs() {
+            List<MysqlRegistryChangeLog> changeLogs =
+                    mysqlOperator.queryChangeLogs(lastChangeLogId, skippedChangeLogIds.keySet());
+            long now = System.currentTimeMillis();
+            boolean changeLogLost = false;
+            List<Event> events = new ArrayList<>();
+            for (MysqlRegistryChangeLog changeLog : changeLogs) {
+                long changeLogId = changeLog.getId();
+                skippedChangeLogIds.remove(changeLogId);
+                if (changeLogId > lastChangeLogId) {
+                    for (long skippedId = lastChangeLogId + 1; skippedId < changeLogId; skippedId++) {
+                        if (skippedChangeLogIds.size() >= MAX_SKIPPED_CHANGE_LOG_IDS) {
+                            changeLogLost = true;
+                            break;
                         }
+                        skippedChangeLogIds.put(skippedId, now);
                     }
+                    lastChangeLogId = changeLogId;
                 }
-                for (Map.Entry<String, MysqlRegistryData> entry : mysqlRegistryDataMap.entrySet()) {
-                    if (!currentMysqlDataMap.containsKey(entry.getKey())) {
-                        deletedData.add(entry.getValue());
-                    }
+                Long appliedChangeLogId = keyChangeLogIds.get(changeLog.getKey());
+                if (appliedChangeLogId != null && appliedChangeLogId > changeLogId) {
+                    // the key has been changed by a newer change log
+                    continue;
                 }
-                mysqlRegistryDataMap.clear();
-                mysqlRegistryDataMap.putAll(currentMysqlDataMap);
-                // trigger listener
-                for (Map.Entry<String, List<SubscribeListener>> entry : dataSubScribeMap.entrySet()) {
-                    String subscribeKey = entry.getKey();
-                    List<SubscribeListener> subscribeListeners = entry.getValue();
-                    triggerListener(addedData, subscribeKey, subscribeListeners, Event.Type.ADD);
-                    triggerListener(deletedData, subscribeKey, subscribeListeners, Event.Type.REMOVE);
-                    triggerListener(updatedData, subscribeKey, subscribeListeners, Event.Type.UPDATE);
+                keyChangeLogIds.put(changeLog.getKey(), changeLogId);
+                Event event = apply(changeLog);
+                if (event != null) {
+                    events.add(event);
                 }
-            } catch (Exception e) {
-                log.error("Query data from mysql registry error");
             }
+            if (skippedChangeLogIds.values().removeIf(skippedTime -> now - skippedTime > skippedIdExpireTime)) {
+                changeLogLost = true;
+            }
+            // only the keys changed after the min skipped id may be changed by a late change log
+            if (skippedChangeLogIds.isEmpty()) {
+                keyChangeLogIds.clear();
+            } else {
+                long minSkippedId = Collections.min(skippedChangeLogIds.keySet());
+                keyChangeLogIds.values().removeIf(changeLogId -> changeLogId < minSkippedId);
+            }
+            triggerListener(events);
+            return !changeLogLost;
+        }
+
+        private Event apply(MysqlRegistryChangeLog changeLog) {
+            String key = changeLog.getKey();
+            if (changeLog.getChangeType() == ChangeType.DELETE.getTypeValue()) {
+                MysqlRegistryData oldData = mysqlRegistryDataMap.remove(key);
+                return oldData == null ? null : new Event(key, key, oldData.getData(), Event.Type.REMOVE);
+            }
+            MysqlRegistryData newData = MysqlRegistryData.builder()
+                    .key(key)
+                    .data(changeLog.getData())
+                    .build();
+            MysqlRegistryData oldData = mysqlRegistryDataMap.put(key, newData);
+            return new Event(key, key, changeLog.getData(), oldData == null ? Event.Type.ADD : Event.Type.UPDATE);
         }
 
-        private void triggerListener(List<MysqlRegistryData> dataList,
-                                     String subscribeKey,
-                                     List<SubscribeListener> subscribeListeners,
-                                     Event.Type type) {
-            for (MysqlRegistryData data : dataList) {
-                if (data.getKey().startsWith(subscribeKey)) {
-                    subscribeListeners.forEach(subscribeListener -> subscribeListener
-                            .notify(new Event(data.getKey(), data.getKey(), data.getData(), type)));
+        private void triggerListener(List<Event> events) {
+            if (events.isEmpty()) {
+                return;
+            }
+            for (Map.Entry<String, List<SubscribeListener>> entry : dataSubScribeMap.entrySet()) {
+                String subscribeKey = entry.getKey();
+                List<SubscribeListener> subscribeListeners = entry.getValue();
+                for (Event event : events) {
+                    if (event.path().startsWith(subscribeKey)) {
+                        subscribeListeners.forEach(subscribeListener -> subscribeListener.notify(event));
+                    }
                 }
             }
         }
@@ -28,7 +28,22 @@ CREATE TABLE `t_ds_mysql_registry_data`
     `last_update_time` timestamp    NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT 'last update time',
     `create_time`      timestamp    NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT 'create time',
     PRIMARY KEY (`id`),
-    unique (`key`)
+    unique (`key`),
+    KEY `idx_type_last_term` (`type`, `last_term`)
+) ENGINE = InnoDB
+  DEFAULT CHARSET = utf8;
+
+
+DROP TABLE IF EXISTS `t_ds_mysql_registry_change_log`;
+CREATE TABLE `t_ds_mysql_registry_change_log`
+(
+    `id`          bigint(11) NOT NULL AUTO_INCREMENT COMMENT 'primary key, the version of the change',
+    `key`         varchar(256) NOT NULL COMMENT 'the changed key',
+    `data`        text COMMENT 'the data after the change, null if the key is deleted',
+    `change_type` tinyint(4) NOT NULL COMMENT '1: put, 2: delete',
+    `change_time` bigint       NOT NULL COMMENT 'change time',
+    PRIMARY KEY (`id`),
+    KEY `idx_change_time` (`change_time`)
 ) ENGINE = InnoDB
   DEFAULT CHARSET = utf8;
 
@@ -46,3 +61,17 @@ CREATE TABLE `t_ds_mysql_registry_lock`
     unique (`key`)
 ) ENGINE = InnoDB
   DEFAULT CHARSET = utf8;
+
+
+DROP TABLE IF EXISTS `t_ds_mysql_registry_lock_waiter`;
+CREATE TABLE `t_ds_mysql_registry_lock_waiter`
+(
+    `id`          bigint(11) NOT NULL AUTO_INCREMENT COMMENT 'primary key, the position in the wait queue',
+    `key`         varchar(256) NOT NULL COMMENT 'lock path',
+    `lock_owner`  varchar(256) NOT NULL COMMENT 'the waiting server, ip_processId',
+    `last_term`   bigint       NOT NULL COMMENT 'last term time',
+    `create_time` timestamp    NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT 'create time',
+    PRIMARY KEY (`id`),
+    KEY `idx_key` (`key`)
+) ENGINE = InnoDB
+  DEFAULT CHARSET = utf8;
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.plugin.registry.mysql.task;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.apache.dolphinscheduler.plugin.registry.mysql.MysqlOperator;
+import org.apache.dolphinscheduler.plugin.registry.mysql.MysqlRegistryProperties;
+import org.apache.dolphinscheduler.plugin.registry.mysql.model.MysqlRegistryLock;
+import org.apache.dolphinscheduler.plugin.registry.mysql.model.MysqlRegistryLockWaiter;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class RegistryLockManagerTest {
+
+    private static final String LOCK_KEY = "/lock/failover/master";
+
+    @Mock
+    private MysqlOperator mysqlOperator;
+
+    private final AtomicLong waiterId = new AtomicLong();
+
+    private RegistryLockManager registryLockManager;
+
+    @BeforeEach
+    public void before() {
+        when(mysqlOperator.insertLockWaiter(anyString())).thenAnswer(invocation -> MysqlRegistryLockWaiter.builder()
+                .id(waiterId.incrementAndGet())
+                .key(invocation.getArgument(0))
+                .build());
+        lenient().when(mysqlOperator.existLockWaiter(anyLong())).thenReturn(true);
+        registryLockManager = new RegistryLockManager(new MysqlRegistryProperties(), mysqlOperator);
+    }
+
+    @AfterEach
+    public void after() {
+        registryLockManager.close();
+    }
+
+    @Test
+    public void testAcquireLockAtHeadOfQueue() throws SQLException {
+        when(mysqlOperator.isHeadLockWaiter(any())).thenReturn(true);
+        when(mysqlOperator.tryToAcquireLock(LOCK_KEY)).thenReturn(lock(1L));
+
+        Assertions.assertTrue(registryLockManager.tryAcquireLock(LOCK_KEY, 1_000));
+        verify(mysqlOperator, times(1)).tryToAcquireLock(LOCK_KEY);
+        // the waiter leaves the wait queue once get the lock
+        verify(mysqlOperator).deleteLockWaiter(1L);
+
+        registryLockManager.releaseLock(LOCK_KEY);
+        verify(mysqlOperator).releaseLock(1L);
+    }
+
+    @Test
+    public void testWaitInQueueUntilHead() throws SQLException {
+        when(mysqlOperator.isHeadLockWaiter(any())).thenReturn(false, false, true);
+        when(mysqlOperator.tryToAcquireLock(LOCK_KEY)).thenReturn(lock(1L));
+
+        Assertions.assertTrue(registryLockManager.tryAcquireLock(LOCK_KEY, 5_000));
+        verify(mysqlOperator, times(3)).isHeadLockWaiter(any());
+        // only the head of the wait queue tries to insert the lock
+        verify(mysqlOperator, times(1)).tryToAcquireLock(LOCK_KEY);
+        verify(mysqlOperator).deleteLockWaiter(1L);
+    }
+
+    @Test
+    public void testRejoinQueueOnceWaiterCleared() throws SQLException {
+        when(mysqlOperator.isHeadLockWaiter(any())).thenAnswer(invocation -> {
+            MysqlRegistryLockWaiter lockWaiter = invocation.getArgument(0);
+            return lockWaiter.getId() == 2L;
+        });
+        // the first waiter is cleared as expired
+        when(mysqlOperator.existLockWaiter(1L)).thenReturn(false);
+        when(mysqlOperator.tryToAcquireLock(LOCK_KEY)).thenReturn(lock(1L));
+
+        Assertions.assertTrue(registryLockManager.tryAcquireLock(LOCK_KEY, 5_000));
+        verify(mysqlOperator, times(2)).insertLockWaiter(LOCK_KEY);
+        verify(mysqlOperator).deleteLockWaiter(2L);
+    }
+
+    @Test
+    public void testWaitAtHeadUntilLockReleased() throws SQLException {
+        when(mysqlOperator.isHeadLockWaiter(any())).thenReturn(true);
+        when(mysqlOperator.tryToAcquireLock(LOCK_KEY)).thenReturn(null, null, lock(1L));
+
+        Assertions.assertTrue(registryLockManager.tryAcquireLock(LOCK_KEY, 5_000));
+        verify(mysqlOperator, times(3)).tryToAcquireLock(LOCK_KEY);
+        verify(mysqlOperator).deleteLockWaiter(1L);
+    }
+
+    @Test
+    public void testTryAcquireLockTimeout() throws SQLException {
+        when(mysqlOperator.isHeadLockWaiter(any())).thenReturn(false);
+
+        long start = System.currentTimeMillis();
+        Assertions.assertFalse(registryLockManager.tryAcquireLock(LOCK_KEY, 200));
+        Assertions.assertTrue(System.currentTimeMillis() - start >= 200);
+        verify(mysqlOperator, never()).tryToAcquireLock(anyString());
+        // the waiter leaves the wait queue once timeout
+        verify(mysqlOperator).deleteLockWaiter(1L);
+
+        // the lock can still be acquired after a timeout
+        when(mysqlOperator.isHeadLockWaiter(any())).thenReturn(true);
+        when(mysqlOperator.tryToAcquireLock(LOCK_KEY)).thenReturn(lock(1L));
+        Assertions.assertTrue(registryLockManager.tryAcquireLock(LOCK_KEY, 1_000));
+    }
+
+    @Test
+    public void testLocalWaiterTimeoutWhenLockHeldByCurrentServer() throws SQLException {
+        when(mysqlOperator.isHeadLockWaiter(any())).thenReturn(true);
+        when(mysqlOperator.tryToAcquireLock(LOCK_KEY)).thenReturn(lock(1L), lock(2L));
+        Assertions.assertTrue(registryLockManager.tryAcquireLock(LOCK_KEY, 1_000));
+
+        // the local waiter doesn't join the database wait queue while the current server holds the lock
+        Assertions.assertFalse(registryLockManager.tryAcquireLock(LOCK_KEY, 100));
+        verify(mysqlOperator, times(1)).insertLockWaiter(LOCK_KEY);
+
+        registryLockManager.releaseLock(LOCK_KEY);
+        Assertions.assertTrue(registryLockManager.tryAcquireLock(LOCK_KEY, 1_000));
+        verify(mysqlOperator, times(2)).insertLockWaiter(LOCK_KEY);
+    }
+
+    private MysqlRegistryLock lock(long id) {
+        return MysqlRegistryLock.builder().id(id).key(LOCK_KEY).build();
+    }
+}
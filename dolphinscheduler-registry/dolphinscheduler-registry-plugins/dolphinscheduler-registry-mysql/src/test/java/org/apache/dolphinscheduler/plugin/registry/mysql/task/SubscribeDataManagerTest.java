@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.plugin.registry.mysql.task;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.apache.dolphinscheduler.plugin.registry.mysql.MysqlOperator;
+import org.apache.dolphinscheduler.plugin.registry.mysql.MysqlRegistryProperties;
+import org.apache.dolphinscheduler.plugin.registry.mysql.model.ChangeType;
+import org.apache.dolphinscheduler.plugin.registry.mysql.model.MysqlRegistryChangeLog;
+import org.apache.dolphinscheduler.plugin.registry.mysql.model.MysqlRegistryData;
+import org.apache.dolphinscheduler.registry.api.Event;
+import org.apache.dolphinscheduler.registry.api.SubscribeListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class SubscribeDataManagerTest {
+
+    @Mock
+    private MysqlOperator mysqlOperator;
+
+    private final Map<String, MysqlRegistryData> mysqlRegistryDataMap = new ConcurrentHashMap<>();
+
+    private final List<Event> events = new ArrayList<>();
+
+    private MysqlRegistryProperties registryProperties;
+
+    @BeforeEach
+    public void before() {
+        registryProperties = new MysqlRegistryProperties();
+        registryProperties.setTermRefreshInterval(Duration.ofMillis(100));
+        registryProperties.setTermExpireTimes(1);
+        registryProperties.setFullSyncInterval(Duration.ofHours(1));
+    }
+
+    @Test
+    public void testApplySkippedChangeLog() {
+        SubscribeDataManager.RegistrySubscribeDataCheckTask task = reloadedTask();
+
+        // the change log 11 is not committed yet
+        when(mysqlOperator.queryChangeLogs(10, Collections.emptySet()))
+                .thenReturn(Collections.singletonList(changeLog(12, "/nodes/b", "b")));
+        task.run();
+        Assertions.assertEquals(Collections.singletonList(Event.Type.ADD), eventTypes());
+        Assertions.assertEquals("b", mysqlRegistryDataMap.get("/nodes/b").getData());
+
+        // the skipped change log is checked again
+        events.clear();
+        when(mysqlOperator.queryChangeLogs(12, Collections.singleton(11L)))
+                .thenReturn(Collections.singletonList(changeLog(11, "/nodes/c", "c")));
+        task.run();
+        Assertions.assertEquals(Collections.singletonList(Event.Type.ADD), eventTypes());
+        Assertions.assertEquals("c", mysqlRegistryDataMap.get("/nodes/c").getData());
+
+        // nothing is skipped any more
+        when(mysqlOperator.queryChangeLogs(12, Collections.emptySet())).thenReturn(Collections.emptyList());
+        task.run();
+        verify(mysqlOperator, times(1)).queryAllMysqlRegistryData();
+    }
+
+    @Test
+    public void testIgnoreLateChangeLogOfNewerKey() {
+        SubscribeDataManager.RegistrySubscribeDataCheckTask task = reloadedTask();
+
+        when(mysqlOperator.queryChangeLogs(10, Collections.emptySet()))
+                .thenReturn(Collections.singletonList(changeLog(12, "/nodes/a", "a2")));
+        task.run();
+        Assertions.assertEquals(Collections.singletonList(Event.Type.UPDATE), eventTypes());
+
+        // the late change log is older than the applied one of the same key
+        events.clear();
+        when(mysqlOperator.queryChangeLogs(12, Collections.singleton(11L)))
+                .thenReturn(Collections.singletonList(changeLog(11, "/nodes/a", "a1")));
+        task.run();
+        Assertions.assertTrue(events.isEmpty());
+        Assertions.assertEquals("a2", mysqlRegistryDataMap.get("/nodes/a").getData());
+    }
+
+    @Test
+    public void testApplyChangeLogsInOrder() {
+        SubscribeDataManager.RegistrySubscribeDataCheckTask task = reloadedTask();
+
+        when(mysqlOperator.queryChangeLogs(10, Collections.emptySet())).thenReturn(Arrays.asList(
+                changeLog(11, "/nodes/b", "b"),
+                deleteChangeLog(12, "/nodes/b"),
+                deleteChangeLog(13, "/nodes/a")));
+        task.run();
+        Assertions.assertEquals(Arrays.asList(Event.Type.ADD, Event.Type.REMOVE, Event.Type.REMOVE), eventTypes());
+        Assertions.assertTrue(mysqlRegistryDataMap.isEmpty());
+    }
+
+    @Test
+    public void testReloadIfSkippedChangeLogExpired() throws InterruptedException {
+        SubscribeDataManager.RegistrySubscribeDataCheckTask task = reloadedTask();
+
+        when(mysqlOperator.queryChangeLogs(10, Collections.emptySet()))
+                .thenReturn(Collections.singletonList(changeLog(12, "/nodes/b", "b")));
+        task.run();
+        verify(mysqlOperator, times(1)).queryAllMysqlRegistryData();
+
+        // the change log 11 is never found, e.g. its transaction is rolled back or it is lost
+        Thread.sleep(200);
+        when(mysqlOperator.queryChangeLogs(12, Collections.singleton(11L))).thenReturn(Collections.emptyList());
+        task.run();
+        verify(mysqlOperator, times(2)).queryAllMysqlRegistryData();
+        // the data is reloaded from the registry table, so the change of the reloaded data is notified
+        Assertions.assertEquals(Event.Type.REMOVE, events.get(events.size() - 1).type());
+        Assertions.assertFalse(mysqlRegistryDataMap.containsKey("/nodes/b"));
+    }
+
+    @Test
+    public void testReloadIfTooManyChangeLogsSkipped() {
+        SubscribeDataManager.RegistrySubscribeDataCheckTask task = reloadedTask();
+
+        when(mysqlOperator.queryChangeLogs(eq(10L), any()))
+                .thenReturn(Collections.singletonList(changeLog(10000, "/nodes/b", "b")));
+        task.run();
+        verify(mysqlOperator, times(2)).queryAllMysqlRegistryData();
+    }
+
+    @Test
+    public void testFullSyncPeriodically() throws InterruptedException {
+        registryProperties.setFullSyncInterval(Duration.ofMillis(100));
+        SubscribeDataManager.RegistrySubscribeDataCheckTask task = reloadedTask();
+
+        Thread.sleep(200);
+        task.run();
+        verify(mysqlOperator, times(2)).queryAllMysqlRegistryData();
+        verify(mysqlOperator, times(0)).queryChangeLogs(anyLong(), any());
+    }
+
+    /**
+     * Create the task which has loaded "/nodes/a" at the change log 10.
+     */
+    private SubscribeDataManager.RegistrySubscribeDataCheckTask reloadedTask() {
+        Map<String, List<SubscribeListener>> dataSubScribeMap = new ConcurrentHashMap<>();
+        List<SubscribeListener> listeners = new CopyOnWriteArrayList<>();
+        listeners.add(events::add);
+        dataSubScribeMap.put("/nodes", listeners);
+        SubscribeDataManager.RegistrySubscribeDataCheckTask task =
+                new SubscribeDataManager.RegistrySubscribeDataCheckTask(dataSubScribeMap, mysqlOperator,
+                        mysqlRegistryDataMap, registryProperties);
+
+        when(mysqlOperator.queryMaxChangeLogId()).thenReturn(10L);
+        when(mysqlOperator.queryAllMysqlRegistryData()).thenReturn(Collections.singletonList(
+                MysqlRegistryData.builder().key("/nodes/a").data("a").build()));
+        task.run();
+        Assertions.assertEquals(Collections.singletonList(Event.Type.ADD), eventTypes());
+        events.clear();
+        return task;
+    }
+
+    private List<Event.Type> eventTypes() {
+        List<Event.Type> types = new ArrayList<>();
+        events.forEach(event -> types.add(event.type()));
+        return types;
+    }
+
+    private static MysqlRegistryChangeLog changeLog(long id, String key, String data) {
+        return MysqlRegistryChangeLog.builder()
+                .id(id)
+                .key(key)
+                .data(data)
+                .changeType(ChangeType.PUT.getTypeValue())
+                .build();
+    }
+
+    private static MysqlRegistryChangeLog deleteChangeLog(long id, String key) {
+        return MysqlRegistryChangeLog.builder()
+                .id(id)
+                .key(key)
+                .changeType(ChangeType.DELETE.getTypeValue())
+                .build();
+    }
+}
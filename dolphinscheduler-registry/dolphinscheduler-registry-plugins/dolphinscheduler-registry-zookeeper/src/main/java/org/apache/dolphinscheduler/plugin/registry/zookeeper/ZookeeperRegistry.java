@@ -236,6 +236,23 @@ public final class ZookeeperRegistry implements Registry {
         }
     }
 
+    @Override
+    public boolean acquireLock(String key, long timeout) {
+        InterProcessMutex interProcessMutex = new InterProcessMutex(client, key);
+        try {
+            if (!interProcessMutex.acquire(timeout, MILLISECONDS)) {
+                return false;
+            }
+            if (null == threadLocalLockMap.get()) {
+                threadLocalLockMap.set(new HashMap<>(3));
+            }
+            threadLocalLockMap.get().put(key, interProcessMutex);
+            return true;
+        } catch (Exception e) {
+            throw new RegistryException("zookeeper get lock error", e);
+        }
+    }
+
     @Override
     public boolean releaseLock(String key) {
         if (null == threadLocalLockMap.get().get(key)) {
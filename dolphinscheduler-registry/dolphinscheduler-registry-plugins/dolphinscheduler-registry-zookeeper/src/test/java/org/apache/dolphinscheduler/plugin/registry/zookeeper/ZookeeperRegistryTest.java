@@ -25,6 +25,7 @@ import org.apache.curator.test.TestingServer;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -107,6 +108,20 @@ public class ZookeeperRegistryTest {
 
     }
 
+    @Test
+    public void tryLockTest() throws InterruptedException {
+        Assertions.assertTrue(registry.acquireLock("/tryLock", 1000));
+        CountDownLatch countDownLatch = new CountDownLatch(1);
+        List<Boolean> results = new ArrayList<>();
+        new Thread(() -> {
+            results.add(registry.acquireLock("/tryLock", 100));
+            countDownLatch.countDown();
+        }).start();
+        Assertions.assertTrue(countDownLatch.await(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(Collections.singletonList(false), results);
+        registry.releaseLock("/tryLock");
+    }
+
     @Test
     public void subscribeTest() {
         boolean status = registry.subscribe("/sub", new TestListener());
@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.remote;
+
+import org.apache.dolphinscheduler.remote.utils.Host;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+import lombok.extern.slf4j.Slf4j;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+
+/**
+ * The channels connected to one host.
+ * <p>
+ * Each slot holds the connect future of a channel, the slot is filled by CAS so that the concurrent callers never
+ * block each other on connecting, and is cleared when the channel is closed. The requests are spread over the active
+ * channels in round robin, except the ordered commands which are always sent over the channel of the first slot, so
+ * they arrive in the order they are sent. The in-flight async requests to the host are limited by its own semaphore. Once all the
+ * channels are closed, e.g. the host is down or removed, the pool is passed to the empty listener to be evicted.
+ */
+@Slf4j
+class HostChannelPool {
+
+    private final Host host;
+
+    private final Bootstrap bootstrap;
+
+    private final AtomicReferenceArray<ChannelFuture> slots;
+
+    private final AtomicInteger nextSlot = new AtomicInteger();
+
+    private final Semaphore inflightSemaphore;
+
+    private final Consumer<HostChannelPool> emptyListener;
+
+    private volatile boolean closed;
+
+    HostChannelPool(Host host, Bootstrap bootstrap, int poolSize, int maxInflightRequests,
+                    Consumer<HostChannelPool> emptyListener) {
+        this.host = host;
+        this.bootstrap = bootstrap;
+        this.slots = new AtomicReferenceArray<>(Math.max(1, poolSize));
+        this.inflightSemaphore = new Semaphore(maxInflightRequests, true);
+        this.emptyListener = emptyListener;
+    }
+
+    /**
+     * Get an active channel, the empty or broken slots are reconnected in background, and only wait for the
+     * connecting channel when there is no active one.
+     *
+     * @param connectTimeoutMillis the max time to wait for connecting
+     * @return active channel, or null if connect failed
+     */
+    Channel getChannel(long connectTimeoutMillis) throws InterruptedException {
+        int size = slots.length();
+        int start = Math.floorMod(nextSlot.getAndIncrement(), size);
+        ChannelFuture connecting = null;
+        for (int i = 0; i < size; i++) {
+            int slot = (start + i) % size;
+            ChannelFuture future = slots.get(slot);
+            if (future == null || isBroken(future)) {
+                future = connect(slot, future);
+                if (future == null) {
+                    continue;
+                }
+            }
+            if (!future.isDone()) {
+                if (connecting == null) {
+                    connecting = future;
+                }
+            } else if (future.isSuccess() && future.channel().isActive()) {
+                return future.channel();
+            }
+        }
+        if (connecting != null && connecting.await(connectTimeoutMillis)
+                && connecting.isSuccess() && connecting.channel().isActive()) {
+            return connecting.channel();
+        }
+        return null;
+    }
+
+    /**
+     * Get the channel of the first slot, the commands sent over it arrive in the order they are sent.
+     *
+     * @param connectTimeoutMillis the max time to wait for connecting
+     * @return active channel, or null if connect failed
+     */
+    Channel getOrderedChannel(long connectTimeoutMillis) throws InterruptedException {
+        ChannelFuture future = slots.get(0);
+        if (future == null || isBroken(future)) {
+            future = connect(0, future);
+            if (future == null) {
+                return null;
+            }
+        }
+        if (future.await(connectTimeoutMillis) && future.isSuccess() && future.channel().isActive()) {
+            return future.channel();
+        }
+        return null;
+    }
+
+    private boolean isBroken(ChannelFuture future) {
+        return future.isDone() && (!future.isSuccess() || !future.channel().isActive());
+    }
+
+    private ChannelFuture connect(int slot, ChannelFuture expected) {
+        if (closed) {
+            return null;
+        }
+        ChannelFuture future = bootstrap.connect(host.getIp(), host.getPort());
+        if (!slots.compareAndSet(slot, expected, future)) {
+            // the slot has been reconnected by another caller
+            future.channel().close();
+            return slots.get(slot);
+        }
+        future.addListener(f -> {
+            if (!f.isSuccess()) {
+                log.warn("connect to {} error", host, f.cause());
+            }
+        });
+        future.channel().closeFuture().addListener(f -> {
+            if (slots.compareAndSet(slot, future, null) && isEmpty()) {
+                emptyListener.accept(this);
+            }
+        });
+        if (closed) {
+            future.channel().close();
+        }
+        return future;
+    }
+
+    /**
+     * @return the number of the active channels
+     */
+    int getActiveChannelCount() {
+        int count = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            ChannelFuture future = slots.get(i);
+            if (future != null && future.isSuccess() && future.channel().isActive()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return true if there is no channel connected or connecting
+     */
+    boolean isEmpty() {
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.get(i) != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    Host getHost() {
+        return host;
+    }
+
+    Semaphore getInflightSemaphore() {
+        return inflightSemaphore;
+    }
+
+    /**
+     * Close all the channels, the pool can not be used after closed.
+     */
+    void close() {
+        closed = true;
+        for (int i = 0; i < slots.length(); i++) {
+            ChannelFuture future = slots.getAndSet(i, null);
+            if (future != null) {
+                future.channel().close();
+            }
+        }
+    }
+}
@@ -36,12 +36,9 @@ import org.apache.dolphinscheduler.remote.utils.Host;
 import org.apache.dolphinscheduler.remote.utils.NamedThreadFactory;
 import org.apache.dolphinscheduler.remote.utils.NettyUtils;
 
-import java.net.InetSocketAddress;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -67,7 +64,7 @@ public class NettyRemotingClient implements AutoCloseable {
 
     private final NettyEncoder encoder = new NettyEncoder();
 
-    private final ConcurrentHashMap<Host, Channel> channels = new ConcurrentHashMap<>(128);
+    private final ConcurrentHashMap<Host, HostChannelPool> channelPools = new ConcurrentHashMap<>(128);
 
     private final AtomicBoolean isStarted = new AtomicBoolean(false);
 
@@ -75,14 +72,10 @@ public class NettyRemotingClient implements AutoCloseable {
 
     private final NettyClientConfig clientConfig;
 
-    private final Semaphore asyncSemaphore = new Semaphore(200, true);
-
     private final ExecutorService callbackExecutor;
 
     private final NettyClientHandler clientHandler;
 
-    private final ScheduledExecutorService responseFutureExecutor;
-
     public NettyRemotingClient(final NettyClientConfig clientConfig) {
         this.clientConfig = clientConfig;
         if (Epoll.isAvailable()) {
@@ -102,9 +95,6 @@ public class NettyRemotingClient implements AutoCloseable {
                 new CallerThreadExecutePolicy());
         this.clientHandler = new NettyClientHandler(this, callbackExecutor);
 
-        this.responseFutureExecutor =
-                Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("ResponseFutureExecutor"));
-
         this.start();
     }
 
@@ -129,8 +119,6 @@ public class NettyRemotingClient implements AutoCloseable {
                                 .addLast(new NettyDecoder(), clientHandler, encoder);
                     }
                 });
-        this.responseFutureExecutor.scheduleAtFixedRate(ResponseFuture::scanFutureTable, 5000, 1000,
-                TimeUnit.MILLISECONDS);
         isStarted.compareAndSet(false, true);
     }
 
@@ -145,7 +133,8 @@ public class NettyRemotingClient implements AutoCloseable {
     public void sendAsync(final Host host, final Command command,
                           final long timeoutMillis,
                           final InvokeCallback invokeCallback) throws InterruptedException, RemotingException {
-        final Channel channel = getChannel(host);
+        final HostChannelPool channelPool = getChannelPool(host);
+        final Channel channel = channelPool.getChannel(clientConfig.getConnectTimeoutMillis());
         if (channel == null) {
             throw new RemotingException("network error");
         }
@@ -154,19 +143,22 @@ public class NettyRemotingClient implements AutoCloseable {
          */
         final long opaque = command.getOpaque();
         /*
-         * control concurrency number
+         * control concurrency number of the host
          */
-        boolean acquired = this.asyncSemaphore.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS);
+        final Semaphore asyncSemaphore = channelPool.getInflightSemaphore();
+        boolean acquired = asyncSemaphore.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS);
         if (acquired) {
-            final ReleaseSemaphore releaseSemaphore = new ReleaseSemaphore(this.asyncSemaphore);
+            final ReleaseSemaphore releaseSemaphore = new ReleaseSemaphore(asyncSemaphore);
 
             /*
              * response future
              */
             final ResponseFuture responseFuture = new ResponseFuture(opaque,
-                    timeoutMillis,
+                    command.getType(),
+                    clientConfig.requestTimeoutOf(command.getType(), timeoutMillis),
                     invokeCallback,
-                    releaseSemaphore);
+                    releaseSemaphore,
+                    callbackExecutor);
             try {
                 channel.writeAndFlush(command).addListener(future -> {
                     if (future.isSuccess()) {
@@ -176,6 +168,10 @@ public class NettyRemotingClient implements AutoCloseable {
                         responseFuture.setSendOk(false);
                     }
                     responseFuture.setCause(future.cause());
+                    if (!responseFuture.removeFuture()) {
+                        // the callback has been executed by the timeout
+                        return;
+                    }
                     responseFuture.putResponse(null);
                     try {
                         responseFuture.executeInvokeCallback();
@@ -186,13 +182,14 @@ public class NettyRemotingClient implements AutoCloseable {
                     }
                 });
             } catch (Exception ex) {
+                responseFuture.removeFuture();
                 responseFuture.release();
                 throw new RemotingException(String.format("send command to host: %s failed", host), ex);
             }
         } else {
             String message = String.format(
-                    "try to acquire async semaphore timeout: %d, waiting thread num: %d, total permits: %d",
-                    timeoutMillis, asyncSemaphore.getQueueLength(), asyncSemaphore.availablePermits());
+                    "try to acquire async semaphore of host: %s timeout: %d, waiting thread num: %d, available permits: %d",
+                    host, timeoutMillis, asyncSemaphore.getQueueLength(), asyncSemaphore.availablePermits());
             throw new RemotingTooMuchRequestException(message);
         }
     }
@@ -212,7 +209,8 @@ public class NettyRemotingClient implements AutoCloseable {
             throw new RemotingException(String.format("connect to : %s fail", host));
         }
         final long opaque = command.getOpaque();
-        final ResponseFuture responseFuture = new ResponseFuture(opaque, timeoutMillis, null, null);
+        final ResponseFuture responseFuture = new ResponseFuture(opaque, command.getType(),
+                clientConfig.requestTimeoutOf(command.getType(), timeoutMillis), null, null, null);
         channel.writeAndFlush(command).addListener(future -> {
             if (future.isSuccess()) {
                 responseFuture.setSendOk(true);
@@ -230,7 +228,8 @@ public class NettyRemotingClient implements AutoCloseable {
         Command result = responseFuture.waitResponse();
         if (result == null) {
             if (responseFuture.isSendOK()) {
-                throw new RemotingTimeoutException(host.toString(), timeoutMillis, responseFuture.getCause());
+                throw new RemotingTimeoutException(host.toString(), responseFuture.getTimeoutMillis(),
+                        responseFuture.getCause());
             } else {
                 throw new RemotingException(host.toString(), responseFuture.getCause());
             }
@@ -239,18 +238,25 @@ public class NettyRemotingClient implements AutoCloseable {
     }
 
     /**
-     * send task
+     * send task, wait until the command is written, at most the request timeout of the command type if configured.
+     * The commands sent to one host arrive in the order they are sent, e.g. a kill never overtakes its dispatch.
      *
      * @param host host
      * @param command command
      */
     public void send(final Host host, final Command command) throws RemotingException {
-        Channel channel = getChannel(host);
+        Channel channel = getOrderedChannel(host);
         if (channel == null) {
             throw new RemotingException(String.format("connect to : %s fail", host));
         }
         try {
-            ChannelFuture future = channel.writeAndFlush(command).await();
+            long timeoutMillis = clientConfig.requestTimeoutOf(command.getType(), 0);
+            ChannelFuture future = channel.writeAndFlush(command);
+            if (timeoutMillis <= 0) {
+                future.await();
+            } else if (!future.await(timeoutMillis)) {
+                throw new RemotingTimeoutException(host.toString(), timeoutMillis);
+            }
             if (future.isSuccess()) {
                 log.debug("send command : {} , to : {} successfully.", command, host.getAddress());
             } else {
@@ -293,38 +299,48 @@ public class NettyRemotingClient implements AutoCloseable {
      * get channel
      */
     public Channel getChannel(Host host) {
-        Channel channel = channels.get(host);
-        if (channel != null && channel.isActive()) {
-            return channel;
+        try {
+            return getChannelPool(host).getChannel(clientConfig.getConnectTimeoutMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            log.warn("interrupted when connecting to {}", host);
+            return null;
+        }
+    }
+
+    private Channel getOrderedChannel(Host host) {
+        try {
+            return getChannelPool(host).getOrderedChannel(clientConfig.getConnectTimeoutMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            log.warn("interrupted when connecting to {}", host);
+            return null;
         }
-        return createChannel(host, true);
+    }
+
+    private HostChannelPool getChannelPool(Host host) {
+        return channelPools.computeIfAbsent(host, key -> new HostChannelPool(key, bootstrap,
+                clientConfig.getChannelPoolSize(), clientConfig.getMaxInflightRequestsPerHost(),
+                this::evictChannelPool));
     }
 
     /**
-     * create channel
-     *
-     * @param host host
-     * @param isSync sync flag
-     * @return channel
+     * Evict the pool whose channels are all closed, so the pools of the dead hosts are not kept, the pool is created
+     * again by the next request to the host.
      */
-    public Channel createChannel(Host host, boolean isSync) {
-        ChannelFuture future;
-        try {
-            synchronized (bootstrap) {
-                future = bootstrap.connect(new InetSocketAddress(host.getIp(), host.getPort()));
-            }
-            if (isSync) {
-                future.sync();
-            }
-            if (future.isSuccess()) {
-                Channel channel = future.channel();
-                channels.put(host, channel);
-                return channel;
-            }
-        } catch (Exception ex) {
-            log.warn(String.format("connect to %s error", host), ex);
+    private void evictChannelPool(HostChannelPool channelPool) {
+        boolean evicted = channelPools.remove(channelPool.getHost(), channelPool);
+        if (evicted) {
+            log.info("all the channels to {} are closed, evict its channel pool", channelPool.getHost());
+            channelPool.close();
         }
-        return null;
+    }
+
+    /**
+     * @return the number of the hosts which have channel pool
+     */
+    int getChannelPoolCount() {
+        return channelPools.size();
     }
 
     @Override
@@ -338,9 +354,6 @@ public class NettyRemotingClient implements AutoCloseable {
                 if (callbackExecutor != null) {
                     this.callbackExecutor.shutdownNow();
                 }
-                if (this.responseFutureExecutor != null) {
-                    this.responseFutureExecutor.shutdownNow();
-                }
                 log.info("netty client closed");
             } catch (Exception ex) {
                 log.error("netty client close exception", ex);
@@ -352,21 +365,21 @@ public class NettyRemotingClient implements AutoCloseable {
      * close channels
      */
     private void closeChannels() {
-        for (Channel channel : this.channels.values()) {
-            channel.close();
+        for (HostChannelPool channelPool : this.channelPools.values()) {
+            channelPool.close();
         }
-        this.channels.clear();
+        this.channelPools.clear();
     }
 
     /**
-     * close channel
+     * close all the channels of the host
      *
      * @param host host
      */
     public void closeChannel(Host host) {
-        Channel channel = this.channels.remove(host);
-        if (channel != null) {
-            channel.close();
+        HostChannelPool channelPool = this.channelPools.remove(host);
+        if (channelPool != null) {
+            channelPool.close();
         }
     }
 }
@@ -23,12 +23,15 @@ import org.apache.dolphinscheduler.remote.command.CommandType;
 import org.apache.dolphinscheduler.remote.config.NettyServerConfig;
 import org.apache.dolphinscheduler.remote.exceptions.RemoteException;
 import org.apache.dolphinscheduler.remote.handler.NettyServerHandler;
+import org.apache.dolphinscheduler.remote.processor.CommandLane;
+import org.apache.dolphinscheduler.remote.processor.CommandLaneExecutor;
 import org.apache.dolphinscheduler.remote.processor.NettyRequestProcessor;
 import org.apache.dolphinscheduler.remote.utils.Constants;
 import org.apache.dolphinscheduler.remote.utils.NettyUtils;
 
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -60,9 +63,9 @@ public class NettyRemotingServer {
     private final ServerBootstrap serverBootstrap = new ServerBootstrap();
 
     /**
-     * default executor
+     * executors of the command lanes
      */
-    private final ExecutorService defaultExecutor = Executors.newFixedThreadPool(Constants.CPUS);
+    private final Map<CommandLane, CommandLaneExecutor> laneExecutors = new EnumMap<>(CommandLane.class);
 
     /**
      * boss group
@@ -112,6 +115,10 @@ public class NettyRemotingServer {
             this.bossGroup = new NioEventLoopGroup(1, bossThreadFactory);
             this.workGroup = new NioEventLoopGroup(serverConfig.getWorkerThread(), workerThreadFactory);
         }
+        for (CommandLane lane : CommandLane.values()) {
+            laneExecutors.put(lane, new CommandLaneExecutor(lane, lane.getThreads(),
+                    serverConfig.getLaneQueueCapacity(), serverConfig.getListenPort()));
+        }
     }
 
     /**
@@ -183,7 +190,7 @@ public class NettyRemotingServer {
      *
      * @param commandType command type
      * @param processor processor
-     * @param executor thread executor
+     * @param executor thread executor, the executor of the command lane is used if it's null
      */
     public void registerProcessor(final CommandType commandType, final NettyRequestProcessor processor,
                                   final ExecutorService executor) {
@@ -191,12 +198,13 @@ public class NettyRemotingServer {
     }
 
     /**
-     * get default thread executor
+     * get the lane executor of the command type, it's used by the processor registered without executor
      *
-     * @return thread executor
+     * @param commandType command type
+     * @return lane executor
      */
-    public ExecutorService getDefaultExecutor() {
-        return defaultExecutor;
+    public CommandLaneExecutor getLaneExecutor(CommandType commandType) {
+        return laneExecutors.get(CommandLane.of(commandType));
     }
 
     public void close() {
@@ -208,7 +216,7 @@ public class NettyRemotingServer {
                 if (workGroup != null) {
                     this.workGroup.shutdownGracefully();
                 }
-                defaultExecutor.shutdown();
+                laneExecutors.values().forEach(CommandLaneExecutor::shutdown);
             } catch (Exception ex) {
                 log.error("netty server close exception", ex);
             }
@@ -19,27 +19,33 @@ package org.apache.dolphinscheduler.remote.codec;
 
 import org.apache.dolphinscheduler.remote.command.Command;
 import org.apache.dolphinscheduler.remote.command.CommandContext;
-import org.apache.dolphinscheduler.remote.command.CommandHeader;
 import org.apache.dolphinscheduler.remote.command.CommandType;
 
 import java.util.List;
 
-import lombok.extern.slf4j.Slf4j;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.ReplayingDecoder;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.CorruptedFrameException;
 
 /**
  * netty decoder
+ * <p>
+ * The frame is decoded only when it is received completely, which is located by the context length and the body
+ * length fields. The body is kept as a retained slice of the pooled inbound buffer, and it should be released by
+ * {@link Command#release()} after the command is processed.
  */
-@Slf4j
-public class NettyDecoder extends ReplayingDecoder<NettyDecoder.State> {
+public class NettyDecoder extends ByteToMessageDecoder {
 
-    public NettyDecoder() {
-        super(State.MAGIC);
-    }
+    /**
+     * magic, version, command type, opaque
+     */
+    private static final int CONTEXT_LENGTH_OFFSET = 11;
+
+    private static final int LENGTH_FIELD_SIZE = 4;
 
-    private final CommandHeader commandHeader = new CommandHeader();
+    private static final CommandType[] COMMAND_TYPES = CommandType.values();
 
     /**
      * decode
@@ -50,53 +56,33 @@ public class NettyDecoder extends ReplayingDecoder<NettyDecoder.State> {
      */
     @Override
     protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
-        switch (state()) {
-            case MAGIC:
-                checkMagic(in.readByte());
-                checkpoint(State.VERSION);
-                // fallthru
-            case VERSION:
-                checkVersion(in.readByte());
-                checkpoint(State.COMMAND);
-                // fallthru
-            case COMMAND:
-                commandHeader.setType(in.readByte());
-                checkpoint(State.OPAQUE);
-                // fallthru
-            case OPAQUE:
-                commandHeader.setOpaque(in.readLong());
-                checkpoint(State.CONTEXT_LENGTH);
-                // fallthru
-            case CONTEXT_LENGTH:
-                commandHeader.setContextLength(in.readInt());
-                checkpoint(State.CONTEXT);
-                // fallthru
-            case CONTEXT:
-                byte[] context = new byte[commandHeader.getContextLength()];
-                in.readBytes(context);
-                commandHeader.setContext(context);
-                checkpoint(State.BODY_LENGTH);
-                // fallthru
-            case BODY_LENGTH:
-                commandHeader.setBodyLength(in.readInt());
-                checkpoint(State.BODY);
-                // fallthru
-            case BODY:
-                byte[] body = new byte[commandHeader.getBodyLength()];
-                in.readBytes(body);
-                //
-                Command packet = new Command();
-                packet.setType(commandType(commandHeader.getType()));
-                packet.setOpaque(commandHeader.getOpaque());
-                packet.setContext(CommandContext.valueOf(commandHeader.getContext()));
-                packet.setBody(body);
-                out.add(packet);
-                //
-                checkpoint(State.MAGIC);
-                break;
-            default:
-                log.warn("unknown decoder state {}", state());
+        int readableBytes = in.readableBytes();
+        if (readableBytes < CONTEXT_LENGTH_OFFSET + LENGTH_FIELD_SIZE) {
+            return;
+        }
+        int frameIndex = in.readerIndex();
+        checkMagic(in.getByte(frameIndex));
+        checkVersion(in.getByte(frameIndex + 1));
+
+        int contextLength = checkLength(in.getInt(frameIndex + CONTEXT_LENGTH_OFFSET), "context");
+        long bodyLengthOffset = CONTEXT_LENGTH_OFFSET + LENGTH_FIELD_SIZE + (long) contextLength;
+        if (readableBytes < bodyLengthOffset + LENGTH_FIELD_SIZE) {
+            return;
+        }
+        int bodyLength = checkLength(in.getInt(frameIndex + (int) bodyLengthOffset), "body");
+        if (readableBytes < bodyLengthOffset + LENGTH_FIELD_SIZE + bodyLength) {
+            return;
         }
+
+        in.skipBytes(2);
+        Command packet = new Command(0);
+        packet.setType(commandType(in.readByte()));
+        packet.setOpaque(in.readLong());
+        in.skipBytes(LENGTH_FIELD_SIZE);
+        packet.setContext(CommandContext.valueOf(new ByteBufInputStream(in.readSlice(contextLength))));
+        in.skipBytes(LENGTH_FIELD_SIZE);
+        packet.setBodyBuffer(in.readRetainedSlice(bodyLength));
+        out.add(packet);
     }
 
     /**
@@ -105,14 +91,19 @@ public class NettyDecoder extends ReplayingDecoder<NettyDecoder.State> {
      * @param type type
      */
     private CommandType commandType(byte type) {
-        for (CommandType ct : CommandType.values()) {
-            if (ct.ordinal() == type) {
-                return ct;
-            }
+        if (type >= 0 && type < COMMAND_TYPES.length) {
+            return COMMAND_TYPES[type];
         }
         return null;
     }
 
+    private int checkLength(int length, String field) {
+        if (length < 0) {
+            throw new CorruptedFrameException("illegal packet [" + field + " length]" + length);
+        }
+        return length;
+    }
+
     /**
      * check magic
      *
@@ -132,15 +123,4 @@ public class NettyDecoder extends ReplayingDecoder<NettyDecoder.State> {
             throw new IllegalArgumentException("illegal protocol [version]" + version);
         }
     }
-
-    enum State {
-        MAGIC,
-        VERSION,
-        COMMAND,
-        OPAQUE,
-        CONTEXT_LENGTH,
-        CONTEXT,
-        BODY_LENGTH,
-        BODY;
-    }
 }
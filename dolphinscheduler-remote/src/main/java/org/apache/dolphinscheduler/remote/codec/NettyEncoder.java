@@ -17,20 +17,52 @@
 
 package org.apache.dolphinscheduler.remote.codec;
 
+import org.apache.dolphinscheduler.common.utils.JSONUtils;
 import org.apache.dolphinscheduler.remote.command.Command;
 import org.apache.dolphinscheduler.remote.exceptions.RemotingException;
 
+import java.io.IOException;
+
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
 import io.netty.channel.ChannelHandler.Sharable;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
 
 /**
  * netty encoder
+ * <p>
+ * The context and the body object of the command are serialized into the pooled outbound buffer directly, the length
+ * fields are filled after serializing.
  */
 @Sharable
 public class NettyEncoder extends MessageToByteEncoder<Command> {
 
+    /**
+     * magic, version, command type, opaque, context length, body length
+     */
+    private static final int FRAME_HEADER_SIZE = 19;
+
+    private static final int LENGTH_FIELD_SIZE = 4;
+
+    /**
+     * estimated size of the context and the body object which are serialized during encoding
+     */
+    private static final int ESTIMATED_CONTEXT_SIZE = 64;
+
+    private static final int ESTIMATED_BODY_SIZE = 512;
+
+    @Override
+    protected ByteBuf allocateBuffer(ChannelHandlerContext ctx, Command msg, boolean preferDirect) {
+        int bodySize = ESTIMATED_BODY_SIZE;
+        if (msg != null && msg.getBodyObject() == null) {
+            byte[] body = msg.getBody();
+            bodySize = body == null ? 0 : body.length;
+        }
+        int initialCapacity = FRAME_HEADER_SIZE + ESTIMATED_CONTEXT_SIZE + bodySize;
+        return preferDirect ? ctx.alloc().ioBuffer(initialCapacity) : ctx.alloc().heapBuffer(initialCapacity);
+    }
+
     /**
      * encode
      *
@@ -47,14 +79,28 @@ public class NettyEncoder extends MessageToByteEncoder<Command> {
         out.writeByte(Command.VERSION);
         out.writeByte(msg.getType().ordinal());
         out.writeLong(msg.getOpaque());
-        writeContext(msg, out);
-        out.writeInt(msg.getBody().length);
-        out.writeBytes(msg.getBody());
+        writeJson(msg.getContext(), out);
+        writeBody(msg, out);
+    }
+
+    private void writeBody(Command msg, ByteBuf out) throws IOException {
+        if (msg.getBodyObject() != null) {
+            writeJson(msg.getBodyObject(), out);
+            return;
+        }
+        byte[] body = msg.getBody();
+        if (body == null) {
+            out.writeInt(0);
+            return;
+        }
+        out.writeInt(body.length);
+        out.writeBytes(body);
     }
 
-    private void writeContext(Command msg, ByteBuf out) {
-        byte[] headerBytes = msg.getContext().toBytes();
-        out.writeInt(headerBytes.length);
-        out.writeBytes(headerBytes);
+    private void writeJson(Object value, ByteBuf out) throws IOException {
+        int lengthIndex = out.writerIndex();
+        out.writeInt(0);
+        JSONUtils.writeValue(new ByteBufOutputStream(out), value);
+        out.setInt(lengthIndex, out.writerIndex() - lengthIndex - LENGTH_FIELD_SIZE);
     }
 }
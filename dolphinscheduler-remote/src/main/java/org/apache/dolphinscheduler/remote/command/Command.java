@@ -17,9 +17,15 @@
 
 package org.apache.dolphinscheduler.remote.command;
 
+import org.apache.dolphinscheduler.common.utils.JSONUtils;
+
 import java.io.Serializable;
 import java.util.concurrent.atomic.AtomicLong;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufUtil;
+
 /**
  *  receive task log request command and content fill
  *  for netty data serializable transfer
@@ -61,6 +67,16 @@ public class Command implements Serializable {
      */
     private byte[] body;
 
+    /**
+     * pooled body buffer of the received command, it is released by the handler after the command is processed
+     */
+    private transient ByteBuf bodyBuffer;
+
+    /**
+     * body object of the sent command, it is serialized into the outbound buffer when the command is written
+     */
+    private transient Object bodyObject;
+
     public CommandType getType() {
         return type;
     }
@@ -78,6 +94,13 @@ public class Command implements Serializable {
     }
 
     public byte[] getBody() {
+        if (body == null) {
+            if (bodyBuffer != null) {
+                body = ByteBufUtil.getBytes(bodyBuffer);
+            } else if (bodyObject != null) {
+                body = JSONUtils.toJsonByteArray(bodyObject);
+            }
+        }
         return body;
     }
 
@@ -85,6 +108,65 @@ public class Command implements Serializable {
         this.body = body;
     }
 
+    public ByteBuf getBodyBuffer() {
+        return bodyBuffer;
+    }
+
+    public void setBodyBuffer(ByteBuf bodyBuffer) {
+        this.bodyBuffer = bodyBuffer;
+    }
+
+    public Object getBodyObject() {
+        return bodyObject;
+    }
+
+    /**
+     * Set the object which is serialized as json body when the command is written, so the body is written into the
+     * outbound buffer directly, the object should not be changed after it is sent.
+     *
+     * @param bodyObject body object
+     */
+    public void setBodyObject(Object bodyObject) {
+        this.bodyObject = bodyObject;
+    }
+
+    /**
+     * Deserialize the json body, the received body is read from the pooled buffer without copying.
+     *
+     * @param clazz body class
+     * @param <T> body type
+     * @return body, null if the command has no body
+     */
+    public <T> T parseBody(Class<T> clazz) {
+        if (body == null && bodyBuffer != null) {
+            if (!bodyBuffer.isReadable()) {
+                return null;
+            }
+            return JSONUtils.parseObject(new ByteBufInputStream(bodyBuffer.duplicate()), clazz);
+        }
+        return JSONUtils.parseObject(getBody(), clazz);
+    }
+
+    /**
+     * Copy the body out of the pooled buffer and release the buffer, the command can be kept after that.
+     */
+    public void detachBody() {
+        if (bodyBuffer != null) {
+            getBody();
+            release();
+        }
+    }
+
+    /**
+     * Release the pooled body buffer of the received command.
+     */
+    public void release() {
+        if (bodyBuffer != null) {
+            bodyBuffer.release();
+            bodyBuffer = null;
+        }
+    }
+
     public CommandContext getContext() {
         return context;
     }
@@ -93,6 +175,13 @@ public class Command implements Serializable {
         this.context = context;
     }
 
+    private int getBodyLength() {
+        if (body != null) {
+            return body.length;
+        }
+        return bodyBuffer == null ? 0 : bodyBuffer.readableBytes();
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
@@ -118,7 +207,7 @@ public class Command implements Serializable {
 
     @Override
     public String toString() {
-        return "Command [type=" + type + ", opaque=" + opaque + ", bodyLen=" + (body == null ? 0 : body.length) + "]";
+        return "Command [type=" + type + ", opaque=" + opaque + ", bodyLen=" + getBodyLength() + "]";
     }
 
 }
@@ -19,6 +19,7 @@ package org.apache.dolphinscheduler.remote.command;
 
 import org.apache.dolphinscheduler.common.utils.JSONUtils;
 
+import java.io.InputStream;
 import java.io.Serializable;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -53,4 +54,8 @@ public class CommandContext implements Serializable {
     public static CommandContext valueOf(byte[] src) {
         return JSONUtils.parseObject(src, CommandContext.class);
     }
+
+    public static CommandContext valueOf(InputStream inputStream) {
+        return JSONUtils.parseObject(inputStream, CommandContext.class);
+    }
 }
@@ -146,5 +146,35 @@ public enum CommandType {
      */
     WORKFLOW_EXECUTING_DATA_RESPONSE,
 
-    WORKFLOW_METRICS_CLEANUP;
+    WORKFLOW_METRICS_CLEANUP,
+
+    /**
+     * task instance forced success, from api to master
+     */
+    TASK_FORCE_SUCCESS_EVENT_REQUEST,
+
+    /**
+     * the request is rejected since the server is busy, from server to client
+     */
+    REQUEST_REJECTED,
+
+    /**
+     * embedded registry request, from registry client to registry server
+     */
+    REGISTRY_REQUEST,
+
+    /**
+     * embedded registry response, from registry server to registry client
+     */
+    REGISTRY_RESPONSE,
+
+    /**
+     * embedded registry watch event, from registry server to registry client
+     */
+    REGISTRY_EVENT,
+
+    /**
+     * embedded registry replication event, from the leader registry server to the standby servers
+     */
+    REGISTRY_REPLICATION;
 }
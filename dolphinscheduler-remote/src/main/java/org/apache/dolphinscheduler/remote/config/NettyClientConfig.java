@@ -17,8 +17,13 @@
 
 package org.apache.dolphinscheduler.remote.config;
 
+import org.apache.dolphinscheduler.remote.command.CommandType;
 import org.apache.dolphinscheduler.remote.utils.Constants;
 
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -66,4 +71,49 @@ public class NettyClientConfig {
     @Builder.Default
     private int connectTimeoutMillis = 3000;
 
+    /**
+     * channels connected to each host, the sync and async requests are spread over them, the oneway commands are
+     * always sent over the first one so they keep their order, e.g. the task dispatch and kill requests
+     */
+    @Builder.Default
+    private int channelPoolSize = 2;
+
+    /**
+     * max in-flight async requests to each host
+     */
+    @Builder.Default
+    private int maxInflightRequestsPerHost = 200;
+
+    /**
+     * request timeout millis of the command types, it replaces the timeout given by the caller of the sync and async
+     * requests, and limits the time that the oneway requests wait to be written, which is not limited by default.
+     * The master and worker bind it from {@code master.rpc-request-timeout} and {@code worker.rpc-request-timeout}
+     */
+    @Builder.Default
+    private Map<CommandType, Long> requestTimeoutMillis = new EnumMap<>(CommandType.class);
+
+    /**
+     * Get the request timeout of the command type.
+     *
+     * @param commandType command type
+     * @param defaultTimeoutMillis timeout given by the caller
+     * @return timeout millis
+     */
+    public long requestTimeoutOf(CommandType commandType, long defaultTimeoutMillis) {
+        Long timeoutMillis = commandType == null ? null : requestTimeoutMillis.get(commandType);
+        return timeoutMillis == null ? defaultTimeoutMillis : timeoutMillis;
+    }
+
+    /**
+     * Convert the request timeouts of the command types bound from the server config.
+     *
+     * @param requestTimeout request timeout of the command types
+     * @return request timeout millis of the command types
+     */
+    public static Map<CommandType, Long> requestTimeoutMillisOf(Map<CommandType, Duration> requestTimeout) {
+        Map<CommandType, Long> requestTimeoutMillis = new EnumMap<>(CommandType.class);
+        requestTimeout.forEach((commandType, timeout) -> requestTimeoutMillis.put(commandType, timeout.toMillis()));
+        return requestTimeoutMillis;
+    }
+
 }
@@ -58,6 +58,11 @@ public class NettyServerConfig {
      */
     private int listenPort = 12346;
 
+    /**
+     *  queue capacity of each command lane, the command is rejected if the queue is full
+     */
+    private int laneQueueCapacity = 10000;
+
     public int getListenPort() {
         return listenPort;
     }
@@ -113,4 +118,12 @@ public class NettyServerConfig {
     public void setWorkerThread(int workerThread) {
         this.workerThread = workerThread;
     }
+
+    public int getLaneQueueCapacity() {
+        return laneQueueCapacity;
+    }
+
+    public void setLaneQueueCapacity(int laneQueueCapacity) {
+        this.laneQueueCapacity = laneQueueCapacity;
+    }
 }
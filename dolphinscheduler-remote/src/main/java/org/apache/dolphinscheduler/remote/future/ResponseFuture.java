@@ -18,30 +18,45 @@
 package org.apache.dolphinscheduler.remote.future;
 
 import org.apache.dolphinscheduler.remote.command.Command;
+import org.apache.dolphinscheduler.remote.command.CommandType;
+import org.apache.dolphinscheduler.remote.metrics.RemotingMetrics;
+import org.apache.dolphinscheduler.remote.utils.NamedThreadFactory;
 
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
 import lombok.extern.slf4j.Slf4j;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
 
 /**
  * response future
+ * <p>
+ * Each future is scheduled on a hashed wheel timer when it is created, the timeout is cancelled when the future is
+ * removed by the response, otherwise the future is removed and its callback is executed when the timeout expires.
  */
 @Slf4j
 public class ResponseFuture {
 
     private static final ConcurrentHashMap<Long, ResponseFuture> FUTURE_TABLE = new ConcurrentHashMap<>(256);
 
+    private static final Timer TIMEOUT_TIMER =
+            new HashedWheelTimer(new NamedThreadFactory("ResponseFutureTimer"), 10, TimeUnit.MILLISECONDS, 512);
+
     /**
      * request unique identification
      */
     private final long opaque;
 
+    /**
+     * request command type
+     */
+    private final CommandType commandType;
+
     /**
      * timeout
      */
@@ -57,6 +72,13 @@ public class ResponseFuture {
      */
     private final ReleaseSemaphore releaseSemaphore;
 
+    /**
+     * executor of the callback when the future is timeout, the callback is executed by the timer if it's null
+     */
+    private final Executor callbackExecutor;
+
+    private final Timeout timeout;
+
     private final CountDownLatch latch = new CountDownLatch(1);
 
     private final long beginTimestamp = System.currentTimeMillis();
@@ -72,11 +94,19 @@ public class ResponseFuture {
 
     public ResponseFuture(long opaque, long timeoutMillis, InvokeCallback invokeCallback,
                           ReleaseSemaphore releaseSemaphore) {
+        this(opaque, null, timeoutMillis, invokeCallback, releaseSemaphore, null);
+    }
+
+    public ResponseFuture(long opaque, CommandType commandType, long timeoutMillis, InvokeCallback invokeCallback,
+                          ReleaseSemaphore releaseSemaphore, Executor callbackExecutor) {
         this.opaque = opaque;
+        this.commandType = commandType;
         this.timeoutMillis = timeoutMillis;
         this.invokeCallback = invokeCallback;
         this.releaseSemaphore = releaseSemaphore;
+        this.callbackExecutor = callbackExecutor;
         FUTURE_TABLE.put(opaque, this);
+        this.timeout = TIMEOUT_TIMER.newTimeout(t -> expire(), timeoutMillis, TimeUnit.MILLISECONDS);
     }
 
     /**
@@ -85,7 +115,9 @@ public class ResponseFuture {
      * @return command
      */
     public Command waitResponse() throws InterruptedException {
-        this.latch.await(timeoutMillis, TimeUnit.MILLISECONDS);
+        if (!this.latch.await(timeoutMillis, TimeUnit.MILLISECONDS)) {
+            expire();
+        }
         return this.responseCommand;
     }
 
@@ -97,15 +129,27 @@ public class ResponseFuture {
     public void putResponse(final Command responseCommand) {
         this.responseCommand = responseCommand;
         this.latch.countDown();
-        FUTURE_TABLE.remove(opaque);
+        removeFuture();
     }
 
     public static ResponseFuture getFuture(long opaque) {
         return FUTURE_TABLE.get(opaque);
     }
 
-    public void removeFuture() {
-        FUTURE_TABLE.remove(opaque);
+    /**
+     * Remove the future and cancel its timeout.
+     *
+     * @return false if the future has been removed, by the timeout or the response
+     */
+    public boolean removeFuture() {
+        if (FUTURE_TABLE.remove(opaque, this)) {
+            // the timeout may be not visible if the future is removed before the constructor returns
+            if (timeout != null) {
+                timeout.cancel();
+            }
+            return true;
+        }
+        return false;
     }
 
     /**
@@ -161,6 +205,13 @@ public class ResponseFuture {
 
     public void setResponseCommand(Command responseCommand) {
         this.responseCommand = responseCommand;
+        if (responseCommand != null) {
+            RemotingMetrics.recordRequestLatency(commandType, System.currentTimeMillis() - beginTimestamp);
+        }
+    }
+
+    public CommandType getCommandType() {
+        return commandType;
     }
 
     public InvokeCallback getInvokeCallback() {
@@ -176,35 +227,41 @@ public class ResponseFuture {
         }
     }
 
-    /**
-     * scan future table
-     */
-    public static void scanFutureTable() {
-        final List<ResponseFuture> futureList = new LinkedList<>();
-        Iterator<Map.Entry<Long, ResponseFuture>> it = FUTURE_TABLE.entrySet().iterator();
-        while (it.hasNext()) {
-            Map.Entry<Long, ResponseFuture> next = it.next();
-            ResponseFuture future = next.getValue();
-            if ((future.getBeginTimestamp() + future.getTimeoutMillis() + 1000) <= System.currentTimeMillis()) {
-                futureList.add(future);
-                it.remove();
-                log.warn("remove timeout request : {}", future);
-            }
+    private void expire() {
+        if (!removeFuture()) {
+            return;
+        }
+        log.warn("remove timeout request : {}", this);
+        RemotingMetrics.incRequestTimeout(commandType);
+        release();
+        latch.countDown();
+        if (invokeCallback == null) {
+            return;
         }
-        for (ResponseFuture future : futureList) {
+        if (callbackExecutor != null) {
             try {
-                future.release();
-                future.executeInvokeCallback();
-            } catch (Exception ex) {
-                log.warn("scanFutureTable, execute callback error", ex);
+                callbackExecutor.execute(this::executeTimeoutCallback);
+                return;
+            } catch (RejectedExecutionException ex) {
+                log.warn("callback executor rejected, execute timeout callback in timer", ex);
             }
         }
+        executeTimeoutCallback();
+    }
+
+    private void executeTimeoutCallback() {
+        try {
+            executeInvokeCallback();
+        } catch (Exception ex) {
+            log.warn("execute timeout callback error", ex);
+        }
     }
 
     @Override
     public String toString() {
         return "ResponseFuture{"
                 + "opaque=" + opaque
+                + ", commandType=" + commandType
                 + ", timeoutMillis=" + timeoutMillis
                 + ", invokeCallback=" + invokeCallback
                 + ", releaseSemaphore=" + releaseSemaphore
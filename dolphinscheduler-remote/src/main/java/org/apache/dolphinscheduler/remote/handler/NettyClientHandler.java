@@ -20,6 +20,7 @@ package org.apache.dolphinscheduler.remote.handler;
 import org.apache.dolphinscheduler.remote.NettyRemotingClient;
 import org.apache.dolphinscheduler.remote.command.Command;
 import org.apache.dolphinscheduler.remote.command.CommandType;
+import org.apache.dolphinscheduler.remote.exceptions.RemotingTooMuchRequestException;
 import org.apache.dolphinscheduler.remote.future.ResponseFuture;
 import org.apache.dolphinscheduler.remote.processor.NettyRequestProcessor;
 import org.apache.dolphinscheduler.remote.utils.ChannelUtils;
@@ -82,7 +83,7 @@ public class NettyClientHandler extends ChannelInboundHandlerAdapter {
      */
     @Override
     public void channelInactive(ChannelHandlerContext ctx) {
-        nettyRemotingClient.closeChannel(ChannelUtils.toAddress(ctx.channel()));
+        // the closed channel is evicted from its pool, and the pool is evicted once all its channels are closed
         ctx.channel().close();
     }
 
@@ -130,11 +131,21 @@ public class NettyClientHandler extends ChannelInboundHandlerAdapter {
      */
     private void processReceived(final Channel channel, final Command command) {
         ResponseFuture future = ResponseFuture.getFuture(command.getOpaque());
+        if (CommandType.REQUEST_REJECTED == command.getType()) {
+            command.release();
+            processRejected(channel, future);
+            return;
+        }
         if (future != null) {
+            // the response is consumed by the caller, so it is not kept in the pooled buffer
+            command.detachBody();
+            if (!future.removeFuture()) {
+                log.warn("receive response {}, but the request is timeout", command);
+                return;
+            }
             future.setResponseCommand(command);
             future.release();
             if (future.getInvokeCallback() != null) {
-                future.removeFuture();
                 this.callbackExecutor.submit(future::executeInvokeCallback);
             } else {
                 future.putResponse(command);
@@ -144,6 +155,23 @@ public class NettyClientHandler extends ChannelInboundHandlerAdapter {
         }
     }
 
+    private void processRejected(final Channel channel, final ResponseFuture future) {
+        if (future == null || !future.removeFuture()) {
+            log.warn("request is rejected by {}, the server is busy", ChannelUtils.getRemoteAddress(channel));
+            return;
+        }
+        // the request is not accepted, the caller fails fast as a send failure
+        future.setSendOk(false);
+        future.setCause(new RemotingTooMuchRequestException(
+                String.format("request is rejected by %s, the server is busy",
+                        ChannelUtils.getRemoteAddress(channel))));
+        future.release();
+        future.putResponse(null);
+        if (future.getInvokeCallback() != null) {
+            this.callbackExecutor.submit(future::executeInvokeCallback);
+        }
+    }
+
     public void processByCommandType(final Channel channel, final Command command) {
         final Pair<NettyRequestProcessor, ExecutorService> pair = processors.get(command.getType());
         if (pair != null) {
@@ -152,6 +180,8 @@ public class NettyClientHandler extends ChannelInboundHandlerAdapter {
                     pair.getLeft().process(channel, command);
                 } catch (Exception e) {
                     log.error(String.format("process command %s exception", command), e);
+                } finally {
+                    command.release();
                 }
             };
             try {
@@ -159,9 +189,11 @@ public class NettyClientHandler extends ChannelInboundHandlerAdapter {
             } catch (RejectedExecutionException e) {
                 log.warn("thread pool is full, discard command {} from {}", command,
                         ChannelUtils.getRemoteAddress(channel));
+                command.release();
             }
         } else {
             log.warn("receive response {}, but not matched any request ", command);
+            command.release();
         }
     }
 
@@ -174,7 +206,7 @@ public class NettyClientHandler extends ChannelInboundHandlerAdapter {
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
         log.error("exceptionCaught : {}", cause.getMessage(), cause);
-        nettyRemotingClient.closeChannel(ChannelUtils.toAddress(ctx.channel()));
+        // the closed channel is evicted from its pool, and the pool is evicted once all its channels are closed
         ctx.channel().close();
     }
 
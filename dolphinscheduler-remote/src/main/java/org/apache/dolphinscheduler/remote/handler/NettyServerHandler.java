@@ -49,7 +49,7 @@ public class NettyServerHandler extends ChannelInboundHandlerAdapter {
     private final NettyRemotingServer nettyRemotingServer;
 
     /**
-     * server processors queue
+     * server processors queue, the executor is null if the processor is executed by the command lane executor
      */
     private final ConcurrentHashMap<CommandType, Pair<NettyRequestProcessor, ExecutorService>> processors =
             new ConcurrentHashMap<>();
@@ -99,11 +99,7 @@ public class NettyServerHandler extends ChannelInboundHandlerAdapter {
      */
     public void registerProcessor(final CommandType commandType, final NettyRequestProcessor processor,
                                   final ExecutorService executor) {
-        ExecutorService executorRef = executor;
-        if (executorRef == null) {
-            executorRef = nettyRemotingServer.getDefaultExecutor();
-        }
-        this.processors.putIfAbsent(commandType, new Pair<>(processor, executorRef));
+        this.processors.putIfAbsent(commandType, new Pair<>(processor, executor));
     }
 
     /**
@@ -118,6 +114,7 @@ public class NettyServerHandler extends ChannelInboundHandlerAdapter {
             if (log.isDebugEnabled()) {
                 log.debug("server receive heart beat from: host: {}", ChannelUtils.getRemoteAddress(channel));
             }
+            msg.release();
             return;
         }
         final Pair<NettyRequestProcessor, ExecutorService> pair = processors.get(commandType);
@@ -127,18 +124,40 @@ public class NettyServerHandler extends ChannelInboundHandlerAdapter {
                     pair.getLeft().process(channel, msg);
                 } catch (Exception ex) {
                     log.error("process msg {} error", msg, ex);
+                } finally {
+                    msg.release();
                 }
             };
             try {
-                pair.getRight().submit(r);
+                if (pair.getRight() != null) {
+                    pair.getRight().submit(r);
+                } else {
+                    nettyRemotingServer.getLaneExecutor(commandType).execute(commandType, r);
+                }
             } catch (RejectedExecutionException e) {
                 log.warn("thread pool is full, discard msg {} from {}", msg, ChannelUtils.getRemoteAddress(channel));
+                msg.release();
+                reject(channel, msg);
             }
         } else {
             log.warn("commandType {} not support", commandType);
+            msg.release();
         }
     }
 
+    /**
+     * tell the client that the request is rejected, so it can fail fast instead of waiting for the timeout
+     *
+     * @param channel channel
+     * @param msg rejected message
+     */
+    private void reject(final Channel channel, final Command msg) {
+        Command rejected = new Command(msg.getOpaque());
+        rejected.setType(CommandType.REQUEST_REJECTED);
+        rejected.setBody(new byte[0]);
+        channel.writeAndFlush(rejected);
+    }
+
     /**
      * caught exception
      *
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.remote.metrics;
+
+import org.apache.dolphinscheduler.remote.command.CommandType;
+import org.apache.dolphinscheduler.remote.processor.CommandLane;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import lombok.experimental.UtilityClass;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+@UtilityClass
+public class RemotingMetrics {
+
+    private final Map<CommandType, Timer> requestLatencyTimers = new ConcurrentHashMap<>();
+
+    private final Map<CommandType, Counter> requestTimeoutCounters = new ConcurrentHashMap<>();
+
+    public void recordRequestLatency(CommandType commandType, long costMillis) {
+        if (commandType == null) {
+            return;
+        }
+        requestLatencyTimers.computeIfAbsent(commandType,
+                type -> Timer.builder("ds.rpc.request.time")
+                        .tag("type", type.name())
+                        .description("Time cost from sending the request to receiving its response")
+                        .publishPercentileHistogram()
+                        .register(Metrics.globalRegistry))
+                .record(costMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void incRequestTimeout(CommandType commandType) {
+        if (commandType == null) {
+            return;
+        }
+        requestTimeoutCounters.computeIfAbsent(commandType,
+                type -> Counter.builder("ds.rpc.request.timeout.count")
+                        .tag("type", type.name())
+                        .description("Requests without response before timeout count")
+                        .register(Metrics.globalRegistry))
+                .increment();
+    }
+
+    public Gauge registerLaneQueueSize(CommandLane lane, int listenPort, Supplier<Number> queueSize) {
+        return Gauge.builder("ds.rpc.lane.queue.size", queueSize)
+                .tag("lane", lane.name())
+                .tag("port", String.valueOf(listenPort))
+                .description("Received commands waiting in the lane queue")
+                .register(Metrics.globalRegistry);
+    }
+
+    public Timer registerLaneWaitTime(CommandLane lane, int listenPort) {
+        return Timer.builder("ds.rpc.lane.wait.time")
+                .tag("lane", lane.name())
+                .tag("port", String.valueOf(listenPort))
+                .description("Time of the received command waiting in the lane queue")
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry);
+    }
+
+    public Counter registerLaneRejected(CommandLane lane, int listenPort) {
+        return Counter.builder("ds.rpc.lane.rejected.count")
+                .tag("lane", lane.name())
+                .tag("port", String.valueOf(listenPort))
+                .description("Received commands rejected since the lane queue is full count")
+                .register(Metrics.globalRegistry);
+    }
+
+    public void removeLaneMeter(Meter meter) {
+        Metrics.globalRegistry.remove(meter);
+    }
+}
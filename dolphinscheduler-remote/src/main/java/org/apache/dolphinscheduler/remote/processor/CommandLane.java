@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.remote.processor;
+
+import org.apache.dolphinscheduler.remote.command.CommandType;
+import org.apache.dolphinscheduler.remote.utils.Constants;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The lane of the received commands, each lane is processed by its own executor, so a burst of log queries can not
+ * starve the task events.
+ * <p>
+ * The command types of a lane are listed by priority, the queued command with higher priority is processed first. The
+ * command types which must keep their arrival order share one priority.
+ */
+public enum CommandLane {
+
+    /**
+     * task dispatch and task events, the events which finish the tasks are processed before the new dispatches
+     */
+    TASK(Constants.CPUS,
+            CommandType.TASK_EXECUTE_RESULT,
+            CommandType.TASK_EXECUTE_RESULT_ACK,
+            CommandType.TASK_KILL_RESPONSE,
+            CommandType.TASK_REJECT,
+            CommandType.TASK_REJECT_ACK,
+            CommandType.TASK_EXECUTE_RUNNING,
+            CommandType.TASK_EXECUTE_RUNNING_ACK,
+            CommandType.TASK_UPDATE_PID,
+            CommandType.TASK_UPDATE_PID_ACK,
+            CommandType.TASK_SAVEPOINT_REQUEST,
+            CommandType.TASK_SAVEPOINT_RESPONSE,
+            CommandType.TASK_DISPATCH_REQUEST,
+            CommandType.TASK_KILL_REQUEST),
+
+    /**
+     * workflow state events and the requests from api server
+     */
+    WORKFLOW(Math.max(2, Constants.CPUS / 2),
+            CommandType.STATE_EVENT_REQUEST,
+            CommandType.TASK_FORCE_STATE_EVENT_REQUEST,
+            CommandType.TASK_WAKEUP_EVENT_REQUEST,
+            CommandType.TASK_FORCE_SUCCESS_EVENT_REQUEST,
+            CommandType.PROCESS_HOST_UPDATE_REQUEST,
+            CommandType.PROCESS_HOST_UPDATE_RESPONSE,
+            CommandType.TASK_EXECUTE_START,
+            CommandType.CACHE_EXPIRE,
+            CommandType.WORKFLOW_METRICS_CLEANUP,
+            CommandType.WORKFLOW_EXECUTING_DATA_REQUEST),
+
+    /**
+     * log queries, which may read large files
+     */
+    LOG(2,
+            CommandType.GET_APP_ID_REQUEST,
+            CommandType.REMOVE_TAK_LOG_REQUEST,
+            CommandType.ROLL_VIEW_LOG_REQUEST,
+            CommandType.GET_LOG_BYTES_REQUEST,
+            CommandType.VIEW_WHOLE_LOG_REQUEST),
+
+    /**
+     * the other commands
+     */
+    DEFAULT(Math.max(2, Constants.CPUS / 2));
+
+    private static final Map<CommandType, CommandLane> COMMAND_LANES = new EnumMap<>(CommandType.class);
+
+    private static final Map<CommandType, Integer> COMMAND_PRIORITIES = new EnumMap<>(CommandType.class);
+
+    static {
+        for (CommandLane lane : values()) {
+            for (int i = 0; i < lane.commandTypes.length; i++) {
+                COMMAND_LANES.put(lane.commandTypes[i], lane);
+                COMMAND_PRIORITIES.put(lane.commandTypes[i], i);
+            }
+        }
+        // the kill request is processed after the dispatch request of the same task which arrived before it
+        COMMAND_PRIORITIES.put(CommandType.TASK_KILL_REQUEST,
+                COMMAND_PRIORITIES.get(CommandType.TASK_DISPATCH_REQUEST));
+    }
+
+    private final int threads;
+
+    private final CommandType[] commandTypes;
+
+    CommandLane(int threads, CommandType... commandTypes) {
+        this.threads = threads;
+        this.commandTypes = commandTypes;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public static CommandLane of(CommandType commandType) {
+        return COMMAND_LANES.getOrDefault(commandType, DEFAULT);
+    }
+
+    /**
+     * Get the priority of the command type in its lane, the smaller value is processed first.
+     */
+    public static int priorityOf(CommandType commandType) {
+        return COMMAND_PRIORITIES.getOrDefault(commandType, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.remote.processor;
+
+import org.apache.dolphinscheduler.remote.command.CommandType;
+import org.apache.dolphinscheduler.remote.metrics.RemotingMetrics;
+import org.apache.dolphinscheduler.remote.utils.NamedThreadFactory;
+
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.NonNull;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * The executor of a command lane, the queued commands are ordered by the priority of their types, then by the arrival
+ * order. The command is rejected if the queue is full.
+ */
+public class CommandLaneExecutor {
+
+    private final CommandLane lane;
+
+    private final int queueCapacity;
+
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final Gauge queueSizeGauge;
+
+    private final Timer waitTimer;
+
+    private final Counter rejectedCounter;
+
+    public CommandLaneExecutor(@NonNull CommandLane lane, int threads, int queueCapacity, int listenPort) {
+        this.lane = lane;
+        this.queueCapacity = queueCapacity;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(), new NamedThreadFactory("NettyServer-" + lane.name()));
+        this.queueSizeGauge =
+                RemotingMetrics.registerLaneQueueSize(lane, listenPort, () -> executor.getQueue().size());
+        this.waitTimer = RemotingMetrics.registerLaneWaitTime(lane, listenPort);
+        this.rejectedCounter = RemotingMetrics.registerLaneRejected(lane, listenPort);
+    }
+
+    /**
+     * Execute the command processing in the lane.
+     *
+     * @param commandType command type
+     * @param runnable command processing
+     * @throws RejectedExecutionException if the queue of the lane is full or the executor is shutdown
+     */
+    public void execute(CommandType commandType, Runnable runnable) {
+        if (executor.getQueue().size() >= queueCapacity) {
+            rejectedCounter.increment();
+            throw new RejectedExecutionException(
+                    String.format("the queue of lane %s is full, capacity: %d", lane, queueCapacity));
+        }
+        executor.execute(new LaneTask(CommandLane.priorityOf(commandType), sequence.getAndIncrement(), runnable));
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+        RemotingMetrics.removeLaneMeter(queueSizeGauge);
+        RemotingMetrics.removeLaneMeter(waitTimer);
+        RemotingMetrics.removeLaneMeter(rejectedCounter);
+    }
+
+    private class LaneTask implements Runnable, Comparable<LaneTask> {
+
+        private final int priority;
+
+        private final long sequence;
+
+        private final Runnable runnable;
+
+        private final long enqueueNanos = System.nanoTime();
+
+        LaneTask(int priority, long sequence, Runnable runnable) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.runnable = runnable;
+        }
+
+        @Override
+        public void run() {
+            waitTimer.record(System.nanoTime() - enqueueNanos, TimeUnit.NANOSECONDS);
+            runnable.run();
+        }
+
+        @Override
+        public int compareTo(LaneTask other) {
+            if (priority != other.priority) {
+                return Integer.compare(priority, other.priority);
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+}
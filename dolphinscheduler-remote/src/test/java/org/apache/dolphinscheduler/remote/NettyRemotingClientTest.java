@@ -21,14 +21,27 @@ import org.apache.dolphinscheduler.remote.command.Command;
 import org.apache.dolphinscheduler.remote.command.CommandType;
 import org.apache.dolphinscheduler.remote.config.NettyClientConfig;
 import org.apache.dolphinscheduler.remote.config.NettyServerConfig;
+import org.apache.dolphinscheduler.remote.exceptions.RemotingException;
+import org.apache.dolphinscheduler.remote.exceptions.RemotingTimeoutException;
+import org.apache.dolphinscheduler.remote.exceptions.RemotingTooMuchRequestException;
 import org.apache.dolphinscheduler.remote.future.InvokeCallback;
 import org.apache.dolphinscheduler.remote.future.ResponseFuture;
 import org.apache.dolphinscheduler.remote.processor.NettyRequestProcessor;
 import org.apache.dolphinscheduler.remote.utils.Host;
 
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -114,6 +127,177 @@ public class NettyRemotingClientTest {
         client.close();
     }
 
+    /**
+     *  test the request rejected by the busy server
+     */
+    @Test
+    public void testSendSyncRejected() {
+        NettyServerConfig serverConfig = new NettyServerConfig();
+        serverConfig.setLaneQueueCapacity(0);
+
+        NettyRemotingServer server = new NettyRemotingServer(serverConfig);
+        server.registerProcessor(CommandType.PING, new NettyRequestProcessor() {
+
+            @Override
+            public void process(Channel channel, Command command) {
+                channel.writeAndFlush(Pong.create(command.getOpaque()));
+            }
+        });
+        server.start();
+        NettyRemotingClient client = new NettyRemotingClient(new NettyClientConfig());
+        try {
+            RemotingException exception = Assertions.assertThrows(RemotingException.class,
+                    () -> client.sendSync(new Host("127.0.0.1", serverConfig.getListenPort()), Ping.create(), 5000));
+            Assertions.assertInstanceOf(RemotingTooMuchRequestException.class, exception.getCause());
+        } finally {
+            server.close();
+            client.close();
+        }
+    }
+
+    /**
+     *  test the request timeout of the command type replaces the timeout given by the caller
+     */
+    @Test
+    public void testSendSyncWithRequestTimeout() {
+        NettyServerConfig serverConfig = new NettyServerConfig();
+        NettyRemotingServer server = new NettyRemotingServer(serverConfig);
+        // the server never responds
+        server.registerProcessor(CommandType.PING, (channel, command) -> {
+        });
+        server.start();
+        NettyRemotingClient client = new NettyRemotingClient(NettyClientConfig.builder()
+                .requestTimeoutMillis(NettyClientConfig.requestTimeoutMillisOf(
+                        Collections.singletonMap(CommandType.PING, Duration.ofMillis(200))))
+                .build());
+        try {
+            long start = System.currentTimeMillis();
+            Assertions.assertThrows(RemotingTimeoutException.class,
+                    () -> client.sendSync(new Host("127.0.0.1", serverConfig.getListenPort()), Ping.create(), 10_000));
+            Assertions.assertTrue(System.currentTimeMillis() - start < 5_000);
+        } finally {
+            server.close();
+            client.close();
+        }
+    }
+
+    /**
+     *  test the requests are spread over the pooled channels
+     */
+    @Test
+    public void testChannelPool() throws Exception {
+        NettyServerConfig serverConfig = new NettyServerConfig();
+        NettyRemotingServer server = new NettyRemotingServer(serverConfig);
+        server.start();
+        NettyRemotingClient client = new NettyRemotingClient(NettyClientConfig.builder().channelPoolSize(2).build());
+        Host host = new Host("127.0.0.1", serverConfig.getListenPort());
+        try {
+            Channel first = client.getChannel(host);
+            Assertions.assertNotNull(first);
+            Channel second = awaitChannel(client, host, channel -> channel != first);
+            Assertions.assertNotSame(first, second);
+
+            // the closed channel is evicted and reconnected, the other channel is still used
+            first.close().sync();
+            Channel reconnected = awaitChannel(client, host, channel -> channel != first && channel != second);
+            Assertions.assertTrue(reconnected.isActive());
+            Assertions.assertTrue(second.isActive());
+        } finally {
+            server.close();
+            client.close();
+        }
+    }
+
+    /**
+     *  test the oneway commands sent through the pooled client arrive in order
+     */
+    @Test
+    public void testSendInOrder() throws Exception {
+        NettyServerConfig serverConfig = new NettyServerConfig();
+        NettyRemotingServer server = new NettyRemotingServer(serverConfig);
+        List<String> received = new CopyOnWriteArrayList<>();
+        CountDownLatch finished = new CountDownLatch(200);
+        ExecutorService receiveExecutor = Executors.newSingleThreadExecutor();
+        NettyRequestProcessor processor = (channel, command) -> {
+            received.add(command.getType() + "-" + new String(command.getBody(), StandardCharsets.UTF_8));
+            finished.countDown();
+        };
+        server.registerProcessor(CommandType.TASK_DISPATCH_REQUEST, processor, receiveExecutor);
+        server.registerProcessor(CommandType.TASK_KILL_REQUEST, processor, receiveExecutor);
+        server.start();
+        NettyRemotingClient client = new NettyRemotingClient(NettyClientConfig.builder().channelPoolSize(2).build());
+        Host host = new Host("127.0.0.1", serverConfig.getListenPort());
+        try {
+            // all the channels of the pool are connected
+            Channel first = client.getChannel(host);
+            awaitChannel(client, host, channel -> channel != first);
+
+            List<String> sent = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                for (CommandType commandType : new CommandType[]{CommandType.TASK_DISPATCH_REQUEST,
+                        CommandType.TASK_KILL_REQUEST}) {
+                    Command command = new Command();
+                    command.setType(commandType);
+                    command.setBody(String.valueOf(i).getBytes(StandardCharsets.UTF_8));
+                    client.send(host, command);
+                    sent.add(commandType + "-" + i);
+                }
+            }
+            Assertions.assertTrue(finished.await(10, TimeUnit.SECONDS));
+            Assertions.assertEquals(sent, received);
+        } finally {
+            server.close();
+            client.close();
+            receiveExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     *  test the channel pool evicted once all its channels are closed
+     */
+    @Test
+    public void testChannelPoolEvicted() throws Exception {
+        NettyServerConfig serverConfig = new NettyServerConfig();
+        NettyRemotingServer server = new NettyRemotingServer(serverConfig);
+        server.start();
+        NettyRemotingClient client = new NettyRemotingClient(NettyClientConfig.builder().channelPoolSize(2).build());
+        Host host = new Host("127.0.0.1", serverConfig.getListenPort());
+        try {
+            Channel first = client.getChannel(host);
+            Channel second = awaitChannel(client, host, channel -> channel != first);
+            Assertions.assertEquals(1, client.getChannelPoolCount());
+
+            // the pool is kept while one of its channels is still connected
+            first.close().sync();
+            Assertions.assertEquals(1, client.getChannelPoolCount());
+
+            second.close().sync();
+            for (int i = 0; i < 100 && client.getChannelPoolCount() != 0; i++) {
+                Thread.sleep(50);
+            }
+            Assertions.assertEquals(0, client.getChannelPoolCount());
+
+            // the pool is created again by the next request to the host
+            Assertions.assertNotNull(client.getChannel(host));
+            Assertions.assertEquals(1, client.getChannelPoolCount());
+        } finally {
+            server.close();
+            client.close();
+        }
+    }
+
+    private Channel awaitChannel(NettyRemotingClient client, Host host,
+                                 Predicate<Channel> predicate) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            Channel channel = client.getChannel(host);
+            if (channel != null && predicate.test(channel)) {
+                return channel;
+            }
+            Thread.sleep(50);
+        }
+        return Assertions.fail("no expected channel of " + host);
+    }
+
     private static class Ping implements Serializable {
 
         /**
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.remote.codec;
+
+import org.apache.dolphinscheduler.remote.command.Command;
+import org.apache.dolphinscheduler.remote.command.CommandType;
+import org.apache.dolphinscheduler.remote.command.TaskExecuteResultCommand;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+public class NettyCodecTest {
+
+    private final EmbeddedChannel encoderChannel = new EmbeddedChannel(new NettyEncoder());
+
+    private final EmbeddedChannel decoderChannel = new EmbeddedChannel(new NettyDecoder());
+
+    @AfterEach
+    public void after() {
+        encoderChannel.finishAndReleaseAll();
+        decoderChannel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testDecodeBodyObject() {
+        TaskExecuteResultCommand resultCommand = new TaskExecuteResultCommand("127.0.0.1:1234", "127.0.0.1:5678", 1L);
+        resultCommand.setTaskInstanceId(1);
+        resultCommand.setVarPool("[{\"prop\":\"a\",\"value\":\"b\"}]");
+        Command command = resultCommand.convert2Command();
+        command.getContext().put("key", "value");
+
+        Command decoded = decode(encode(command));
+        try {
+            Assertions.assertEquals(CommandType.TASK_EXECUTE_RESULT, decoded.getType());
+            Assertions.assertEquals(command.getOpaque(), decoded.getOpaque());
+            Assertions.assertEquals("value", decoded.getContext().get("key"));
+            Assertions.assertEquals(resultCommand, decoded.parseBody(TaskExecuteResultCommand.class));
+            Assertions.assertArrayEquals(command.getBody(), decoded.getBody());
+        } finally {
+            decoded.release();
+        }
+    }
+
+    @Test
+    public void testDecodePartialFrames() {
+        Command first = new Command();
+        first.setType(CommandType.PING);
+        first.setBody("ping".getBytes(StandardCharsets.UTF_8));
+        Command second = new Command();
+        second.setType(CommandType.PONG);
+        second.setBody(new byte[0]);
+
+        ByteBuf frames = encode(first);
+        ByteBuf secondFrame = encode(second);
+        frames.writeBytes(secondFrame);
+        secondFrame.release();
+        // the frames arrive byte by byte
+        while (frames.isReadable()) {
+            decoderChannel.writeInbound(frames.readRetainedSlice(1));
+        }
+        frames.release();
+
+        Command decodedFirst = decoderChannel.readInbound();
+        Command decodedSecond = decoderChannel.readInbound();
+        Assertions.assertEquals(first.getOpaque(), decodedFirst.getOpaque());
+        Assertions.assertEquals("ping", new String(decodedFirst.getBody(), StandardCharsets.UTF_8));
+        Assertions.assertEquals(CommandType.PONG, decodedSecond.getType());
+        Assertions.assertEquals(0, decodedSecond.getBody().length);
+        Assertions.assertNull(decodedSecond.parseBody(TaskExecuteResultCommand.class));
+
+        ByteBuf bodyBuffer = decodedFirst.getBodyBuffer();
+        decodedFirst.release();
+        decodedSecond.release();
+        Assertions.assertEquals(0, bodyBuffer.refCnt());
+        Assertions.assertNull(decodedFirst.getBodyBuffer());
+    }
+
+    private ByteBuf encode(Command command) {
+        Assertions.assertTrue(encoderChannel.writeOutbound(command));
+        ByteBuf frame = encoderChannel.readOutbound();
+        Assertions.assertTrue(frame.isDirect());
+        return frame;
+    }
+
+    private Command decode(ByteBuf frame) {
+        Assertions.assertTrue(decoderChannel.writeInbound(frame));
+        return decoderChannel.readInbound();
+    }
+}
@@ -17,13 +17,11 @@
 
 package org.apache.dolphinscheduler.remote.command.future;
 
+import org.apache.dolphinscheduler.remote.command.CommandType;
 import org.apache.dolphinscheduler.remote.future.InvokeCallback;
 import org.apache.dolphinscheduler.remote.future.ResponseFuture;
-import org.apache.dolphinscheduler.remote.utils.NamedThreadFactory;
 
 import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.Assertions;
@@ -32,17 +30,7 @@ import org.junit.jupiter.api.Test;
 public class ResponseFutureTest {
 
     @Test
-    public void testScanFutureTable() {
-        ScheduledExecutorService executorService =
-                Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("executor-service"));
-        executorService.scheduleAtFixedRate(new Runnable() {
-
-            @Override
-            public void run() {
-                ResponseFuture.scanFutureTable();
-            }
-        }, 3000, 1000, TimeUnit.MILLISECONDS);
-
+    public void testTimeout() throws InterruptedException {
         CountDownLatch latch = new CountDownLatch(1);
         InvokeCallback invokeCallback = new InvokeCallback() {
 
@@ -51,13 +39,29 @@ public class ResponseFutureTest {
                 latch.countDown();
             }
         };
-        ResponseFuture future = new ResponseFuture(1, 2000, invokeCallback, null);
-        try {
-            latch.await(5000, TimeUnit.MILLISECONDS);
-            Assertions.assertNull(ResponseFuture.getFuture(1));
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
-        executorService.shutdownNow();
+        ResponseFuture future = new ResponseFuture(1, 200, invokeCallback, null);
+        Assertions.assertTrue(latch.await(5000, TimeUnit.MILLISECONDS));
+        Assertions.assertNull(ResponseFuture.getFuture(1));
+        Assertions.assertNull(future.getResponseCommand());
+        Assertions.assertFalse(future.removeFuture());
+    }
+
+    @Test
+    public void testRemoveBeforeTimeout() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        ResponseFuture future = new ResponseFuture(2, CommandType.PING, 200, responseFuture -> latch.countDown(),
+                null, null);
+        Assertions.assertTrue(future.removeFuture());
+        Assertions.assertNull(ResponseFuture.getFuture(2));
+        Assertions.assertFalse(latch.await(500, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testSyncWaitTimeout() throws InterruptedException {
+        ResponseFuture future = new ResponseFuture(3, CommandType.PING, 100, null, null, null);
+        long start = System.currentTimeMillis();
+        Assertions.assertNull(future.waitResponse());
+        Assertions.assertTrue(System.currentTimeMillis() - start < 2000);
+        Assertions.assertNull(ResponseFuture.getFuture(3));
     }
 }
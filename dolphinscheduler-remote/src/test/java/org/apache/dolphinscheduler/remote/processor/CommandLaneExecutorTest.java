@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.remote.processor;
+
+import org.apache.dolphinscheduler.remote.command.CommandType;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+public class CommandLaneExecutorTest {
+
+    private final CommandLaneExecutor laneExecutor = new CommandLaneExecutor(CommandLane.TASK, 1, 3, 12345);
+
+    @AfterEach
+    public void after() {
+        laneExecutor.shutdown();
+    }
+
+    @Test
+    public void testLaneOfCommandType() {
+        Assertions.assertEquals(CommandLane.TASK, CommandLane.of(CommandType.TASK_EXECUTE_RESULT));
+        Assertions.assertEquals(CommandLane.LOG, CommandLane.of(CommandType.VIEW_WHOLE_LOG_REQUEST));
+        Assertions.assertEquals(CommandLane.WORKFLOW, CommandLane.of(CommandType.WORKFLOW_EXECUTING_DATA_REQUEST));
+        Assertions.assertEquals(CommandLane.DEFAULT, CommandLane.of(CommandType.ALERT_SEND_REQUEST));
+    }
+
+    @Test
+    public void testExecuteByPriority() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        laneExecutor.execute(CommandType.TASK_DISPATCH_REQUEST, () -> awaitQuietly(blocked));
+
+        List<CommandType> executed = new CopyOnWriteArrayList<>();
+        CountDownLatch finished = new CountDownLatch(3);
+        for (CommandType commandType : new CommandType[]{CommandType.TASK_DISPATCH_REQUEST,
+                CommandType.TASK_EXECUTE_RUNNING, CommandType.TASK_EXECUTE_RESULT}) {
+            laneExecutor.execute(commandType, () -> {
+                executed.add(commandType);
+                finished.countDown();
+            });
+        }
+        blocked.countDown();
+
+        Assertions.assertTrue(finished.await(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(CommandType.TASK_EXECUTE_RESULT, executed.get(0));
+        Assertions.assertEquals(CommandType.TASK_EXECUTE_RUNNING, executed.get(1));
+        Assertions.assertEquals(CommandType.TASK_DISPATCH_REQUEST, executed.get(2));
+    }
+
+    @Test
+    public void testKillNotOvertakeDispatch() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        laneExecutor.execute(CommandType.TASK_EXECUTE_RESULT, () -> awaitQuietly(blocked));
+
+        List<CommandType> executed = new CopyOnWriteArrayList<>();
+        CountDownLatch finished = new CountDownLatch(3);
+        for (CommandType commandType : new CommandType[]{CommandType.TASK_DISPATCH_REQUEST,
+                CommandType.TASK_KILL_REQUEST, CommandType.TASK_DISPATCH_REQUEST}) {
+            laneExecutor.execute(commandType, () -> {
+                executed.add(commandType);
+                finished.countDown();
+            });
+        }
+        blocked.countDown();
+
+        // the kill request keeps its arrival order with the dispatch requests
+        Assertions.assertTrue(finished.await(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(Arrays.asList(CommandType.TASK_DISPATCH_REQUEST, CommandType.TASK_KILL_REQUEST,
+                CommandType.TASK_DISPATCH_REQUEST), executed);
+    }
+
+    @Test
+    public void testLaneMetersTaggedWithPort() {
+        Assertions.assertNotNull(Metrics.globalRegistry.find("ds.rpc.lane.queue.size")
+                .tag("lane", CommandLane.TASK.name())
+                .tag("port", "12345")
+                .gauge());
+        Timer waitTimer = Metrics.globalRegistry.find("ds.rpc.lane.wait.time")
+                .tag("lane", CommandLane.TASK.name())
+                .tag("port", "12345")
+                .timer();
+        Assertions.assertNotNull(waitTimer);
+        Assertions.assertNotNull(Metrics.globalRegistry.find("ds.rpc.lane.rejected.count")
+                .tag("lane", CommandLane.TASK.name())
+                .tag("port", "12345")
+                .counter());
+
+        // the meters of the port are removed with the lane executor
+        laneExecutor.shutdown();
+        Assertions.assertNull(Metrics.globalRegistry.find("ds.rpc.lane.wait.time").tag("port", "12345").timer());
+        Assertions.assertNull(
+                Metrics.globalRegistry.find("ds.rpc.lane.rejected.count").tag("port", "12345").counter());
+    }
+
+    @Test
+    public void testRejectWhenQueueFull() {
+        CountDownLatch blocked = new CountDownLatch(1);
+        try {
+            laneExecutor.execute(CommandType.TASK_DISPATCH_REQUEST, () -> awaitQuietly(blocked));
+            for (int i = 0; i < 3; i++) {
+                laneExecutor.execute(CommandType.TASK_DISPATCH_REQUEST, () -> {
+                });
+            }
+            Assertions.assertEquals(3, laneExecutor.getQueueSize());
+            Assertions.assertThrows(RejectedExecutionException.class,
+                    () -> laneExecutor.execute(CommandType.TASK_EXECUTE_RESULT, () -> {
+                    }));
+        } finally {
+            blocked.countDown();
+        }
+    }
+
+    private void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.service.code;
+
+import org.apache.dolphinscheduler.common.thread.ThreadUtils;
+import org.apache.dolphinscheduler.common.utils.CodeGenerateUtils;
+import org.apache.dolphinscheduler.common.utils.CodeGenerateUtils.CodeAllocator;
+import org.apache.dolphinscheduler.common.utils.CodeGenerateUtils.CodeGenerateException;
+import org.apache.dolphinscheduler.dao.repository.CodeSegmentDao;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Allocate the codes from the segments leased from the DB, so the codes are unique across the api and master servers
+ * without distinguishing the servers by config.
+ * <p>
+ * The codes of the current segment are handed out by an atomic counter, the next segment is prefetched once the
+ * current one falls below a low-water mark, and an allocation which is not less than a segment leases a segment of its
+ * own. The allocator replaces the local generator of {@link CodeGenerateUtils} once it is created.
+ * <p>
+ * The segments are leased in a transaction of their own, which takes another DB connection than the one the caller may
+ * hold. So the leases all run on a single prefetch thread, outside any lock, and the allocator never takes more than one
+ * extra connection at a time.
+ */
+@Slf4j
+@Component
+public class CodeSegmentAllocator implements CodeAllocator {
+
+    static final String CODE_SEGMENT_NAME = "code";
+
+    static final int SEGMENT_SIZE = 1000;
+
+    static final int LOW_WATER_MARK = SEGMENT_SIZE / 5;
+
+    private final CodeSegmentDao codeSegmentDao;
+
+    private final ExecutorService prefetchExecutor =
+            ThreadUtils.newDaemonFixedThreadExecutor("CodeSegmentPrefetchThread", 1);
+
+    private volatile Segment segment = new Segment(0, 0);
+
+    /**
+     * the lease of the segment after the current one, guarded by this
+     */
+    private CompletableFuture<Segment> nextSegment;
+
+    public CodeSegmentAllocator(CodeSegmentDao codeSegmentDao) {
+        this.codeSegmentDao = codeSegmentDao;
+    }
+
+    @PostConstruct
+    public void init() {
+        CodeGenerateUtils.getInstance().setCodeAllocator(this);
+    }
+
+    @PreDestroy
+    public void close() {
+        CodeGenerateUtils.getInstance().setCodeAllocator(null);
+        prefetchExecutor.shutdownNow();
+    }
+
+    @Override
+    public long[] allocate(int count) throws CodeGenerateException {
+        if (count < 1) {
+            throw new IllegalArgumentException("The count of codes must be positive: " + count);
+        }
+        if (count >= SEGMENT_SIZE) {
+            // the large allocations are rare, they wait for a lease of their own on the prefetch thread
+            Segment leased = await(CompletableFuture.supplyAsync(() -> lease(count), prefetchExecutor));
+            return toCodes(leased.next.get(), count);
+        }
+        while (true) {
+            Segment current = segment;
+            long first = current.next.getAndAdd(count);
+            if (first + count <= current.end) {
+                if (current.end - first - count < LOW_WATER_MARK) {
+                    prefetchNextSegment();
+                }
+                return toCodes(first, count);
+            }
+            CompletableFuture<Segment> future = prefetchNextSegment();
+            Segment next = await(future);
+            synchronized (this) {
+                // the segment may be replaced by another thread while waiting
+                if (segment == current && nextSegment == future) {
+                    segment = next;
+                    nextSegment = null;
+                }
+            }
+        }
+    }
+
+    private synchronized CompletableFuture<Segment> prefetchNextSegment() {
+        if (nextSegment == null || nextSegment.isCompletedExceptionally()) {
+            nextSegment = CompletableFuture.supplyAsync(() -> lease(SEGMENT_SIZE), prefetchExecutor);
+        }
+        return nextSegment;
+    }
+
+    private Segment await(CompletableFuture<Segment> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CodeGenerateException("Interrupted while leasing code segment.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CodeGenerateException) {
+                throw (CodeGenerateException) e.getCause();
+            }
+            throw new CodeGenerateException("Lease code segment error: " + e.getCause().getMessage());
+        }
+    }
+
+    private Segment lease(int size) {
+        long start = leaseSegment(size);
+        return new Segment(start, start + size);
+    }
+
+    private long leaseSegment(int size) {
+        // the leased codes are larger than the codes generated locally before
+        long minCode = CodeGenerateUtils.minCodeOf(System.currentTimeMillis() + 1);
+        Optional<Long> start = codeSegmentDao.leaseSegment(CODE_SEGMENT_NAME, size, minCode);
+        if (!start.isPresent()) {
+            try {
+                codeSegmentDao.createSegment(CODE_SEGMENT_NAME);
+                log.info("Code segment {} is created.", CODE_SEGMENT_NAME);
+            } catch (DuplicateKeyException e) {
+                log.info("Code segment {} is created by another server.", CODE_SEGMENT_NAME);
+            }
+            start = codeSegmentDao.leaseSegment(CODE_SEGMENT_NAME, size, minCode);
+        }
+        long first = start.orElseThrow(() -> new CodeGenerateException("Lease code segment error."));
+        log.debug("Lease code segment [{}, {}).", first, first + size);
+        return first;
+    }
+
+    private long[] toCodes(long first, int count) {
+        long[] codes = new long[count];
+        for (int i = 0; i < count; i++) {
+            codes[i] = first + i;
+        }
+        return codes;
+    }
+
+    private static class Segment {
+
+        private final AtomicLong next;
+
+        private final long end;
+
+        Segment(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
@@ -22,6 +22,7 @@ import org.apache.dolphinscheduler.dao.entity.ProcessInstance;
 import org.apache.dolphinscheduler.dao.entity.ProcessInstanceMap;
 import org.apache.dolphinscheduler.dao.entity.TaskInstance;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -44,14 +45,21 @@ public interface CommandService {
      */
     int createCommand(Command command);
 
+    /**
+     * Create a batch of new commands in one JDBC batch
+     * @param commands commands
+     * @return the number of created commands
+     */
+    int batchCreateCommand(List<Command> commands);
+
     /**
      * Get command page
      * @param pageSize page size
-     * @param masterCount master count
-     * @param thisMasterSlot master slot
+     * @param slotCount slot count, the slot of the command is id % slotCount
+     * @param slots the slots of the master
      * @return command page
      */
-    List<Command> findCommandPageBySlot(int pageSize, int masterCount, int thisMasterSlot);
+    List<Command> findCommandPageBySlot(int pageSize, int slotCount, Collection<Integer> slots);
 
     /**
      * check the input command exists in queue list
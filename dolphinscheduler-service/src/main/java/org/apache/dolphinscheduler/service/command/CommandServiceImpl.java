@@ -37,13 +37,16 @@ import org.apache.dolphinscheduler.dao.mapper.CommandMapper;
 import org.apache.dolphinscheduler.dao.mapper.ErrorCommandMapper;
 import org.apache.dolphinscheduler.dao.mapper.ProcessDefinitionMapper;
 import org.apache.dolphinscheduler.dao.mapper.ScheduleMapper;
+import org.apache.dolphinscheduler.dao.utils.BatchExecuteUtils;
 import org.apache.dolphinscheduler.plugin.task.api.enums.Direct;
 import org.apache.dolphinscheduler.plugin.task.api.model.Property;
 import org.apache.dolphinscheduler.service.utils.ParamUtils;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.ibatis.session.SqlSessionFactory;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.EnumMap;
 import java.util.HashMap;
@@ -79,6 +82,9 @@ public class CommandServiceImpl implements CommandService {
     @Autowired
     private ProcessDefinitionMapper processDefineMapper;
 
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
     @Override
     public void moveToErrorCommand(Command command, String message) {
         ErrorCommand errorCommand = new ErrorCommand(command, message);
@@ -95,24 +101,57 @@ public class CommandServiceImpl implements CommandService {
         }
         // add command timezone
         Schedule schedule = scheduleMapper.queryByProcessDefinitionCode(command.getProcessDefinitionCode());
-        if (schedule != null) {
-            Map<String, String> commandParams =
-                    StringUtils.isNotBlank(command.getCommandParam()) ? JSONUtils.toMap(command.getCommandParam())
-                            : new HashMap<>();
-            commandParams.put(Constants.SCHEDULE_TIMEZONE, schedule.getTimezoneId());
-            command.setCommandParam(JSONUtils.toJsonString(commandParams));
-        }
+        addCommandTimezone(command, schedule);
         command.setId(null);
         result = commandMapper.insert(command);
         return result;
     }
 
     @Override
-    public List<Command> findCommandPageBySlot(int pageSize, int masterCount, int thisMasterSlot) {
-        if (masterCount <= 0) {
+    public int batchCreateCommand(List<Command> commands) {
+        if (CollectionUtils.isEmpty(commands)) {
+            return 0;
+        }
+        // the commands of the same workflow definition share one schedule query
+        Map<Long, Schedule> scheduleMap = new HashMap<>();
+        for (Command command : commands) {
+            Schedule schedule = scheduleMap.computeIfAbsent(command.getProcessDefinitionCode(),
+                    scheduleMapper::queryByProcessDefinitionCode);
+            addCommandTimezone(command, schedule);
+            command.setId(null);
+        }
+        boolean[] results =
+                BatchExecuteUtils.executeBatch(sqlSessionFactory, CommandMapper.class, commands, CommandMapper::insert);
+        int insertCount = 0;
+        for (boolean result : results) {
+            if (result) {
+                insertCount++;
+            }
+        }
+        return insertCount;
+    }
+
+    private void addCommandTimezone(Command command, Schedule schedule) {
+        if (schedule == null) {
+            return;
+        }
+        Map<String, String> commandParams =
+                StringUtils.isNotBlank(command.getCommandParam()) ? JSONUtils.toMap(command.getCommandParam())
+                        : new HashMap<>();
+        commandParams.put(Constants.SCHEDULE_TIMEZONE, schedule.getTimezoneId());
+        command.setCommandParam(JSONUtils.toJsonString(commandParams));
+    }
+
+    @Override
+    public List<Command> findCommandPageBySlot(int pageSize, int slotCount, Collection<Integer> slots) {
+        if (slotCount <= 0 || CollectionUtils.isEmpty(slots)) {
             return Lists.newArrayList();
         }
-        return commandMapper.queryCommandPageBySlot(pageSize, masterCount, thisMasterSlot);
+        if (slots.size() >= slotCount) {
+            // all the slots belong to the master
+            return commandMapper.queryCommandPage(pageSize, 0);
+        }
+        return commandMapper.queryCommandPageBySlot(pageSize, slotCount, slots);
     }
 
     @Override
@@ -126,6 +126,8 @@ public interface ProcessService {
     @Transactional
     void processNeedFailoverProcessInstances(ProcessInstance processInstance);
 
+    void processNeedFailoverProcessInstances(List<ProcessInstance> processInstances);
+
     DataSource findDataSourceById(int id);
 
     ProcessInstance findProcessInstanceByTaskId(int taskId);
@@ -206,16 +208,6 @@ public interface ProcessService {
 
     DqComparisonType getComparisonTypeById(int id);
 
-    boolean acquireTaskGroup(int taskId,
-                             String taskName, int groupId,
-                             int processId, int priority);
-
-    boolean robTaskGroupResource(TaskGroupQueue taskGroupQueue);
-
-    void releaseAllTaskGroup(int processInstanceId);
-
-    TaskInstance releaseTaskGroup(TaskInstance taskInstance);
-
     void changeTaskGroupQueueStatus(int taskId, TaskGroupQueueStatus status);
 
     TaskGroupQueue insertIntoTaskGroupQueue(Integer taskId,
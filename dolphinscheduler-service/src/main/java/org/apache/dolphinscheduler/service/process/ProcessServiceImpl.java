@@ -73,7 +73,6 @@ import org.apache.dolphinscheduler.dao.entity.ResourcesTask;
 import org.apache.dolphinscheduler.dao.entity.Schedule;
 import org.apache.dolphinscheduler.dao.entity.TaskDefinition;
 import org.apache.dolphinscheduler.dao.entity.TaskDefinitionLog;
-import org.apache.dolphinscheduler.dao.entity.TaskGroup;
 import org.apache.dolphinscheduler.dao.entity.TaskGroupQueue;
 import org.apache.dolphinscheduler.dao.entity.TaskInstance;
 import org.apache.dolphinscheduler.dao.entity.Tenant;
@@ -103,13 +102,13 @@ import org.apache.dolphinscheduler.dao.mapper.ResourceUserMapper;
 import org.apache.dolphinscheduler.dao.mapper.ScheduleMapper;
 import org.apache.dolphinscheduler.dao.mapper.TaskDefinitionLogMapper;
 import org.apache.dolphinscheduler.dao.mapper.TaskDefinitionMapper;
-import org.apache.dolphinscheduler.dao.mapper.TaskGroupMapper;
 import org.apache.dolphinscheduler.dao.mapper.TaskGroupQueueMapper;
 import org.apache.dolphinscheduler.dao.mapper.TaskInstanceMapper;
 import org.apache.dolphinscheduler.dao.mapper.TenantMapper;
 import org.apache.dolphinscheduler.dao.mapper.UdfFuncMapper;
 import org.apache.dolphinscheduler.dao.mapper.UserMapper;
 import org.apache.dolphinscheduler.dao.mapper.WorkFlowLineageMapper;
+import org.apache.dolphinscheduler.dao.repository.InstanceStateRollupDao;
 import org.apache.dolphinscheduler.dao.repository.ProcessInstanceDao;
 import org.apache.dolphinscheduler.dao.repository.ProcessInstanceMapDao;
 import org.apache.dolphinscheduler.dao.repository.TaskDefinitionDao;
@@ -211,6 +210,9 @@ public class ProcessServiceImpl implements ProcessService {
     @Autowired
     private ProcessInstanceMapDao processInstanceMapDao;
 
+    @Autowired
+    private InstanceStateRollupDao instanceStateRollupDao;
+
     @Autowired
     private DataSourceMapper dataSourceMapper;
 
@@ -286,9 +288,6 @@ public class ProcessServiceImpl implements ProcessService {
     @Autowired
     private TaskGroupQueueMapper taskGroupQueueMapper;
 
-    @Autowired
-    private TaskGroupMapper taskGroupMapper;
-
     @Autowired
     private WorkFlowLineageMapper workFlowLineageMapper;
 
@@ -904,6 +903,11 @@ public class ProcessServiceImpl implements ProcessService {
                     taskInstance.setFlag(Flag.NO);
                     taskInstanceDao.updateTaskInstance(taskInstance);
                 }
+                if (processInstance.getStartTime() != null) {
+                    // the instance is moved out of the hour it started before
+                    instanceStateRollupDao.invalidateBuckets(processInstance.getStartTime(),
+                            processInstance.getStartTime());
+                }
                 processInstance.setStartTime(new Date());
                 processInstance.setRestartTime(processInstance.getStartTime());
                 processInstance.setEndTime(null);
@@ -1620,6 +1624,40 @@ public class ProcessServiceImpl implements ProcessService {
         commandService.createCommand(cmd);
     }
 
+    /**
+     * process need failover process instances in batch, the hosts are cleaned and the recover commands are inserted
+     * with one JDBC batch each
+     *
+     * @param processInstances process instances
+     */
+    @Override
+    @Transactional
+    public void processNeedFailoverProcessInstances(List<ProcessInstance> processInstances) {
+        if (CollectionUtils.isEmpty(processInstances)) {
+            return;
+        }
+        // 1 update processInstance host is null
+        processInstances.forEach(processInstance -> processInstance.setHost(Constants.NULL));
+        processInstanceDao.batchUpdateProcessInstance(processInstances);
+
+        // 2 insert into recover command
+        List<Command> commands = new ArrayList<>(processInstances.size());
+        for (ProcessInstance processInstance : processInstances) {
+            Command cmd = new Command();
+            cmd.setProcessDefinitionCode(processInstance.getProcessDefinitionCode());
+            cmd.setProcessDefinitionVersion(processInstance.getProcessDefinitionVersion());
+            cmd.setProcessInstanceId(processInstance.getId());
+            cmd.setCommandParam(
+                    String.format("{\"%s\":%d}", CMD_PARAM_RECOVER_PROCESS_ID_STRING, processInstance.getId()));
+            cmd.setExecutorId(processInstance.getExecutorId());
+            cmd.setCommandType(CommandType.RECOVER_TOLERANCE_FAULT_PROCESS);
+            cmd.setProcessInstancePriority(processInstance.getProcessInstancePriority());
+            cmd.setTestFlag(processInstance.getTestFlag());
+            commands.add(cmd);
+        }
+        commandService.batchCreateCommand(commands);
+    }
+
     /**
      * find data source by id
      *
@@ -2423,158 +2461,6 @@ public class ProcessServiceImpl implements ProcessService {
         return dqComparisonTypeMapper.selectById(id);
     }
 
-    /**
-     * the first time (when submit the task ) get the resource of the task group
-     */
-    @Override
-    public boolean acquireTaskGroup(int taskInstanceId,
-                                    String taskName,
-                                    int taskGroupId,
-                                    int workflowInstanceId,
-                                    int taskGroupPriority) {
-        TaskGroup taskGroup = taskGroupMapper.selectById(taskGroupId);
-        if (taskGroup == null) {
-            // we don't throw exception here, to avoid the task group has been deleted during workflow running
-            return true;
-        }
-        // if task group is not applicable
-        if (taskGroup.getStatus() == Flag.NO.getCode()) {
-            return true;
-        }
-        // Create a waiting taskGroupQueue, after acquire resource, we can update the status to ACQUIRE_SUCCESS
-        TaskGroupQueue taskGroupQueue = this.taskGroupQueueMapper.queryByTaskId(taskInstanceId);
-        if (taskGroupQueue == null) {
-            taskGroupQueue = insertIntoTaskGroupQueue(
-                    taskInstanceId,
-                    taskName,
-                    taskGroupId,
-                    workflowInstanceId,
-                    taskGroupPriority,
-                    TaskGroupQueueStatus.WAIT_QUEUE);
-        } else {
-            log.info("The task queue is already exist, taskId: {}", taskInstanceId);
-            if (taskGroupQueue.getStatus() == TaskGroupQueueStatus.ACQUIRE_SUCCESS) {
-                return true;
-            }
-            taskGroupQueue.setInQueue(Flag.NO.getCode());
-            taskGroupQueue.setStatus(TaskGroupQueueStatus.WAIT_QUEUE);
-            this.taskGroupQueueMapper.updateById(taskGroupQueue);
-        }
-        // check if there already exist higher priority tasks
-        List<TaskGroupQueue> highPriorityTasks = taskGroupQueueMapper.queryHighPriorityTasks(
-                taskGroupId,
-                taskGroupPriority,
-                TaskGroupQueueStatus.WAIT_QUEUE.getCode());
-        if (CollectionUtils.isNotEmpty(highPriorityTasks)) {
-            return false;
-        }
-        // try to get taskGroup
-        int count = taskGroupMapper.selectAvailableCountById(taskGroupId);
-        if (count == 1 && robTaskGroupResource(taskGroupQueue)) {
-            log.info("Success acquire taskGroup, taskInstanceId: {}, taskGroupId: {}", taskInstanceId, taskGroupId);
-            return true;
-        }
-        log.info("Failed to acquire taskGroup, taskInstanceId: {}, taskGroupId: {}", taskInstanceId, taskGroupId);
-        this.taskGroupQueueMapper.updateInQueue(Flag.NO.getCode(), taskGroupQueue.getId());
-        return false;
-    }
-
-    /**
-     * try to get the task group resource(when other task release the resource)
-     */
-    @Override
-    public boolean robTaskGroupResource(TaskGroupQueue taskGroupQueue) {
-        // set the default max size to avoid dead loop
-        for (int i = 0; i < 10; i++) {
-            TaskGroup taskGroup = taskGroupMapper.selectById(taskGroupQueue.getGroupId());
-            if (taskGroup.getGroupSize() <= taskGroup.getUseSize()) {
-                log.info("The current task Group is full, taskGroup: {}", taskGroup);
-                return false;
-            }
-            int affectedCount = taskGroupMapper.robTaskGroupResource(taskGroup.getId(),
-                    taskGroup.getUseSize(),
-                    taskGroupQueue.getId(),
-                    TaskGroupQueueStatus.WAIT_QUEUE.getCode());
-            if (affectedCount > 0) {
-                log.info("Success rob taskGroup, taskInstanceId: {}, taskGroupId: {}", taskGroupQueue.getTaskId(),
-                        taskGroupQueue.getId());
-                taskGroupQueue.setStatus(TaskGroupQueueStatus.ACQUIRE_SUCCESS);
-                this.taskGroupQueueMapper.updateById(taskGroupQueue);
-                this.taskGroupQueueMapper.updateInQueue(Flag.NO.getCode(), taskGroupQueue.getId());
-                return true;
-            }
-        }
-        log.info("Failed to rob taskGroup, taskGroupQueue: {}", taskGroupQueue);
-        return false;
-    }
-
-    @Override
-    public void releaseAllTaskGroup(int processInstanceId) {
-        List<TaskInstance> taskInstances = this.taskInstanceMapper.loadAllInfosNoRelease(processInstanceId,
-                TaskGroupQueueStatus.ACQUIRE_SUCCESS.getCode());
-        for (TaskInstance info : taskInstances) {
-            releaseTaskGroup(info);
-        }
-    }
-
-    /**
-     * release the TGQ resource when the corresponding task is finished.
-     *
-     * @return the result code and msg
-     */
-    @Override
-    public TaskInstance releaseTaskGroup(TaskInstance taskInstance) {
-
-        TaskGroup taskGroup;
-        TaskGroupQueue thisTaskGroupQueue;
-        log.info("Begin to release task group: {}", taskInstance.getTaskGroupId());
-        try {
-            do {
-                taskGroup = taskGroupMapper.selectById(taskInstance.getTaskGroupId());
-                if (taskGroup == null) {
-                    log.error("The taskGroup is null, taskGroupId: {}", taskInstance.getTaskGroupId());
-                    return null;
-                }
-                thisTaskGroupQueue = this.taskGroupQueueMapper.queryByTaskId(taskInstance.getId());
-                if (thisTaskGroupQueue.getStatus() == TaskGroupQueueStatus.RELEASE) {
-                    log.info("The taskGroupQueue's status is release, taskInstanceId: {}", taskInstance.getId());
-                    return null;
-                }
-                if (thisTaskGroupQueue.getStatus() == TaskGroupQueueStatus.WAIT_QUEUE) {
-                    log.info("The taskGroupQueue's status is in waiting, will not need to release task group");
-                    break;
-                }
-            } while (thisTaskGroupQueue.getForceStart() == Flag.NO.getCode()
-                    && taskGroupMapper.releaseTaskGroupResource(taskGroup.getId(),
-                            taskGroup.getUseSize(),
-                            thisTaskGroupQueue.getId(),
-                            TaskGroupQueueStatus.ACQUIRE_SUCCESS.getCode()) != 1);
-        } catch (Exception e) {
-            log.error("release the task group error", e);
-            return null;
-        }
-        log.info("Finished to release task group, taskGroupId: {}", taskInstance.getTaskGroupId());
-
-        log.info("Begin to release task group queue, taskGroupId: {}", taskInstance.getTaskGroupId());
-        changeTaskGroupQueueStatus(taskInstance.getId(), TaskGroupQueueStatus.RELEASE);
-        TaskGroupQueue taskGroupQueue;
-        do {
-            taskGroupQueue = this.taskGroupQueueMapper.queryTheHighestPriorityTasks(taskGroup.getId(),
-                    TaskGroupQueueStatus.WAIT_QUEUE.getCode(),
-                    Flag.NO.getCode(),
-                    Flag.NO.getCode());
-            if (taskGroupQueue == null) {
-                log.info("The taskGroupQueue is null, taskGroup: {}", taskGroup.getId());
-                return null;
-            }
-        } while (this.taskGroupQueueMapper.updateInQueueCAS(Flag.NO.getCode(),
-                Flag.YES.getCode(),
-                taskGroupQueue.getId()) != 1);
-        log.info("Finished to release task group queue: taskGroupId: {}, taskGroupQueueId: {}",
-                taskInstance.getTaskGroupId(), taskGroupQueue.getId());
-        return this.taskInstanceMapper.selectById(taskGroupQueue.getTaskId());
-    }
-
     /**
      * release the TGQ resource when the corresponding task is finished.
      *
@@ -2699,6 +2585,10 @@ public class ProcessServiceImpl implements ProcessService {
                 if (failTaskList.size() == 1 && failTaskList.contains(taskInstanceId)) {
                     processInstance.setStateWithDesc(WorkflowExecutionStatus.SUCCESS, "success by task force success");
                     processInstanceDao.updateProcessInstance(processInstance);
+                    if (processInstance.getStartTime() != null) {
+                        instanceStateRollupDao.markBucketsChanged(processInstance.getStartTime(),
+                                processInstance.getStartTime());
+                    }
                 }
             }
         }
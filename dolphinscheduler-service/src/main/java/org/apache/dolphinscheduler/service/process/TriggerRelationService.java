@@ -20,6 +20,8 @@ package org.apache.dolphinscheduler.service.process;
 import org.apache.dolphinscheduler.common.enums.ApiTriggerType;
 import org.apache.dolphinscheduler.dao.entity.TriggerRelation;
 
+import java.util.List;
+
 import org.springframework.stereotype.Component;
 
 /**
@@ -30,6 +32,11 @@ public interface TriggerRelationService {
 
     void saveTriggerToDb(ApiTriggerType type, Long triggerCode, Integer jobId);
 
+    /**
+     * Save the relations between one trigger and a batch of jobs in one JDBC batch
+     */
+    void batchSaveTriggerToDb(ApiTriggerType type, Long triggerCode, List<Integer> jobIds);
+
     TriggerRelation queryByTypeAndJobId(ApiTriggerType apiTriggerType, int jobId);
 
     int saveCommandTrigger(Integer commandId, Integer processInstanceId);
@@ -20,8 +20,14 @@ package org.apache.dolphinscheduler.service.process;
 import org.apache.dolphinscheduler.common.enums.ApiTriggerType;
 import org.apache.dolphinscheduler.dao.entity.TriggerRelation;
 import org.apache.dolphinscheduler.dao.mapper.TriggerRelationMapper;
+import org.apache.dolphinscheduler.dao.utils.BatchExecuteUtils;
 
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -35,15 +41,35 @@ public class TriggerRelationServiceImpl implements TriggerRelationService {
     @Autowired
     private TriggerRelationMapper triggerRelationMapper;
 
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
     @Override
     public void saveTriggerToDb(ApiTriggerType type, Long triggerCode, Integer jobId) {
+        triggerRelationMapper.upsert(newTriggerRelation(type, triggerCode, jobId));
+    }
+
+    @Override
+    public void batchSaveTriggerToDb(ApiTriggerType type, Long triggerCode, List<Integer> jobIds) {
+        if (CollectionUtils.isEmpty(jobIds)) {
+            return;
+        }
+        List<TriggerRelation> triggerRelations = new ArrayList<>(jobIds.size());
+        for (Integer jobId : jobIds) {
+            triggerRelations.add(newTriggerRelation(type, triggerCode, jobId));
+        }
+        BatchExecuteUtils.executeBatch(sqlSessionFactory, TriggerRelationMapper.class, triggerRelations,
+                TriggerRelationMapper::upsert);
+    }
+
+    private TriggerRelation newTriggerRelation(ApiTriggerType type, Long triggerCode, Integer jobId) {
         TriggerRelation triggerRelation = new TriggerRelation();
         triggerRelation.setTriggerType(type.getCode());
         triggerRelation.setJobId(jobId);
         triggerRelation.setTriggerCode(triggerCode);
         triggerRelation.setCreateTime(new Date());
         triggerRelation.setUpdateTime(new Date());
-        triggerRelationMapper.upsert(triggerRelation);
+        return triggerRelation;
     }
     @Override
     public TriggerRelation queryByTypeAndJobId(ApiTriggerType apiTriggerType, int jobId) {
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.dolphinscheduler.service.code;
+
+import org.apache.dolphinscheduler.common.utils.CodeGenerateUtils;
+import org.apache.dolphinscheduler.dao.repository.CodeSegmentDao;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+
+@ExtendWith(MockitoExtension.class)
+class CodeSegmentAllocatorTest {
+
+    @Mock
+    private CodeSegmentDao codeSegmentDao;
+
+    private CodeSegmentAllocator codeSegmentAllocator;
+
+    private final AtomicLong maxCode = new AtomicLong();
+
+    private final Set<String> leaseThreads = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    void before() {
+        Mockito.lenient().when(codeSegmentDao.leaseSegment(Mockito.eq(CodeSegmentAllocator.CODE_SEGMENT_NAME),
+                Mockito.anyInt(), Mockito.anyLong())).thenAnswer(invocation -> {
+                    int size = invocation.getArgument(1);
+                    leaseThreads.add(Thread.currentThread().getName());
+                    return Optional.of(maxCode.getAndAdd(size));
+                });
+        codeSegmentAllocator = new CodeSegmentAllocator(codeSegmentDao);
+        codeSegmentAllocator.init();
+    }
+
+    @AfterEach
+    void after() {
+        codeSegmentAllocator.close();
+    }
+
+    @Test
+    void testAllocateConcurrently() throws InterruptedException {
+        Set<Long> codes = ConcurrentHashMap.newKeySet();
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++) {
+            executorService.execute(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    for (long code : CodeGenerateUtils.getInstance().genCodes(7)) {
+                        codes.add(code);
+                    }
+                }
+            });
+        }
+        executorService.shutdown();
+        Assertions.assertTrue(executorService.awaitTermination(1, TimeUnit.MINUTES));
+
+        Assertions.assertEquals(28000, codes.size());
+        // the segments are only leased when used up
+        Mockito.verify(codeSegmentDao, Mockito.atMost(28000 / CodeSegmentAllocator.SEGMENT_SIZE + 8))
+                .leaseSegment(Mockito.any(), Mockito.anyInt(), Mockito.anyLong());
+    }
+
+    @Test
+    void testPrefetchNextSegment() {
+        int count = CodeSegmentAllocator.SEGMENT_SIZE - CodeSegmentAllocator.LOW_WATER_MARK + 1;
+        Assertions.assertEquals(0, codeSegmentAllocator.allocate(count)[0]);
+        // the next segment is leased once the current one falls below the low-water mark
+        Mockito.verify(codeSegmentDao, Mockito.timeout(5000).times(2))
+                .leaseSegment(Mockito.any(), Mockito.anyInt(), Mockito.anyLong());
+
+        codeSegmentAllocator.allocate(CodeSegmentAllocator.SEGMENT_SIZE - count);
+        Assertions.assertEquals(CodeSegmentAllocator.SEGMENT_SIZE, codeSegmentAllocator.allocate(1)[0]);
+        Mockito.verify(codeSegmentDao, Mockito.times(2))
+                .leaseSegment(Mockito.any(), Mockito.anyInt(), Mockito.anyLong());
+        // the segments are not leased by the caller, which may hold a DB connection
+        Assertions.assertFalse(leaseThreads.contains(Thread.currentThread().getName()));
+    }
+
+    @Test
+    void testAllocateLargerThanSegment() {
+        long[] codes = codeSegmentAllocator.allocate(CodeSegmentAllocator.SEGMENT_SIZE * 3);
+        Assertions.assertEquals(0, codes[0]);
+        Assertions.assertEquals(CodeSegmentAllocator.SEGMENT_SIZE * 3 - 1, codes[codes.length - 1]);
+        Assertions.assertEquals(CodeSegmentAllocator.SEGMENT_SIZE * 3, codeSegmentAllocator.allocate(1)[0]);
+    }
+
+    @Test
+    void testCreateSegment() {
+        Mockito.when(codeSegmentDao.leaseSegment(Mockito.any(), Mockito.anyInt(), Mockito.anyLong()))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(100L));
+        Mockito.doThrow(new DuplicateKeyException("duplicate")).when(codeSegmentDao)
+                .createSegment(CodeSegmentAllocator.CODE_SEGMENT_NAME);
+
+        Assertions.assertEquals(100L, codeSegmentAllocator.allocate(1)[0]);
+        Mockito.verify(codeSegmentDao).createSegment(CodeSegmentAllocator.CODE_SEGMENT_NAME);
+    }
+}
@@ -37,6 +37,8 @@ import org.apache.dolphinscheduler.dao.mapper.ProcessDefinitionMapper;
 import org.apache.dolphinscheduler.dao.mapper.ScheduleMapper;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -217,11 +219,15 @@ class CommandServiceImplTest {
     @Test
     public void testFindCommandPageBySlot() {
         int pageSize = 1;
-        int masterCount = 0;
-        int thisMasterSlot = 2;
+        int slotCount = 4;
         List<Command> commandList =
-                commandService.findCommandPageBySlot(pageSize, masterCount, thisMasterSlot);
+                commandService.findCommandPageBySlot(pageSize, slotCount, Collections.emptyList());
         Assertions.assertEquals(0, commandList.size());
+
+        commandService.findCommandPageBySlot(pageSize, slotCount, Arrays.asList(0, 1, 2, 3));
+        Mockito.verify(commandMapper).queryCommandPage(pageSize, 0);
+        commandService.findCommandPageBySlot(pageSize, slotCount, Arrays.asList(1, 2));
+        Mockito.verify(commandMapper).queryCommandPageBySlot(pageSize, slotCount, Arrays.asList(1, 2));
     }
 
 }
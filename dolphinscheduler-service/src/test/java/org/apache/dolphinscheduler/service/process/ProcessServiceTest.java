@@ -62,11 +62,11 @@ import org.apache.dolphinscheduler.dao.mapper.ResourceMapper;
 import org.apache.dolphinscheduler.dao.mapper.ResourceTaskMapper;
 import org.apache.dolphinscheduler.dao.mapper.TaskDefinitionLogMapper;
 import org.apache.dolphinscheduler.dao.mapper.TaskDefinitionMapper;
-import org.apache.dolphinscheduler.dao.mapper.TaskGroupMapper;
 import org.apache.dolphinscheduler.dao.mapper.TaskGroupQueueMapper;
 import org.apache.dolphinscheduler.dao.mapper.TaskInstanceMapper;
 import org.apache.dolphinscheduler.dao.mapper.TenantMapper;
 import org.apache.dolphinscheduler.dao.mapper.UserMapper;
+import org.apache.dolphinscheduler.dao.repository.InstanceStateRollupDao;
 import org.apache.dolphinscheduler.dao.repository.ProcessInstanceDao;
 import org.apache.dolphinscheduler.dao.repository.TaskDefinitionDao;
 import org.apache.dolphinscheduler.dao.repository.TaskDefinitionLogDao;
@@ -136,6 +136,9 @@ public class ProcessServiceTest {
     @Mock
     private TaskDefinitionDao taskDefinitionDao;
 
+    @Mock
+    private InstanceStateRollupDao instanceStateRollupDao;
+
     @Mock
     private UserMapper userMapper;
     @Mock
@@ -156,8 +159,6 @@ public class ProcessServiceTest {
     @Mock
     private ResourceTaskMapper resourceTaskMapper;
     @Mock
-    private TaskGroupMapper taskGroupMapper;
-    @Mock
     private DataSourceMapper dataSourceMapper;
     @Mock
     private TaskGroupQueueMapper taskGroupQueueMapper;
@@ -738,22 +739,6 @@ public class ProcessServiceTest {
         Assertions.assertNotNull(taskGroupQueue);
     }
 
-    @Test
-    public void testDoRelease() {
-
-        TaskGroupQueue taskGroupQueue = getTaskGroupQueue();
-        TaskInstance taskInstance = new TaskInstance();
-        taskInstance.setId(1);
-        taskInstance.setProcessInstanceId(1);
-        taskInstance.setTaskGroupId(taskGroupQueue.getGroupId());
-
-        Mockito.when(taskGroupQueueMapper.queryByTaskId(1)).thenReturn(taskGroupQueue);
-        Mockito.when(taskGroupQueueMapper.updateById(taskGroupQueue)).thenReturn(1);
-
-        processService.releaseTaskGroup(taskInstance);
-
-    }
-
     @Test
     public void testFindLastManualProcessInterval() {
         long definitionCode = 1L;
@@ -787,17 +772,4 @@ public class ProcessServiceTest {
         result = processService.queryTestDataSourceId(onlineDataSourceId);
         Assertions.assertNotNull(result);
     }
-    private TaskGroupQueue getTaskGroupQueue() {
-        TaskGroupQueue taskGroupQueue = new TaskGroupQueue();
-        taskGroupQueue.setTaskName("task name");
-        taskGroupQueue.setId(1);
-        taskGroupQueue.setGroupId(1);
-        taskGroupQueue.setTaskId(1);
-        taskGroupQueue.setPriority(1);
-        taskGroupQueue.setStatus(TaskGroupQueueStatus.ACQUIRE_SUCCESS);
-        Date date = new Date(System.currentTimeMillis());
-        taskGroupQueue.setUpdateTime(date);
-        taskGroupQueue.setCreateTime(date);
-        return taskGroupQueue;
-    }
 }
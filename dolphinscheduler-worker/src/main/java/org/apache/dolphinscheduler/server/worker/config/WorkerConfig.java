@@ -21,8 +21,11 @@ import static org.apache.dolphinscheduler.common.constants.Constants.REGISTRY_DO
 
 import org.apache.dolphinscheduler.common.utils.NetUtils;
 import org.apache.dolphinscheduler.registry.api.ConnectStrategyProperties;
+import org.apache.dolphinscheduler.remote.command.CommandType;
 
 import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
 
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
@@ -59,6 +62,11 @@ public class WorkerConfig implements Validator {
     private String workerRegistryPath;
 
     private TaskExecuteThreadsFullPolicy taskExecuteThreadsFullPolicy = TaskExecuteThreadsFullPolicy.REJECT;
+    /**
+     * The request timeout of the command types sent by the worker rpc client, e.g. the task result sent to the master
+     * waits at most this timeout to be written, they are not limited by default.
+     */
+    private Map<CommandType, Duration> rpcRequestTimeout = new EnumMap<>(CommandType.class);
 
     @Override
     public boolean supports(Class<?> clazz) {
@@ -74,6 +82,9 @@ public class WorkerConfig implements Validator {
         if (workerConfig.getHeartbeatInterval().getSeconds() <= 0) {
             errors.rejectValue("heartbeat-interval", null, "shoule be a valid duration");
         }
+        if (workerConfig.getRpcRequestTimeout().values().stream().anyMatch(timeout -> timeout.toMillis() <= 0)) {
+            errors.rejectValue("rpc-request-timeout", null, "should be valid durations");
+        }
         if (workerConfig.getMaxCpuLoadAvg() <= 0) {
             workerConfig.setMaxCpuLoadAvg(Runtime.getRuntime().availableProcessors() * 2);
         }
@@ -98,5 +109,6 @@ public class WorkerConfig implements Validator {
         log.info("Worker config: workerAddress -> {}", registryDisconnectStrategy);
         log.info("Worker config: workerRegistryPath: {}", workerRegistryPath);
         log.info("Worker config: taskExecuteThreadsFullPolicy: {}", taskExecuteThreadsFullPolicy);
+        log.info("Worker config: rpcRequestTimeout: {}", rpcRequestTimeout);
     }
 }
@@ -20,7 +20,6 @@ package org.apache.dolphinscheduler.server.worker.processor;
 import static com.google.common.base.Preconditions.checkArgument;
 
 import org.apache.dolphinscheduler.common.utils.DateUtils;
-import org.apache.dolphinscheduler.common.utils.JSONUtils;
 import org.apache.dolphinscheduler.plugin.storage.api.StorageOperate;
 import org.apache.dolphinscheduler.plugin.task.api.TaskExecutionContext;
 import org.apache.dolphinscheduler.plugin.task.api.TaskExecutionContextCacheManager;
@@ -80,7 +79,7 @@ public class TaskDispatchProcessor implements NettyRequestProcessor {
         checkArgument(CommandType.TASK_DISPATCH_REQUEST == command.getType(),
                 String.format("invalid command type : %s", command.getType()));
 
-        TaskDispatchCommand taskDispatchCommand = JSONUtils.parseObject(command.getBody(), TaskDispatchCommand.class);
+        TaskDispatchCommand taskDispatchCommand = command.parseBody(TaskDispatchCommand.class);
 
         if (taskDispatchCommand == null) {
             log.error("task execute request command content is null");
@@ -17,7 +17,6 @@
 
 package org.apache.dolphinscheduler.server.worker.processor;
 
-import org.apache.dolphinscheduler.common.utils.JSONUtils;
 import org.apache.dolphinscheduler.plugin.task.api.utils.LogUtils;
 import org.apache.dolphinscheduler.remote.command.Command;
 import org.apache.dolphinscheduler.remote.command.CommandType;
@@ -48,8 +47,7 @@ public class TaskExecuteResultAckProcessor implements NettyRequestProcessor {
         Preconditions.checkArgument(CommandType.TASK_EXECUTE_RESULT_ACK == command.getType(),
                 String.format("invalid command type : %s", command.getType()));
 
-        TaskExecuteAckCommand taskExecuteAckMessage = JSONUtils.parseObject(command.getBody(),
-                TaskExecuteAckCommand.class);
+        TaskExecuteAckCommand taskExecuteAckMessage = command.parseBody(TaskExecuteAckCommand.class);
 
         if (taskExecuteAckMessage == null) {
             log.error("task execute response ack command is null");
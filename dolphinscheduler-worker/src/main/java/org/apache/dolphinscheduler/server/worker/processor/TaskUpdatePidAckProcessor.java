@@ -17,7 +17,6 @@
 
 package org.apache.dolphinscheduler.server.worker.processor;
 
-import org.apache.dolphinscheduler.common.utils.JSONUtils;
 import org.apache.dolphinscheduler.plugin.task.api.utils.LogUtils;
 import org.apache.dolphinscheduler.remote.command.Command;
 import org.apache.dolphinscheduler.remote.command.CommandType;
@@ -49,8 +48,7 @@ public class TaskUpdatePidAckProcessor implements NettyRequestProcessor {
         Preconditions.checkArgument(CommandType.TASK_UPDATE_PID_ACK == command.getType(),
                 String.format("invalid command type : %s", command.getType()));
 
-        TaskUpdatePidAckMessage updatePidAckCommand = JSONUtils.parseObject(command.getBody(),
-                TaskUpdatePidAckMessage.class);
+        TaskUpdatePidAckMessage updatePidAckCommand = command.parseBody(TaskUpdatePidAckMessage.class);
         if (updatePidAckCommand == null) {
             log.error("task execute update pid ack command is null");
             return;
@@ -23,6 +23,7 @@ import org.apache.dolphinscheduler.remote.command.CommandType;
 import org.apache.dolphinscheduler.remote.config.NettyClientConfig;
 import org.apache.dolphinscheduler.remote.exceptions.RemotingException;
 import org.apache.dolphinscheduler.remote.utils.Host;
+import org.apache.dolphinscheduler.server.worker.config.WorkerConfig;
 import org.apache.dolphinscheduler.server.worker.processor.TaskExecuteResultAckProcessor;
 import org.apache.dolphinscheduler.server.worker.processor.TaskExecuteRunningAckProcessor;
 import org.apache.dolphinscheduler.server.worker.processor.TaskRejectAckProcessor;
@@ -54,11 +55,16 @@ public class WorkerRpcClient implements AutoCloseable {
     @Autowired
     private TaskRejectAckProcessor taskRejectAckProcessor;
 
+    @Autowired
+    private WorkerConfig workerConfig;
+
     private NettyRemotingClient nettyRemotingClient;
 
     public void start() {
         log.info("Worker rpc client starting");
-        NettyClientConfig nettyClientConfig = new NettyClientConfig();
+        NettyClientConfig nettyClientConfig = NettyClientConfig.builder()
+                .requestTimeoutMillis(NettyClientConfig.requestTimeoutMillisOf(workerConfig.getRpcRequestTimeout()))
+                .build();
         this.nettyRemotingClient = new NettyRemotingClient(nettyClientConfig);
         // we only use the client to handle the ack message, we can optimize this, send ack to the nettyServer.
         this.nettyRemotingClient.registerProcessor(CommandType.TASK_EXECUTE_RUNNING_ACK,